@@ -6,14 +6,21 @@ import aston.hw2.mapper.GroupMapper;
 import aston.hw2.mapper.StudentMapper;
 import aston.hw2.repository.*;
 import aston.hw2.service.*;
+import aston.hw2.servlet.AsyncServletSettings;
+import aston.hw2.util.BlockingTaskExecutors;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.Objects;
+import java.util.concurrent.Executor;
 
 public class ProductionObjectContainerBuilder extends AbstractObjectContainerBuilder {
 
+    private static final int DEFAULT_POOL_MAX_SIZE = 20;
+
     @Override
     protected void configure() {
         final ObjectMapper objectMapper = Objects.requireNonNullElseGet(get(ObjectMapper.class), () -> {
@@ -28,27 +35,86 @@ public class ProductionObjectContainerBuilder extends AbstractObjectContainerBui
         final StudentMapper studentMapper = Objects.requireNonNullElseGet(get(StudentMapper.class), StudentMapper::new);
         final CuratorMapper curatorMapper = Objects.requireNonNullElseGet(get(CuratorMapper.class), CuratorMapper::new);
 
+        // реплики для чтения перечисляются через запятую в DB_REPLICA_URLS; без реплик все запросы идут в основную базу данных
         final JdbcConnectionFactory jdbcConnectionFactory = Objects.requireNonNullElseGet(get(JdbcConnectionFactory.class),
-                () -> new JdbcConnectionFactory("org.postgresql.Driver", "jdbc:postgresql://db:5432/aston_hw2_db", "user", "pass"));
+                () -> {
+                    JdbcConnectionFactory primary = createConnectionPool("jdbc:postgresql://db:5432/aston_hw2_db");
+                    String replicaUrls = System.getenv("DB_REPLICA_URLS");
+                    if (replicaUrls == null || replicaUrls.isBlank()) {
+                        return primary;
+                    }
+
+                    RoutingJdbcConnectionFactory routing = new RoutingJdbcConnectionFactory(primary,
+                            Arrays.stream(replicaUrls.split(","))
+                                    .map(String::strip)
+                                    .filter(url -> !url.isEmpty())
+                                    .map(ProductionObjectContainerBuilder::createConnectionPool)
+                                    .toList());
+                    routing.setReadYourWrites(true);
+                    return routing;
+                });
+
+        final JdbcSchemaMigrator schemaMigrator = Objects.requireNonNullElseGet(get(JdbcSchemaMigrator.class),
+                () -> new JdbcSchemaMigrator(jdbcConnectionFactory));
 
         final GroupRepository groupRepository = Objects.requireNonNullElseGet(get(GroupRepository.class),
-                () -> new JdbcGroupRepository(jdbcConnectionFactory));
+                () -> {
+                    JdbcGroupRepository repository = new JdbcGroupRepository(jdbcConnectionFactory);
+                    repository.setLazyLoading(true);
+                    return repository;
+                });
 
         final StudentRepository studentRepository = Objects.requireNonNullElseGet(get(StudentRepository.class),
-                () -> new JdbcStudentRepository(jdbcConnectionFactory, groupRepository));
+                () -> {
+                    JdbcStudentRepository repository = new JdbcStudentRepository(jdbcConnectionFactory, groupRepository);
+                    repository.setLazyLoading(true);
+                    return repository;
+                });
 
         final CuratorRepository curatorRepository = Objects.requireNonNullElseGet(get(CuratorRepository.class),
-                () -> new JdbcCuratorRepository(jdbcConnectionFactory, groupRepository));
+                () -> {
+                    JdbcCuratorRepository repository = new JdbcCuratorRepository(jdbcConnectionFactory, groupRepository);
+                    repository.setLazyLoading(true);
+                    return repository;
+                });
+
+        // JDBC блокирует поток на время запроса, поэтому асинхронные операции сервисов выполняются в виртуальных потоках; исполнитель останавливается при закрытии контейнера
+        // без виртуальных потоков исполнители ограничены размером пула подключений
+        final Executor executor = Objects.requireNonNullElseGet(get(Executor.class),
+                () -> BlockingTaskExecutors.newExecutor("service-async", poolMaxSize()));
+        // задачи сервисов читают собственные изменения вместе с потоком HTTP-запроса, передавшим их
+        final Executor serviceExecutor = jdbcConnectionFactory instanceof RoutingJdbcConnectionFactory routing
+                ? routing.readYourWritesExecutor(executor)
+                : executor;
+
+        // сервлеты обрабатывают запросы в отдельном исполнителе; время обработки задается в секундах в REQUEST_TIMEOUT_SECONDS
+        final AsyncServletSettings asyncServletSettings = Objects.requireNonNullElseGet(get(AsyncServletSettings.class),
+                () -> {
+                    AsyncServletSettings.AsyncServletSettingsBuilder settings = AsyncServletSettings.builder()
+                            .executor(BlockingTaskExecutors.newExecutor("servlet-async", poolMaxSize()));
+                    String timeout = System.getenv("REQUEST_TIMEOUT_SECONDS");
+                    if (timeout != null && !timeout.isBlank()) {
+                        settings.timeout(Duration.ofSeconds(Long.parseLong(timeout.strip())));
+                    }
+                    return settings.build();
+                });
+
+        final TransactionManager transactionManager = Objects.requireNonNullElseGet(get(TransactionManager.class),
+                () -> new JdbcTransactionManager(jdbcConnectionFactory));
 
         final GroupService groupService = Objects.requireNonNullElseGet(get(GroupService.class),
-                () -> new DefaultGroupService(groupRepository, curatorRepository, studentRepository));
+                () -> new DefaultGroupService(groupRepository, curatorRepository, studentRepository, transactionManager, serviceExecutor));
 
         final StudentService studentService = Objects.requireNonNullElseGet(get(StudentService.class),
-                () -> new DefaultStudentService(studentRepository, groupRepository));
+                () -> new DefaultStudentService(studentRepository, transactionManager, serviceExecutor));
 
         final CuratorService curatorService = Objects.requireNonNullElseGet(get(CuratorService.class),
-                () -> new DefaultCuratorService(curatorRepository, groupRepository));
+                () -> new DefaultCuratorService(curatorRepository, transactionManager, serviceExecutor));
 
+        add(jdbcConnectionFactory, JdbcConnectionFactory.class);
+        add(executor, Executor.class);
+        add(asyncServletSettings, AsyncServletSettings.class);
+        add(schemaMigrator, JdbcSchemaMigrator.class);
         add(objectMapper, ObjectMapper.class);
         add(groupService, GroupService.class);
         add(curatorService, CuratorService.class);
@@ -58,4 +124,21 @@ public class ProductionObjectContainerBuilder extends AbstractObjectContainerBui
         add(studentMapper, StudentMapper.class);
     }
 
+    private static JdbcConnectionFactory createConnectionPool(String url) {
+        return new JdbcConnectionPool("org.postgresql.Driver", url, "user", "pass",
+                JdbcConnectionPool.Settings.builder()
+                        .maxSize(poolMaxSize())
+                        .waitTimeout(Duration.ofSeconds(10))
+                        .build());
+    }
+
+    // размер пула подключений задается в DB_POOL_MAX_SIZE
+    private static int poolMaxSize() {
+        String maxSize = System.getenv("DB_POOL_MAX_SIZE");
+        if (maxSize == null || maxSize.isBlank()) {
+            return DEFAULT_POOL_MAX_SIZE;
+        }
+        return Integer.parseInt(maxSize.strip());
+    }
+
 }
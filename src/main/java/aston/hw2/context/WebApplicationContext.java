@@ -1,13 +1,17 @@
 package aston.hw2.context;
 
 import aston.hw2.configuration.ProductionObjectContainerBuilder;
+import aston.hw2.repository.JdbcSchemaMigrator;
 import jakarta.servlet.ServletContextEvent;
 import jakarta.servlet.ServletContextListener;
 import jakarta.servlet.annotation.WebListener;
 import lombok.Setter;
 
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Set;
 
 @WebListener("WebApplicationContext")
 public class WebApplicationContext implements ServletContextListener {
@@ -17,12 +21,46 @@ public class WebApplicationContext implements ServletContextListener {
     @Setter
     private ObjectContainerBuilder objectContainerBuilder = new ProductionObjectContainerBuilder();
 
+    /**
+     * Создает объекты контейнера и, если контейнер содержит {@link JdbcSchemaMigrator},
+     * приводит схему базы данных к последней версии до обработки первого запроса.
+     */
     @Override
     public void contextInitialized(ServletContextEvent sce) {
         container = objectContainerBuilder.build();
+        if (container.get(JdbcSchemaMigrator.class) instanceof JdbcSchemaMigrator schemaMigrator) {
+            int version = schemaMigrator.migrate();
+            sce.getServletContext().log("Database schema is at version " + version);
+        }
         sce.getServletContext().setAttribute(WebApplicationContext.class.getName(), this);
     }
 
+    /**
+     * Закрывает все объекты контейнера, реализующие {@link AutoCloseable}, например пул подключений к базе данных
+     * и исполнители асинхронных операций.
+     * Объект, зарегистрированный под несколькими классами, закрывается один раз.
+     */
+    @Override
+    public void contextDestroyed(ServletContextEvent sce) {
+        if (container == null) {
+            return;
+        }
+
+        Set<Object> closed = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Object object : container.values()) {
+            if (object instanceof AutoCloseable closeable && closed.add(object)) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    sce.getServletContext().log("Failed to close " + object.getClass().getName(), e);
+                }
+            }
+        }
+
+        sce.getServletContext().removeAttribute(WebApplicationContext.class.getName());
+        container = null;
+    }
+
     @SuppressWarnings("unchecked")
     public <T> T getObject(Class<T> clazz) {
         if (clazz == null) {
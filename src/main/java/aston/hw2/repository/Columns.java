@@ -0,0 +1,61 @@
+package aston.hw2.repository;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Индексы столбцов результата запроса по их меткам, прочитанные из метаданных результата один раз.
+ *
+ * Метки сравниваются без учета регистра, поскольку СУБД по-разному приводят регистр псевдонимов без кавычек.
+ * Отсутствующий столбец имеет индекс 0, поэтому проверка наличия столбца не требует обработки исключений.
+ *
+ * @author Максим Яськов
+ * @see RowMappers
+ */
+final class Columns {
+
+    private final Map<String, Integer> indexes;
+
+    private Columns(Map<String, Integer> indexes) {
+        this.indexes = indexes;
+    }
+
+    /**
+     * Читает метки столбцов результата запроса.
+     *
+     * @param rs результат запроса
+     * @return индексы столбцов результата
+     */
+    static Columns of(ResultSet rs) throws SQLException {
+        ResultSetMetaData metaData = rs.getMetaData();
+        int count = metaData.getColumnCount();
+
+        Map<String, Integer> indexes = new HashMap<>(count * 2);
+        for (int i = 1; i <= count; i++) {
+            indexes.putIfAbsent(metaData.getColumnLabel(i).toLowerCase(Locale.ROOT), i);
+        }
+
+        return new Columns(indexes);
+    }
+
+    /**
+     * Возвращает число столбцов результата.
+     */
+    int size() {
+        return indexes.size();
+    }
+
+    /**
+     * Возвращает индекс столбца по метке.
+     *
+     * @param label метка столбца
+     * @return индекс столбца, начиная с 1, или 0, если результат не содержит столбца
+     */
+    int indexOf(String label) {
+        return indexes.getOrDefault(label.toLowerCase(Locale.ROOT), 0);
+    }
+}
@@ -1,5 +1,10 @@
 package aston.hw2.repository;
 
+import java.io.Writer;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.stream.Stream;
 
 /**
@@ -14,9 +19,12 @@ import java.util.stream.Stream;
 public interface CrudRepository<E,ID> extends Repository<E,ID> {
 
     /**
-     * Возвращает коллекцию всех сущностей.
+     * Возвращает поток всех сущностей.
      *
-     * @return коллекцию всех сущностей, всегда не null
+     * Поток может быть ленивым и удерживать ресурсы хранилища, пока не будет прочитан до конца,
+     * поэтому вызывающая сторона должна закрыть его, например в try-with-resources.
+     *
+     * @return поток всех сущностей, всегда не null
      */
     Stream<E> findAll();
 
@@ -29,12 +37,66 @@ public interface CrudRepository<E,ID> extends Repository<E,ID> {
      */
     E findById(ID id);
 
+    /**
+     * Возвращает сущности с указанными идентификаторами, прочитанные одним запросом.
+     * Сущности с несуществующими идентификаторами пропускаются, повторяющиеся идентификаторы не дублируют сущности.
+     *
+     * @param ids идентификаторы сущностей
+     * @return найденные сущности, упорядоченные по возрастанию идентификатора, всегда не null
+     * @throws IllegalArgumentException если коллекция идентификаторов или один из идентификаторов равен null
+     */
+    List<E> findAllById(Collection<ID> ids);
+
+    /**
+     * Проверяет существование сущности по идентификатору, не загружая ее.
+     *
+     * @param id идентификатор сущности
+     * @return true, если сущность с указанным идентификатором существует
+     * @throws IllegalArgumentException если идентификатор равен null
+     */
+    boolean existsById(ID id);
+
+    /**
+     * Возвращает страницу сущностей с идентификаторами больше указанного, упорядоченных по возрастанию идентификатора.
+     * Объем чтения ограничен размером страницы и не зависит от числа сущностей в хранилище.
+     *
+     * @param afterId курсор: идентификатор, после которого начинается страница, или null для первой страницы
+     * @param limit максимальное число сущностей на странице
+     * @return страница сущностей с курсором следующей страницы, всегда не null
+     * @throws IllegalArgumentException если размер страницы не положителен
+     */
+    Page<E, ID> findPage(ID afterId, int limit);
+
+    /**
+     * Записывает все сущности в указанном формате одним проходом по хранилищу, упорядоченные по возрастанию идентификатора.
+     * Сущности записываются плоскими строками без связанных сущностей, связь представлена идентификатором.
+     * Сущности не накапливаются в памяти, поэтому объем памяти не зависит от числа сущностей.
+     *
+     * @param format формат выгрузки
+     * @param writer получатель выгрузки; не закрывается
+     * @return число выгруженных сущностей
+     * @throws IllegalArgumentException если формат или получатель равен null
+     * @throws java.io.UncheckedIOException если запись в получатель не удалась
+     */
+    long exportAll(ExportFormat format, Writer writer);
+
+    /**
+     * Удаляет сущность по идентификатору одним запросом, не загружая ее.
+     * Связи других сущностей с удаляемой разрываются хранилищем.
+     *
+     * @param id идентификатор сущности
+     * @return true, если сущность с указанным идентификатором существовала и удалена
+     * @throws IllegalArgumentException если идентификатор равен null
+     */
+    boolean deleteById(ID id);
+
     /**
      * Удаляет сущность по идентификатору.
      *
      * @param id идентификатор сущности
      * @return удаленная сущность или null, если сущность по указанному id не найдена
      * @throws IllegalArgumentException если идентификатор равен null
+     * @see #deleteById(Object)
      */
     E removeById(ID id);
 
@@ -47,4 +109,64 @@ public interface CrudRepository<E,ID> extends Repository<E,ID> {
      */
     E save(E entity);
 
+    /**
+     * Асинхронно выполняет {@link #findById(Object)} указанным исполнителем.
+     *
+     * Асинхронные варианты операций выполняются вне транзакции, открытой в вызывающем потоке,
+     * поэтому независимые чтения можно выполнять одновременно, но не внутри одной транзакции.
+     * Ошибка операции завершает результат исключительно.
+     *
+     * @param id идентификатор сущности
+     * @param executor исполнитель, например {@link aston.hw2.util.BlockingTaskExecutors#newExecutor(String, int)}
+     * @return сущность с указанным идентификатором или null, если сущность не найдена
+     */
+    default CompletableFuture<E> findByIdAsync(ID id, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> findById(id), executor);
+    }
+
+    /**
+     * Асинхронно выполняет {@link #findAllById(Collection)} указанным исполнителем.
+     *
+     * @see #findByIdAsync(Object, Executor)
+     */
+    default CompletableFuture<List<E>> findAllByIdAsync(Collection<ID> ids, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> findAllById(ids), executor);
+    }
+
+    /**
+     * Асинхронно выполняет {@link #existsById(Object)} указанным исполнителем.
+     *
+     * @see #findByIdAsync(Object, Executor)
+     */
+    default CompletableFuture<Boolean> existsByIdAsync(ID id, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> existsById(id), executor);
+    }
+
+    /**
+     * Асинхронно выполняет {@link #findPage(Object, int)} указанным исполнителем.
+     *
+     * @see #findByIdAsync(Object, Executor)
+     */
+    default CompletableFuture<Page<E, ID>> findPageAsync(ID afterId, int limit, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> findPage(afterId, limit), executor);
+    }
+
+    /**
+     * Асинхронно выполняет {@link #deleteById(Object)} указанным исполнителем.
+     *
+     * @see #findByIdAsync(Object, Executor)
+     */
+    default CompletableFuture<Boolean> deleteByIdAsync(ID id, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> deleteById(id), executor);
+    }
+
+    /**
+     * Асинхронно выполняет {@link #save(Object)} указанным исполнителем.
+     *
+     * @see #findByIdAsync(Object, Executor)
+     */
+    default CompletableFuture<E> saveAsync(E entity, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> save(entity), executor);
+    }
+
 }
@@ -11,4 +11,48 @@ import aston.hw2.entity.Curator;
  */
 public interface CuratorRepository extends CrudRepository<Curator, Integer> {
 
+    /**
+     * Привязывает куратора к группе, не загружая ни куратора, ни группу.
+     * Прежний куратор группы отвязывается от нее.
+     *
+     * @param curatorId идентификатор куратора
+     * @param groupId идентификатор группы
+     * @return true, если куратор привязан; false, если куратор или группа не найдены
+     */
+    boolean assignGroup(int curatorId, int groupId);
+
+    /**
+     * Возвращает куратора группы одним запросом к таблице кураторов, не загружая группу.
+     * Группа возвращенного куратора не установлена.
+     *
+     * @param groupId идентификатор группы
+     * @return куратор группы или null, если у группы нет куратора или группа не найдена
+     */
+    Curator findByGroupId(int groupId);
+
+    /**
+     * Возвращает куратора вместе с полностью загруженной группой: ее студентами.
+     * В отличие от {@link #findById(Object)}, стоимость запроса растет с размером группы.
+     *
+     * @param id идентификатор куратора
+     * @return куратор с указанным идентификатором или null, если куратор не найден
+     */
+    Curator findWithGroupById(int id);
+
+    /**
+     * Отвязывает куратора от его группы одним запросом.
+     *
+     * @param curatorId идентификатор куратора
+     * @return true, если куратор найден
+     */
+    boolean unassignGroup(int curatorId);
+
+    /**
+     * Отвязывает куратора от указанной группы одним запросом.
+     *
+     * @param groupId идентификатор группы
+     * @return true, если у группы был куратор и он отвязан
+     */
+    boolean unassignByGroupId(int groupId);
+
 }
@@ -0,0 +1,121 @@
+package aston.hw2.repository;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Формат выгрузки сущностей: одна строка текста на сущность.
+ *
+ * Значения записываются по их строковому представлению: даты - в формате yyyy-MM-dd,
+ * отсутствующие значения - как пустое значение CSV или null в JSON.
+ *
+ * @author Максим Яськов
+ * @see CrudRepository#exportAll(ExportFormat, Writer)
+ */
+public enum ExportFormat {
+
+    /**
+     * CSV с заголовком из имен столбцов, совместимый с COPY PostgreSQL: строковое значение заключается
+     * в двойные кавычки, если оно пусто или содержит запятую, кавычку или перевод строки.
+     */
+    CSV {
+        @Override
+        void writeHeader(Writer writer, List<String> columns) throws IOException {
+            writer.write(String.join(",", columns));
+            writer.write('\n');
+        }
+
+        @Override
+        void writeRow(Writer writer, List<String> columns, Object[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                if (values[i] instanceof String s && needsQuotes(s)) {
+                    writer.write('"');
+                    writer.write(s.replace("\"", "\"\""));
+                    writer.write('"');
+                } else if (values[i] != null) {
+                    writer.write(values[i].toString());
+                }
+            }
+            writer.write('\n');
+        }
+    },
+
+    /**
+     * NDJSON: JSON-объект на строку, ключи объекта - имена столбцов.
+     */
+    NDJSON {
+        @Override
+        void writeHeader(Writer writer, List<String> columns) {
+        }
+
+        @Override
+        void writeRow(Writer writer, List<String> columns, Object[] values) throws IOException {
+            writer.write('{');
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writeJsonString(writer, columns.get(i));
+                writer.write(':');
+                if (values[i] == null) {
+                    writer.write("null");
+                } else if (values[i] instanceof Number) {
+                    writer.write(values[i].toString());
+                } else {
+                    writeJsonString(writer, values[i].toString());
+                }
+            }
+            writer.write("}\n");
+        }
+    };
+
+    /**
+     * Записывает строку заголовка, если формат ее предусматривает.
+     */
+    abstract void writeHeader(Writer writer, List<String> columns) throws IOException;
+
+    /**
+     * Записывает строку со значениями столбцов в порядке имен столбцов.
+     */
+    abstract void writeRow(Writer writer, List<String> columns, Object[] values) throws IOException;
+
+    private static boolean needsQuotes(String value) {
+        if (value.isEmpty()) {
+            return true;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            if (ch == ',' || ch == '"' || ch == '\n' || ch == '\r') {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static void writeJsonString(Writer writer, String value) throws IOException {
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            switch (ch) {
+                case '"' -> writer.write("\\\"");
+                case '\\' -> writer.write("\\\\");
+                case '\n' -> writer.write("\\n");
+                case '\r' -> writer.write("\\r");
+                case '\t' -> writer.write("\\t");
+                default -> {
+                    if (ch < 0x20) {
+                        writer.write("\\u%04x".formatted((int) ch));
+                    } else {
+                        writer.write(ch);
+                    }
+                }
+            }
+        }
+        writer.write('"');
+    }
+}
@@ -2,6 +2,9 @@ package aston.hw2.repository;
 
 import aston.hw2.entity.Group;
 
+import java.util.Collection;
+import java.util.List;
+
 /**
  * Репозиторий групп.
  *
@@ -11,6 +14,15 @@ import aston.hw2.entity.Group;
  */
 public interface GroupRepository extends CrudRepository<Group, Integer> {
 
+    /**
+     * Проверяет, занято ли имя группы, не загружая группу.
+     *
+     * @param name уникальное имя
+     * @return true, если группа с указанным именем существует
+     * @throws IllegalArgumentException если имя равно null
+     */
+    boolean existsByName(String name);
+
     /**
      * Возвращает группу по уникальному имени.
      *
@@ -19,4 +31,40 @@ public interface GroupRepository extends CrudRepository<Group, Integer> {
      */
     Group findByName(String name);
 
+    /**
+     * Возвращает идентификатор группы по уникальному имени, не загружая группу.
+     *
+     * @param name уникальное имя
+     * @return идентификатор группы с указанным именем или null, если группа не найдена
+     * @throws IllegalArgumentException если имя равно null
+     */
+    Integer findIdByName(String name);
+
+    /**
+     * Возвращает собственные свойства группы - идентификатор, имя и дату выпуска - без куратора и студентов.
+     *
+     * @param id идентификатор группы
+     * @return ссылка на группу с указанным идентификатором или null, если группа не найдена
+     */
+    Group findSummaryById(int id);
+
+    /**
+     * Возвращает страницу групп, как {@link #findPage(Object, int)}, но без кураторов и студентов.
+     *
+     * @param afterId курсор: идентификатор, после которого начинается страница, или null для первой страницы
+     * @param limit максимальное число групп на странице
+     * @return страница ссылок на группы, всегда не null
+     * @throws IllegalArgumentException если размер страницы не положителен
+     */
+    Page<Group, Integer> findSummaryPage(Integer afterId, int limit);
+
+    /**
+     * Возвращает группы с указанными идентификаторами, как {@link #findAllById(Collection)}, но без кураторов и студентов.
+     *
+     * @param ids идентификаторы групп
+     * @return ссылки на найденные группы, упорядоченные по возрастанию идентификатора, всегда не null
+     * @throws IllegalArgumentException если коллекция идентификаторов или один из идентификаторов равен null
+     */
+    List<Group> findSummariesByIds(Collection<Integer> ids);
+
 }
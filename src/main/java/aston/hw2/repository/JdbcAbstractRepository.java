@@ -1,7 +1,23 @@
 package aston.hw2.repository;
 
+import org.postgresql.PGConnection;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Базовый класс для jdbc-репозиториев.
@@ -11,8 +27,30 @@ import java.sql.SQLException;
  */
 public abstract class JdbcAbstractRepository<E, ID> implements Repository<E, ID> {
 
+    /**
+     * Число строк, получаемых из курсора за одно обращение к базе данных, по умолчанию.
+     */
+    public static final int DEFAULT_FETCH_SIZE = 100;
+
+    /**
+     * Число строк, отправляемых в базу данных одним пакетом, по умолчанию.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 100;
+
+    /**
+     * Число попыток прочитать сущность вместе с полностью загруженной группой, если между чтениями
+     * сущность перешла в другую группу.
+     */
+    protected static final int FIND_WITH_GROUP_ATTEMPTS = 3;
+
     private final JdbcConnectionFactory jdbcConnectionFactory;
 
+    private int fetchSize = DEFAULT_FETCH_SIZE;
+
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    private boolean lazyLoading;
+
     public JdbcAbstractRepository(JdbcConnectionFactory jdbcConnectionFactory) {
         if (jdbcConnectionFactory == null) {
             throw new IllegalArgumentException("An jdbcConnectionFactory must not be null");
@@ -21,6 +59,63 @@ public abstract class JdbcAbstractRepository<E, ID> implements Repository<E, ID>
         this.jdbcConnectionFactory = jdbcConnectionFactory;
     }
 
+    /**
+     * Устанавливает число строк, получаемых из курсора за одно обращение к базе данных при потоковом чтении.
+     *
+     * @param fetchSize положительное число строк
+     * @throws IllegalArgumentException если число строк не положительно
+     * @see #useConnectionForStream(SQLQuery)
+     */
+    public void setFetchSize(int fetchSize) {
+        if (fetchSize < 1) {
+            throw new IllegalArgumentException("A fetchSize must be positive");
+        }
+
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Устанавливает число строк, отправляемых в базу данных одним пакетом при каскадной вставке и обновлении.
+     *
+     * @param batchSize положительное число строк
+     * @throws IllegalArgumentException если число строк не положительно
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("A batchSize must be positive");
+        }
+
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Включает ленивую загрузку связей: связанные сущности читаются из базы данных при первом обращении к ним,
+     * а не вместе с сущностью. По умолчанию связи загружаются сразу.
+     *
+     * @param lazyLoading true, чтобы загружать связи при первом обращении
+     */
+    public void setLazyLoading(boolean lazyLoading) {
+        this.lazyLoading = lazyLoading;
+    }
+
+    /**
+     * Проверяет, загружаются ли связи при первом обращении к ним.
+     *
+     * @return true, если включена ленивая загрузка связей
+     */
+    protected boolean isLazyLoading() {
+        return lazyLoading;
+    }
+
+    /**
+     * Возвращает число строк, отправляемых в базу данных одним пакетом.
+     *
+     * @return положительное число строк
+     */
+    protected int getBatchSize() {
+        return batchSize;
+    }
+
     /**
      * Проверяет идентификатор на null.
      *
@@ -33,6 +128,55 @@ public abstract class JdbcAbstractRepository<E, ID> implements Repository<E, ID>
         }
     }
 
+    /**
+     * Проверяет идентификаторы на null и возвращает их без повторов как значение параметра-массива запроса.
+     *
+     * @param ids проверяемые идентификаторы
+     * @return идентификаторы без повторов в порядке следования
+     * @throws IllegalArgumentException если коллекция или один из идентификаторов равен null
+     * @see ParameterBinder#integerArray()
+     */
+    protected int[] toIdArray(Collection<Integer> ids) {
+        if (ids == null) {
+            throw new IllegalArgumentException("An ids must not be null");
+        }
+
+        int[] array = new int[ids.size()];
+        int i = 0;
+        for (Integer id : ids) {
+            if (id == null) {
+                throw new IllegalArgumentException("An id must not be null");
+            }
+            array[i++] = id;
+        }
+
+        return Arrays.stream(array).distinct().toArray();
+    }
+
+    /**
+     * Проверяет размер страницы.
+     *
+     * @param limit проверяемый размер страницы
+     * @throws IllegalArgumentException если размер страницы не положителен
+     */
+    protected void checkLimit(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("A limit must be positive");
+        }
+    }
+
+    /**
+     * Возвращает число сущностей, читаемых для страницы: на одну больше размера страницы,
+     * чтобы определить, есть ли следующая страница.
+     *
+     * @param limit размер страницы
+     * @return число читаемых сущностей
+     * @see Page#of(java.util.List, int, java.util.function.Function)
+     */
+    protected int lookaheadLimit(int limit) {
+        return limit < Integer.MAX_VALUE ? limit + 1 : limit;
+    }
+
     /**
      * Проверяет сущность на null.
      *
@@ -48,28 +192,55 @@ public abstract class JdbcAbstractRepository<E, ID> implements Repository<E, ID>
     /**
      * Выполняет переданный {@link ConnectionConsumer}.
      * Предназначена для инкапсуляции создания или получения экземпляра {@link Connection}.
+     * Если в текущем потоке открыта транзакция, используется её подключение.
      *
      * @param connectionConsumer потребитель подключения
      */
     protected void useConnection(ConnectionConsumer connectionConsumer) {
-        try (Connection connection = jdbcConnectionFactory.createConnection()) {
+        useConnection((ConnectionFunction<Object>) connection -> {
             connectionConsumer.accept(connection);
-        } catch (SQLException e) {
-            handleSQLException(e);
-        }
+            return null;
+        });
     }
 
     /**
      * Выполняет переданную {@link ConnectionFunction} и возвращает её результат.
      * Предназначена для инкапсуляции создания или получения экземпляра {@link Connection}.
+     * Если в текущем потоке открыта транзакция, используется её подключение.
      *
      * @param connectionFunction потребитель подключения
      * @return возвращает результат выполнения переданной функции {@link ConnectionFunction}
      */
     protected <T> T useConnection(ConnectionFunction<T> connectionFunction) {
+        return useConnection(connectionFunction, false);
+    }
+
+    /**
+     * Выполняет переданную {@link ConnectionFunction}, которая только читает данные, и возвращает её результат.
+     * Вне транзакции подключение берется из {@link JdbcConnectionFactory#createReadOnlyConnection()}
+     * и может быть подключением к реплике.
+     * Если в текущем потоке открыта транзакция, используется её подключение.
+     *
+     * @param connectionFunction потребитель подключения, не изменяющий данные
+     * @return возвращает результат выполнения переданной функции {@link ConnectionFunction}
+     */
+    protected <T> T useReadOnlyConnection(ConnectionFunction<T> connectionFunction) {
+        return useConnection(connectionFunction, true);
+    }
+
+    private <T> T useConnection(ConnectionFunction<T> connectionFunction, boolean readOnly) {
         T returnValue = null;
-        try (Connection connection = jdbcConnectionFactory.createConnection()) {
-            returnValue = connectionFunction.apply(connection);
+        try {
+            Connection transactionConnection = jdbcConnectionFactory.getTransactionConnection();
+            if (transactionConnection != null) {
+                returnValue = connectionFunction.apply(transactionConnection);
+            } else {
+                try (Connection connection = readOnly
+                        ? jdbcConnectionFactory.createReadOnlyConnection()
+                        : jdbcConnectionFactory.createConnection()) {
+                    returnValue = connectionFunction.apply(connection);
+                }
+            }
         } catch (SQLException e) {
             handleSQLException(e);
         }
@@ -77,6 +248,151 @@ public abstract class JdbcAbstractRepository<E, ID> implements Repository<E, ID>
         return returnValue;
     }
 
+    /**
+     * Выполняет изменяющий запрос с целочисленными параметрами.
+     *
+     * @param query запрос
+     * @param parameters значения параметров запроса в порядке следования
+     * @return число измененных строк
+     */
+    protected int executeUpdate(SQLQuery<int[], ?> query, int... parameters) {
+        return useConnection(connection -> {
+            return query.update(connection, parameters);
+        });
+    }
+
+    /**
+     * Выполняет запрос на подключении для чтения и проверяет, вернул ли он хотя бы одну строку.
+     *
+     * @param query запрос
+     * @param parameters значения параметров запроса
+     * @return true, если запрос вернул хотя бы одну строку
+     */
+    protected <P> boolean executeExists(SQLQuery<P, ?> query, P parameters) {
+        return useReadOnlyConnection(connection -> {
+            return query.exists(connection, parameters);
+        });
+    }
+
+    /**
+     * Выполняет запрос и читает первый элемент результата на подключении для чтения.
+     *
+     * @param query запрос
+     * @param parameters значения параметров запроса
+     * @return первый элемент или null, если результат пуст
+     */
+    protected <P, T> T queryFirst(SQLQuery<P, T> query, P parameters) {
+        return useReadOnlyConnection(connection -> {
+            return query.first(connection, parameters);
+        });
+    }
+
+    /**
+     * Выполняет запрос и читает все элементы результата на подключении для чтения.
+     *
+     * @param query запрос
+     * @param parameters значения параметров запроса
+     * @return элементы в порядке результата
+     */
+    protected <P, T> List<T> queryList(SQLQuery<P, T> query, P parameters) {
+        return useReadOnlyConnection(connection -> {
+            return query.list(connection, parameters);
+        });
+    }
+
+    /**
+     * Возвращает ленивый поток, читающий результат запроса через курсор только вперед.
+     *
+     * Подключение для чтения берется при чтении первого элемента и удерживается потоком до исчерпания курсора
+     * или до вызова {@link Stream#close()}, который освобождает результат, запрос и подключение.
+     * Если при чтении первого элемента в потоке открыта транзакция, курсор открывается на её подключении,
+     * которое остается открытым после закрытия потока.
+     * Строки читаются порциями по {@link #setFetchSize(int) fetchSize} и преобразуются по мере потребления,
+     * поэтому поток следует закрывать, если он прочитан не до конца.
+     *
+     * Выполнение учитывается в статистике запроса при закрытии потока.
+     *
+     * @param query запрос без параметров
+     * @return ленивый поток элементов, всегда не null
+     */
+    protected <T> Stream<T> useConnectionForStream(SQLQuery<Void, T> query) {
+        CursorSpliterator<T> spliterator = new CursorSpliterator<>(query);
+        return StreamSupport.stream(spliterator, false).onClose(spliterator::close);
+    }
+
+    /**
+     * Записывает результат запроса выгрузки в указанном формате.
+     *
+     * Для CSV на подключении к PostgreSQL запрос выполняется командой COPY ... TO STDOUT,
+     * и строки передаются в получатель сервером без преобразования в объекты Java.
+     * В остальных случаях результат читается курсором, как в {@link #useConnectionForStream(SQLQuery)},
+     * и каждая строка записывается сразу после чтения. Проверка подключения и выгрузка выполняются
+     * на одном подключении для чтения.
+     *
+     * @param query запрос выгрузки без параметров, столбцы которого названы по columns
+     * @param columns имена столбцов результата в порядке следования
+     * @param format формат выгрузки
+     * @param writer получатель выгрузки
+     * @return число выгруженных строк
+     */
+    protected long exportAll(SQLQuery<Void, Object[]> query, List<String> columns, ExportFormat format, Writer writer) {
+        if (format == null) {
+            throw new IllegalArgumentException("A format must not be null");
+        }
+        if (writer == null) {
+            throw new IllegalArgumentException("A writer must not be null");
+        }
+
+        // выгрузка целиком выполняется на одном подключении, поэтому проверка и чтение не уходят на разные реплики
+        return useReadOnlyConnection(connection -> {
+            if (format == ExportFormat.CSV && connection.isWrapperFor(PGConnection.class)) {
+                return copyOut(connection.unwrap(PGConnection.class), query, writer);
+            }
+
+            return writeRows(connection, query, columns, format, writer);
+        });
+    }
+
+    /**
+     * Записывает строки результата запроса выгрузки, читая их курсором на указанном подключении.
+     */
+    private long writeRows(Connection connection, SQLQuery<Void, Object[]> query, List<String> columns,
+                           ExportFormat format, Writer writer) {
+        CursorSpliterator<Object[]> spliterator = new CursorSpliterator<>(query, connection);
+        try (Stream<Object[]> rows = StreamSupport.stream(spliterator, false).onClose(spliterator::close)) {
+            format.writeHeader(writer, columns);
+            long count = 0;
+            for (Iterator<Object[]> it = rows.iterator(); it.hasNext(); count++) {
+                format.writeRow(writer, columns, it.next());
+            }
+
+            return count;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Передает результат запроса выгрузки командой COPY в формате CSV с заголовком.
+     * Выполнение учитывается в статистике запроса.
+     */
+    private long copyOut(PGConnection connection, SQLQuery<Void, ?> query, Writer writer) throws SQLException {
+        final long start = System.nanoTime();
+        boolean failed = true;
+        long rows = 0;
+        // COPY не связан с Statement, поэтому отменяется запрос всего подключения
+        try (QueryCancellation.Registration registration = QueryCancellation.register(connection::cancelQuery)) {
+            rows = connection.getCopyAPI().copyOut(SQLNamespace.Query.COPY_TO_STDOUT_CSV.formatted(query.getSql()), writer);
+            failed = false;
+
+            return rows;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            query.getStatistics().record(System.nanoTime() - start, rows, failed);
+        }
+    }
+
     /**
      * Обрабатывает {@link SQLException} возникший в результате выполнения {@link ConnectionConsumer} или {@link ConnectionFunction}.
      * Реализации ничем не ограничены. Базовая реализация оборачивает SQLException в SQLRuntimeException
@@ -103,4 +419,145 @@ public abstract class JdbcAbstractRepository<E, ID> implements Repository<E, ID>
     public interface ConnectionFunction<T> {
         T apply(Connection c) throws SQLException;
     }
+
+    /**
+     * Представляет чтение очередного элемента из {@link ResultSet}.
+     * Реализация сама перемещает курсор и может прочитать несколько строк на один элемент.
+     */
+    @FunctionalInterface
+    public interface ResultSetCursor<T> {
+
+        /**
+         * Читает очередной элемент.
+         *
+         * @param rs результат запроса
+         * @return очередной элемент или null, если результат исчерпан
+         */
+        T next(ResultSet rs) throws SQLException;
+    }
+
+    /**
+     * Источник элементов потока, владеющий подключением, запросом и курсором.
+     */
+    private class CursorSpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+
+        private final SQLQuery<Void, T> query;
+
+        private final ResultSetCursor<T> cursor;
+
+        private long start;
+
+        private long count;
+
+        private boolean failed;
+
+        private Connection connection;
+
+        private PreparedStatement statement;
+
+        private ResultSet resultSet;
+
+        private QueryCancellation.Registration cancellation;
+
+        private boolean ownsConnection;
+
+        private boolean restoreAutoCommit;
+
+        private boolean closed;
+
+        CursorSpliterator(SQLQuery<Void, T> query) {
+            this(query, null);
+        }
+
+        /**
+         * @param connection подключение, на котором выполняется запрос, или null, чтобы взять подключение транзакции
+         *                   или новое подключение для чтения при открытии курсора; указанное подключение не закрывается
+         */
+        CursorSpliterator(SQLQuery<Void, T> query, Connection connection) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.query = query;
+            this.cursor = query.cursor();
+            this.connection = connection;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (closed) {
+                return false;
+            }
+
+            T next;
+            try {
+                if (resultSet == null) {
+                    open();
+                }
+                next = cursor.next(resultSet);
+            } catch (SQLException e) {
+                failed = true;
+                close();
+                handleSQLException(e);
+                return false;
+            }
+
+            if (next == null) {
+                close();
+                return false;
+            }
+
+            count++;
+            action.accept(next);
+            return true;
+        }
+
+        private void open() throws SQLException {
+            start = System.nanoTime();
+            if (connection == null) {
+                connection = jdbcConnectionFactory.getTransactionConnection();
+            }
+            if (connection == null) {
+                connection = jdbcConnectionFactory.createReadOnlyConnection();
+                ownsConnection = true;
+            }
+
+            // PostgreSQL читает результат порциями только внутри транзакции
+            if (connection.getAutoCommit()) {
+                connection.setAutoCommit(false);
+                restoreAutoCommit = true;
+            }
+
+            statement = connection.prepareStatement(query.getSql(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            query.bind(statement, null);
+            // запрос остается зарегистрированным до закрытия потока, поэтому отмена прерывает и чтение порций
+            cancellation = QueryCancellation.register(statement::cancel);
+            resultSet = statement.executeQuery();
+        }
+
+        void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (start != 0) {
+                query.getStatistics().record(System.nanoTime() - start, count, failed);
+            }
+
+            if (cancellation != null) {
+                cancellation.close();
+            }
+
+            try (Connection c = ownsConnection ? connection : null) {
+                try (PreparedStatement ps = statement; ResultSet rs = resultSet) {
+                    // курсор и запрос освобождаются до завершения транзакции
+                }
+
+                if (restoreAutoCommit) {
+                    connection.commit();
+                    connection.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                handleSQLException(e);
+            }
+        }
+    }
 }
@@ -16,6 +16,17 @@ public class JdbcConnectionFactory {
     private final String username;
     private final String password;
 
+    private final ThreadLocal<Connection> transactionConnection = new ThreadLocal<>();
+
+    /**
+     * Создает фабрику, которая не открывает подключения сама, а переопределяет {@link #createConnection()}.
+     */
+    protected JdbcConnectionFactory() {
+        this.url = null;
+        this.username = null;
+        this.password = null;
+    }
+
     public JdbcConnectionFactory(String driverClassName, String url) {
         this(driverClassName, url, null, null);
     }
@@ -42,4 +53,33 @@ public class JdbcConnectionFactory {
         return DriverManager.getConnection(url, username, password);
     }
 
+    /**
+     * Создает подключение для запросов, которые только читают данные.
+     * Базовая реализация не отличает такие подключения от {@link #createConnection()}.
+     *
+     * @return новое подключение
+     * @throws SQLException при ошибке подключения к базе данных
+     * @see RoutingJdbcConnectionFactory
+     */
+    public Connection createReadOnlyConnection() throws SQLException {
+        return createConnection();
+    }
+
+    /**
+     * Возвращает подключение транзакции, открытой в текущем потоке через {@link JdbcTransactionManager}.
+     *
+     * @return подключение текущей транзакции или null, если транзакция не открыта
+     */
+    Connection getTransactionConnection() {
+        return transactionConnection.get();
+    }
+
+    void bindTransactionConnection(Connection connection) {
+        transactionConnection.set(connection);
+    }
+
+    void unbindTransactionConnection() {
+        transactionConnection.remove();
+    }
+
 }
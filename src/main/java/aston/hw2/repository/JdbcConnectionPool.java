@@ -0,0 +1,581 @@
+package aston.hw2.repository;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Пул jdbc-подключений ограниченного размера.
+ *
+ * Физические подключения создаются базовой {@link JdbcConnectionFactory} и переиспользуются между вызовами
+ * {@link #createConnection()}. Вызывающая сторона получает обертку над физическим подключением,
+ * метод {@link Connection#close()} которой возвращает подключение в пул.
+ *
+ * Пул ограничивает число одновременно выданных подключений, ожидает освободившееся подключение не дольше
+ * {@link Settings#getWaitTimeout()}, проверяет подключение при выдаче, закрывает простаивающие подключения
+ * и подключения, превысившие максимальное время жизни.
+ *
+ * Запросы, подготовленные через {@link Connection#prepareStatement(String)} и
+ * {@link Connection#prepareStatement(String, int)}, запоминаются физическим подключением и переиспользуются
+ * следующими выдачами: метод {@link PreparedStatement#close()} выданного запроса сбрасывает его параметры
+ * и возвращает запрос подключению. Каждое подключение хранит не более {@link Settings#getStatementCacheSize()}
+ * запросов и при переполнении закрывает давнее всех использованный запрос. Запомненные запросы закрываются
+ * вместе с физическим подключением.
+ *
+ * @author Максим Яськов
+ * @see JdbcConnectionFactory
+ */
+public class JdbcConnectionPool extends JdbcConnectionFactory implements AutoCloseable {
+
+    private final Settings settings;
+
+    private final Semaphore permits;
+
+    private final Deque<PooledConnection> idleConnections = new ArrayDeque<>();
+
+    private final ScheduledExecutorService housekeeper;
+
+    private final LongAdder statementCacheHits = new LongAdder();
+
+    private final LongAdder statementCacheMisses = new LongAdder();
+
+    private volatile boolean closed;
+
+    public JdbcConnectionPool(String driverClassName, String url, Settings settings) {
+        this(driverClassName, url, null, null, settings);
+    }
+
+    public JdbcConnectionPool(String driverClassName, String url, String username, String password, Settings settings) {
+        super(driverClassName, url, username, password);
+
+        if (settings == null) {
+            throw new IllegalArgumentException("A settings must not be null");
+        }
+        if (settings.getMaxSize() < 1) {
+            throw new IllegalArgumentException("A maxSize must be positive");
+        }
+        if (settings.getStatementCacheSize() < 0) {
+            throw new IllegalArgumentException("A statementCacheSize must not be negative");
+        }
+
+        this.settings = settings;
+        this.permits = new Semaphore(settings.getMaxSize(), true);
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jdbc-connection-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long period = settings.getHousekeepingPeriod().toMillis();
+        housekeeper.scheduleWithFixedDelay(this::evictIdleConnections, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Выдает подключение из пула.
+     * Если свободных подключений нет и размер пула не достиг максимального, создается новое физическое подключение.
+     *
+     * @return подключение, метод {@link Connection#close()} которого возвращает его в пул
+     * @throws SQLTransientConnectionException если за время ожидания подключение не освободилось
+     * @throws SQLException если пул закрыт или при ошибке подключения к базе данных
+     */
+    @Override
+    public Connection createConnection() throws SQLException {
+        checkNotClosed();
+
+        try {
+            if (!permits.tryAcquire(settings.getWaitTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException("Connection is not available, request timed out after %d ms"
+                        .formatted(settings.getWaitTimeout().toMillis()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a connection", e);
+        }
+
+        try {
+            checkNotClosed();
+            return borrow().lease();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Возвращает число физических подключений, ожидающих выдачи.
+     *
+     * @return число простаивающих подключений
+     */
+    public int getIdleCount() {
+        synchronized (idleConnections) {
+            return idleConnections.size();
+        }
+    }
+
+    /**
+     * Возвращает число выданных и еще не возвращенных подключений.
+     *
+     * @return число используемых подключений
+     */
+    public int getActiveCount() {
+        return settings.getMaxSize() - permits.availablePermits();
+    }
+
+    /**
+     * Возвращает число подготовленных запросов, выданных из кэша подключений.
+     *
+     * @return число попаданий в кэш запросов
+     */
+    public long getStatementCacheHits() {
+        return statementCacheHits.sum();
+    }
+
+    /**
+     * Возвращает число запросов, подготовленных базой данных, потому что подключение не хранило
+     * свободного запроса с тем же текстом.
+     *
+     * @return число промахов кэша запросов
+     */
+    public long getStatementCacheMisses() {
+        return statementCacheMisses.sum();
+    }
+
+    /**
+     * Закрывает пул и все простаивающие физические подключения.
+     * Выданные подключения закрываются при возврате в пул.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+
+        synchronized (idleConnections) {
+            idleConnections.forEach(PooledConnection::closePhysical);
+            idleConnections.clear();
+        }
+    }
+
+    private PooledConnection borrow() throws SQLException {
+        PooledConnection pooled;
+        while ((pooled = pollIdleConnection()) != null) {
+            if (!pooled.isExpired() && pooled.isValid()) {
+                return pooled;
+            }
+
+            pooled.closePhysical();
+        }
+
+        return new PooledConnection(super.createConnection());
+    }
+
+    private void checkNotClosed() throws SQLException {
+        if (closed) {
+            throw new SQLException("The connection pool is closed");
+        }
+    }
+
+    private void evictIdleConnections() {
+        synchronized (idleConnections) {
+            Iterator<PooledConnection> it = idleConnections.iterator();
+            while (it.hasNext()) {
+                PooledConnection pooled = it.next();
+                if (pooled.isExpired() || pooled.isIdleTooLong()) {
+                    it.remove();
+                    pooled.closePhysical();
+                }
+            }
+        }
+    }
+
+    private PooledConnection pollIdleConnection() {
+        synchronized (idleConnections) {
+            return idleConnections.pollFirst();
+        }
+    }
+
+    private void release(PooledConnection pooled) {
+        try {
+            if (closed || pooled.isExpired() || !pooled.reset()) {
+                pooled.closePhysical();
+                return;
+            }
+
+            synchronized (idleConnections) {
+                idleConnections.addFirst(pooled);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Настройки пула подключений.
+     */
+    @Getter
+    @Builder
+    public static class Settings {
+
+        /**
+         * Максимальное число одновременно открытых физических подключений.
+         */
+        @Builder.Default
+        private final int maxSize = 10;
+
+        /**
+         * Максимальное время ожидания свободного подключения.
+         */
+        @Builder.Default
+        private final Duration waitTimeout = Duration.ofSeconds(30);
+
+        /**
+         * Время, отводимое на проверку подключения при выдаче.
+         */
+        @Builder.Default
+        private final Duration validationTimeout = Duration.ofSeconds(5);
+
+        /**
+         * Подключения, возвращенные в пул раньше этого времени, выдаются без проверки.
+         */
+        @Builder.Default
+        private final Duration validationInterval = Duration.ofMillis(500);
+
+        /**
+         * Время простоя, по истечении которого подключение закрывается.
+         */
+        @Builder.Default
+        private final Duration idleTimeout = Duration.ofMinutes(10);
+
+        /**
+         * Максимальное время жизни физического подключения.
+         */
+        @Builder.Default
+        private final Duration maxLifetime = Duration.ofMinutes(30);
+
+        /**
+         * Период проверки простаивающих подключений.
+         */
+        @Builder.Default
+        private final Duration housekeepingPeriod = Duration.ofSeconds(30);
+
+        /**
+         * Максимальное число подготовленных запросов, хранимых одним физическим подключением.
+         * Ноль отключает переиспользование запросов.
+         */
+        @Builder.Default
+        private final int statementCacheSize = 64;
+    }
+
+    /**
+     * Физическое подключение, принадлежащее пулу.
+     */
+    private class PooledConnection {
+
+        private final Connection physical;
+
+        private final long createdAt = System.nanoTime();
+
+        private long releasedAt = createdAt;
+
+        private final Map<StatementKey, CachedStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+
+        Connection lease() {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[] {Connection.class}, new LeaseInvocationHandler(this));
+        }
+
+        boolean isExpired() {
+            return System.nanoTime() - createdAt > settings.getMaxLifetime().toNanos();
+        }
+
+        boolean isIdleTooLong() {
+            return System.nanoTime() - releasedAt > settings.getIdleTimeout().toNanos();
+        }
+
+        boolean isValid() {
+            if (System.nanoTime() - releasedAt < settings.getValidationInterval().toNanos()) {
+                return true;
+            }
+
+            try {
+                return physical.isValid((int) Math.max(1, settings.getValidationTimeout().toSeconds()));
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        /**
+         * Возвращает подключение в исходное состояние: откатывает незавершенную транзакцию и включает автофиксацию.
+         *
+         * @return true, если подключение можно переиспользовать
+         */
+        boolean reset() {
+            try {
+                if (physical.isClosed()) {
+                    return false;
+                }
+                if (!physical.getAutoCommit()) {
+                    physical.rollback();
+                    physical.setAutoCommit(true);
+                }
+                physical.clearWarnings();
+                // запросы, не закрытые предыдущей выдачей, освобождаются для следующей
+                statements.values().forEach(CachedStatement::release);
+                releasedAt = System.nanoTime();
+
+                return true;
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        void closePhysical() {
+            statements.values().forEach(CachedStatement::close);
+            statements.clear();
+            try {
+                physical.close();
+            } catch (SQLException ignored) {
+                // подключение все равно исключается из пула
+            }
+        }
+
+        /**
+         * Выдает запомненный подготовленный запрос или подготавливает и запоминает новый,
+         * закрывая давнее всех использованные свободные запросы сверх {@link Settings#getStatementCacheSize()}.
+         * Если запомненный запрос еще используется, например, вложенным чтением на том же подключении,
+         * выдается отдельный незапоминаемый запрос.
+         *
+         * @param lease выданная обертка подключения, возвращаемая {@link PreparedStatement#getConnection()}
+         * @param key текст запроса и режим возврата сгенерированных ключей
+         * @return обертка подготовленного запроса
+         */
+        PreparedStatement prepareStatement(Connection lease, StatementKey key) throws SQLException {
+            CachedStatement cached = statements.get(key);
+            if (cached != null && !cached.isInUse()) {
+                statementCacheHits.increment();
+                return cached.lease(lease, () -> statements.remove(key));
+            }
+
+            statementCacheMisses.increment();
+            if (cached != null || settings.getStatementCacheSize() == 0) {
+                return key.prepare(physical);
+            }
+
+            cached = new CachedStatement(key.prepare(physical));
+            statements.put(key, cached);
+            evictStatements();
+
+            return cached.lease(lease, () -> statements.remove(key));
+        }
+
+        private void evictStatements() {
+            Iterator<CachedStatement> it = statements.values().iterator();
+            while (statements.size() > settings.getStatementCacheSize() && it.hasNext()) {
+                CachedStatement cached = it.next();
+                if (!cached.isInUse()) {
+                    it.remove();
+                    cached.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Текст подготовленного запроса и режим возврата сгенерированных ключей.
+     * Режим равен -1 для запросов, подготовленных без указания режима.
+     */
+    private record StatementKey(String sql, int autoGeneratedKeys) {
+
+        PreparedStatement prepare(Connection physical) throws SQLException {
+            return autoGeneratedKeys == -1
+                    ? physical.prepareStatement(sql)
+                    : physical.prepareStatement(sql, autoGeneratedKeys);
+        }
+    }
+
+    /**
+     * Подготовленный запрос, запомненный физическим подключением.
+     * Одновременно запрос выдается не более чем одной обертке.
+     */
+    private static class CachedStatement {
+
+        private final PreparedStatement physical;
+
+        private StatementInvocationHandler current;
+
+        CachedStatement(PreparedStatement physical) {
+            this.physical = physical;
+        }
+
+        boolean isInUse() {
+            return current != null;
+        }
+
+        PreparedStatement lease(Connection connection, Runnable evict) {
+            current = new StatementInvocationHandler(this, connection, evict);
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[] {PreparedStatement.class}, current);
+        }
+
+        void release() {
+            current = null;
+        }
+
+        void close() {
+            try {
+                physical.close();
+            } catch (SQLException ignored) {
+                // запрос все равно исключается из подключения
+            }
+        }
+
+        /**
+         * Сбрасывает состояние запроса, оставленное оберткой. Запрос, который не удалось сбросить, закрывается.
+         *
+         * @return true, если запрос можно выдать снова
+         */
+        boolean reset() {
+            try {
+                physical.clearParameters();
+                physical.clearBatch();
+                physical.clearWarnings();
+                return true;
+            } catch (SQLException e) {
+                close();
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Обработчик вызовов выданной обертки запомненного запроса.
+     * Обертка считается закрытой после {@link PreparedStatement#close()} или после возврата подключения в пул.
+     */
+    private static class StatementInvocationHandler implements InvocationHandler {
+
+        private final CachedStatement cached;
+
+        private final Connection connection;
+
+        private final Runnable evict;
+
+        StatementInvocationHandler(CachedStatement cached, Connection connection, Runnable evict) {
+            this.cached = cached;
+            this.connection = connection;
+            this.evict = evict;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            final boolean released = cached.current != this;
+            switch (method.getName()) {
+                case "close":
+                    if (!released) {
+                        cached.release();
+                        if (!cached.reset()) {
+                            evict.run();
+                        }
+                    }
+                    return null;
+                case "isClosed":
+                    return released || cached.physical.isClosed();
+                case "getConnection":
+                    return connection;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "CachedStatement[" + cached.physical + "]";
+                default:
+                    if (released) {
+                        throw new SQLException("The statement is closed");
+                    }
+            }
+
+            try {
+                return method.invoke(cached.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * Обработчик вызовов выданной обертки подключения.
+     * Каждая выдача получает собственный обработчик, поэтому закрытая обертка не может повлиять на следующую выдачу.
+     */
+    private class LeaseInvocationHandler implements InvocationHandler {
+
+        private final PooledConnection pooled;
+
+        private boolean released;
+
+        LeaseInvocationHandler(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!released) {
+                        released = true;
+                        release(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return released || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + pooled.physical + "]";
+                case "prepareStatement":
+                    if (released) {
+                        throw new SQLException("The connection is closed");
+                    }
+                    if (args.length == 1) {
+                        return pooled.prepareStatement((Connection) proxy, new StatementKey((String) args[0], -1));
+                    }
+                    if (args.length == 2 && args[1] instanceof Integer autoGeneratedKeys) {
+                        return pooled.prepareStatement((Connection) proxy, new StatementKey((String) args[0], autoGeneratedKeys));
+                    }
+                    break;
+                default:
+                    if (released) {
+                        throw new SQLException("The connection is closed");
+                    }
+            }
+
+            try {
+                return method.invoke(pooled.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
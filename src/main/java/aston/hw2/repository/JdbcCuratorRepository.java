@@ -3,7 +3,9 @@ package aston.hw2.repository;
 import aston.hw2.entity.Curator;
 import aston.hw2.entity.Group;
 
-import java.sql.*;
+import java.io.Writer;
+import java.util.Collection;
+import java.util.List;
 import java.util.Objects;
 import java.util.stream.Stream;
 
@@ -11,6 +13,8 @@ import java.util.stream.Stream;
  * Репозиторий кураторов для работы с базой данных (БД) посредством JDBC.
  *
  * Все операции с кураторами, которые связаны с какой-либо группой, а также логику управления связями делегирует {@link JdbcGroupRepository}.
+ * При включенной ленивой загрузке (см. {@link #setLazyLoading(boolean)}) ссылка на группу куратора
+ * читает студентов группы через {@link GroupRepository} при первом обращении к ним.
  *
  * @author Максим Яськов
  * @see JdbcGroupRepository
@@ -19,73 +23,141 @@ public class JdbcCuratorRepository extends JdbcAbstractRepository<Curator, Integ
 
     private final GroupRepository groupRepository;
 
+    private final SQLQuery<Void, Curator> selectAllWithGroupReferences = SQLQuery.select(
+            "SELECT_ALL_CURATORS_WITH_GROUP_REFERENCES", SQLNamespace.Query.SELECT_ALL_CURATORS_WITH_GROUP_REFERENCES,
+            ParameterBinder.none(), this::curatorWithGroupReference);
+
+    private final SQLQuery<int[], Curator> selectByIdsWithGroupReferences = SQLQuery.select(
+            "SELECT_CURATORS_WITH_GROUP_REFERENCES_BY_IDS", SQLNamespace.Query.SELECT_CURATORS_WITH_GROUP_REFERENCES_BY_IDS,
+            ParameterBinder.integerArray(), this::curatorWithGroupReference);
+
+    private final SQLQuery<int[], Curator> selectByIdWithGroupReference = SQLQuery.select(
+            "SELECT_CURATOR_WITH_GROUP_REFERENCE_BY_ID", SQLNamespace.Query.SELECT_CURATOR_WITH_GROUP_REFERENCE_BY_ID,
+            ParameterBinder.integers(), this::curatorWithGroupReference);
+
+    private final SQLQuery<int[], Curator> selectPageWithGroupReferences = SQLQuery.select(
+            "SELECT_CURATORS_PAGE_WITH_GROUP_REFERENCES", SQLNamespace.Query.SELECT_CURATORS_PAGE_WITH_GROUP_REFERENCES,
+            ParameterBinder.integers(), this::curatorWithGroupReference);
+
     public JdbcCuratorRepository(JdbcConnectionFactory jdbcConnectionFactory, GroupRepository groupRepository) {
         super(jdbcConnectionFactory);
         this.groupRepository = groupRepository;
     }
 
+    /**
+     * Привязывает куратора к группе и отвязывает от группы прежнего куратора.
+     * Уникальный индекс допускает одного куратора группы, поэтому прежний куратор отвязывается до привязки,
+     * и только если привязываемый куратор существует.
+     */
     @Override
-    public Stream<Curator> findAll() {
+    public boolean assignGroup(int curatorId, int groupId) {
         return useConnection(connection -> {
-            final Stream.Builder<Curator> streamBuilder = Stream.builder();
-
-            try (PreparedStatement ps = connection.prepareStatement(SQLNamespace.Query.SELECT_CURATORS_BY_NULL_GROUP_ID)) {
-                try (ResultSet rs = ps.executeQuery()) {
-                    while (rs.next()) {
-                        streamBuilder.add(readCurator(rs));
-                    }
-                }
-            }
+            SQLQueries.UPDATE_CURATORS_SET_NULL_GROUP_ID_BY_GROUP_ID_EXCEPT_ID.update(connection,
+                    new int[] {groupId, curatorId, curatorId});
 
-            return Stream.concat(streamBuilder.build(),
-                    groupRepository.findAll()
-                            .map(Group::getCurator)
-                            .filter(Objects::nonNull));
+            return SQLQueries.UPDATE_CURATOR_SET_GROUP_ID_BY_ID_IF_GROUP_EXISTS
+                    .update(connection, new int[] {groupId, curatorId, groupId}) > 0;
         });
     }
 
+    @Override
+    public boolean existsById(Integer id) {
+        checkIdForNull(id);
+
+        return executeExists(SQLQueries.SELECT_EXISTS_CURATOR_BY_ID, new int[] {id});
+    }
+
+    /**
+     * Возвращает ленивый поток всех кураторов, читаемый одним запросом к таблице кураторов.
+     * Каждый куратор содержит ссылку на свою группу, как и в {@link #findById(Integer)}.
+     */
+    @Override
+    public Stream<Curator> findAll() {
+        return useConnectionForStream(selectAllWithGroupReferences);
+    }
+
+    /**
+     * Возвращает куратора, прочитанного одним запросом вместе со ссылкой на его группу.
+     * Группа содержит идентификатор, имя, дату выпуска и этого куратора, но не студентов.
+     *
+     * @see #findWithGroupById(int)
+     */
     @Override
     public Curator findById(Integer id) {
         checkIdForNull(id);
 
-        return useConnection(connection -> {
-            int groupId;
+        return queryFirst(selectByIdWithGroupReference, new int[] {id});
+    }
 
-            try (PreparedStatement ps = connection.prepareStatement(SQLNamespace.Query.SELECT_CURATOR_BY_ID)) {
-                ps.setInt(1, id);
+    /**
+     * Возвращает кураторов, прочитанных одним запросом вместе со ссылками на их группы, как и в {@link #findById(Integer)}.
+     */
+    @Override
+    public List<Curator> findAllById(Collection<Integer> ids) {
+        int[] idArray = toIdArray(ids);
+        if (idArray.length == 0) {
+            return List.of();
+        }
 
-                try (ResultSet rs = ps.executeQuery()) {
-                    if (!rs.next()) {
-                        return null;
-                    }
+        return queryList(selectByIdsWithGroupReferences, idArray);
+    }
 
-                    groupId = rs.getInt(SQLNamespace.Curator.KEY_GROUP_ID);
-                    if (rs.wasNull()) {
-                        return readCurator(rs);
-                    }
+    @Override
+    public Curator findByGroupId(final int groupId) {
+        return queryFirst(SQLQueries.SELECT_CURATOR_BY_GROUP_ID, new int[] {groupId});
+    }
 
-                    return groupRepository.findById(groupId).getCurator();
-                }
+    /**
+     * Куратор и его группа читаются отдельными запросами. Если между ними куратор перешел в другую группу,
+     * чтение повторяется не больше {@link #FIND_WITH_GROUP_ATTEMPTS} раз, после чего возвращается куратор
+     * со ссылкой на группу без студентов. Если группа удалена, куратор возвращается без группы.
+     */
+    @Override
+    public Curator findWithGroupById(int id) {
+        Curator curator = null;
+        for (int attempt = 0; attempt < FIND_WITH_GROUP_ATTEMPTS; attempt++) {
+            curator = queryFirst(SQLQueries.SELECT_CURATOR_BY_ID, new int[] {id});
+            if (curator == null || curator.getGroup() == null) {
+                return curator;
             }
-        });
+
+            Group group = groupRepository.findById(curator.getGroup().getId());
+            if (group == null) {
+                curator.setGroup(null);
+                return curator;
+            }
+
+            if (group.getCurator() != null && Objects.equals(group.getCurator().getId(), id)) {
+                return group.getCurator();
+            }
+        }
+
+        return curator;
+    }
+
+    @Override
+    public long exportAll(final ExportFormat format, final Writer writer) {
+        return exportAll(SQLQueries.SELECT_CURATORS_FOR_EXPORT, SQLNamespace.Curator.EXPORT_COLUMNS, format, writer);
+    }
+
+    @Override
+    public Page<Curator, Integer> findPage(final Integer afterId, final int limit) {
+        checkLimit(limit);
+
+        List<Curator> fetched = queryList(selectPageWithGroupReferences,
+                new int[] {afterId != null ? afterId : Integer.MIN_VALUE, lookaheadLimit(limit)});
+
+        return Page.of(fetched, limit, Curator::getId);
     }
 
     private Curator insert(Curator curator) {
         return useConnection(connection -> {
-            if (curator.getGroup() == null) {
-                try (PreparedStatement ps = connection.prepareStatement(SQLNamespace.Query.INSERT_CURATOR, Statement.RETURN_GENERATED_KEYS)) {
-                    ps.setString(1, curator.getName());
-                    ps.setString(2, curator.getEmail());
-                    ps.setInt(3, curator.getExperience());
-                    ps.setNull(4, JDBCType.INTEGER.getVendorTypeNumber());
-                    ps.executeUpdate();
-
-                    try (ResultSet rs = ps.getGeneratedKeys()) {
-                        if (rs.next()) {
-                            curator.setId(rs.getInt(1));
-                        }
-                    }
+            if (isStoredDirectly(curator)) {
+                if (curator.getGroup() != null) {
+                    SQLQueries.UPDATE_CURATOR_SET_NULL_GROUP_ID_BY_GROUP_ID.update(connection,
+                            new int[] {curator.getGroup().getId()});
                 }
+                curator.setId(SQLQueries.INSERT_CURATOR.insert(connection, curator));
             } else {
                 curator.getGroup().setCurator(curator);
                 groupRepository.save(curator.getGroup());
@@ -95,14 +167,41 @@ public class JdbcCuratorRepository extends JdbcAbstractRepository<Curator, Integ
         });
     }
 
-    private Curator readCurator(ResultSet rs) throws SQLException {
-        Curator curator = new Curator();
-        curator.setId(rs.getInt(SQLNamespace.Curator.KEY_ID));
-        curator.setName(rs.getString(SQLNamespace.Curator.KEY_NAME));
-        curator.setEmail(rs.getString(SQLNamespace.Curator.KEY_EMAIL));
-        curator.setExperience(rs.getInt(SQLNamespace.Curator.KEY_EXPERIENCE));
+    /**
+     * Проверяет, сохраняется ли куратор собственным запросом, без каскадного сохранения группы:
+     * куратор без группы или со ссылкой на группу.
+     */
+    private boolean isStoredDirectly(Curator curator) {
+        return curator.getGroup() == null || JdbcGroupRepository.isReference(curator.getGroup());
+    }
 
-        return curator;
+    /**
+     * Возвращает читателя куратора со ссылкой на группу, куратором которой он является.
+     * При ленивой загрузке студенты группы читаются через {@link GroupRepository} при первом обращении к ним.
+     */
+    private RowMapper<Curator> curatorWithGroupReference(Columns columns) {
+        final RowMapper<Curator> curators = RowMappers.curator(columns);
+        final RowMapper<Group> groups = isLazyLoading()
+                ? RowMappers.lazyGroup(columns, groupRepository)
+                : RowMappers.group(columns);
+
+        return rs -> {
+            Curator curator = curators.map(rs);
+            Group group = groups.map(rs);
+            if (group != null) {
+                group.setCurator(curator);
+                curator.setGroup(group);
+            }
+
+            return curator;
+        };
+    }
+
+    @Override
+    public boolean deleteById(Integer id) {
+        checkIdForNull(id);
+
+        return executeUpdate(SQLQueries.DELETE_CURATOR_BY_ID, id) > 0;
     }
 
     @Override
@@ -114,12 +213,7 @@ public class JdbcCuratorRepository extends JdbcAbstractRepository<Curator, Integ
             return null;
         }
 
-        useConnection(connection -> {
-            try (PreparedStatement ps = connection.prepareStatement(SQLNamespace.Query.DELETE_CURATOR_BY_ID)) {
-                ps.setInt(1, id);
-                ps.executeUpdate();
-            }
-        });
+        deleteById(id);
 
         return curator;
     }
@@ -135,18 +229,24 @@ public class JdbcCuratorRepository extends JdbcAbstractRepository<Curator, Integ
         }
     }
 
+    @Override
+    public boolean unassignByGroupId(int groupId) {
+        return executeUpdate(SQLQueries.UPDATE_CURATOR_SET_NULL_GROUP_ID_BY_GROUP_ID, groupId) > 0;
+    }
+
+    @Override
+    public boolean unassignGroup(int curatorId) {
+        return executeUpdate(SQLQueries.UPDATE_CURATOR_SET_NULL_GROUP_ID_BY_ID, curatorId) > 0;
+    }
+
     private Curator update(Curator curator) {
         return useConnection(connection -> {
-            if (curator.getGroup() == null) {
-                try (PreparedStatement ps = connection.prepareStatement(SQLNamespace.Query.UPDATE_CURATOR)) {
-                    ps.setString(1, curator.getName());
-                    ps.setString(2, curator.getEmail());
-                    ps.setInt(3, curator.getExperience());
-                    ps.setNull(4, JDBCType.INTEGER.getVendorTypeNumber());
-
-                    ps.setInt(5, curator.getId());
-                    ps.executeUpdate();
+            if (isStoredDirectly(curator)) {
+                if (curator.getGroup() != null) {
+                    SQLQueries.UPDATE_CURATORS_SET_NULL_GROUP_ID_BY_GROUP_ID_EXCEPT_ID.update(connection,
+                            new int[] {curator.getGroup().getId(), curator.getId(), curator.getId()});
                 }
+                SQLQueries.UPDATE_CURATOR.update(connection, curator);
             } else {
                 curator.getGroup().setCurator(curator);
                 groupRepository.save(curator.getGroup());
@@ -4,235 +4,287 @@ import aston.hw2.entity.Curator;
 import aston.hw2.entity.Group;
 import aston.hw2.entity.Student;
 
-import java.sql.Date;
-import java.sql.*;
+import java.io.Writer;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.*;
 import java.util.stream.Stream;
 
 /**
  * Репозиторий групп для работы с базой данных (БД) посредством JDBC.
  * Реализует каскадные поиск, вставку и обновление.
+ * Прочитанные и сохраненные группы содержат {@link PersistentStudentList}, поэтому при повторном сохранении
+ * группы записываются только изменения ее состава.
+ * Ссылка на группу (см. {@link #isReference(Group)}) сохраняется без студентов.
+ *
+ * При включенной ленивой загрузке (см. {@link #setLazyLoading(boolean)}) группы читаются вместе с куратором,
+ * а студенты группы - отдельным запросом при первом обращении к {@link Group#getStudents()}.
  *
  * @author Максим Яськов
  */
 public class JdbcGroupRepository extends JdbcAbstractRepository<Group, Integer> implements GroupRepository {
     
+    private final SQLQuery<Void, Group> selectAllWithCurators = SQLQuery.aggregate(
+            "SELECT_ALL_GROUPS_WITH_CURATORS", SQLNamespace.Query.SELECT_ALL_GROUPS_WITH_CURATORS,
+            ParameterBinder.none(), GroupCursor::new);
+
+    private final SQLQuery<Void, Group> selectAllWithCuratorsAndStudents = SQLQuery.aggregate(
+            "SELECT_ALL_GROUPS_WITH_CURATORS_AND_STUDENTS", SQLNamespace.Query.SELECT_ALL_GROUPS_WITH_CURATORS_AND_STUDENTS,
+            ParameterBinder.none(), GroupCursor::new);
+
+    private final SQLQuery<int[], Group> selectByIdsWithCurators = SQLQuery.aggregate(
+            "SELECT_GROUPS_WITH_CURATORS_BY_IDS", SQLNamespace.Query.SELECT_GROUPS_WITH_CURATORS_BY_IDS,
+            ParameterBinder.integerArray(), GroupCursor::new);
+
+    private final SQLQuery<int[], Group> selectByIdsWithCuratorsAndStudents = SQLQuery.aggregate(
+            "SELECT_GROUPS_WITH_CURATORS_AND_STUDENTS_BY_IDS", SQLNamespace.Query.SELECT_GROUPS_WITH_CURATORS_AND_STUDENTS_BY_IDS,
+            ParameterBinder.integerArray(), GroupCursor::new);
+
+    private final SQLQuery<int[], Group> selectByIdWithCurator = SQLQuery.select(
+            "SELECT_GROUP_WITH_CURATOR_BY_ID", SQLNamespace.Query.SELECT_GROUP_WITH_CURATOR_BY_ID,
+            ParameterBinder.integers(), this::groupWithCurator);
+
+    private final SQLQuery<String, Group> selectByNameWithCurator = SQLQuery.aggregate(
+            "SELECT_GROUP_WITH_CURATOR_BY_NAME", SQLNamespace.Query.SELECT_GROUP_WITH_CURATOR_BY_NAME,
+            ParameterBinder.string(), GroupCursor::new);
+
+    private final SQLQuery<String, Group> selectByNameWithCuratorAndStudents = SQLQuery.aggregate(
+            "SELECT_GROUP_WITH_CURATOR_AND_STUDENTS_BY_NAME", SQLNamespace.Query.SELECT_GROUP_WITH_CURATOR_AND_STUDENTS_BY_NAME,
+            ParameterBinder.string(), GroupCursor::new);
+
+    private final SQLQuery<int[], Group> selectPageWithCurators = SQLQuery.aggregate(
+            "SELECT_GROUPS_PAGE_WITH_CURATORS", SQLNamespace.Query.SELECT_GROUPS_PAGE_WITH_CURATORS,
+            ParameterBinder.integers(), GroupCursor::new);
+
+    private final SQLQuery<int[], Group> selectPageWithCuratorsAndStudents = SQLQuery.aggregate(
+            "SELECT_GROUPS_PAGE_WITH_CURATORS_AND_STUDENTS", SQLNamespace.Query.SELECT_GROUPS_PAGE_WITH_CURATORS_AND_STUDENTS,
+            ParameterBinder.integers(), GroupCursor::new);
+
     public JdbcGroupRepository(JdbcConnectionFactory jdbcConnectionFactory) {
         super(jdbcConnectionFactory);
     }
 
-    @Override
-    public Stream<Group> findAll() {
-        return useConnection(connection -> {
-            final Stream.Builder<Group> streamBuilder = Stream.builder();
+    /**
+     * Проверяет, является ли группа ссылкой: существующей группой, прочитанной без куратора и студентов.
+     * Такую группу возвращают {@link JdbcStudentRepository#findById(Integer)} и {@link JdbcCuratorRepository#findById(Integer)}.
+     * Группа, студенты которой еще не прочитаны лениво, также считается ссылкой. Проверка не читает студентов.
+     *
+     * @param group группа
+     * @return true, если у группы есть идентификатор, а студенты не загружены
+     */
+    static boolean isReference(Group group) {
+        if (group instanceof LazyGroup lazy) {
+            return !lazy.isStudentsLoaded();
+        }
 
-            try (PreparedStatement selectGroupsWithCuratorsPS = connection.prepareStatement(SQLNamespace.Query.SELECT_ALL_GROUPS_WITH_CURATORS);
-                 PreparedStatement selectStudentsPS = connection.prepareStatement(SQLNamespace.Query.SELECT_STUDENTS_BY_GROUP_ID)) {
+        return group.getId() != null && !isLoaded(group.getStudents());
+    }
 
-                ResultSet groupsWithCuratorsRS = selectGroupsWithCuratorsPS.executeQuery();
-                while (groupsWithCuratorsRS.next()) {
-                    Group group = readGroup(groupsWithCuratorsRS);
-                    streamBuilder.add(group);
+    /**
+     * Проверяет, загружены ли студенты группы.
+     *
+     * @param students студенты группы
+     * @return true, если список не равен null и не ожидает ленивого чтения
+     */
+    static boolean isLoaded(List<Student> students) {
+        return students != null && !(students instanceof LazyStudentList lazy && !lazy.isInitialized());
+    }
 
-                    Curator curator = readCurator(groupsWithCuratorsRS);
-                    if (curator != null) {
-                        curator.setGroup(group);
-                        group.setCurator(curator);
-                    }
+    @Override
+    public boolean existsById(Integer id) {
+        checkIdForNull(id);
 
-                    selectStudentsPS.setInt(1, group.getId());
-                    ResultSet studentsRS = selectStudentsPS.executeQuery();
-                    while (studentsRS.next()) {
-                        Student student = readStudent(studentsRS);
-                        student.setGroup(group);
-                        group.getStudents().add(student);
-                    }
-                }
-            }
+        return executeExists(SQLQueries.SELECT_EXISTS_GROUP_BY_ID, new int[] {id});
+    }
 
-            return streamBuilder.build();
-        });
+    @Override
+    public boolean existsByName(final String name) {
+        checkNameForNull(name);
 
+        return executeExists(SQLQueries.SELECT_EXISTS_GROUP_BY_NAME, name);
     }
 
+    /**
+     * Возвращает ленивый поток всех групп вместе с кураторами и студентами, читаемый одним запросом через курсор.
+     * Результат соединения упорядочен по идентификатору группы, поэтому строки одной группы идут подряд
+     * и собираются в группу по мере чтения.
+     * При ленивой загрузке соединение не включает студентов.
+     */
     @Override
-    public Group findById(final Integer id) {
-        checkIdForNull(id);
-
-        return useConnection(connection -> {
-            try (PreparedStatement selectGroupAndCuratorPS = connection.prepareStatement(SQLNamespace.Query.SELECT_GROUP_WITH_CURATOR_BY_ID);
-                 PreparedStatement selectStudentsPS = connection.prepareStatement(SQLNamespace.Query.SELECT_STUDENTS_BY_GROUP_ID)
-            ) {
-                selectGroupAndCuratorPS.setInt(1, id);
-                selectStudentsPS.setInt(1, id);
-
-                ResultSet groupAndCuratorRS = selectGroupAndCuratorPS.executeQuery();
-                if (!groupAndCuratorRS.next()) {
-                    return null;
-                }
+    public Stream<Group> findAll() {
+        return useConnectionForStream(isLazyLoading() ? selectAllWithCurators : selectAllWithCuratorsAndStudents);
+    }
 
-                final Group group = readGroup(groupAndCuratorRS);
+    /**
+     * Возвращает группы вместе с кураторами и студентами, читаемые одним запросом.
+     * При ленивой загрузке запрос не включает студентов.
+     */
+    @Override
+    public List<Group> findAllById(final Collection<Integer> ids) {
+        final int[] idArray = toIdArray(ids);
+        if (idArray.length == 0) {
+            return List.of();
+        }
 
-                final Curator curator = readCurator(groupAndCuratorRS);
-                if (curator != null) {
-                    curator.setGroup(group);
-                    group.setCurator(curator);
-                }
+        return queryList(isLazyLoading() ? selectByIdsWithCurators : selectByIdsWithCuratorsAndStudents, idArray);
+    }
 
-                ResultSet studentsRS = selectStudentsPS.executeQuery();
-                while (studentsRS.next()) {
-                    Student student = readStudent(studentsRS);
-                    student.setGroup(group);
-                    group.getStudents().add(student);
-                }
+    @Override
+    public Group findById(final Integer id) {
+        checkIdForNull(id);
 
+        return useReadOnlyConnection(connection -> {
+            final Group group = selectByIdWithCurator.first(connection, new int[] {id});
+            if (group == null || isLazyLoading()) {
                 return group;
             }
+
+            for (Student student : SQLQueries.SELECT_STUDENTS_BY_GROUP_ID.list(connection, new int[] {id})) {
+                student.setGroup(group);
+                loadedStudents(group).load(student);
+            }
+
+            return group;
         });
     }
 
+    /**
+     * Возвращает группу вместе с куратором и студентами, читаемую одним запросом.
+     * При ленивой загрузке запрос не включает студентов.
+     */
     @Override
     public Group findByName(final String name) {
-        if (name == null) {
-            throw new IllegalArgumentException("A name must not be null");
-        }
+        checkNameForNull(name);
 
-        Integer groupId = useConnection(connection -> {
-            try (PreparedStatement ps = connection.prepareStatement(SQLNamespace.Query.SELECT_GROUP_ID_BY_NAME)) {
-                ps.setString(1, name);
+        return queryFirst(isLazyLoading() ? selectByNameWithCurator : selectByNameWithCuratorAndStudents, name);
+    }
 
-                ResultSet rs = ps.executeQuery();
-                if (!rs.next()) {
-                    return null;
-                }
+    @Override
+    public Integer findIdByName(final String name) {
+        checkNameForNull(name);
 
-                return rs.getInt(1);
-            }
-        });
+        return queryFirst(SQLQueries.SELECT_GROUP_ID_BY_NAME, name);
+    }
 
-        return groupId != null ? findById(groupId) : null;
+    @Override
+    public Group findSummaryById(final int id) {
+        return queryFirst(SQLQueries.SELECT_GROUP_SUMMARY_BY_ID, new int[] {id});
     }
 
-    private Integer getIntGeneratedKey(Statement s) throws SQLException {
-        ResultSet rs = s.getGeneratedKeys();
-        if (!rs.next()) {
-            return null;
+    @Override
+    public List<Group> findSummariesByIds(final Collection<Integer> ids) {
+        final int[] idArray = toIdArray(ids);
+        if (idArray.length == 0) {
+            return List.of();
         }
 
-        return rs.getInt(1);
+        return queryList(SQLQueries.SELECT_GROUP_SUMMARIES_BY_IDS, idArray);
     }
 
-    private Group insert(final Group group) {
-        return useConnection(connection -> {
-            insertGroup(connection, group);
+    @Override
+    public Page<Group, Integer> findSummaryPage(final Integer afterId, final int limit) {
+        checkLimit(limit);
 
-            final Curator curator = group.getCurator();
-            if (curator != null) {
-                if (curator.getId() == null) {
-                    insertCurator(connection, curator, group.getId());
-                } else {
-                    updateCurator(connection, curator, group.getId());
-                }
-                curator.setGroup(group);
-            }
+        List<Group> fetched = queryList(SQLQueries.SELECT_GROUP_SUMMARIES_PAGE,
+                new int[] {afterId != null ? afterId : Integer.MIN_VALUE, lookaheadLimit(limit)});
 
-            if (group.getStudents() == null) {
-                group.setStudents(new LinkedList<>());
-            }
+        return Page.of(fetched, limit, Group::getId);
+    }
 
-            final Collection<Student> students = group.getStudents();
-            for (Student student : students) {
-                if (student == null) {
-                    throw new IllegalStateException("One of the students is null");
-                }
+    private void checkNameForNull(String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("A name must not be null");
+        }
+    }
 
-                if (student.getId() == null) {
-                    insertStudent(connection, student, group.getId());
-                } else {
-                    updateStudent(connection, student, group.getId());
-                }
-                student.setGroup(group);
-            }
+    @Override
+    public long exportAll(final ExportFormat format, final Writer writer) {
+        return exportAll(SQLQueries.SELECT_GROUPS_FOR_EXPORT, SQLNamespace.Group.EXPORT_COLUMNS, format, writer);
+    }
+
+    /**
+     * Возвращает страницу групп вместе с кураторами и студентами, читаемую одним запросом.
+     * Размер страницы ограничивает число групп, а не строк соединения.
+     * При ленивой загрузке запрос не включает студентов.
+     */
+    @Override
+    public Page<Group, Integer> findPage(final Integer afterId, final int limit) {
+        checkLimit(limit);
+
+        List<Group> fetched = queryList(isLazyLoading() ? selectPageWithCurators : selectPageWithCuratorsAndStudents,
+                new int[] {afterId != null ? afterId : Integer.MIN_VALUE, lookaheadLimit(limit)});
+
+        return Page.of(fetched, limit, Group::getId);
+    }
+
+    private Group insert(final Group group) {
+        return useConnection(connection -> {
+            group.setId(SQLQueries.INSERT_GROUP.insert(connection, group));
+            saveCurator(connection, group, false);
+            saveStudents(connection, group);
 
             return group;
         });
     }
 
-    private void insertCurator(Connection c, Curator curator, int groupId) throws SQLException {
-        try (PreparedStatement ps = c.prepareStatement(SQLNamespace.Query.INSERT_CURATOR, Statement.RETURN_GENERATED_KEYS)) {
-            ps.setString(1, curator.getName());
-            ps.setString(2, curator.getEmail());
-            ps.setInt(3, curator.getExperience());
-            ps.setInt(4, groupId);
-            ps.executeUpdate();
-
-            curator.setId(getIntGeneratedKey(ps));
+    /**
+     * Вставляет новых студентов пакетами и присваивает им сгенерированные идентификаторы.
+     */
+    private void insertStudents(Connection c, List<Student> students) throws SQLException {
+        final List<Integer> ids = SQLQueries.INSERT_STUDENT.batch(c, students, getBatchSize());
+        for (int i = 0; i < students.size(); i++) {
+            students.get(i).setId(ids.get(i));
         }
     }
 
-    private void insertGroup(Connection c, Group group) throws SQLException {
-        try (PreparedStatement ps = c.prepareStatement(SQLNamespace.Query.INSERT_GROUP, Statement.RETURN_GENERATED_KEYS)) {
-            ps.setString(1, group.getName());
-            ps.setDate(2, Date.valueOf(group.getGraduationDate()));
-            ps.executeUpdate();
+    /**
+     * Возвращает читателя группы вместе с куратором, если результат содержит столбцы куратора.
+     * Студенты прочитанной группы не загружены: список заполняется вызывающей стороной или читается лениво.
+     */
+    private RowMapper<Group> groupWithCurator(Columns columns) {
+        final RowMapper<Group> groups = RowMappers.group(columns);
+        final RowMapper<Curator> curators = RowMappers.curator(columns);
 
-            group.setId(getIntGeneratedKey(ps));
-        }
-    }
+        return rs -> {
+            Group group = groups.map(rs);
+            group.setStudents(isLazyLoading() ? readStudentsLazily(group) : new PersistentStudentList(group.getId()));
 
-    private void insertStudent(Connection c, Student student, Integer groupId) throws SQLException {
-        try (PreparedStatement ps = c.prepareStatement(SQLNamespace.Query.INSERT_STUDENT, Statement.RETURN_GENERATED_KEYS)) {
-            ps.setString(1, student.getName());
-            ps.setDate(2, Date.valueOf(student.getDateOfBirth()));
-            if (groupId == null) {
-                ps.setNull(3, JDBCType.INTEGER.getVendorTypeNumber());
-            } else {
-                ps.setInt(3, groupId);
+            Curator curator = curators.map(rs);
+            if (curator != null) {
+                curator.setGroup(group);
+                group.setCurator(curator);
             }
-            ps.executeUpdate();
 
-            student.setId(getIntGeneratedKey(ps));
-        }
+            return group;
+        };
     }
 
-    private Curator readCurator(ResultSet rs) throws SQLException {
-        try {
-            rs.findColumn(SQLNamespace.Curator.KEY_ID);
-        } catch (SQLException ignored) {
-            return null;
+    private boolean isCuratorOf(Group group, Integer curatorId) {
+        if (curatorId == null) {
+            return group.getCurator() == null;
         }
 
-        int curatorId = rs.getInt(SQLNamespace.Curator.KEY_ID);
-        if (rs.wasNull()) {
-            return null;
-        }
-
-        Curator curator = new Curator();
-        curator.setId(curatorId);
-        curator.setName(rs.getString(SQLNamespace.Curator.KEY_NAME));
-        curator.setEmail(rs.getString(SQLNamespace.Curator.KEY_EMAIL));
-        curator.setExperience(rs.getInt(SQLNamespace.Curator.KEY_EXPERIENCE));
-
-        return curator;
+        return group.getCurator() != null && curatorId.equals(group.getCurator().getId());
     }
 
-    private Group readGroup(ResultSet rs) throws SQLException {
-        Group group = new Group();
-        group.setId(rs.getInt(SQLNamespace.Group.KEY_ID));
-        group.setName(rs.getString(SQLNamespace.Group.KEY_NAME));
-        group.setGraduationDate(rs.getDate(SQLNamespace.Group.KEY_GRADUATION_DATE).toLocalDate());
-        group.setStudents(new LinkedList<>());
+    /**
+     * Создает список студентов группы, читаемый отдельным запросом при первом обращении.
+     */
+    private LazyStudentList readStudentsLazily(Group group) {
+        final int groupId = group.getId();
 
-        return group;
+        return new LazyStudentList(group, () -> queryList(SQLQueries.SELECT_STUDENTS_BY_GROUP_ID, new int[] {groupId}));
     }
 
-    private Student readStudent(ResultSet rs) throws SQLException {
-        Student student = new Student();
-        student.setId(rs.getInt(SQLNamespace.Student.KEY_ID));
-        student.setName(rs.getString(SQLNamespace.Student.KEY_NAME));
-        student.setDateOfBirth(rs.getDate(SQLNamespace.Student.KEY_DATE_OF_BIRTH).toLocalDate());
+    /**
+     * Удаляет группу одним запросом: внешние ключи ON DELETE SET NULL отвязывают ее куратора и студентов.
+     */
+    @Override
+    public boolean deleteById(Integer id) {
+        checkIdForNull(id);
 
-        return student;
+        return executeUpdate(SQLQueries.DELETE_GROUP_BY_ID, id) > 0;
     }
 
     @Override
@@ -244,30 +296,110 @@ public class JdbcGroupRepository extends JdbcAbstractRepository<Group, Integer>
             return null;
         }
 
-        useConnection(connection -> {
-            final Curator curator = group.getCurator();
-            if (curator != null) {
-                try (PreparedStatement ps = connection.prepareStatement(SQLNamespace.Query.UPDATE_CURATOR_SET_NULL_GROUP_ID_BY_GROUP_ID)) {
-                    ps.setInt(1, id);
-                    ps.executeUpdate();
-                }
+        deleteById(id);
+
+        return group;
+    }
+
+    /**
+     * Сохраняет куратора группы: куратор состоит из одной строки, поэтому сохраняется одним запросом.
+     * У группы может быть только один куратор, поэтому при сохранении существующей группы
+     * прежний куратор отвязывается от нее до привязки нового.
+     */
+    private void saveCurator(Connection c, Group group, boolean existingGroup) throws SQLException {
+        final Curator curator = group.getCurator();
+        if (curator == null) {
+            return;
+        }
+
+        curator.setGroup(group);
+        if (curator.getId() == null) {
+            if (existingGroup) {
+                SQLQueries.UPDATE_CURATOR_SET_NULL_GROUP_ID_BY_GROUP_ID.update(c, new int[] {group.getId()});
+            }
+            curator.setId(SQLQueries.INSERT_CURATOR.insert(c, curator));
+        } else {
+            if (existingGroup) {
+                SQLQueries.UPDATE_CURATORS_SET_NULL_GROUP_ID_BY_GROUP_ID_EXCEPT_ID.update(c,
+                        new int[] {group.getId(), curator.getId(), curator.getId()});
             }
+            SQLQueries.UPDATE_CURATOR.update(c, curator);
+        }
+    }
 
-            final Collection<Student> students = group.getStudents();
-            if (!students.isEmpty()) {
-                try (PreparedStatement ps = connection.prepareStatement(SQLNamespace.Query.UPDATE_STUDENTS_SET_NULL_GROUP_ID_BY_GROUP_ID)) {
-                    ps.setInt(1, id);
-                    ps.executeUpdate();
-                }
+    /**
+     * Сохраняет студентов группы: новые студенты вставляются, существующие обновляются,
+     * каждая из операций выполняется пакетами по {@link #getBatchSize()} строк.
+     *
+     * Если группа содержит {@link PersistentStudentList}, записываются только изменения с момента
+     * чтения или последнего сохранения: обновляются лишь переназначенные в группу и измененные студенты,
+     * а исключенные из группы студенты отвязываются от нее. После сохранения группа содержит
+     * {@link PersistentStudentList} с запомненным составом.
+     */
+    private void saveStudents(Connection c, Group group) throws SQLException {
+        if (group.getStudents() == null) {
+            group.setStudents(new LinkedList<>());
+        }
+
+        final PersistentStudentList persistent = getPersistentStudents(group);
+
+        final List<Student> inserted = new ArrayList<>();
+        final List<Student> updated = new ArrayList<>();
+        for (Student student : group.getStudents()) {
+            if (student == null) {
+                throw new IllegalStateException("One of the students is null");
             }
 
-            try (PreparedStatement ps = connection.prepareStatement(SQLNamespace.Query.DELETE_GROUP_BY_ID)) {
-                ps.setInt(1, group.getId());
-                ps.executeUpdate();
+            if (student.getId() == null) {
+                inserted.add(student);
+            } else if (persistent == null || !persistent.isPersistent(student) || persistent.isDirty(student)) {
+                updated.add(student);
             }
-        });
+        }
 
-        return group;
+        for (Student student : group.getStudents()) {
+            student.setGroup(group);
+        }
+
+        if (persistent != null) {
+            detachStudents(c, persistent.getRemovedIds(), group.getId());
+        }
+        insertStudents(c, inserted);
+        SQLQueries.UPDATE_STUDENT.batch(c, updated, getBatchSize());
+
+        if (persistent != null) {
+            persistent.markClean();
+        } else {
+            group.setStudents(new PersistentStudentList(group.getId(), group.getStudents()));
+        }
+    }
+
+    /**
+     * Отвязывает исключенных студентов от группы пакетами.
+     * Студент, уже переназначенный в другую группу, не затрагивается.
+     */
+    private void detachStudents(Connection c, Collection<Integer> studentIds, int groupId) throws SQLException {
+        final List<int[]> parameters = new ArrayList<>(studentIds.size());
+        for (Integer studentId : studentIds) {
+            parameters.add(new int[] {studentId, groupId});
+        }
+
+        SQLQueries.UPDATE_STUDENT_SET_NULL_GROUP_ID_BY_ID_AND_GROUP_ID.batch(c, parameters, getBatchSize());
+    }
+
+    /**
+     * Возвращает список студентов группы, если он отслеживает состав этой группы, иначе null.
+     */
+    private PersistentStudentList getPersistentStudents(Group group) {
+        if (group.getStudents() instanceof PersistentStudentList persistent && persistent.getGroupId() == group.getId()) {
+            return persistent;
+        }
+
+        return null;
+    }
+
+    private PersistentStudentList loadedStudents(Group group) {
+        return (PersistentStudentList) group.getStudents();
     }
 
     @Override
@@ -283,72 +415,80 @@ public class JdbcGroupRepository extends JdbcAbstractRepository<Group, Integer>
 
     private Group update(final Group group) {
         return useConnection(connection -> {
-            updateGroup(connection, group);
+            SQLQueries.UPDATE_GROUP.update(connection, group);
+            saveCurator(connection, group, true);
 
-            final Curator curator = group.getCurator();
-            if (curator != null) {
-                if (curator.getId() == null) {
-                    insertCurator(connection, curator, group.getId());
-                } else {
-                    updateCurator(connection, curator, group.getId());
-                }
-                curator.setGroup(group);
-            }
-
-            if (group.getStudents() == null) {
-                group.setStudents(new LinkedList<>());
+            if (isReference(group)) {
+                return group;
             }
 
-            final Collection<Student> students = group.getStudents();
-            try (PreparedStatement ps = connection.prepareStatement(SQLNamespace.Query.UPDATE_STUDENTS_SET_NULL_GROUP_ID_BY_GROUP_ID)) {
-                ps.setInt(1, group.getId());
-                ps.executeUpdate();
-            }
-            for (Student student : students) {
-                if (student.getId() == null) {
-                    insertStudent(connection, student, group.getId());
-                } else {
-                    updateStudent(connection, student, group.getId());
-                }
-                student.setGroup(group);
+            if (getPersistentStudents(group) == null) {
+                SQLQueries.UPDATE_STUDENTS_SET_NULL_GROUP_ID_BY_GROUP_ID.update(connection, new int[] {group.getId()});
             }
+            saveStudents(connection, group);
 
             return group;
         });
     }
 
-    private void updateCurator(Connection c, Curator curator, int groupId) throws SQLException {
-        int curatorId = Objects.requireNonNull(curator.getId());
-        try (PreparedStatement ps = c.prepareStatement(SQLNamespace.Query.UPDATE_CURATOR)) {
-            ps.setString(1, curator.getName());
-            ps.setString(2, curator.getEmail());
-            ps.setInt(3, curator.getExperience());
-            ps.setInt(4, groupId);
-            ps.setInt(5, curatorId);
-            ps.executeUpdate();
-        }
-    }
+    /**
+     * Собирает группы из строк соединения групп с кураторами и студентами, упорядоченного по идентификатору группы.
+     * Группа считается прочитанной, как только курсор встречает строку следующей группы.
+     */
+    private class GroupCursor implements ResultSetCursor<Group> {
 
-    private void updateGroup(Connection c, Group group) throws SQLException {
-        try (PreparedStatement ps = c.prepareStatement(SQLNamespace.Query.UPDATE_GROUP)) {
-            ps.setString(1, group.getName());
-            ps.setDate(2, Date.valueOf(group.getGraduationDate()));
-            ps.setInt(3, group.getId());
-            ps.executeUpdate();
-        }
-    }
+        private final boolean withStudents = !isLazyLoading();
+
+        private boolean onUnreadRow;
+
+        private boolean exhausted;
+
+        private RowMapper<Group> groups;
 
-    private void updateStudent(Connection c, Student student, Integer groupId) throws SQLException {
-        try (PreparedStatement ps = c.prepareStatement(SQLNamespace.Query.UPDATE_STUDENT)) {
-            ps.setString(1, student.getName());
-            ps.setDate(2, Date.valueOf(student.getDateOfBirth()));
-            if (groupId == null) {
-                ps.setNull(3, JDBCType.INTEGER.getVendorTypeNumber());
-            } else {
-                ps.setInt(3, groupId);
+        private RowMapper<Student> students;
+
+        private RowMapper<Integer> groupIds;
+
+        private RowMapper<Integer> curatorIds;
+
+        @Override
+        public Group next(ResultSet rs) throws SQLException {
+            if (exhausted || !onUnreadRow && !rs.next()) {
+                exhausted = true;
+                return null;
             }
-            ps.setInt(4, student.getId());
-            ps.executeUpdate();
+            if (groups == null) {
+                bind(Columns.of(rs));
+            }
+
+            final Group group = groups.map(rs);
+
+            do {
+                if (!group.getId().equals(groupIds.map(rs))) {
+                    onUnreadRow = true;
+                    return group;
+                }
+
+                // строка соединения со вторым куратором той же группы дублирует уже прочитанных студентов
+                if (withStudents && isCuratorOf(group, curatorIds.map(rs))) {
+                    Student student = students.map(rs);
+                    if (student != null) {
+                        student.setGroup(group);
+                        loadedStudents(group).load(student);
+                    }
+                }
+            } while (rs.next());
+
+            onUnreadRow = false;
+            exhausted = true;
+            return group;
+        }
+
+        private void bind(Columns columns) {
+            groups = groupWithCurator(columns);
+            students = RowMappers.student(columns);
+            groupIds = RowMappers.integer(columns, SQLNamespace.Group.KEY_ID);
+            curatorIds = RowMappers.integer(columns, SQLNamespace.Curator.KEY_ID);
         }
     }
 }
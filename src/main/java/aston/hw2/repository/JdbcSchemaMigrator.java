@@ -0,0 +1,145 @@
+package aston.hw2.repository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Применяет версионированные скрипты схемы базы данных.
+ *
+ * Скрипты читаются из ресурсов {@code db/migration/V1.sql}, {@code db/migration/V2.sql} и так далее
+ * до первой отсутствующей версии. Номер последней примененной версии хранится в таблице {@code schema_version},
+ * поэтому каждый скрипт применяется к базе данных один раз. Скрипт применяется в собственной транзакции
+ * вместе с записью его версии; инструкции скрипта разделяются точкой с запятой в конце строки.
+ *
+ * Скрипты общие для PostgreSQL и H2, поэтому используют только синтаксис, поддерживаемый обеими базами данных.
+ *
+ * @author Максим Яськов
+ * @see JdbcConnectionFactory
+ */
+public class JdbcSchemaMigrator {
+
+    private static final String SCRIPT_PATH = "/db/migration/V%d.sql";
+
+    private static final String CREATE_SCHEMA_VERSION_TABLE = """
+                CREATE TABLE IF NOT EXISTS schema_version (
+                    version INTEGER PRIMARY KEY,
+                    applied_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+                )
+            """;
+
+    private static final String SELECT_SCHEMA_VERSION = """
+                SELECT MAX(version)
+                FROM schema_version
+            """;
+
+    private static final String INSERT_SCHEMA_VERSION = """
+                INSERT INTO schema_version
+                    (version)
+                VALUES (?)
+            """;
+
+    private final JdbcConnectionFactory jdbcConnectionFactory;
+
+    public JdbcSchemaMigrator(JdbcConnectionFactory jdbcConnectionFactory) {
+        if (jdbcConnectionFactory == null) {
+            throw new IllegalArgumentException("An jdbcConnectionFactory must not be null");
+        }
+
+        this.jdbcConnectionFactory = jdbcConnectionFactory;
+    }
+
+    /**
+     * Применяет скрипты, версии которых больше последней примененной.
+     *
+     * @return версия схемы после применения скриптов; 0, если скриптов нет
+     * @throws SQLRuntimeException если скрипт не удалось применить; версии, примененные до него, сохраняются
+     */
+    public int migrate() {
+        try (Connection connection = jdbcConnectionFactory.createConnection()) {
+            try (Statement s = connection.createStatement()) {
+                s.execute(CREATE_SCHEMA_VERSION_TABLE);
+            }
+
+            int version = getVersion(connection);
+            String script;
+            while ((script = readScript(version + 1)) != null) {
+                apply(connection, version + 1, script);
+                version++;
+            }
+
+            return version;
+        } catch (SQLException e) {
+            throw new SQLRuntimeException(e);
+        }
+    }
+
+    private void apply(Connection connection, int version, String script) throws SQLException {
+        connection.setAutoCommit(false);
+        try (Statement s = connection.createStatement();
+             PreparedStatement ps = connection.prepareStatement(INSERT_SCHEMA_VERSION)) {
+            for (String sql : splitStatements(script)) {
+                s.execute(sql);
+            }
+
+            ps.setInt(1, version);
+            ps.executeUpdate();
+            connection.commit();
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw new SQLException("Failed to apply schema version " + version, e);
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private int getVersion(Connection connection) throws SQLException {
+        try (Statement s = connection.createStatement();
+             ResultSet rs = s.executeQuery(SELECT_SCHEMA_VERSION)) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private String readScript(int version) {
+        try (InputStream in = JdbcSchemaMigrator.class.getResourceAsStream(SCRIPT_PATH.formatted(version))) {
+            return in != null ? new String(in.readAllBytes(), StandardCharsets.UTF_8) : null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Разделяет скрипт на инструкции по точке с запятой в конце строки, пропуская строки комментариев.
+     */
+    static List<String> splitStatements(String script) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder statement = new StringBuilder();
+        for (String line : script.split("\\R")) {
+            String trimmed = line.strip();
+            if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                continue;
+            }
+
+            if (trimmed.endsWith(";")) {
+                statement.append(trimmed, 0, trimmed.length() - 1);
+                statements.add(statement.toString());
+                statement.setLength(0);
+            } else {
+                statement.append(trimmed).append('\n');
+            }
+        }
+        if (!statement.toString().isBlank()) {
+            statements.add(statement.toString());
+        }
+
+        return statements;
+    }
+}
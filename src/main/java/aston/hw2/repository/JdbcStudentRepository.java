@@ -2,8 +2,14 @@ package aston.hw2.repository;
 
 import aston.hw2.entity.Group;
 import aston.hw2.entity.Student;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
 
-import java.sql.*;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
 import java.util.ListIterator;
 import java.util.Objects;
 import java.util.stream.Stream;
@@ -12,85 +18,265 @@ import java.util.stream.Stream;
  * Репозиторий студентов для работы с базой данных (БД) посредством JDBC.
  *
  * Все операции со студентами, которые связаны с какой-либо группой, а также логику управления связями делегирует {@link JdbcGroupRepository}.
+ * При включенной ленивой загрузке (см. {@link #setLazyLoading(boolean)}) ссылка на группу студента
+ * читает куратора и студентов группы через {@link GroupRepository} при первом обращении к ним.
  *
  * @author Максим Яськов
  * @see JdbcGroupRepository
  */
 public class JdbcStudentRepository extends JdbcAbstractRepository<Student, Integer> implements StudentRepository {
 
+    /**
+     * Число символов CSV, после накопления которого строки отправляются в COPY.
+     */
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private static final QueryStatistics COPY_STUDENTS_STATISTICS = QueryStatistics.register("COPY_STUDENTS");
+
     private final GroupRepository groupRepository;
 
+    private final SQLQuery<Void, Student> selectAllWithGroupReferences = SQLQuery.select(
+            "SELECT_ALL_STUDENTS_WITH_GROUP_REFERENCES", SQLNamespace.Query.SELECT_ALL_STUDENTS_WITH_GROUP_REFERENCES,
+            ParameterBinder.none(), this::studentWithGroupReference);
+
+    private final SQLQuery<int[], Student> selectByIdsWithGroupReferences = SQLQuery.select(
+            "SELECT_STUDENTS_WITH_GROUP_REFERENCES_BY_IDS", SQLNamespace.Query.SELECT_STUDENTS_WITH_GROUP_REFERENCES_BY_IDS,
+            ParameterBinder.integerArray(), this::studentWithGroupReference);
+
+    private final SQLQuery<int[], Student> selectByIdWithGroupReference = SQLQuery.select(
+            "SELECT_STUDENT_WITH_GROUP_REFERENCE_BY_ID", SQLNamespace.Query.SELECT_STUDENT_WITH_GROUP_REFERENCE_BY_ID,
+            ParameterBinder.integers(), this::studentWithGroupReference);
+
+    private final SQLQuery<int[], Student> selectPageByGroupId = SQLQuery.select(
+            "SELECT_STUDENTS_PAGE_BY_GROUP_ID", SQLNamespace.Query.SELECT_STUDENTS_PAGE_BY_GROUP_ID,
+            ParameterBinder.integers(), this::studentWithGroupReference);
+
+    private final SQLQuery<int[], Student> selectPageByGroupIdDescending = SQLQuery.select(
+            "SELECT_STUDENTS_PAGE_BY_GROUP_ID_DESC", SQLNamespace.Query.SELECT_STUDENTS_PAGE_BY_GROUP_ID_DESC,
+            ParameterBinder.integers(), this::studentWithGroupReference);
+
+    private final SQLQuery<int[], Student> selectPageWithGroupReferences = SQLQuery.select(
+            "SELECT_STUDENTS_PAGE_WITH_GROUP_REFERENCES", SQLNamespace.Query.SELECT_STUDENTS_PAGE_WITH_GROUP_REFERENCES,
+            ParameterBinder.integers(), this::studentWithGroupReference);
+
     public JdbcStudentRepository(JdbcConnectionFactory jdbcConnectionFactory, GroupRepository groupRepository) {
         super(jdbcConnectionFactory);
         this.groupRepository = groupRepository;
     }
 
     @Override
-    public Stream<Student> findAll() {
+    public boolean assignGroup(int studentId, int groupId) {
+        return executeUpdate(SQLQueries.UPDATE_STUDENT_SET_GROUP_ID_BY_ID_IF_GROUP_EXISTS, groupId, studentId, groupId) > 0;
+    }
+
+    /**
+     * Передает студентов в таблицу одной командой COPY, если подключение принадлежит драйверу PostgreSQL,
+     * и пакетами INSERT в остальных базах данных.
+     */
+    @Override
+    public int insertAll(final List<Student> students) {
+        if (students == null) {
+            throw new IllegalArgumentException("A students must not be null");
+        }
+        if (students.isEmpty()) {
+            return 0;
+        }
+
         return useConnection(connection -> {
-            Stream.Builder<Student> streamBuilder = Stream.builder();
+            if (connection.isWrapperFor(PGConnection.class)) {
+                return copyIn(connection.unwrap(PGConnection.class), students);
+            }
 
-            try (PreparedStatement ps = connection.prepareStatement(SQLNamespace.Query.SELECT_STUDENTS_BY_NULL_GROUP_ID)) {
-                try (ResultSet rs = ps.executeQuery()) {
-                    while (rs.next()) {
-                        streamBuilder.add(readStudent(rs));
-                    }
+            SQLQueries.INSERT_STUDENT_WITHOUT_KEY.batch(connection, students, getBatchSize());
+            return students.size();
+        });
+    }
+
+    /**
+     * Передает студентов командой COPY в формате CSV. Строки отправляются порциями по мере формирования,
+     * поэтому в памяти держится не больше {@link #COPY_BUFFER_SIZE} символов CSV.
+     * Выполнение учитывается в статистике COPY_STUDENTS.
+     */
+    private int copyIn(PGConnection connection, List<Student> students) throws SQLException {
+        final long start = System.nanoTime();
+        boolean failed = true;
+        long rows = 0;
+        // COPY не связан с Statement, поэтому отменяется запрос всего подключения
+        QueryCancellation.Registration registration = null;
+        CopyIn copy = null;
+        try {
+            registration = QueryCancellation.register(connection::cancelQuery);
+            copy = connection.getCopyAPI().copyIn(SQLNamespace.Query.COPY_STUDENTS);
+
+            final StringBuilder buffer = new StringBuilder(COPY_BUFFER_SIZE + 256);
+            for (Student student : students) {
+                appendCsvRow(buffer, student);
+                if (buffer.length() >= COPY_BUFFER_SIZE) {
+                    writeToCopy(copy, buffer);
                 }
             }
+            writeToCopy(copy, buffer);
 
-            return Stream.concat(streamBuilder.build(),
-                    groupRepository.findAll()
-                            .flatMap(group -> group.getStudents().stream()));
-        });
+            rows = copy.endCopy();
+            failed = false;
+
+            return (int) rows;
+        } finally {
+            if (copy != null && copy.isActive()) {
+                try {
+                    copy.cancelCopy();
+                } catch (SQLException e) {
+                    // исходная ошибка важнее ошибки отмены COPY
+                }
+            }
+            if (registration != null) {
+                registration.close();
+            }
+            COPY_STUDENTS_STATISTICS.record(System.nanoTime() - start, rows, failed);
+        }
+    }
+
+    private static void writeToCopy(CopyIn copy, StringBuilder buffer) throws SQLException {
+        if (buffer.length() == 0) {
+            return;
+        }
+
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        copy.writeToCopy(bytes, 0, bytes.length);
+        buffer.setLength(0);
+    }
+
+    /**
+     * Добавляет студента строкой CSV в порядке столбцов COPY_STUDENTS: имя, дата рождения и идентификатор группы,
+     * пустой, если студент не состоит в группе.
+     */
+    static void appendCsvRow(StringBuilder csv, Student student) {
+        csv.append('"').append(student.getName().replace("\"", "\"\"")).append('"').append(',')
+                .append(student.getDateOfBirth()).append(',');
+        if (student.getGroup() != null) {
+            csv.append(student.getGroup().getId());
+        }
+        csv.append('\n');
+    }
+
+    @Override
+    public boolean existsById(Integer id) {
+        checkIdForNull(id);
+
+        return executeExists(SQLQueries.SELECT_EXISTS_STUDENT_BY_ID, new int[] {id});
     }
 
+    /**
+     * Возвращает ленивый поток всех студентов, читаемый одним запросом к таблице студентов.
+     * Каждый студент содержит ссылку на свою группу, как и в {@link #findById(Integer)}.
+     */
+    @Override
+    public Stream<Student> findAll() {
+        return useConnectionForStream(selectAllWithGroupReferences);
+    }
+
+    /**
+     * Возвращает студентов, прочитанных одним запросом вместе со ссылками на их группы, как и в {@link #findById(Integer)}.
+     */
+    @Override
+    public List<Student> findAllById(final Collection<Integer> ids) {
+        final int[] idArray = toIdArray(ids);
+        if (idArray.length == 0) {
+            return List.of();
+        }
+
+        return queryList(selectByIdsWithGroupReferences, idArray);
+    }
+
+    /**
+     * Возвращает студента, прочитанного одним запросом вместе со ссылкой на его группу.
+     * Группа содержит идентификатор, имя и дату выпуска, но не куратора и студентов.
+     *
+     * @see #findWithGroupById(int)
+     */
     @Override
     public Student findById(final Integer id) {
         checkIdForNull(id);
 
-        return useConnection(connection -> {
-            try (PreparedStatement ps = connection.prepareStatement(SQLNamespace.Query.SELECT_STUDENT_BY_ID)) {
-                ps.setInt(1, id);
+        return queryFirst(selectByIdWithGroupReference, new int[] {id});
+    }
 
-                try (ResultSet rs = ps.executeQuery()) {
-                    if (!rs.next()) {
-                        return null;
-                    }
+    @Override
+    public Group findGroupByStudentId(final int studentId) {
+        return queryFirst(SQLQueries.SELECT_GROUP_SUMMARY_BY_STUDENT_ID, new int[] {studentId});
+    }
 
-                    int groupId = rs.getInt(SQLNamespace.Student.KEY_GROUP_ID);
-                    if (rs.wasNull()) {
-                        return readStudent(rs);
-                    }
+    @Override
+    public List<Student> findAllByGroupId(int groupId) {
+        return queryList(SQLQueries.SELECT_STUDENTS_BY_GROUP_ID, new int[] {groupId});
+    }
 
-                    Group group = groupRepository.findById(groupId);
-                    for (Student s : group.getStudents()) {
-                        if (Objects.equals(s.getId(), id)) {
-                            return s;
-                        }
-                    }
+    /**
+     * Студент и его группа читаются отдельными запросами. Если между ними студент перешел в другую группу,
+     * чтение повторяется не больше {@link #FIND_WITH_GROUP_ATTEMPTS} раз, после чего возвращается студент
+     * со ссылкой на группу без куратора и студентов. Если группа удалена, студент возвращается без группы.
+     */
+    @Override
+    public Student findWithGroupById(int id) {
+        Student student = null;
+        for (int attempt = 0; attempt < FIND_WITH_GROUP_ATTEMPTS; attempt++) {
+            student = queryFirst(SQLQueries.SELECT_STUDENT_BY_ID, new int[] {id});
+            if (student == null || student.getGroup() == null) {
+                return student;
+            }
+
+            Group group = groupRepository.findById(student.getGroup().getId());
+            if (group == null) {
+                student.setGroup(null);
+                return student;
+            }
+
+            for (Student s : group.getStudents()) {
+                if (Objects.equals(s.getId(), id)) {
+                    return s;
                 }
             }
+        }
 
-            return null;
-        });
+        return student;
+    }
+
+    @Override
+    public long exportAll(final ExportFormat format, final Writer writer) {
+        return exportAll(SQLQueries.SELECT_STUDENTS_FOR_EXPORT, SQLNamespace.Student.EXPORT_COLUMNS, format, writer);
+    }
+
+    @Override
+    public Page<Student, Integer> findPage(final Integer afterId, final int limit) {
+        checkLimit(limit);
+
+        List<Student> fetched = queryList(selectPageWithGroupReferences,
+                new int[] {afterId != null ? afterId : Integer.MIN_VALUE, lookaheadLimit(limit)});
+
+        return Page.of(fetched, limit, Student::getId);
+    }
+
+    @Override
+    public Page<Student, Integer> findPageByGroupId(final int groupId, final Integer afterId, final int limit,
+                                                    final SortOrder order) {
+        checkLimit(limit);
+        if (order == null) {
+            throw new IllegalArgumentException("An order must not be null");
+        }
+
+        boolean descending = order == SortOrder.DESC;
+        int after = afterId != null ? afterId : descending ? Integer.MAX_VALUE : Integer.MIN_VALUE;
+
+        List<Student> fetched = queryList(descending ? selectPageByGroupIdDescending : selectPageByGroupId,
+                new int[] {groupId, after, lookaheadLimit(limit)});
+
+        return Page.of(fetched, limit, Student::getId);
     }
 
     private Student insert(final Student student) {
         return useConnection(connection -> {
-            if (student.getGroup() == null) {
-                try (PreparedStatement ps = connection.prepareStatement(SQLNamespace.Query.INSERT_STUDENT, Statement.RETURN_GENERATED_KEYS)) {
-                    ps.setString(1, student.getName());
-                    ps.setDate(2, Date.valueOf(student.getDateOfBirth()));
-                    ps.setNull(3, JDBCType.INTEGER.getVendorTypeNumber());
-
-                    ps.executeUpdate();
-
-                    try (ResultSet rs = ps.getGeneratedKeys()) {
-                        if (rs.next()) {
-                            student.setId(rs.getInt(1));
-                        }
-                    }
-                }
+            if (isStoredDirectly(student)) {
+                student.setId(SQLQueries.INSERT_STUDENT.insert(connection, student));
             } else {
                 student.getGroup().getStudents().add(student);
                 groupRepository.save(student.getGroup());
@@ -100,13 +286,37 @@ public class JdbcStudentRepository extends JdbcAbstractRepository<Student, Integ
         });
     }
 
-    private Student readStudent(ResultSet rs) throws SQLException {
-        Student student = new Student();
-        student.setId(rs.getInt(SQLNamespace.Student.KEY_ID));
-        student.setName(rs.getString(SQLNamespace.Student.KEY_NAME));
-        student.setDateOfBirth(rs.getDate(SQLNamespace.Student.KEY_DATE_OF_BIRTH).toLocalDate());
+    /**
+     * Проверяет, сохраняется ли студент собственным запросом, без каскадного сохранения группы:
+     * студент без группы или со ссылкой на группу.
+     */
+    private boolean isStoredDirectly(Student student) {
+        return student.getGroup() == null || JdbcGroupRepository.isReference(student.getGroup());
+    }
 
-        return student;
+    /**
+     * Возвращает читателя студента со ссылкой на группу. При ленивой загрузке куратор и студенты группы
+     * читаются через {@link GroupRepository} при первом обращении к ним.
+     */
+    private RowMapper<Student> studentWithGroupReference(Columns columns) {
+        final RowMapper<Student> students = RowMappers.student(columns);
+        final RowMapper<Group> groups = isLazyLoading()
+                ? RowMappers.lazyGroup(columns, groupRepository)
+                : RowMappers.group(columns);
+
+        return rs -> {
+            Student student = students.map(rs);
+            student.setGroup(groups.map(rs));
+
+            return student;
+        };
+    }
+
+    @Override
+    public boolean deleteById(Integer id) {
+        checkIdForNull(id);
+
+        return executeUpdate(SQLQueries.DELETE_STUDENT_BY_ID, id) > 0;
     }
 
     @Override
@@ -118,12 +328,7 @@ public class JdbcStudentRepository extends JdbcAbstractRepository<Student, Integ
             return null;
         }
 
-        useConnection(connection -> {
-            try (PreparedStatement ps = connection.prepareStatement(SQLNamespace.Query.DELETE_STUDENT_BY_ID)) {
-                ps.setInt(1, id);
-                ps.executeUpdate();
-            }
-        });
+        deleteById(id);
 
         return student;
     }
@@ -139,16 +344,20 @@ public class JdbcStudentRepository extends JdbcAbstractRepository<Student, Integ
         }
     }
 
+    @Override
+    public boolean unassignGroup(int studentId) {
+        return executeUpdate(SQLQueries.UPDATE_STUDENT_SET_NULL_GROUP_ID_BY_ID, studentId) > 0;
+    }
+
+    @Override
+    public boolean unassignGroup(int studentId, int groupId) {
+        return executeUpdate(SQLQueries.UPDATE_STUDENT_SET_NULL_GROUP_ID_BY_ID_AND_GROUP_ID, studentId, groupId) > 0;
+    }
+
     private Student update(Student student) {
         return useConnection(connection -> {
-            if (student.getGroup() == null) {
-                try (PreparedStatement ps = connection.prepareStatement(SQLNamespace.Query.UPDATE_STUDENT)) {
-                    ps.setString(1, student.getName());
-                    ps.setDate(2, Date.valueOf(student.getDateOfBirth()));
-                    ps.setNull(3, JDBCType.INTEGER.getVendorTypeNumber());
-                    ps.setInt(4, student.getId());
-                    ps.executeUpdate();
-                }
+            if (isStoredDirectly(student)) {
+                SQLQueries.UPDATE_STUDENT.update(connection, student);
             } else {
                 ListIterator<Student> it = student.getGroup().getStudents().listIterator();
                 boolean set = false;
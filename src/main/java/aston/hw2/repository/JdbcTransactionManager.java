@@ -0,0 +1,82 @@
+package aston.hw2.repository;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.function.Supplier;
+
+/**
+ * Менеджер транзакций, привязывающий подключение к текущему потоку.
+ *
+ * На время действия подключение, полученное из {@link JdbcConnectionFactory}, привязывается к потоку,
+ * и {@link JdbcAbstractRepository} использует его вместо открытия нового подключения.
+ *
+ * @author Максим Яськов
+ * @see JdbcConnectionFactory
+ * @see JdbcAbstractRepository
+ */
+public class JdbcTransactionManager implements TransactionManager {
+
+    private final JdbcConnectionFactory jdbcConnectionFactory;
+
+    public JdbcTransactionManager(JdbcConnectionFactory jdbcConnectionFactory) {
+        if (jdbcConnectionFactory == null) {
+            throw new IllegalArgumentException("An jdbcConnectionFactory must not be null");
+        }
+
+        this.jdbcConnectionFactory = jdbcConnectionFactory;
+    }
+
+    @Override
+    public <T> T inTransaction(Supplier<T> action) {
+        if (action == null) {
+            throw new IllegalArgumentException("An action must not be null");
+        }
+
+        if (jdbcConnectionFactory.getTransactionConnection() != null) {
+            return action.get();
+        }
+
+        try (Connection connection = jdbcConnectionFactory.createConnection()) {
+            connection.setAutoCommit(false);
+            jdbcConnectionFactory.bindTransactionConnection(connection);
+            Throwable failure = null;
+            try {
+                T result = action.get();
+                connection.commit();
+                return result;
+            } catch (SQLException | RuntimeException | Error e) {
+                failure = e;
+                rollback(connection, e);
+                throw e;
+            } finally {
+                jdbcConnectionFactory.unbindTransactionConnection();
+                restoreAutoCommit(connection, failure);
+            }
+        } catch (SQLException e) {
+            throw new SQLRuntimeException(e);
+        }
+    }
+
+    /**
+     * Возвращает подключению автоматическую фиксацию. Если транзакция завершилась ошибкой, ошибка восстановления
+     * добавляется к ней как подавленная, чтобы не подменить исходную причину.
+     */
+    private void restoreAutoCommit(Connection connection, Throwable failure) throws SQLException {
+        try {
+            connection.setAutoCommit(true);
+        } catch (SQLException e) {
+            if (failure == null) {
+                throw e;
+            }
+            failure.addSuppressed(e);
+        }
+    }
+
+    private void rollback(Connection connection, Throwable cause) {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            cause.addSuppressed(e);
+        }
+    }
+}
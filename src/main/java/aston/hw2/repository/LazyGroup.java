@@ -0,0 +1,102 @@
+package aston.hw2.repository;
+
+import aston.hw2.entity.Curator;
+import aston.hw2.entity.Group;
+import aston.hw2.entity.Student;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Ссылка на группу, читающая куратора и студентов группы из базы данных при первом обращении к ним.
+ *
+ * Собственные свойства группы - идентификатор, имя и дата выпуска - доступны без обращения к базе данных,
+ * поэтому ссылку можно отобразить, например, с помощью {@link aston.hw2.mapper.GroupMapper}, не читая группу целиком.
+ * Куратор и студенты, установленные явно, не перечитываются.
+ *
+ * @author Максим Яськов
+ * @see JdbcAbstractRepository#setLazyLoading(boolean)
+ */
+class LazyGroup extends Group {
+
+    private Supplier<Group> loader;
+
+    private boolean curatorLoaded;
+
+    private boolean studentsLoaded;
+
+    /**
+     * @param loader функция чтения группы целиком по идентификатору этой ссылки
+     */
+    LazyGroup(Supplier<Group> loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * Проверяет, прочитаны или установлены явно студенты группы.
+     *
+     * @return true, если студенты доступны без обращения к базе данных
+     */
+    boolean isStudentsLoaded() {
+        return studentsLoaded;
+    }
+
+    @Override
+    public Curator getCurator() {
+        if (!curatorLoaded) {
+            initialize();
+        }
+
+        return super.getCurator();
+    }
+
+    @Override
+    public void setCurator(Curator curator) {
+        curatorLoaded = true;
+        super.setCurator(curator);
+    }
+
+    @Override
+    public List<Student> getStudents() {
+        if (!studentsLoaded) {
+            initialize();
+        }
+
+        return super.getStudents();
+    }
+
+    @Override
+    public void setStudents(List<Student> students) {
+        studentsLoaded = true;
+        super.setStudents(students);
+    }
+
+    private void initialize() {
+        if (loader == null) {
+            return;
+        }
+
+        Group loaded = loader.get();
+        loader = null;
+
+        if (!curatorLoaded) {
+            Curator curator = loaded != null ? loaded.getCurator() : null;
+            if (curator != null) {
+                curator.setGroup(this);
+            }
+            setCurator(curator);
+        }
+
+        if (!studentsLoaded) {
+            List<Student> students = loaded != null ? loaded.getStudents() : new PersistentStudentList(getId());
+            if (students instanceof LazyStudentList lazy && !lazy.isInitialized()) {
+                lazy.setOwner(this);
+            } else {
+                for (Student student : students) {
+                    student.setGroup(this);
+                }
+            }
+            setStudents(students);
+        }
+    }
+}
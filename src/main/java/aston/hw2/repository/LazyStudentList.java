@@ -0,0 +1,126 @@
+package aston.hw2.repository;
+
+import aston.hw2.entity.Group;
+import aston.hw2.entity.Student;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Список студентов группы, читаемый из базы данных при первом обращении.
+ *
+ * До первого обращения список не содержит студентов и не обращается к базе данных,
+ * поэтому группу можно прочитать, отобразить и сохранить без чтения ее студентов.
+ * После чтения список ведет себя как {@link PersistentStudentList}.
+ *
+ * @author Максим Яськов
+ * @see JdbcAbstractRepository#setLazyLoading(boolean)
+ */
+class LazyStudentList extends PersistentStudentList {
+
+    private Supplier<List<Student>> loader;
+
+    private Group owner;
+
+    /**
+     * @param owner группа, которой принадлежит список и которая назначается прочитанным студентам
+     * @param loader функция чтения студентов группы
+     */
+    LazyStudentList(Group owner, Supplier<List<Student>> loader) {
+        super(owner.getId());
+        this.owner = owner;
+        this.loader = loader;
+    }
+
+    /**
+     * Проверяет, прочитаны ли студенты из базы данных.
+     *
+     * @return true, если студенты прочитаны
+     */
+    boolean isInitialized() {
+        return loader == null;
+    }
+
+    /**
+     * Заменяет группу, назначаемую студентам при чтении.
+     *
+     * @param owner новая группа-владелец списка
+     */
+    void setOwner(Group owner) {
+        this.owner = owner;
+    }
+
+    private void initialize() {
+        if (loader == null) {
+            return;
+        }
+
+        List<Student> loaded = loader.get();
+        loader = null;
+        for (Student student : loaded) {
+            student.setGroup(owner);
+            super.load(student);
+        }
+    }
+
+    @Override
+    void load(Student student) {
+        initialize();
+        super.load(student);
+    }
+
+    @Override
+    void markClean() {
+        initialize();
+        super.markClean();
+    }
+
+    @Override
+    boolean isPersistent(Student student) {
+        initialize();
+        return super.isPersistent(student);
+    }
+
+    @Override
+    boolean isDirty(Student student) {
+        initialize();
+        return super.isDirty(student);
+    }
+
+    @Override
+    Collection<Integer> getRemovedIds() {
+        initialize();
+        return super.getRemovedIds();
+    }
+
+    @Override
+    public Student get(int index) {
+        initialize();
+        return super.get(index);
+    }
+
+    @Override
+    public int size() {
+        initialize();
+        return super.size();
+    }
+
+    @Override
+    public Student set(int index, Student student) {
+        initialize();
+        return super.set(index, student);
+    }
+
+    @Override
+    public void add(int index, Student student) {
+        initialize();
+        super.add(index, student);
+    }
+
+    @Override
+    public Student remove(int index) {
+        initialize();
+        return super.remove(index);
+    }
+}
@@ -0,0 +1,57 @@
+package aston.hw2.repository;
+
+import lombok.Value;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Страница сущностей, прочитанная по ключу: сущности с идентификаторами больше курсора, упорядоченные по возрастанию идентификатора.
+ *
+ * @param <E> тип сущности
+ * @param <ID> тип идентификатора сущности
+ *
+ * @author Максим Яськов
+ * @see CrudRepository#findPage(Object, int)
+ */
+@Value
+public class Page<E, ID> {
+
+    /**
+     * Сущности страницы, упорядоченные по возрастанию идентификатора.
+     */
+    List<E> items;
+
+    /**
+     * Курсор следующей страницы: идентификатор последней сущности этой страницы
+     * или null, если следующей страницы нет.
+     */
+    ID nextCursor;
+
+    /**
+     * Проверяет, есть ли следующая страница.
+     *
+     * @return true, если курсор следующей страницы не равен null
+     */
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    /**
+     * Создает страницу из сущностей, прочитанных с запасом в одну сущность сверх размера страницы.
+     * Лишняя сущность не попадает в страницу и лишь показывает, что следующая страница существует.
+     *
+     * @param fetched прочитанные сущности, не более limit + 1
+     * @param limit размер страницы
+     * @param idOf функция получения идентификатора сущности
+     * @return страница не более чем из limit сущностей
+     */
+    public static <E, ID> Page<E, ID> of(List<E> fetched, int limit, Function<E, ID> idOf) {
+        if (fetched.size() <= limit) {
+            return new Page<>(List.copyOf(fetched), null);
+        }
+
+        List<E> items = List.copyOf(fetched.subList(0, limit));
+        return new Page<>(items, idOf.apply(items.get(limit - 1)));
+    }
+}
@@ -0,0 +1,71 @@
+package aston.hw2.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Устанавливает параметры подготовленного запроса.
+ *
+ * @param <P> тип значения, из которого устанавливаются параметры
+ * @author Максим Яськов
+ * @see SQLQuery
+ */
+@FunctionalInterface
+interface ParameterBinder<P> {
+
+    /**
+     * Устанавливает параметры запроса.
+     *
+     * @param ps подготовленный запрос
+     * @param parameters значение, из которого устанавливаются параметры
+     */
+    void bind(PreparedStatement ps, P parameters) throws SQLException;
+
+    /**
+     * Возвращает установщик для запроса без параметров.
+     *
+     * @return установщик, не устанавливающий параметров
+     */
+    static <P> ParameterBinder<P> none() {
+        return (ps, parameters) -> {
+        };
+    }
+
+    /**
+     * Возвращает установщик единственного параметра-массива целых чисел, например для условия {@code id = ANY(?)}.
+     * Число значений не влияет на текст запроса, поэтому подготовленный запрос переиспользуется.
+     *
+     * @return установщик значений массива в первый параметр
+     */
+    static ParameterBinder<int[]> integerArray() {
+        return (ps, parameters) -> {
+            Integer[] values = new Integer[parameters.length];
+            for (int i = 0; i < parameters.length; i++) {
+                values[i] = parameters[i];
+            }
+            ps.setArray(1, ps.getConnection().createArrayOf("INTEGER", values));
+        };
+    }
+
+    /**
+     * Возвращает установщик целочисленных параметров в порядке следования.
+     *
+     * @return установщик значений массива в параметры с первого по последний
+     */
+    static ParameterBinder<int[]> integers() {
+        return (ps, parameters) -> {
+            for (int i = 0; i < parameters.length; i++) {
+                ps.setInt(i + 1, parameters[i]);
+            }
+        };
+    }
+
+    /**
+     * Возвращает установщик единственного строкового параметра.
+     *
+     * @return установщик значения в первый параметр
+     */
+    static ParameterBinder<String> string() {
+        return (ps, parameters) -> ps.setString(1, parameters);
+    }
+}
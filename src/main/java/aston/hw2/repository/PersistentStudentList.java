@@ -0,0 +1,149 @@
+package aston.hw2.repository;
+
+import aston.hw2.entity.Student;
+import lombok.Value;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Список студентов группы, запоминающий состав группы и состояние студентов на момент чтения
+ * из базы данных или последнего сохранения.
+ *
+ * Позволяет {@link JdbcGroupRepository} при сохранении группы записывать только изменения:
+ * новых и переназначенных студентов, студентов с измененными полями и исключенных из группы студентов.
+ *
+ * @author Максим Яськов
+ * @see JdbcGroupRepository
+ */
+class PersistentStudentList extends AbstractList<Student> implements RandomAccess {
+
+    private final int groupId;
+
+    private final List<Student> students = new ArrayList<>();
+
+    private final Map<Integer, StudentState> snapshot = new HashMap<>();
+
+    PersistentStudentList(int groupId) {
+        this.groupId = groupId;
+    }
+
+    PersistentStudentList(int groupId, Collection<Student> students) {
+        this(groupId);
+        this.students.addAll(students);
+        markClean();
+    }
+
+    /**
+     * Возвращает идентификатор группы, которой принадлежит запомненный состав.
+     *
+     * @return идентификатор группы
+     */
+    int getGroupId() {
+        return groupId;
+    }
+
+    /**
+     * Добавляет студента, прочитанного из базы данных, и запоминает его состояние.
+     *
+     * @param student прочитанный студент
+     */
+    void load(Student student) {
+        students.add(student);
+        snapshot.put(student.getId(), StudentState.of(student));
+    }
+
+    /**
+     * Запоминает текущий состав группы и состояние студентов как сохраненные.
+     */
+    void markClean() {
+        snapshot.clear();
+        for (Student student : students) {
+            snapshot.put(Objects.requireNonNull(student.getId()), StudentState.of(student));
+        }
+    }
+
+    /**
+     * Проверяет, состоял ли студент в группе на момент чтения или последнего сохранения.
+     *
+     * @param student студент
+     * @return true, если студент состоял в группе
+     */
+    boolean isPersistent(Student student) {
+        return student.getId() != null && snapshot.containsKey(student.getId());
+    }
+
+    /**
+     * Проверяет, изменились ли поля студента с момента чтения или последнего сохранения.
+     *
+     * @param student студент, состоявший в группе
+     * @return true, если поля студента изменились
+     */
+    boolean isDirty(Student student) {
+        return !Objects.equals(snapshot.get(student.getId()), StudentState.of(student));
+    }
+
+    /**
+     * Возвращает идентификаторы студентов, исключенных из группы с момента чтения или последнего сохранения.
+     *
+     * @return идентификаторы исключенных студентов
+     */
+    Collection<Integer> getRemovedIds() {
+        Set<Integer> currentIds = new HashSet<>();
+        for (Student student : students) {
+            currentIds.add(student.getId());
+        }
+
+        List<Integer> removedIds = new ArrayList<>();
+        for (Integer id : snapshot.keySet()) {
+            if (!currentIds.contains(id)) {
+                removedIds.add(id);
+            }
+        }
+
+        return removedIds;
+    }
+
+    @Override
+    public Student get(int index) {
+        return students.get(index);
+    }
+
+    @Override
+    public int size() {
+        return students.size();
+    }
+
+    @Override
+    public Student set(int index, Student student) {
+        return students.set(index, student);
+    }
+
+    @Override
+    public void add(int index, Student student) {
+        students.add(index, student);
+        modCount++;
+    }
+
+    @Override
+    public Student remove(int index) {
+        Student removed = students.remove(index);
+        modCount++;
+        return removed;
+    }
+
+    /**
+     * Сохраненное состояние студента.
+     */
+    @Value
+    private static class StudentState {
+
+        String name;
+
+        LocalDate dateOfBirth;
+
+        static StudentState of(Student student) {
+            return new StudentState(student.getName(), student.getDateOfBirth());
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package aston.hw2.repository;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Отмена jdbc-запросов, выполняемых от имени одной операции, например HTTP-запроса.
+ *
+ * Пока отмена привязана к потоку через {@link #bind()}, запросы {@link SQLQuery}, потоковое чтение
+ * и команды COPY {@link JdbcAbstractRepository} регистрируются в ней на время выполнения. {@link #cancel()}
+ * можно вызвать из любого потока: выполняющиеся запросы прерываются через {@link Statement#cancel()}
+ * или отмену запроса подключения PostgreSQL, а следующие запросы операции завершаются {@link SQLException}
+ * с SQLSTATE 57014 без обращения к базе данных.
+ *
+ * @author Максим Яськов
+ * @see SQLQuery
+ */
+public final class QueryCancellation {
+
+    /**
+     * SQLSTATE отмененного запроса.
+     */
+    public static final String SQL_STATE_QUERY_CANCELED = "57014";
+
+    private static final ThreadLocal<QueryCancellation> CURRENT = new ThreadLocal<>();
+
+    private final Set<Registration> registrations = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean cancelled;
+
+    /**
+     * Привязывает отмену к текущему потоку до вызова {@link #unbind()}.
+     */
+    public void bind() {
+        CURRENT.set(this);
+    }
+
+    /**
+     * Отвязывает от текущего потока привязанную к нему отмену.
+     */
+    public static void unbind() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Отменяет выполняющиеся запросы и запрещает выполнение следующих. Повторный вызов ничего не делает.
+     */
+    public void cancel() {
+        if (cancelled) {
+            return;
+        }
+
+        cancelled = true;
+        for (Registration registration : registrations) {
+            registration.cancel();
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Возвращает отмену, привязанную к текущему потоку. Долгая обработка без обращения к базе данных
+     * может проверять по ней, не отменена ли операция.
+     *
+     * @return отмена или null, если к потоку не привязана отмена
+     */
+    public static QueryCancellation current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Регистрирует выполняющуюся операцию в отмене, привязанной к текущему потоку, если она есть.
+     * Регистрацию нужно закрыть до освобождения запроса или подключения операции.
+     *
+     * @param operation отмена операции, например {@code statement::cancel}
+     * @return регистрация операции или null, если к потоку не привязана отмена
+     * @throws SQLException если отмена уже произошла
+     */
+    static Registration register(Operation operation) throws SQLException {
+        QueryCancellation cancellation = current();
+        if (cancellation == null) {
+            return null;
+        }
+
+        // операция добавляется до проверки флага, поэтому ее увидит либо эта проверка, либо cancel()
+        Registration registration = new Registration(cancellation, operation);
+        cancellation.registrations.add(registration);
+        if (cancellation.cancelled) {
+            registration.close();
+            throw new SQLException("The query is cancelled", SQL_STATE_QUERY_CANCELED);
+        }
+
+        return registration;
+    }
+
+    /**
+     * Регистрация выполняющейся операции. Отмена и закрытие регистрации взаимно исключены: после {@link #close()}
+     * отмена не дойдет до операции, даже если ее подключение или запрос уже выданы другой операции.
+     */
+    static final class Registration implements AutoCloseable {
+
+        private final QueryCancellation cancellation;
+
+        private final Operation operation;
+
+        private boolean closed;
+
+        private Registration(QueryCancellation cancellation, Operation operation) {
+            this.cancellation = cancellation;
+            this.operation = operation;
+        }
+
+        private synchronized void cancel() {
+            if (closed) {
+                return;
+            }
+
+            try {
+                operation.cancel();
+            } catch (SQLException e) {
+                // запрос уже завершен или драйвер не поддерживает отмену
+            }
+        }
+
+        /**
+         * Снимает регистрацию, дожидаясь завершения начатой отмены.
+         */
+        @Override
+        public void close() {
+            synchronized (this) {
+                closed = true;
+            }
+            cancellation.registrations.remove(this);
+        }
+    }
+
+    /**
+     * Прерывает выполняющуюся операцию из другого потока.
+     */
+    @FunctionalInterface
+    interface Operation {
+        void cancel() throws SQLException;
+    }
+}
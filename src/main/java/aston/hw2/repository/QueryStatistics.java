@@ -0,0 +1,123 @@
+package aston.hw2.repository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Статистика выполнения запроса: число выполнений и ошибок, прочитанные или измененные строки и время выполнения.
+ *
+ * Статистика собирается автоматически при каждом выполнении {@link SQLQuery} и общая для всех запросов с одним именем.
+ * Для потокового чтения время выполнения включает время потребления потока.
+ *
+ * @author Максим Яськов
+ * @see SQLQuery
+ */
+public final class QueryStatistics {
+
+    private static final Map<String, QueryStatistics> REGISTRY = new ConcurrentHashMap<>();
+
+    private final String name;
+
+    private final LongAdder executions = new LongAdder();
+
+    private final LongAdder failures = new LongAdder();
+
+    private final LongAdder rows = new LongAdder();
+
+    private final LongAdder totalNanos = new LongAdder();
+
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    private QueryStatistics(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Возвращает статистику всех выполнявшихся запросов, упорядоченную по имени запроса.
+     *
+     * @return статистика запросов, всегда не null
+     */
+    public static List<QueryStatistics> all() {
+        List<QueryStatistics> list = new ArrayList<>(REGISTRY.values());
+        list.sort(Comparator.comparing(QueryStatistics::getName));
+
+        return list;
+    }
+
+    /**
+     * Возвращает статистику запроса с указанным именем.
+     *
+     * @param name имя запроса
+     * @return статистика запроса или null, если запрос с таким именем не создавался
+     */
+    public static QueryStatistics get(String name) {
+        return REGISTRY.get(name);
+    }
+
+    static QueryStatistics register(String name) {
+        return REGISTRY.computeIfAbsent(name, QueryStatistics::new);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getExecutions() {
+        return executions.sum();
+    }
+
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    /**
+     * Возвращает суммарное число строк, прочитанных запросом или измененных им.
+     *
+     * @return число строк
+     */
+    public long getRows() {
+        return rows.sum();
+    }
+
+    public Duration getTotalTime() {
+        return Duration.ofNanos(totalNanos.sum());
+    }
+
+    public Duration getMaxTime() {
+        return Duration.ofNanos(maxNanos.get());
+    }
+
+    public Duration getAverageTime() {
+        long count = executions.sum();
+        return count == 0 ? Duration.ZERO : Duration.ofNanos(totalNanos.sum() / count);
+    }
+
+    /**
+     * Учитывает выполнение запроса.
+     *
+     * @param nanos время выполнения в наносекундах
+     * @param rowCount число прочитанных или измененных строк
+     * @param failed true, если выполнение завершилось ошибкой
+     */
+    void record(long nanos, long rowCount, boolean failed) {
+        executions.increment();
+        if (failed) {
+            failures.increment();
+        }
+        rows.add(rowCount);
+        totalNanos.add(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    @Override
+    public String toString() {
+        return "QueryStatistics[name=%s, executions=%d, failures=%d, rows=%d, totalTime=%s, maxTime=%s]"
+                .formatted(name, getExecutions(), getFailures(), getRows(), getTotalTime(), getMaxTime());
+    }
+}
@@ -0,0 +1,164 @@
+package aston.hw2.repository;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Фабрика jdbc-подключений, направляющая чтение на реплики, а запись - на основную базу данных.
+ *
+ * {@link #createConnection()} всегда выдает подключение к основной базе данных: через него выполняются
+ * изменяющие запросы и транзакции {@link JdbcTransactionManager}. {@link #createReadOnlyConnection()}
+ * выдает подключение к репликам по очереди; если реплика недоступна или реплик нет, подключение
+ * выдается к основной базе данных.
+ *
+ * Реплика может отставать от основной базы данных. Если включено {@link #setReadYourWrites(boolean) readYourWrites},
+ * то после первой выдачи подключения к основной базе данных текущий поток читает из нее же,
+ * пока не будет вызван {@link #resetReadYourWrites()}, поэтому запрос видит собственные изменения.
+ * {@code RestHttpServlet} вызывает {@link #resetReadYourWrites()} в начале и в конце обработки каждого HTTP-запроса.
+ * Задачи исполнителя, обернутого {@link #readYourWritesExecutor(Executor)}, разделяют это состояние
+ * с передавшим их потоком.
+ *
+ * @author Максим Яськов
+ * @see JdbcAbstractRepository
+ */
+public class RoutingJdbcConnectionFactory extends JdbcConnectionFactory implements AutoCloseable {
+
+    private final JdbcConnectionFactory primary;
+
+    private final List<JdbcConnectionFactory> replicas;
+
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    // флаг записи общий для потока и переданных им задач readYourWritesExecutor, поэтому хранится изменяемым
+    private final ThreadLocal<AtomicBoolean> wrote = ThreadLocal.withInitial(AtomicBoolean::new);
+
+    private volatile boolean readYourWrites;
+
+    public RoutingJdbcConnectionFactory(JdbcConnectionFactory primary, List<JdbcConnectionFactory> replicas) {
+        if (primary == null) {
+            throw new IllegalArgumentException("A primary must not be null");
+        }
+        if (replicas == null || replicas.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("A replicas must not be null or contain null");
+        }
+
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+    }
+
+    /**
+     * Включает чтение собственных изменений: после выдачи подключения к основной базе данных
+     * текущий поток читает из нее до вызова {@link #resetReadYourWrites()}. По умолчанию выключено.
+     *
+     * @param readYourWrites true, чтобы читать собственные изменения
+     */
+    public void setReadYourWrites(boolean readYourWrites) {
+        this.readYourWrites = readYourWrites;
+    }
+
+    /**
+     * Завершает чтение собственных изменений текущим потоком: следующие подключения для чтения снова выдаются к репликам.
+     */
+    public void resetReadYourWrites() {
+        wrote.remove();
+    }
+
+    /**
+     * Оборачивает исполнитель так, что задача читает собственные изменения вместе с потоком, передавшим ее:
+     * после записи в задаче поток читает из основной базы данных, и наоборот. По окончании задачи
+     * поток исполнителя не сохраняет это состояние, поэтому переиспользуемые потоки пула снова читают из реплик.
+     *
+     * @param executor исполнитель задач, например асинхронных операций сервисов
+     * @return исполнитель, разделяющий чтение собственных изменений с передающим потоком
+     */
+    public Executor readYourWritesExecutor(Executor executor) {
+        if (executor == null) {
+            throw new IllegalArgumentException("An executor must not be null");
+        }
+
+        return command -> {
+            final AtomicBoolean submitterWrote = wrote.get();
+            executor.execute(() -> {
+                wrote.set(submitterWrote);
+                try {
+                    command.run();
+                } finally {
+                    wrote.remove();
+                }
+            });
+        };
+    }
+
+    /**
+     * Выдает подключение к основной базе данных.
+     *
+     * @return подключение к основной базе данных
+     * @throws SQLException при ошибке подключения к базе данных
+     */
+    @Override
+    public Connection createConnection() throws SQLException {
+        Connection connection = primary.createConnection();
+        if (readYourWrites) {
+            wrote.get().set(true);
+        }
+
+        return connection;
+    }
+
+    /**
+     * Выдает подключение к очередной реплике или к основной базе данных, если текущий поток читает
+     * собственные изменения, реплик нет или реплика недоступна.
+     *
+     * @return подключение для чтения
+     * @throws SQLException при ошибке подключения к основной базе данных
+     */
+    @Override
+    public Connection createReadOnlyConnection() throws SQLException {
+        if (replicas.isEmpty() || (readYourWrites && wrote.get().get())) {
+            return primary.createReadOnlyConnection();
+        }
+
+        JdbcConnectionFactory replica = replicas.get(Math.floorMod(nextReplica.getAndIncrement(), replicas.size()));
+        try {
+            return replica.createReadOnlyConnection();
+        } catch (SQLException e) {
+            return primary.createReadOnlyConnection();
+        }
+    }
+
+    /**
+     * Закрывает основную фабрику и фабрики реплик, реализующие {@link AutoCloseable}, например пулы подключений.
+     */
+    @Override
+    public void close() throws Exception {
+        Exception failure = null;
+        for (JdbcConnectionFactory factory : replicas) {
+            failure = closeQuietly(factory, failure);
+        }
+        failure = closeQuietly(primary, failure);
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static Exception closeQuietly(JdbcConnectionFactory factory, Exception failure) {
+        if (factory instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                if (failure == null) {
+                    return e;
+                }
+                failure.addSuppressed(e);
+            }
+        }
+
+        return failure;
+    }
+}
@@ -0,0 +1,26 @@
+package aston.hw2.repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Читает значение из текущей строки результата запроса.
+ * Реализации обращаются к столбцам по индексам, определенным один раз для результата (см. {@link Columns}),
+ * и не перемещают курсор.
+ *
+ * @param <T> тип читаемого значения
+ *
+ * @author Максим Яськов
+ * @see RowMappers
+ */
+@FunctionalInterface
+interface RowMapper<T> {
+
+    /**
+     * Читает значение из текущей строки.
+     *
+     * @param rs результат запроса, установленный на строку
+     * @return прочитанное значение или null, если строка его не содержит
+     */
+    T map(ResultSet rs) throws SQLException;
+}
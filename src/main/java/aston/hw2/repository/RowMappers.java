@@ -0,0 +1,167 @@
+package aston.hw2.repository;
+
+import aston.hw2.entity.Curator;
+import aston.hw2.entity.Group;
+import aston.hw2.entity.Student;
+
+import java.time.LocalDate;
+import java.util.function.IntFunction;
+
+/**
+ * Фабрики {@link RowMapper} сущностей, читающих столбцы с псевдонимами из {@link SQLNamespace}.
+ *
+ * Индексы столбцов определяются при создании читателя, поэтому читатель создается один раз для результата запроса
+ * и затем используется для каждой его строки. Даты читаются как {@link LocalDate} без промежуточного {@link java.sql.Date}.
+ *
+ * @author Максим Яськов
+ * @see Columns
+ */
+final class RowMappers {
+
+    private RowMappers() {
+    }
+
+    /**
+     * Возвращает читателя собственных свойств группы: идентификатора, имени и даты выпуска.
+     * Куратор и студенты прочитанной группы не установлены.
+     *
+     * @param columns столбцы результата
+     * @return читатель группы; возвращает null, если строка не содержит группы
+     */
+    static RowMapper<Group> group(Columns columns) {
+        return group(columns, groupId -> new Group());
+    }
+
+    /**
+     * Возвращает читателя ссылки на группу, как {@link #group(Columns)}, куратор и студенты которой
+     * читаются через репозиторий групп при первом обращении к ним.
+     *
+     * @param columns столбцы результата
+     * @param groupRepository репозиторий, читающий группу целиком
+     * @return читатель ленивой ссылки на группу; возвращает null, если строка не содержит группы
+     * @see LazyGroup
+     */
+    static RowMapper<Group> lazyGroup(Columns columns, GroupRepository groupRepository) {
+        return group(columns, groupId -> new LazyGroup(() -> groupRepository.findById(groupId)));
+    }
+
+    private static RowMapper<Group> group(Columns columns, IntFunction<Group> factory) {
+        final int id = columns.indexOf(SQLNamespace.Group.KEY_ID);
+        final int name = columns.indexOf(SQLNamespace.Group.KEY_NAME);
+        final int graduationDate = columns.indexOf(SQLNamespace.Group.KEY_GRADUATION_DATE);
+        if (id == 0) {
+            return rs -> null;
+        }
+
+        return rs -> {
+            Integer groupId = rs.getObject(id, Integer.class);
+            if (groupId == null) {
+                return null;
+            }
+
+            Group group = factory.apply(groupId);
+            group.setId(groupId);
+            group.setName(rs.getString(name));
+            group.setGraduationDate(rs.getObject(graduationDate, LocalDate.class));
+
+            return group;
+        };
+    }
+
+    /**
+     * Возвращает читателя куратора без группы.
+     *
+     * @param columns столбцы результата
+     * @return читатель куратора; возвращает null, если результат или строка не содержат куратора
+     */
+    static RowMapper<Curator> curator(Columns columns) {
+        final int id = columns.indexOf(SQLNamespace.Curator.KEY_ID);
+        final int name = columns.indexOf(SQLNamespace.Curator.KEY_NAME);
+        final int email = columns.indexOf(SQLNamespace.Curator.KEY_EMAIL);
+        final int experience = columns.indexOf(SQLNamespace.Curator.KEY_EXPERIENCE);
+        if (id == 0) {
+            return rs -> null;
+        }
+
+        return rs -> {
+            Integer curatorId = rs.getObject(id, Integer.class);
+            if (curatorId == null) {
+                return null;
+            }
+
+            Curator curator = new Curator();
+            curator.setId(curatorId);
+            curator.setName(rs.getString(name));
+            curator.setEmail(rs.getString(email));
+            curator.setExperience(rs.getInt(experience));
+
+            return curator;
+        };
+    }
+
+    /**
+     * Возвращает читателя студента без группы.
+     *
+     * @param columns столбцы результата
+     * @return читатель студента; возвращает null, если результат или строка не содержат студента
+     */
+    static RowMapper<Student> student(Columns columns) {
+        final int id = columns.indexOf(SQLNamespace.Student.KEY_ID);
+        final int name = columns.indexOf(SQLNamespace.Student.KEY_NAME);
+        final int dateOfBirth = columns.indexOf(SQLNamespace.Student.KEY_DATE_OF_BIRTH);
+        if (id == 0) {
+            return rs -> null;
+        }
+
+        return rs -> {
+            Integer studentId = rs.getObject(id, Integer.class);
+            if (studentId == null) {
+                return null;
+            }
+
+            Student student = new Student();
+            student.setId(studentId);
+            student.setName(rs.getString(name));
+            student.setDateOfBirth(rs.getObject(dateOfBirth, LocalDate.class));
+
+            return student;
+        };
+    }
+
+    /**
+     * Возвращает читателя значений всех столбцов строки в порядке столбцов результата.
+     * Даты читаются как {@link LocalDate}.
+     *
+     * @param columns столбцы результата
+     * @return читатель значений строки
+     */
+    static RowMapper<Object[]> values(Columns columns) {
+        final int count = columns.size();
+
+        return rs -> {
+            Object[] values = new Object[count];
+            for (int i = 0; i < count; i++) {
+                Object value = rs.getObject(i + 1);
+                values[i] = value instanceof java.sql.Date date ? date.toLocalDate() : value;
+            }
+
+            return values;
+        };
+    }
+
+    /**
+     * Возвращает читателя целочисленного столбца.
+     *
+     * @param columns столбцы результата
+     * @param label метка столбца
+     * @return читатель значения столбца; возвращает null, если результат не содержит столбца или значение равно NULL
+     */
+    static RowMapper<Integer> integer(Columns columns, String label) {
+        final int index = columns.indexOf(label);
+        if (index == 0) {
+            return rs -> null;
+        }
+
+        return rs -> rs.getObject(index, Integer.class);
+    }
+}
@@ -1,5 +1,7 @@
 package aston.hw2.repository;
 
+import java.util.List;
+
 public abstract class SQLNamespace {
 
     private SQLNamespace() {}
@@ -11,6 +13,8 @@ public abstract class SQLNamespace {
         public static final String KEY_DATE_OF_BIRTH = "s_dateOfBirth";
         public static final String KEY_GROUP_ID = "s_groupId";
 
+        public static final List<String> EXPORT_COLUMNS = List.of("id", "name", "dateOfBirth", "groupId");
+
         private Student() {}
     }
 
@@ -20,6 +24,8 @@ public abstract class SQLNamespace {
         public static final String KEY_NAME = "g_name";
         public static final String KEY_GRADUATION_DATE = "g_graduationDate";
 
+        public static final List<String> EXPORT_COLUMNS = List.of("id", "name", "graduationDate");
+
         private Group() {}
     }
 
@@ -31,11 +37,26 @@ public abstract class SQLNamespace {
         public static final String KEY_EXPERIENCE = "c_experience";
         public static final String KEY_GROUP_ID = "c_groupId";
 
+        public static final List<String> EXPORT_COLUMNS = List.of("id", "name", "email", "experience", "groupId");
+
         private Curator() {}
     }
 
     public static abstract class Query {
 
+        public static final String COPY_STUDENTS = """
+                COPY students
+                    (name, date_of_birth, group_id)
+                FROM STDIN WITH (FORMAT csv)
+            """;
+
+        /**
+         * Оборачивает запрос выгрузки в команду COPY PostgreSQL, передающую результат в формате CSV с заголовком.
+         */
+        public static final String COPY_TO_STDOUT_CSV = """
+                COPY (%s) TO STDOUT WITH (FORMAT csv, HEADER)
+            """;
+
         public static final String DELETE_GROUP_BY_ID = """
                 DELETE
                 FROM groups
@@ -72,6 +93,26 @@ public abstract class SQLNamespace {
                 VALUES (?, ?, ?, ?);
             """;
 
+        public static final String SELECT_ALL_GROUPS_WITH_CURATORS_AND_STUDENTS = """
+                SELECT
+                    groups.id as %s,
+                    groups.name as %s,
+                    groups.graduation_date as %s,
+                    curators.id as %s,
+                    curators.name as %s,
+                    curators.email as %s,
+                    curators.experience as %s,
+                    students.id as %s,
+                    students.name as %s,
+                    students.date_of_birth as %s
+                FROM groups
+                    LEFT JOIN curators ON groups.id = curators.group_id
+                    LEFT JOIN students ON groups.id = students.group_id
+                ORDER BY groups.id;
+            """.formatted(Group.KEY_ID, Group.KEY_NAME, Group.KEY_GRADUATION_DATE,
+                Curator.KEY_ID, Curator.KEY_NAME, Curator.KEY_EMAIL, Curator.KEY_EXPERIENCE,
+                Student.KEY_ID, Student.KEY_NAME, Student.KEY_DATE_OF_BIRTH);
+
         public static final String SELECT_ALL_GROUPS_WITH_CURATORS = """
                 SELECT
                     groups.id as %s,
@@ -82,19 +123,180 @@ public abstract class SQLNamespace {
                     curators.email as %s,
                     curators.experience as %s
                 FROM groups
-                    LEFT JOIN curators ON groups.id = curators.group_id;
+                    LEFT JOIN curators ON groups.id = curators.group_id
+                ORDER BY groups.id;
             """.formatted(Group.KEY_ID, Group.KEY_NAME, Group.KEY_GRADUATION_DATE,
                 Curator.KEY_ID, Curator.KEY_NAME, Curator.KEY_EMAIL, Curator.KEY_EXPERIENCE);
 
-        public static final String SELECT_CURATORS_BY_NULL_GROUP_ID = """
+        public static final String SELECT_ALL_STUDENTS_WITH_GROUP_REFERENCES = """
                 SELECT
-                    id as %s,
-                    name as %s,
-                    email as %s,
-                    experience as %s
+                    students.id as %s,
+                    students.name as %s,
+                    students.date_of_birth as %s,
+                    groups.id as %s,
+                    groups.name as %s,
+                    groups.graduation_date as %s
+                FROM students
+                    LEFT JOIN groups ON groups.id = students.group_id
+                ORDER BY students.id;
+            """.formatted(Student.KEY_ID, Student.KEY_NAME, Student.KEY_DATE_OF_BIRTH,
+                Group.KEY_ID, Group.KEY_NAME, Group.KEY_GRADUATION_DATE);
+
+        public static final String SELECT_ALL_CURATORS_WITH_GROUP_REFERENCES = """
+                SELECT
+                    curators.id as %s,
+                    curators.name as %s,
+                    curators.email as %s,
+                    curators.experience as %s,
+                    groups.id as %s,
+                    groups.name as %s,
+                    groups.graduation_date as %s
                 FROM curators
-                WHERE group_id IS NULL
-            """.formatted(Curator.KEY_ID, Curator.KEY_NAME, Curator.KEY_EMAIL, Curator.KEY_EXPERIENCE);
+                    LEFT JOIN groups ON groups.id = curators.group_id
+                ORDER BY curators.id;
+            """.formatted(Curator.KEY_ID, Curator.KEY_NAME, Curator.KEY_EMAIL, Curator.KEY_EXPERIENCE,
+                Group.KEY_ID, Group.KEY_NAME, Group.KEY_GRADUATION_DATE);
+
+        public static final String SELECT_STUDENTS_PAGE_WITH_GROUP_REFERENCES = """
+                SELECT
+                    students.id as %s,
+                    students.name as %s,
+                    students.date_of_birth as %s,
+                    groups.id as %s,
+                    groups.name as %s,
+                    groups.graduation_date as %s
+                FROM students
+                    LEFT JOIN groups ON groups.id = students.group_id
+                WHERE students.id > ?
+                ORDER BY students.id
+                LIMIT ?;
+            """.formatted(Student.KEY_ID, Student.KEY_NAME, Student.KEY_DATE_OF_BIRTH,
+                Group.KEY_ID, Group.KEY_NAME, Group.KEY_GRADUATION_DATE);
+
+        public static final String SELECT_STUDENTS_PAGE_BY_GROUP_ID = """
+                SELECT
+                    students.id as %s,
+                    students.name as %s,
+                    students.date_of_birth as %s,
+                    groups.id as %s,
+                    groups.name as %s,
+                    groups.graduation_date as %s
+                FROM students
+                    JOIN groups ON groups.id = students.group_id
+                WHERE students.group_id = ? AND students.id > ?
+                ORDER BY students.id
+                LIMIT ?;
+            """.formatted(Student.KEY_ID, Student.KEY_NAME, Student.KEY_DATE_OF_BIRTH,
+                Group.KEY_ID, Group.KEY_NAME, Group.KEY_GRADUATION_DATE);
+
+        public static final String SELECT_STUDENTS_PAGE_BY_GROUP_ID_DESC = """
+                SELECT
+                    students.id as %s,
+                    students.name as %s,
+                    students.date_of_birth as %s,
+                    groups.id as %s,
+                    groups.name as %s,
+                    groups.graduation_date as %s
+                FROM students
+                    JOIN groups ON groups.id = students.group_id
+                WHERE students.group_id = ? AND students.id < ?
+                ORDER BY students.id DESC
+                LIMIT ?;
+            """.formatted(Student.KEY_ID, Student.KEY_NAME, Student.KEY_DATE_OF_BIRTH,
+                Group.KEY_ID, Group.KEY_NAME, Group.KEY_GRADUATION_DATE);
+
+        public static final String SELECT_CURATORS_PAGE_WITH_GROUP_REFERENCES = """
+                SELECT
+                    curators.id as %s,
+                    curators.name as %s,
+                    curators.email as %s,
+                    curators.experience as %s,
+                    groups.id as %s,
+                    groups.name as %s,
+                    groups.graduation_date as %s
+                FROM curators
+                    LEFT JOIN groups ON groups.id = curators.group_id
+                WHERE curators.id > ?
+                ORDER BY curators.id
+                LIMIT ?;
+            """.formatted(Curator.KEY_ID, Curator.KEY_NAME, Curator.KEY_EMAIL, Curator.KEY_EXPERIENCE,
+                Group.KEY_ID, Group.KEY_NAME, Group.KEY_GRADUATION_DATE);
+
+        public static final String SELECT_GROUPS_PAGE_WITH_CURATORS_AND_STUDENTS = """
+                SELECT
+                    groups.id as %s,
+                    groups.name as %s,
+                    groups.graduation_date as %s,
+                    curators.id as %s,
+                    curators.name as %s,
+                    curators.email as %s,
+                    curators.experience as %s,
+                    students.id as %s,
+                    students.name as %s,
+                    students.date_of_birth as %s
+                FROM (
+                        SELECT id, name, graduation_date
+                        FROM groups
+                        WHERE id > ?
+                        ORDER BY id
+                        LIMIT ?
+                    ) groups
+                    LEFT JOIN curators ON groups.id = curators.group_id
+                    LEFT JOIN students ON groups.id = students.group_id
+                ORDER BY groups.id;
+            """.formatted(Group.KEY_ID, Group.KEY_NAME, Group.KEY_GRADUATION_DATE,
+                Curator.KEY_ID, Curator.KEY_NAME, Curator.KEY_EMAIL, Curator.KEY_EXPERIENCE,
+                Student.KEY_ID, Student.KEY_NAME, Student.KEY_DATE_OF_BIRTH);
+
+        public static final String SELECT_GROUPS_PAGE_WITH_CURATORS = """
+                SELECT
+                    groups.id as %s,
+                    groups.name as %s,
+                    groups.graduation_date as %s,
+                    curators.id as %s,
+                    curators.name as %s,
+                    curators.email as %s,
+                    curators.experience as %s
+                FROM (
+                        SELECT id, name, graduation_date
+                        FROM groups
+                        WHERE id > ?
+                        ORDER BY id
+                        LIMIT ?
+                    ) groups
+                    LEFT JOIN curators ON groups.id = curators.group_id
+                ORDER BY groups.id;
+            """.formatted(Group.KEY_ID, Group.KEY_NAME, Group.KEY_GRADUATION_DATE,
+                Curator.KEY_ID, Curator.KEY_NAME, Curator.KEY_EMAIL, Curator.KEY_EXPERIENCE);
+
+        public static final String SELECT_STUDENT_WITH_GROUP_REFERENCE_BY_ID = """
+                SELECT
+                    students.id as %s,
+                    students.name as %s,
+                    students.date_of_birth as %s,
+                    groups.id as %s,
+                    groups.name as %s,
+                    groups.graduation_date as %s
+                FROM students
+                    LEFT JOIN groups ON groups.id = students.group_id
+                WHERE students.id = ?;
+            """.formatted(Student.KEY_ID, Student.KEY_NAME, Student.KEY_DATE_OF_BIRTH,
+                Group.KEY_ID, Group.KEY_NAME, Group.KEY_GRADUATION_DATE);
+
+        public static final String SELECT_CURATOR_WITH_GROUP_REFERENCE_BY_ID = """
+                SELECT
+                    curators.id as %s,
+                    curators.name as %s,
+                    curators.email as %s,
+                    curators.experience as %s,
+                    groups.id as %s,
+                    groups.name as %s,
+                    groups.graduation_date as %s
+                FROM curators
+                    LEFT JOIN groups ON groups.id = curators.group_id
+                WHERE curators.id = ?;
+            """.formatted(Curator.KEY_ID, Curator.KEY_NAME, Curator.KEY_EMAIL, Curator.KEY_EXPERIENCE,
+                Group.KEY_ID, Group.KEY_NAME, Group.KEY_GRADUATION_DATE);
 
         public static final String SELECT_STUDENT_BY_ID = """
                 SELECT
@@ -121,12 +323,222 @@ public abstract class SQLNamespace {
             """.formatted(Group.KEY_ID, Group.KEY_NAME, Group.KEY_GRADUATION_DATE,
                 Curator.KEY_ID, Curator.KEY_NAME, Curator.KEY_EMAIL, Curator.KEY_EXPERIENCE);
 
+        // запросы выгрузки не завершаются точкой с запятой, поскольку вкладываются в COPY_TO_STDOUT_CSV
+        public static final String SELECT_STUDENTS_FOR_EXPORT = """
+                SELECT
+                    id as "%s",
+                    name as "%s",
+                    date_of_birth as "%s",
+                    group_id as "%s"
+                FROM students
+                ORDER BY id
+            """.formatted(Student.EXPORT_COLUMNS.toArray());
+
+        public static final String SELECT_GROUPS_FOR_EXPORT = """
+                SELECT
+                    id as "%s",
+                    name as "%s",
+                    graduation_date as "%s"
+                FROM groups
+                ORDER BY id
+            """.formatted(Group.EXPORT_COLUMNS.toArray());
+
+        public static final String SELECT_CURATORS_FOR_EXPORT = """
+                SELECT
+                    id as "%s",
+                    name as "%s",
+                    email as "%s",
+                    experience as "%s",
+                    group_id as "%s"
+                FROM curators
+                ORDER BY id
+            """.formatted(Curator.EXPORT_COLUMNS.toArray());
+
+        public static final String SELECT_STUDENTS_WITH_GROUP_REFERENCES_BY_IDS = """
+                SELECT
+                    students.id as %s,
+                    students.name as %s,
+                    students.date_of_birth as %s,
+                    groups.id as %s,
+                    groups.name as %s,
+                    groups.graduation_date as %s
+                FROM students
+                    LEFT JOIN groups ON groups.id = students.group_id
+                WHERE students.id = ANY(?)
+                ORDER BY students.id;
+            """.formatted(Student.KEY_ID, Student.KEY_NAME, Student.KEY_DATE_OF_BIRTH,
+                Group.KEY_ID, Group.KEY_NAME, Group.KEY_GRADUATION_DATE);
+
+        public static final String SELECT_CURATORS_WITH_GROUP_REFERENCES_BY_IDS = """
+                SELECT
+                    curators.id as %s,
+                    curators.name as %s,
+                    curators.email as %s,
+                    curators.experience as %s,
+                    groups.id as %s,
+                    groups.name as %s,
+                    groups.graduation_date as %s
+                FROM curators
+                    LEFT JOIN groups ON groups.id = curators.group_id
+                WHERE curators.id = ANY(?)
+                ORDER BY curators.id;
+            """.formatted(Curator.KEY_ID, Curator.KEY_NAME, Curator.KEY_EMAIL, Curator.KEY_EXPERIENCE,
+                Group.KEY_ID, Group.KEY_NAME, Group.KEY_GRADUATION_DATE);
+
+        public static final String SELECT_GROUPS_WITH_CURATORS_AND_STUDENTS_BY_IDS = """
+                SELECT
+                    groups.id as %s,
+                    groups.name as %s,
+                    groups.graduation_date as %s,
+                    curators.id as %s,
+                    curators.name as %s,
+                    curators.email as %s,
+                    curators.experience as %s,
+                    students.id as %s,
+                    students.name as %s,
+                    students.date_of_birth as %s
+                FROM groups
+                    LEFT JOIN curators ON groups.id = curators.group_id
+                    LEFT JOIN students ON groups.id = students.group_id
+                WHERE groups.id = ANY(?)
+                ORDER BY groups.id;
+            """.formatted(Group.KEY_ID, Group.KEY_NAME, Group.KEY_GRADUATION_DATE,
+                Curator.KEY_ID, Curator.KEY_NAME, Curator.KEY_EMAIL, Curator.KEY_EXPERIENCE,
+                Student.KEY_ID, Student.KEY_NAME, Student.KEY_DATE_OF_BIRTH);
+
+        public static final String SELECT_GROUPS_WITH_CURATORS_BY_IDS = """
+                SELECT
+                    groups.id as %s,
+                    groups.name as %s,
+                    groups.graduation_date as %s,
+                    curators.id as %s,
+                    curators.name as %s,
+                    curators.email as %s,
+                    curators.experience as %s
+                FROM groups
+                    LEFT JOIN curators ON groups.id = curators.group_id
+                WHERE groups.id = ANY(?)
+                ORDER BY groups.id;
+            """.formatted(Group.KEY_ID, Group.KEY_NAME, Group.KEY_GRADUATION_DATE,
+                Curator.KEY_ID, Curator.KEY_NAME, Curator.KEY_EMAIL, Curator.KEY_EXPERIENCE);
+
+        public static final String SELECT_EXISTS_GROUP_BY_ID = """
+                SELECT 1
+                FROM groups
+                WHERE id = ?
+            """;
+
+        public static final String SELECT_EXISTS_STUDENT_BY_ID = """
+                SELECT 1
+                FROM students
+                WHERE id = ?
+            """;
+
+        public static final String SELECT_EXISTS_CURATOR_BY_ID = """
+                SELECT 1
+                FROM curators
+                WHERE id = ?
+            """;
+
+        public static final String SELECT_EXISTS_GROUP_BY_NAME = """
+                SELECT 1
+                FROM groups
+                WHERE name = ?
+            """;
+
+        public static final String SELECT_GROUP_SUMMARY_BY_ID = """
+                SELECT
+                    id as %s,
+                    name as %s,
+                    graduation_date as %s
+                FROM groups
+                WHERE id = ?;
+            """.formatted(Group.KEY_ID, Group.KEY_NAME, Group.KEY_GRADUATION_DATE);
+
+        public static final String SELECT_GROUP_SUMMARIES_BY_IDS = """
+                SELECT
+                    id as %s,
+                    name as %s,
+                    graduation_date as %s
+                FROM groups
+                WHERE id = ANY(?)
+                ORDER BY id;
+            """.formatted(Group.KEY_ID, Group.KEY_NAME, Group.KEY_GRADUATION_DATE);
+
+        public static final String SELECT_GROUP_SUMMARIES_PAGE = """
+                SELECT
+                    id as %s,
+                    name as %s,
+                    graduation_date as %s
+                FROM groups
+                WHERE id > ?
+                ORDER BY id
+                LIMIT ?;
+            """.formatted(Group.KEY_ID, Group.KEY_NAME, Group.KEY_GRADUATION_DATE);
+
+        public static final String SELECT_GROUP_SUMMARY_BY_STUDENT_ID = """
+                SELECT
+                    groups.id as %s,
+                    groups.name as %s,
+                    groups.graduation_date as %s
+                FROM students
+                    JOIN groups ON groups.id = students.group_id
+                WHERE students.id = ?;
+            """.formatted(Group.KEY_ID, Group.KEY_NAME, Group.KEY_GRADUATION_DATE);
+
+        public static final String SELECT_CURATOR_BY_GROUP_ID = """
+                SELECT
+                    id as %s,
+                    name as %s,
+                    email as %s,
+                    experience as %s
+                FROM curators
+                WHERE group_id = ?
+                ORDER BY id
+                LIMIT 1;
+            """.formatted(Curator.KEY_ID, Curator.KEY_NAME, Curator.KEY_EMAIL, Curator.KEY_EXPERIENCE);
+
         public static final String SELECT_GROUP_ID_BY_NAME = """
                 SELECT
                     id as %s
                 FROM groups
                 WHERE name = ?
-            """.formatted(Group.KEY_NAME);
+            """.formatted(Group.KEY_ID);
+
+        public static final String SELECT_GROUP_WITH_CURATOR_AND_STUDENTS_BY_NAME = """
+                SELECT
+                    groups.id as %s,
+                    groups.name as %s,
+                    groups.graduation_date as %s,
+                    curators.id as %s,
+                    curators.name as %s,
+                    curators.email as %s,
+                    curators.experience as %s,
+                    students.id as %s,
+                    students.name as %s,
+                    students.date_of_birth as %s
+                FROM groups
+                    LEFT JOIN curators ON groups.id = curators.group_id
+                    LEFT JOIN students ON groups.id = students.group_id
+                WHERE groups.name = ?;
+            """.formatted(Group.KEY_ID, Group.KEY_NAME, Group.KEY_GRADUATION_DATE,
+                Curator.KEY_ID, Curator.KEY_NAME, Curator.KEY_EMAIL, Curator.KEY_EXPERIENCE,
+                Student.KEY_ID, Student.KEY_NAME, Student.KEY_DATE_OF_BIRTH);
+
+        public static final String SELECT_GROUP_WITH_CURATOR_BY_NAME = """
+                SELECT
+                    groups.id as %s,
+                    groups.name as %s,
+                    groups.graduation_date as %s,
+                    curators.id as %s,
+                    curators.name as %s,
+                    curators.email as %s,
+                    curators.experience as %s
+                FROM groups
+                    LEFT JOIN curators ON groups.id = curators.group_id
+                WHERE groups.name = ?;
+            """.formatted(Group.KEY_ID, Group.KEY_NAME, Group.KEY_GRADUATION_DATE,
+                Curator.KEY_ID, Curator.KEY_NAME, Curator.KEY_EMAIL, Curator.KEY_EXPERIENCE);
 
         public static final String SELECT_CURATOR_BY_ID = """
                 SELECT
@@ -149,16 +561,6 @@ public abstract class SQLNamespace {
                 WHERE group_id = ?;
             """.formatted(Student.KEY_ID, Student.KEY_NAME, Student.KEY_DATE_OF_BIRTH, Student.KEY_GROUP_ID);
 
-        public static final String SELECT_STUDENTS_BY_NULL_GROUP_ID = """
-                SELECT
-                    id as %s,
-                    name as %s,
-                    date_of_birth as %s,
-                    group_id as %s
-                FROM students
-                WHERE group_id IS NULL;
-            """.formatted(Student.KEY_ID, Student.KEY_NAME, Student.KEY_DATE_OF_BIRTH, Student.KEY_GROUP_ID);
-
         public static final String UPDATE_CURATOR = """
                 UPDATE curators
                 SET name = ?, email = ?, experience = ?, group_id = ?
@@ -177,12 +579,48 @@ public abstract class SQLNamespace {
                 WHERE id = ?
             """;
 
+        public static final String UPDATE_STUDENT_SET_GROUP_ID_BY_ID_IF_GROUP_EXISTS = """
+                UPDATE students
+                SET group_id = ?
+                WHERE id = ? AND EXISTS (SELECT 1 FROM groups WHERE id = ?);
+            """;
+
+        public static final String UPDATE_STUDENT_SET_NULL_GROUP_ID_BY_ID = """
+                UPDATE students
+                SET group_id = NULL
+                WHERE id = ?;
+            """;
+
+        public static final String UPDATE_CURATOR_SET_GROUP_ID_BY_ID_IF_GROUP_EXISTS = """
+                UPDATE curators
+                SET group_id = ?
+                WHERE id = ? AND EXISTS (SELECT 1 FROM groups WHERE id = ?);
+            """;
+
+        public static final String UPDATE_CURATOR_SET_NULL_GROUP_ID_BY_ID = """
+                UPDATE curators
+                SET group_id = NULL
+                WHERE id = ?;
+            """;
+
+        public static final String UPDATE_CURATORS_SET_NULL_GROUP_ID_BY_GROUP_ID_EXCEPT_ID = """
+                UPDATE curators
+                SET group_id = NULL
+                WHERE group_id = ? AND id <> ? AND EXISTS (SELECT 1 FROM curators WHERE id = ?);
+            """;
+
         public static final String UPDATE_STUDENTS_SET_NULL_GROUP_ID_BY_GROUP_ID = """
                 UPDATE students
                 SET group_id = NULL
                 WHERE group_id = ?;
             """;
 
+        public static final String UPDATE_STUDENT_SET_NULL_GROUP_ID_BY_ID_AND_GROUP_ID = """
+                UPDATE students
+                SET group_id = NULL
+                WHERE id = ? AND group_id = ?;
+            """;
+
         public static final String UPDATE_CURATOR_SET_NULL_GROUP_ID_BY_GROUP_ID = """
                 UPDATE curators
                 SET group_id = NULL
@@ -0,0 +1,227 @@
+package aston.hw2.repository;
+
+import aston.hw2.entity.Curator;
+import aston.hw2.entity.Group;
+import aston.hw2.entity.Student;
+
+import java.sql.Date;
+import java.sql.JDBCType;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Типизированные запросы, не зависящие от настроек репозитория, общие для jdbc-репозиториев.
+ * Запросы, читатели строк которых зависят от ленивой загрузки, объявляются в самих репозиториях.
+ *
+ * Имя каждого запроса в {@link QueryStatistics} совпадает с именем константы текста запроса в {@link SQLNamespace.Query}.
+ *
+ * @author Максим Яськов
+ * @see SQLQuery
+ */
+final class SQLQueries {
+
+    static final SQLQuery<int[], Void> DELETE_CURATOR_BY_ID = SQLQuery.update("DELETE_CURATOR_BY_ID",
+            SQLNamespace.Query.DELETE_CURATOR_BY_ID, ParameterBinder.integers());
+
+    static final SQLQuery<int[], Void> DELETE_GROUP_BY_ID = SQLQuery.update("DELETE_GROUP_BY_ID",
+            SQLNamespace.Query.DELETE_GROUP_BY_ID, ParameterBinder.integers());
+
+    static final SQLQuery<int[], Void> DELETE_STUDENT_BY_ID = SQLQuery.update("DELETE_STUDENT_BY_ID",
+            SQLNamespace.Query.DELETE_STUDENT_BY_ID, ParameterBinder.integers());
+
+    /**
+     * Вставляет куратора с группой {@link Curator#getGroup()}.
+     */
+    static final SQLQuery<Curator, Void> INSERT_CURATOR = SQLQuery.insert("INSERT_CURATOR",
+            SQLNamespace.Query.INSERT_CURATOR, SQLQueries::bindCurator);
+
+    static final SQLQuery<Group, Void> INSERT_GROUP = SQLQuery.insert("INSERT_GROUP",
+            SQLNamespace.Query.INSERT_GROUP, SQLQueries::bindGroup);
+
+    /**
+     * Вставляет студента с группой {@link Student#getGroup()}.
+     */
+    static final SQLQuery<Student, Void> INSERT_STUDENT = SQLQuery.insert("INSERT_STUDENT",
+            SQLNamespace.Query.INSERT_STUDENT, SQLQueries::bindStudent);
+
+    /**
+     * Вставляет студента, не возвращая сгенерированный идентификатор; используется для пакетной загрузки.
+     */
+    static final SQLQuery<Student, Void> INSERT_STUDENT_WITHOUT_KEY = SQLQuery.update("INSERT_STUDENT_WITHOUT_KEY",
+            SQLNamespace.Query.INSERT_STUDENT, SQLQueries::bindStudent);
+
+    /**
+     * Читает куратора со ссылкой на группу, содержащей только идентификатор.
+     */
+    static final SQLQuery<int[], Curator> SELECT_CURATOR_BY_ID = SQLQuery.select("SELECT_CURATOR_BY_ID",
+            SQLNamespace.Query.SELECT_CURATOR_BY_ID, ParameterBinder.integers(), columns -> {
+                RowMapper<Curator> curators = RowMappers.curator(columns);
+                RowMapper<Integer> groupIds = RowMappers.integer(columns, SQLNamespace.Curator.KEY_GROUP_ID);
+
+                return rs -> {
+                    Curator curator = curators.map(rs);
+                    curator.setGroup(groupReference(groupIds.map(rs)));
+                    return curator;
+                };
+            });
+
+    static final SQLQuery<int[], Curator> SELECT_CURATOR_BY_GROUP_ID = SQLQuery.select("SELECT_CURATOR_BY_GROUP_ID",
+            SQLNamespace.Query.SELECT_CURATOR_BY_GROUP_ID, ParameterBinder.integers(), RowMappers::curator);
+
+    static final SQLQuery<int[], Boolean> SELECT_EXISTS_CURATOR_BY_ID = SQLQuery.select("SELECT_EXISTS_CURATOR_BY_ID",
+            SQLNamespace.Query.SELECT_EXISTS_CURATOR_BY_ID, ParameterBinder.integers(), SQLQueries::present);
+
+    static final SQLQuery<int[], Boolean> SELECT_EXISTS_GROUP_BY_ID = SQLQuery.select("SELECT_EXISTS_GROUP_BY_ID",
+            SQLNamespace.Query.SELECT_EXISTS_GROUP_BY_ID, ParameterBinder.integers(), SQLQueries::present);
+
+    static final SQLQuery<String, Boolean> SELECT_EXISTS_GROUP_BY_NAME = SQLQuery.select("SELECT_EXISTS_GROUP_BY_NAME",
+            SQLNamespace.Query.SELECT_EXISTS_GROUP_BY_NAME, ParameterBinder.string(), SQLQueries::present);
+
+    static final SQLQuery<int[], Boolean> SELECT_EXISTS_STUDENT_BY_ID = SQLQuery.select("SELECT_EXISTS_STUDENT_BY_ID",
+            SQLNamespace.Query.SELECT_EXISTS_STUDENT_BY_ID, ParameterBinder.integers(), SQLQueries::present);
+
+    static final SQLQuery<String, Integer> SELECT_GROUP_ID_BY_NAME = SQLQuery.select("SELECT_GROUP_ID_BY_NAME",
+            SQLNamespace.Query.SELECT_GROUP_ID_BY_NAME, ParameterBinder.string(),
+            columns -> RowMappers.integer(columns, SQLNamespace.Group.KEY_ID));
+
+    static final SQLQuery<Void, Object[]> SELECT_CURATORS_FOR_EXPORT = SQLQuery.select("SELECT_CURATORS_FOR_EXPORT",
+            SQLNamespace.Query.SELECT_CURATORS_FOR_EXPORT, ParameterBinder.none(), RowMappers::values);
+
+    static final SQLQuery<Void, Object[]> SELECT_GROUPS_FOR_EXPORT = SQLQuery.select("SELECT_GROUPS_FOR_EXPORT",
+            SQLNamespace.Query.SELECT_GROUPS_FOR_EXPORT, ParameterBinder.none(), RowMappers::values);
+
+    static final SQLQuery<Void, Object[]> SELECT_STUDENTS_FOR_EXPORT = SQLQuery.select("SELECT_STUDENTS_FOR_EXPORT",
+            SQLNamespace.Query.SELECT_STUDENTS_FOR_EXPORT, ParameterBinder.none(), RowMappers::values);
+
+    static final SQLQuery<int[], Group> SELECT_GROUP_SUMMARIES_BY_IDS = SQLQuery.select("SELECT_GROUP_SUMMARIES_BY_IDS",
+            SQLNamespace.Query.SELECT_GROUP_SUMMARIES_BY_IDS, ParameterBinder.integerArray(), RowMappers::group);
+
+    static final SQLQuery<int[], Group> SELECT_GROUP_SUMMARIES_PAGE = SQLQuery.select("SELECT_GROUP_SUMMARIES_PAGE",
+            SQLNamespace.Query.SELECT_GROUP_SUMMARIES_PAGE, ParameterBinder.integers(), RowMappers::group);
+
+    static final SQLQuery<int[], Group> SELECT_GROUP_SUMMARY_BY_ID = SQLQuery.select("SELECT_GROUP_SUMMARY_BY_ID",
+            SQLNamespace.Query.SELECT_GROUP_SUMMARY_BY_ID, ParameterBinder.integers(), RowMappers::group);
+
+    static final SQLQuery<int[], Group> SELECT_GROUP_SUMMARY_BY_STUDENT_ID = SQLQuery.select("SELECT_GROUP_SUMMARY_BY_STUDENT_ID",
+            SQLNamespace.Query.SELECT_GROUP_SUMMARY_BY_STUDENT_ID, ParameterBinder.integers(), RowMappers::group);
+
+    /**
+     * Читает студента со ссылкой на группу, содержащей только идентификатор.
+     */
+    static final SQLQuery<int[], Student> SELECT_STUDENT_BY_ID = SQLQuery.select("SELECT_STUDENT_BY_ID",
+            SQLNamespace.Query.SELECT_STUDENT_BY_ID, ParameterBinder.integers(), columns -> {
+                RowMapper<Student> students = RowMappers.student(columns);
+                RowMapper<Integer> groupIds = RowMappers.integer(columns, SQLNamespace.Student.KEY_GROUP_ID);
+
+                return rs -> {
+                    Student student = students.map(rs);
+                    student.setGroup(groupReference(groupIds.map(rs)));
+                    return student;
+                };
+            });
+
+    static final SQLQuery<int[], Student> SELECT_STUDENTS_BY_GROUP_ID = SQLQuery.select("SELECT_STUDENTS_BY_GROUP_ID",
+            SQLNamespace.Query.SELECT_STUDENTS_BY_GROUP_ID, ParameterBinder.integers(), RowMappers::student);
+
+    /**
+     * Обновляет куратора, в том числе его группу {@link Curator#getGroup()}.
+     */
+    static final SQLQuery<Curator, Void> UPDATE_CURATOR = SQLQuery.update("UPDATE_CURATOR",
+            SQLNamespace.Query.UPDATE_CURATOR, (ps, curator) -> {
+                bindCurator(ps, curator);
+                ps.setInt(5, curator.getId());
+            });
+
+    static final SQLQuery<int[], Void> UPDATE_CURATOR_SET_GROUP_ID_BY_ID_IF_GROUP_EXISTS = SQLQuery.update(
+            "UPDATE_CURATOR_SET_GROUP_ID_BY_ID_IF_GROUP_EXISTS",
+            SQLNamespace.Query.UPDATE_CURATOR_SET_GROUP_ID_BY_ID_IF_GROUP_EXISTS, ParameterBinder.integers());
+
+    static final SQLQuery<int[], Void> UPDATE_CURATOR_SET_NULL_GROUP_ID_BY_GROUP_ID = SQLQuery.update(
+            "UPDATE_CURATOR_SET_NULL_GROUP_ID_BY_GROUP_ID",
+            SQLNamespace.Query.UPDATE_CURATOR_SET_NULL_GROUP_ID_BY_GROUP_ID, ParameterBinder.integers());
+
+    static final SQLQuery<int[], Void> UPDATE_CURATOR_SET_NULL_GROUP_ID_BY_ID = SQLQuery.update(
+            "UPDATE_CURATOR_SET_NULL_GROUP_ID_BY_ID",
+            SQLNamespace.Query.UPDATE_CURATOR_SET_NULL_GROUP_ID_BY_ID, ParameterBinder.integers());
+
+    static final SQLQuery<int[], Void> UPDATE_CURATORS_SET_NULL_GROUP_ID_BY_GROUP_ID_EXCEPT_ID = SQLQuery.update(
+            "UPDATE_CURATORS_SET_NULL_GROUP_ID_BY_GROUP_ID_EXCEPT_ID",
+            SQLNamespace.Query.UPDATE_CURATORS_SET_NULL_GROUP_ID_BY_GROUP_ID_EXCEPT_ID, ParameterBinder.integers());
+
+    static final SQLQuery<Group, Void> UPDATE_GROUP = SQLQuery.update("UPDATE_GROUP",
+            SQLNamespace.Query.UPDATE_GROUP, (ps, group) -> {
+                bindGroup(ps, group);
+                ps.setInt(3, group.getId());
+            });
+
+    /**
+     * Обновляет студента, в том числе его группу {@link Student#getGroup()}.
+     */
+    static final SQLQuery<Student, Void> UPDATE_STUDENT = SQLQuery.update("UPDATE_STUDENT",
+            SQLNamespace.Query.UPDATE_STUDENT, (ps, student) -> {
+                bindStudent(ps, student);
+                ps.setInt(4, student.getId());
+            });
+
+    static final SQLQuery<int[], Void> UPDATE_STUDENT_SET_GROUP_ID_BY_ID_IF_GROUP_EXISTS = SQLQuery.update(
+            "UPDATE_STUDENT_SET_GROUP_ID_BY_ID_IF_GROUP_EXISTS",
+            SQLNamespace.Query.UPDATE_STUDENT_SET_GROUP_ID_BY_ID_IF_GROUP_EXISTS, ParameterBinder.integers());
+
+    static final SQLQuery<int[], Void> UPDATE_STUDENT_SET_NULL_GROUP_ID_BY_ID = SQLQuery.update(
+            "UPDATE_STUDENT_SET_NULL_GROUP_ID_BY_ID",
+            SQLNamespace.Query.UPDATE_STUDENT_SET_NULL_GROUP_ID_BY_ID, ParameterBinder.integers());
+
+    static final SQLQuery<int[], Void> UPDATE_STUDENT_SET_NULL_GROUP_ID_BY_ID_AND_GROUP_ID = SQLQuery.update(
+            "UPDATE_STUDENT_SET_NULL_GROUP_ID_BY_ID_AND_GROUP_ID",
+            SQLNamespace.Query.UPDATE_STUDENT_SET_NULL_GROUP_ID_BY_ID_AND_GROUP_ID, ParameterBinder.integers());
+
+    static final SQLQuery<int[], Void> UPDATE_STUDENTS_SET_NULL_GROUP_ID_BY_GROUP_ID = SQLQuery.update(
+            "UPDATE_STUDENTS_SET_NULL_GROUP_ID_BY_GROUP_ID",
+            SQLNamespace.Query.UPDATE_STUDENTS_SET_NULL_GROUP_ID_BY_GROUP_ID, ParameterBinder.integers());
+
+    private SQLQueries() {
+    }
+
+    private static void bindCurator(PreparedStatement ps, Curator curator) throws SQLException {
+        ps.setString(1, curator.getName());
+        ps.setString(2, curator.getEmail());
+        ps.setInt(3, curator.getExperience());
+        bindGroupId(ps, 4, curator.getGroup());
+    }
+
+    private static void bindGroup(PreparedStatement ps, Group group) throws SQLException {
+        ps.setString(1, group.getName());
+        ps.setDate(2, Date.valueOf(group.getGraduationDate()));
+    }
+
+    private static void bindGroupId(PreparedStatement ps, int index, Group group) throws SQLException {
+        if (group == null) {
+            ps.setNull(index, JDBCType.INTEGER.getVendorTypeNumber());
+        } else {
+            ps.setInt(index, group.getId());
+        }
+    }
+
+    private static Group groupReference(Integer groupId) {
+        if (groupId == null) {
+            return null;
+        }
+
+        Group group = new Group();
+        group.setId(groupId);
+        return group;
+    }
+
+    /**
+     * Возвращает читателя, отмечающего наличие строки.
+     */
+    private static RowMapper<Boolean> present(Columns columns) {
+        return rs -> Boolean.TRUE;
+    }
+
+    private static void bindStudent(PreparedStatement ps, Student student) throws SQLException {
+        ps.setString(1, student.getName());
+        ps.setDate(2, Date.valueOf(student.getDateOfBirth()));
+        bindGroupId(ps, 3, student.getGroup());
+    }
+}
@@ -0,0 +1,301 @@
+package aston.hw2.repository;
+
+import aston.hw2.repository.JdbcAbstractRepository.ResultSetCursor;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Типизированный запрос: текст запроса из {@link SQLNamespace.Query}, установка параметров и чтение результата.
+ *
+ * Запрос подготавливается через {@link Connection#prepareStatement(String)}, поэтому подключения
+ * {@link JdbcConnectionPool} переиспользуют подготовленный запрос между выдачами.
+ * Каждое выполнение учитывается в {@link QueryStatistics} запроса и регистрируется
+ * в {@link QueryCancellation}, привязанной к потоку, чтобы его можно было прервать из другого потока.
+ *
+ * @param <P> тип значения, из которого устанавливаются параметры
+ * @param <T> тип элемента, читаемого из результата; {@link Void} для изменяющих запросов
+ * @author Максим Яськов
+ * @see ParameterBinder
+ * @see RowMapper
+ */
+final class SQLQuery<P, T> {
+
+    private final String sql;
+
+    private final ParameterBinder<? super P> binder;
+
+    private final Supplier<ResultSetCursor<T>> cursorFactory;
+
+    private final boolean returningGeneratedKeys;
+
+    private final QueryStatistics statistics;
+
+    private SQLQuery(String name, String sql, ParameterBinder<? super P> binder,
+                     Supplier<ResultSetCursor<T>> cursorFactory, boolean returningGeneratedKeys) {
+        this.sql = sql;
+        this.binder = binder;
+        this.cursorFactory = cursorFactory;
+        this.returningGeneratedKeys = returningGeneratedKeys;
+        this.statistics = QueryStatistics.register(name);
+    }
+
+    /**
+     * Создает запрос, читающий по одному элементу из каждой строки результата.
+     * Читатель строк создается по столбцам результата один раз для каждого выполнения.
+     *
+     * @param name имя запроса в статистике
+     * @param sql текст запроса
+     * @param binder установщик параметров
+     * @param mapperFactory фабрика читателя строк
+     * @return запрос
+     */
+    static <P, T> SQLQuery<P, T> select(String name, String sql, ParameterBinder<? super P> binder,
+                                        Function<Columns, RowMapper<T>> mapperFactory) {
+        return new SQLQuery<>(name, sql, binder, () -> rowCursor(mapperFactory), false);
+    }
+
+    /**
+     * Создает запрос, элементы которого собираются курсором из нескольких строк результата.
+     *
+     * @param name имя запроса в статистике
+     * @param sql текст запроса
+     * @param binder установщик параметров
+     * @param cursorFactory фабрика курсора, вызываемая для каждого выполнения
+     * @return запрос
+     */
+    static <P, T> SQLQuery<P, T> aggregate(String name, String sql, ParameterBinder<? super P> binder,
+                                           Supplier<ResultSetCursor<T>> cursorFactory) {
+        return new SQLQuery<>(name, sql, binder, cursorFactory, false);
+    }
+
+    /**
+     * Создает изменяющий запрос.
+     *
+     * @param name имя запроса в статистике
+     * @param sql текст запроса
+     * @param binder установщик параметров
+     * @return запрос
+     */
+    static <P> SQLQuery<P, Void> update(String name, String sql, ParameterBinder<? super P> binder) {
+        return new SQLQuery<>(name, sql, binder, null, false);
+    }
+
+    /**
+     * Создает вставляющий запрос, возвращающий сгенерированные целочисленные идентификаторы.
+     *
+     * @param name имя запроса в статистике
+     * @param sql текст запроса
+     * @param binder установщик параметров
+     * @return запрос
+     * @see #insert(Connection, Object)
+     * @see #batch(Connection, List, int)
+     */
+    static <P> SQLQuery<P, Void> insert(String name, String sql, ParameterBinder<? super P> binder) {
+        return new SQLQuery<>(name, sql, binder, null, true);
+    }
+
+    String getSql() {
+        return sql;
+    }
+
+    QueryStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Устанавливает параметры запроса, подготовленного вызывающей стороной.
+     */
+    void bind(PreparedStatement ps, P parameters) throws SQLException {
+        binder.bind(ps, parameters);
+    }
+
+    /**
+     * Создает курсор, читающий элементы из результата запроса.
+     */
+    ResultSetCursor<T> cursor() {
+        if (cursorFactory == null) {
+            throw new IllegalStateException("The query does not return rows: " + statistics.getName());
+        }
+
+        return cursorFactory.get();
+    }
+
+    /**
+     * Выполняет запрос и проверяет, вернул ли он хотя бы одну строку.
+     *
+     * @return true, если результат не пуст
+     */
+    boolean exists(Connection c, P parameters) throws SQLException {
+        return execute(c, parameters, ps -> {
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? 1 : 0;
+            }
+        }, count -> count) > 0;
+    }
+
+    /**
+     * Выполняет запрос и читает первый элемент результата.
+     *
+     * @return первый элемент или null, если результат пуст
+     */
+    T first(Connection c, P parameters) throws SQLException {
+        ResultSetCursor<T> cursor = cursor();
+
+        return execute(c, parameters, ps -> {
+            try (ResultSet rs = ps.executeQuery()) {
+                return cursor.next(rs);
+            }
+        }, element -> element != null ? 1 : 0);
+    }
+
+    /**
+     * Выполняет запрос и читает все элементы результата.
+     *
+     * @return элементы в порядке результата, всегда не null
+     */
+    List<T> list(Connection c, P parameters) throws SQLException {
+        ResultSetCursor<T> cursor = cursor();
+
+        return execute(c, parameters, ps -> {
+            try (ResultSet rs = ps.executeQuery()) {
+                List<T> list = new ArrayList<>();
+                T element;
+                while ((element = cursor.next(rs)) != null) {
+                    list.add(element);
+                }
+                return list;
+            }
+        }, List::size);
+    }
+
+    /**
+     * Выполняет изменяющий запрос.
+     *
+     * @return число измененных строк
+     */
+    int update(Connection c, P parameters) throws SQLException {
+        return execute(c, parameters, PreparedStatement::executeUpdate, count -> count);
+    }
+
+    /**
+     * Выполняет вставляющий запрос.
+     *
+     * @return сгенерированный идентификатор или null, если база данных его не вернула
+     */
+    Integer insert(Connection c, P parameters) throws SQLException {
+        return execute(c, parameters, ps -> {
+            ps.executeUpdate();
+            try (ResultSet rs = ps.getGeneratedKeys()) {
+                return rs.next() ? rs.getInt(1) : null;
+            }
+        }, id -> 1);
+    }
+
+    /**
+     * Выполняет запрос для каждого значения параметров пакетами по batchSize значений.
+     * Для вставляющего запроса возвращает сгенерированные идентификаторы в порядке значений.
+     *
+     * @param items значения параметров
+     * @param batchSize положительное число значений в пакете
+     * @return сгенерированные идентификаторы или пустой список для изменяющего запроса
+     */
+    List<Integer> batch(Connection c, List<? extends P> items, int batchSize) throws SQLException {
+        if (items.isEmpty()) {
+            return List.of();
+        }
+
+        return execute(c, null, ps -> {
+            List<Integer> ids = new ArrayList<>();
+            for (int from = 0; from < items.size(); from += batchSize) {
+                List<? extends P> chunk = items.subList(from, Math.min(from + batchSize, items.size()));
+                for (P item : chunk) {
+                    binder.bind(ps, item);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+
+                if (returningGeneratedKeys) {
+                    try (ResultSet rs = ps.getGeneratedKeys()) {
+                        for (int i = 0; i < chunk.size(); i++) {
+                            if (!rs.next()) {
+                                throw new SQLException("Generated keys are not returned for the batch");
+                            }
+                            ids.add(rs.getInt(1));
+                        }
+                    }
+                }
+            }
+            return ids;
+        }, ids -> items.size(), false);
+    }
+
+    private <R> R execute(Connection c, P parameters, Execution<R> execution, RowCounter<R> rowCounter)
+            throws SQLException {
+        return execute(c, parameters, execution, rowCounter, true);
+    }
+
+    private <R> R execute(Connection c, P parameters, Execution<R> execution, RowCounter<R> rowCounter,
+                          boolean bindParameters) throws SQLException {
+        final long start = System.nanoTime();
+        boolean failed = true;
+        long rows = 0;
+        try (PreparedStatement ps = returningGeneratedKeys
+                ? c.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)
+                : c.prepareStatement(sql)) {
+            if (bindParameters) {
+                binder.bind(ps, parameters);
+            }
+
+            try (QueryCancellation.Registration registration = QueryCancellation.register(ps::cancel)) {
+                R result = execution.execute(ps);
+                rows = rowCounter.count(result);
+                failed = false;
+
+                return result;
+            }
+        } finally {
+            statistics.record(System.nanoTime() - start, rows, failed);
+        }
+    }
+
+    /**
+     * Возвращает курсор, читающий по одному элементу из каждой строки результата.
+     * Читатель строк создается по столбцам результата один раз, при чтении первой строки.
+     */
+    private static <T> ResultSetCursor<T> rowCursor(Function<Columns, RowMapper<T>> mapperFactory) {
+        return new ResultSetCursor<>() {
+
+            private RowMapper<T> mapper;
+
+            @Override
+            public T next(ResultSet rs) throws SQLException {
+                if (!rs.next()) {
+                    return null;
+                }
+                if (mapper == null) {
+                    mapper = mapperFactory.apply(Columns.of(rs));
+                }
+
+                return mapper.map(rs);
+            }
+        };
+    }
+
+    @FunctionalInterface
+    private interface Execution<R> {
+        R execute(PreparedStatement ps) throws SQLException;
+    }
+
+    @FunctionalInterface
+    private interface RowCounter<R> {
+        long count(R result);
+    }
+}
@@ -0,0 +1,20 @@
+package aston.hw2.repository;
+
+/**
+ * Порядок сортировки страницы по идентификатору.
+ *
+ * @author Максим Яськов
+ * @see Page
+ */
+public enum SortOrder {
+
+    /**
+     * По возрастанию идентификатора: страница начинается после курсора.
+     */
+    ASC,
+
+    /**
+     * По убыванию идентификатора: страница начинается перед курсором.
+     */
+    DESC
+}
@@ -1,7 +1,10 @@
 package aston.hw2.repository;
 
+import aston.hw2.entity.Group;
 import aston.hw2.entity.Student;
 
+import java.util.List;
+
 /**
  * Репозиторий студентов.
  *
@@ -10,4 +13,83 @@ import aston.hw2.entity.Student;
  * @see Student
  */
 public interface StudentRepository extends CrudRepository<Student, Integer> {
+
+    /**
+     * Привязывает студента к группе одним запросом, не загружая ни студента, ни группу.
+     *
+     * @param studentId идентификатор студента
+     * @param groupId идентификатор группы
+     * @return true, если студент привязан; false, если студент или группа не найдены
+     */
+    boolean assignGroup(int studentId, int groupId);
+
+    /**
+     * Возвращает собственные свойства группы студента - идентификатор, имя и дату выпуска - одним запросом,
+     * не загружая ни студента, ни куратора и студентов группы.
+     *
+     * @param studentId идентификатор студента
+     * @return ссылка на группу студента или null, если студент не состоит в группе или не найден
+     */
+    Group findGroupByStudentId(int studentId);
+
+    /**
+     * Возвращает студента вместе с полностью загруженной группой: ее куратором и всеми студентами.
+     * В отличие от {@link #findById(Object)}, стоимость запроса растет с размером группы.
+     *
+     * @param id идентификатор студента
+     * @return студент с указанным идентификатором или null, если студент не найден
+     */
+    Student findWithGroupById(int id);
+
+    /**
+     * Возвращает всех студентов группы без группы: группа каждого студента равна null
+     * и устанавливается вызывающей стороной.
+     *
+     * @param groupId идентификатор группы
+     * @return студенты группы в произвольном порядке, всегда не null; пустой список, если группа не найдена
+     */
+    List<Student> findAllByGroupId(int groupId);
+
+    /**
+     * Возвращает страницу студентов группы, не загружая саму группу с куратором и остальными студентами.
+     * Группа каждого студента страницы - ссылка, содержащая только собственные свойства группы.
+     *
+     * @param groupId идентификатор группы
+     * @param afterId курсор: идентификатор, после которого в указанном порядке начинается страница,
+     *                или null для первой страницы
+     * @param limit максимальное число студентов на странице
+     * @param order порядок сортировки студентов по идентификатору
+     * @return страница студентов группы, всегда не null; пустая, если группа не найдена
+     * @throws IllegalArgumentException если размер страницы не положителен или порядок сортировки равен null
+     */
+    Page<Student, Integer> findPageByGroupId(int groupId, Integer afterId, int limit, SortOrder order);
+
+    /**
+     * Вставляет новых студентов одной массовой операцией, не читая сгенерированные идентификаторы.
+     * Идентификаторы указанным студентам не присваиваются.
+     *
+     * @param students новые студенты
+     * @return число вставленных студентов
+     * @throws IllegalArgumentException если список студентов равен null
+     */
+    int insertAll(List<Student> students);
+
+    /**
+     * Отвязывает студента от его группы одним запросом.
+     *
+     * @param studentId идентификатор студента
+     * @return true, если студент найден
+     */
+    boolean unassignGroup(int studentId);
+
+    /**
+     * Отвязывает студента от указанной группы одним запросом.
+     * Студент, состоящий в другой группе, не затрагивается.
+     *
+     * @param studentId идентификатор студента
+     * @param groupId идентификатор группы
+     * @return true, если студент состоял в указанной группе и был отвязан
+     */
+    boolean unassignGroup(int studentId, int groupId);
+
 }
@@ -0,0 +1,39 @@
+package aston.hw2.repository;
+
+import java.util.function.Supplier;
+
+/**
+ * Менеджер транзакций.
+ *
+ * Выполняет действие как единицу работы: все операции репозиториев внутри действия
+ * используют одно подключение и фиксируются одной транзакцией. Вложенный вызов присоединяется
+ * к уже открытой транзакции.
+ *
+ * @author Максим Яськов
+ */
+public interface TransactionManager {
+
+    /**
+     * Выполняет действие в транзакции и возвращает его результат.
+     * Транзакция фиксируется при успешном завершении действия и откатывается при исключении.
+     *
+     * @param action действие
+     * @return результат действия
+     * @throws SQLRuntimeException при ошибке открытия, фиксации или отката транзакции
+     */
+    <T> T inTransaction(Supplier<T> action);
+
+    /**
+     * Выполняет действие в транзакции.
+     *
+     * @param action действие
+     * @see #inTransaction(Supplier)
+     */
+    default void inTransaction(Runnable action) {
+        inTransaction(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+}
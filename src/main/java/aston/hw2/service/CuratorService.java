@@ -1,7 +1,13 @@
 package aston.hw2.service;
 
 import aston.hw2.entity.Curator;
+import aston.hw2.repository.ExportFormat;
+import aston.hw2.repository.Page;
 
+import java.io.Writer;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Stream;
 
 /**
@@ -35,11 +41,43 @@ public interface CuratorService {
 
     /**
      * Возвращает поток всех кураторов.
+     * Поток должен быть закрыт после использования.
      *
      * @return поток всех кураторов, всегда не null
      */
     Stream<Curator> getAllCurators();
 
+    /**
+     * Возвращает страницу кураторов, упорядоченных по возрастанию идентификатора.
+     *
+     * @param afterId идентификатор, после которого начинается страница, или null для первой страницы
+     * @param limit максимальное число элементов на странице
+     * @return страница кураторов, всегда не null
+     * @throws IllegalArgumentException если размер страницы не положителен
+     */
+    Page<Curator, Integer> getCuratorsPage(Integer afterId, int limit);
+
+    /**
+     * Возвращает кураторов с указанными идентификаторами, как и {@link #getCurator(int)}.
+     * Несуществующие идентификаторы пропускаются.
+     *
+     * @param curatorIds идентификаторы кураторов
+     * @return найденные кураторы, упорядоченные по возрастанию идентификатора, всегда не null
+     * @throws IllegalArgumentException если коллекция идентификаторов или один из идентификаторов равен null
+     */
+    List<Curator> getCurators(Collection<Integer> curatorIds);
+
+    /**
+     * Записывает всех кураторов в указанном формате, упорядоченных по возрастанию идентификатора.
+     * Кураторы не накапливаются в памяти, поэтому выгрузка не ограничена по объему.
+     *
+     * @param format формат выгрузки
+     * @param writer получатель выгрузки; не закрывается
+     * @return число выгруженных кураторов
+     * @see aston.hw2.repository.CrudRepository#exportAll(ExportFormat, Writer)
+     */
+    long exportCurators(ExportFormat format, Writer writer);
+
     /**
      * Возвращает куратора по идентификатору.
      *
@@ -78,4 +116,48 @@ public interface CuratorService {
      */
     Curator updateCurator(int curatorId, Curator candidate);
 
+    /**
+     * Асинхронный вариант {@link #getCurator(int)}.
+     *
+     * Асинхронные варианты операций выполняются исполнителем сервиса вне транзакции вызывающего потока,
+     * поэтому независимые операции могут выполняться одновременно. Исключение синхронного варианта
+     * завершает результат исключительно.
+     */
+    CompletableFuture<Curator> getCuratorAsync(int curatorId);
+
+    /**
+     * Асинхронный вариант {@link #getCurators(Collection)}.
+     *
+     * @see #getCuratorAsync(int)
+     */
+    CompletableFuture<List<Curator>> getCuratorsAsync(Collection<Integer> curatorIds);
+
+    /**
+     * Асинхронный вариант {@link #getCuratorsPage(Integer, int)}.
+     *
+     * @see #getCuratorAsync(int)
+     */
+    CompletableFuture<Page<Curator, Integer>> getCuratorsPageAsync(Integer afterId, int limit);
+
+    /**
+     * Асинхронный вариант {@link #createCuratorByCandidate(Curator)}.
+     *
+     * @see #getCuratorAsync(int)
+     */
+    CompletableFuture<Curator> createCuratorByCandidateAsync(Curator candidate);
+
+    /**
+     * Асинхронный вариант {@link #updateCurator(int, Curator)}.
+     *
+     * @see #getCuratorAsync(int)
+     */
+    CompletableFuture<Curator> updateCuratorAsync(int curatorId, Curator candidate);
+
+    /**
+     * Асинхронный вариант {@link #removeCurator(int)}.
+     *
+     * @see #getCuratorAsync(int)
+     */
+    CompletableFuture<Void> removeCuratorAsync(int curatorId);
+
 }
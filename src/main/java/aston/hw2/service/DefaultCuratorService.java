@@ -1,43 +1,51 @@
 package aston.hw2.service;
 
 import aston.hw2.entity.Curator;
-import aston.hw2.entity.Group;
 import aston.hw2.repository.CuratorRepository;
-import aston.hw2.repository.GroupRepository;
+import aston.hw2.repository.ExportFormat;
+import aston.hw2.repository.Page;
+import aston.hw2.repository.TransactionManager;
 import lombok.RequiredArgsConstructor;
 
+import java.io.Writer;
+import java.util.Collection;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.stream.Stream;
 
 @RequiredArgsConstructor
 public class DefaultCuratorService implements CuratorService {
 
     private final CuratorRepository curatorRepository;
-    private final GroupRepository groupRepository;
+    private final TransactionManager transactionManager;
+    private final Executor executor;
 
     @Override
     public void assignGroup(int curatorId, int groupId) {
-        Curator curator = getCurator(curatorId);
-        Group group = curator.getGroup();
-        if (group != null && Objects.equals(group.getId(), groupId)) {
-            return;
-        }
-
-        group = getGroup(groupId);
-        curator.setGroup(group);
-        curatorRepository.save(curator);
+        transactionManager.inTransaction(() -> {
+            if (!curatorRepository.assignGroup(curatorId, groupId)) {
+                if (!curatorRepository.existsById(curatorId)) {
+                    throwCuratorNotFoundException(curatorId);
+                }
+                throwGroupNotFoundException(groupId);
+            }
+        });
     }
 
     @Override
     public Curator createCuratorByCandidate(Curator candidate) {
-        checkCandidate(candidate);
+        return transactionManager.inTransaction(() -> {
+            checkCandidate(candidate);
 
-        Curator curator = new Curator();
-        curator.setName(candidate.getName());
-        curator.setEmail(candidate.getEmail());
-        curator.setExperience(candidate.getExperience());
+            Curator curator = new Curator();
+            curator.setName(candidate.getName());
+            curator.setEmail(candidate.getEmail());
+            curator.setExperience(candidate.getExperience());
 
-        return curatorRepository.save(curator);
+            return curatorRepository.save(curator);
+        });
     }
 
     @Override
@@ -45,6 +53,21 @@ public class DefaultCuratorService implements CuratorService {
         return curatorRepository.findAll();
     }
 
+    @Override
+    public Page<Curator, Integer> getCuratorsPage(Integer afterId, int limit) {
+        return curatorRepository.findPage(afterId, limit);
+    }
+
+    @Override
+    public List<Curator> getCurators(Collection<Integer> curatorIds) {
+        return curatorRepository.findAllById(curatorIds);
+    }
+
+    @Override
+    public long exportCurators(ExportFormat format, Writer writer) {
+        return curatorRepository.exportAll(format, writer);
+    }
+
     @Override
     public Curator getCurator(int curatorId) {
         Curator curator = curatorRepository.findById(curatorId);
@@ -57,45 +80,76 @@ public class DefaultCuratorService implements CuratorService {
 
     @Override
     public void removeCurator(int curatorId) {
-        Curator curator = getCurator(curatorId);
-        curatorRepository.removeById(curator.getId());
+        if (!curatorRepository.deleteById(curatorId)) {
+            throwCuratorNotFoundException(curatorId);
+        }
     }
 
     @Override
     public void unassignGroup(int curatorId) {
-        Curator curator = getCurator(curatorId);
-        if (curator.getGroup() == null) {
-            return;
-        }
-
-        curator.setGroup(null);
-        curatorRepository.save(curator);
+        transactionManager.inTransaction(() -> {
+            if (!curatorRepository.unassignGroup(curatorId)) {
+                throwCuratorNotFoundException(curatorId);
+            }
+        });
     }
 
     @Override
     public Curator updateCurator(int curatorId, Curator candidate) {
-        checkCandidate(candidate);
+        return transactionManager.inTransaction(() -> {
+            checkCandidate(candidate);
+
+            Curator curator = getCurator(curatorId);
+
+            boolean modified = false;
+            if (!Objects.equals(curator.getName(), candidate.getName())) {
+                curator.setName(candidate.getName());
+                modified = true;
+            }
+            if (!Objects.equals(curator.getEmail(), candidate.getEmail())) {
+                curator.setEmail(candidate.getEmail());
+                modified = true;
+            }
+            if (curator.getExperience() != candidate.getExperience()) {
+                curator.setExperience(candidate.getExperience());
+                modified = true;
+            }
+            if (modified) {
+                curatorRepository.save(curator);
+            }
+
+            return curator;
+        });
+    }
 
-        Curator curator = getCurator(curatorId);
+    @Override
+    public CompletableFuture<Curator> getCuratorAsync(int curatorId) {
+        return CompletableFuture.supplyAsync(() -> getCurator(curatorId), executor);
+    }
 
-        boolean modified = false;
-        if (!Objects.equals(curator.getName(), candidate.getName())) {
-            curator.setName(candidate.getName());
-            modified = true;
-        }
-        if (!Objects.equals(curator.getEmail(), candidate.getEmail())) {
-            curator.setEmail(candidate.getEmail());
-            modified = true;
-        }
-        if (curator.getExperience() != candidate.getExperience()) {
-            curator.setExperience(candidate.getExperience());
-            modified = true;
-        }
-        if (modified) {
-            curatorRepository.save(curator);
-        }
+    @Override
+    public CompletableFuture<List<Curator>> getCuratorsAsync(Collection<Integer> curatorIds) {
+        return CompletableFuture.supplyAsync(() -> getCurators(curatorIds), executor);
+    }
 
-        return curator;
+    @Override
+    public CompletableFuture<Page<Curator, Integer>> getCuratorsPageAsync(Integer afterId, int limit) {
+        return CompletableFuture.supplyAsync(() -> getCuratorsPage(afterId, limit), executor);
+    }
+
+    @Override
+    public CompletableFuture<Curator> createCuratorByCandidateAsync(Curator candidate) {
+        return CompletableFuture.supplyAsync(() -> createCuratorByCandidate(candidate), executor);
+    }
+
+    @Override
+    public CompletableFuture<Curator> updateCuratorAsync(int curatorId, Curator candidate) {
+        return CompletableFuture.supplyAsync(() -> updateCurator(curatorId, candidate), executor);
+    }
+
+    @Override
+    public CompletableFuture<Void> removeCuratorAsync(int curatorId) {
+        return CompletableFuture.runAsync(() -> removeCurator(curatorId), executor);
     }
 
     private void checkCandidate(Curator candidate) {
@@ -110,15 +164,6 @@ public class DefaultCuratorService implements CuratorService {
         }
     }
 
-    private Group getGroup(int groupId) {
-        Group group = groupRepository.findById(groupId);
-        if (group == null) {
-            throwGroupNotFoundException(groupId);
-        }
-
-        return group;
-    }
-
     private void throwCuratorNotFoundException(int curatorId) {
         throw new CuratorNotFoundException("Curator with id=%d not found".formatted(curatorId));
     }
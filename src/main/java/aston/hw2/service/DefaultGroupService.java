@@ -4,12 +4,20 @@ import aston.hw2.entity.Curator;
 import aston.hw2.entity.Group;
 import aston.hw2.entity.Student;
 import aston.hw2.repository.CuratorRepository;
+import aston.hw2.repository.ExportFormat;
 import aston.hw2.repository.GroupRepository;
+import aston.hw2.repository.Page;
+import aston.hw2.repository.SortOrder;
 import aston.hw2.repository.StudentRepository;
+import aston.hw2.repository.TransactionManager;
 import lombok.RequiredArgsConstructor;
 
-import java.util.Iterator;
+import java.io.Writer;
+import java.util.Collection;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.stream.Stream;
 
 @RequiredArgsConstructor
@@ -18,50 +26,44 @@ public class DefaultGroupService implements GroupService {
     private final GroupRepository groupRepository;
     private final CuratorRepository curatorRepository;
     private final StudentRepository studentRepository;
+    private final TransactionManager transactionManager;
+    private final Executor executor;
 
     @Override
     public void assignCurator(int groupId, int curatorId) {
-        Group group = getGroup(groupId);
-
-        Curator curator = group.getCurator();
-        if (curator != null && Objects.equals(curator.getId(), curatorId)) {
-            return;
-        }
-
-        curator = getCurator(curatorId);
-        group.setCurator(curator);
-        groupRepository.save(group);
+        transactionManager.inTransaction(() -> {
+            if (!curatorRepository.assignGroup(curatorId, groupId)) {
+                checkGroupExists(groupId);
+                throwCuratorNotFoundException(curatorId);
+            }
+        });
     }
 
     @Override
     public void assignStudent(int groupId, int studentId) {
-        Group group = getGroup(groupId);
-
-        for (Student student : group.getStudents()) {
-            if (Objects.equals(student.getId(), studentId)) {
-                return;
+        transactionManager.inTransaction(() -> {
+            if (!studentRepository.assignGroup(studentId, groupId)) {
+                checkGroupExists(groupId);
+                throwStudentNotFoundException(studentId);
             }
-        }
-
-        Student student = getStudent(studentId);
-        group.getStudents().add(student);
-        groupRepository.save(group);
+        });
     }
 
     @Override
     public Group createGroupByCandidate(Group candidate) {
-        checkCandidate(candidate);
+        return transactionManager.inTransaction(() -> {
+            checkCandidate(candidate);
 
-        Group group = groupRepository.findByName(candidate.getName());
-        if (group != null) {
-            throw new InvalidCandidateException(candidateNameOccupiedMessage(candidate.getName()));
-        }
+            if (groupRepository.existsByName(candidate.getName())) {
+                throw new InvalidCandidateException(candidateNameOccupiedMessage(candidate.getName()));
+            }
 
-        group = new Group();
-        group.setName(candidate.getName());
-        group.setGraduationDate(candidate.getGraduationDate());
+            Group group = new Group();
+            group.setName(candidate.getName());
+            group.setGraduationDate(candidate.getGraduationDate());
 
-        return groupRepository.save(group);
+            return groupRepository.save(group);
+        });
     }
 
     @Override
@@ -69,6 +71,11 @@ public class DefaultGroupService implements GroupService {
         return groupRepository.findAll();
     }
 
+    @Override
+    public Page<Group, Integer> getGroupsPage(Integer afterId, int limit) {
+        return groupRepository.findPage(afterId, limit);
+    }
+
     @Override
     public Group getGroup(int groupId) {
         Group group = groupRepository.findById(groupId);
@@ -80,62 +87,164 @@ public class DefaultGroupService implements GroupService {
     }
 
     @Override
-    public void removeGroup(int groupId) {
-        Group group = getGroup(groupId); // throws GroupNotFoundException
-        groupRepository.removeById(group.getId());
+    public Curator getGroupCurator(int groupId) {
+        Curator curator = curatorRepository.findByGroupId(groupId);
+        if (curator == null) {
+            checkGroupExists(groupId);
+        }
+
+        return curator;
     }
 
     @Override
-    public void unassignCurator(int groupId) {
-        Group group = getGroup(groupId);
-        if (group.getCurator() == null) {
-            return;
+    public Group getGroupSummary(int groupId) {
+        Group group = groupRepository.findSummaryById(groupId);
+        if (group == null) {
+            throwGroupNotFoundException(groupId);
         }
 
-        Curator curator = group.getCurator();
-        curator.setGroup(null);
+        return group;
+    }
 
-        curatorRepository.save(curator);
+    @Override
+    public Page<Group, Integer> getGroupSummariesPage(Integer afterId, int limit) {
+        return groupRepository.findSummaryPage(afterId, limit);
+    }
+
+    @Override
+    public List<Group> getGroupSummaries(Collection<Integer> groupIds) {
+        return groupRepository.findSummariesByIds(groupIds);
+    }
+
+    @Override
+    public long exportGroups(ExportFormat format, Writer writer) {
+        return groupRepository.exportAll(format, writer);
+    }
+
+    @Override
+    public Page<Student, Integer> getGroupStudentsPage(int groupId, Integer afterId, int limit, SortOrder order) {
+        Page<Student, Integer> page = studentRepository.findPageByGroupId(groupId, afterId, limit, order);
+        if (page.getItems().isEmpty()) {
+            checkGroupExists(groupId);
+        }
+
+        return page;
+    }
+
+    @Override
+    public void removeGroup(int groupId) {
+        if (!groupRepository.deleteById(groupId)) {
+            throwGroupNotFoundException(groupId);
+        }
+    }
+
+    @Override
+    public void unassignCurator(int groupId) {
+        transactionManager.inTransaction(() -> {
+            if (!curatorRepository.unassignByGroupId(groupId)) {
+                checkGroupExists(groupId);
+            }
+        });
     }
 
     @Override
     public void unassignStudent(int groupId, int studentId) {
-        Group group = getGroup(groupId);
-
-        Iterator<Student> it = group.getStudents().iterator();
-        while (it.hasNext()) {
-            Student student = it.next();
-            if (Objects.equals(student.getId(), studentId)) {
-                it.remove();
-                groupRepository.save(group);
-                return;
+        transactionManager.inTransaction(() -> {
+            if (!studentRepository.unassignGroup(studentId, groupId)) {
+                checkGroupExists(groupId);
             }
-        }
+        });
     }
 
     @Override
     public Group updateGroupByCandidate(int groupId, Group candidate) {
-        checkCandidate(candidate);
+        return transactionManager.inTransaction(() -> {
+            checkCandidate(candidate);
 
-        Group group = getGroup(groupId);
-        if (!Objects.equals(group.getName(), candidate.getName()) && groupRepository.findByName(candidate.getName()) != null) {
-            throw new InvalidCandidateException(candidateNameOccupiedMessage(candidate.getName()));
-        }
+            Group group = getGroup(groupId);
+            if (!Objects.equals(group.getName(), candidate.getName()) && groupRepository.existsByName(candidate.getName())) {
+                throw new InvalidCandidateException(candidateNameOccupiedMessage(candidate.getName()));
+            }
 
-        boolean modified = false;
-        if (!Objects.equals(group.getName(), candidate.getName())) {
-            group.setName(candidate.getName());
-            modified = true;
-        }
-        if (!Objects.equals(group.getGraduationDate(), candidate.getGraduationDate())) {
-            group.setGraduationDate(candidate.getGraduationDate());
-            modified = true;
-        }
-        if (modified) {
-            return groupRepository.save(group);
-        }
+            boolean modified = false;
+            if (!Objects.equals(group.getName(), candidate.getName())) {
+                group.setName(candidate.getName());
+                modified = true;
+            }
+            if (!Objects.equals(group.getGraduationDate(), candidate.getGraduationDate())) {
+                group.setGraduationDate(candidate.getGraduationDate());
+                modified = true;
+            }
+            if (modified) {
+                return groupRepository.save(group);
+            }
 
-        return group;
+            return group;
+        });
+    }
+
+    /**
+     * Читает группу, ее куратора и студентов тремя одновременными запросами и собирает из них группу.
+     */
+    @Override
+    public CompletableFuture<Group> getGroupAsync(int groupId) {
+        CompletableFuture<Group> group = getGroupSummaryAsync(groupId);
+        CompletableFuture<Curator> curator = CompletableFuture.supplyAsync(
+                () -> curatorRepository.findByGroupId(groupId), executor);
+        CompletableFuture<List<Student>> students = CompletableFuture.supplyAsync(
+                () -> studentRepository.findAllByGroupId(groupId), executor);
+
+        return group.thenCombine(curator, (g, c) -> {
+            if (c != null) {
+                c.setGroup(g);
+            }
+            g.setCurator(c);
+            return g;
+        }).thenCombine(students, (g, s) -> {
+            s.forEach(student -> student.setGroup(g));
+            g.setStudents(s);
+            return g;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Group> getGroupSummaryAsync(int groupId) {
+        return CompletableFuture.supplyAsync(() -> getGroupSummary(groupId), executor);
+    }
+
+    @Override
+    public CompletableFuture<List<Group>> getGroupSummariesAsync(Collection<Integer> groupIds) {
+        return CompletableFuture.supplyAsync(() -> getGroupSummaries(groupIds), executor);
+    }
+
+    @Override
+    public CompletableFuture<Page<Group, Integer>> getGroupSummariesPageAsync(Integer afterId, int limit) {
+        return CompletableFuture.supplyAsync(() -> getGroupSummariesPage(afterId, limit), executor);
+    }
+
+    @Override
+    public CompletableFuture<Curator> getGroupCuratorAsync(int groupId) {
+        return CompletableFuture.supplyAsync(() -> getGroupCurator(groupId), executor);
+    }
+
+    @Override
+    public CompletableFuture<Page<Student, Integer>> getGroupStudentsPageAsync(int groupId, Integer afterId, int limit, SortOrder order) {
+        return CompletableFuture.supplyAsync(() -> getGroupStudentsPage(groupId, afterId, limit, order), executor);
+    }
+
+    @Override
+    public CompletableFuture<Group> createGroupByCandidateAsync(Group candidate) {
+        return CompletableFuture.supplyAsync(() -> createGroupByCandidate(candidate), executor);
+    }
+
+    @Override
+    public CompletableFuture<Group> updateGroupByCandidateAsync(int groupId, Group candidate) {
+        return CompletableFuture.supplyAsync(() -> updateGroupByCandidate(groupId, candidate), executor);
+    }
+
+    @Override
+    public CompletableFuture<Void> removeGroupAsync(int groupId) {
+        return CompletableFuture.runAsync(() -> removeGroup(groupId), executor);
     }
 
     private String candidateNameOccupiedMessage(String candidateName) {
@@ -156,22 +265,10 @@ public class DefaultGroupService implements GroupService {
         }
     }
 
-    private Curator getCurator(int curatorId) {
-        Curator curator = curatorRepository.findById(curatorId);
-        if (curator == null) {
-            throwCuratorNotFoundException(curatorId);
-        }
-
-        return curator;
-    }
-
-    private Student getStudent(int studentId) {
-        Student student = studentRepository.findById(studentId);
-        if (student == null) {
-            throwStudentNotFoundException(studentId);
+    private void checkGroupExists(int groupId) {
+        if (!groupRepository.existsById(groupId)) {
+            throwGroupNotFoundException(groupId);
         }
-
-        return student;
     }
 
     private void throwGroupNotFoundException(int groupId) {
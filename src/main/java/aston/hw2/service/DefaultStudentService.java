@@ -2,41 +2,62 @@ package aston.hw2.service;
 
 import aston.hw2.entity.Group;
 import aston.hw2.entity.Student;
-import aston.hw2.repository.GroupRepository;
+import aston.hw2.repository.ExportFormat;
+import aston.hw2.repository.Page;
 import aston.hw2.repository.StudentRepository;
+import aston.hw2.repository.TransactionManager;
 import lombok.AllArgsConstructor;
 
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.stream.Stream;
 
 @AllArgsConstructor
 public class DefaultStudentService implements StudentService {
 
+    /**
+     * Число студентов, передаваемых репозиторию одной массовой вставкой при загрузке.
+     */
+    public static final int IMPORT_CHUNK_SIZE = 10_000;
+
+    /**
+     * Максимальная длина имени студента, ограниченная столбцом students.name.
+     */
+    public static final int NAME_MAX_LENGTH = 32;
+
     private final StudentRepository studentRepository;
-    private final GroupRepository groupRepository;
+    private final TransactionManager transactionManager;
+    private final Executor executor;
 
     @Override
     public void assignGroup(int studentId, int groupId) {
-        Student student = getStudent(studentId);
-        Group group = student.getGroup();
-        if (group != null && Objects.equals(group.getId(), groupId)) {
-            return;
-        }
-
-        group = getGroup(groupId);
-        student.setGroup(group);
-        studentRepository.save(student);
+        transactionManager.inTransaction(() -> {
+            if (!studentRepository.assignGroup(studentId, groupId)) {
+                if (!studentRepository.existsById(studentId)) {
+                    throwStudentNotFoundException(studentId);
+                }
+                throwGroupNotFoundException(groupId);
+            }
+        });
     }
 
     @Override
     public Student createStudentByCandidate(Student candidate) {
-        checkCandidate(candidate);
+        return transactionManager.inTransaction(() -> {
+            checkCandidate(candidate);
 
-        Student student = new Student();
-        student.setName(candidate.getName());
-        student.setDateOfBirth(candidate.getDateOfBirth());
+            Student student = new Student();
+            student.setName(candidate.getName());
+            student.setDateOfBirth(candidate.getDateOfBirth());
 
-        return studentRepository.save(student);
+            return studentRepository.save(student);
+        });
     }
 
     @Override
@@ -44,6 +65,21 @@ public class DefaultStudentService implements StudentService {
         return studentRepository.findAll();
     }
 
+    @Override
+    public Page<Student, Integer> getStudentsPage(Integer afterId, int limit) {
+        return studentRepository.findPage(afterId, limit);
+    }
+
+    @Override
+    public List<Student> getStudents(Collection<Integer> studentIds) {
+        return studentRepository.findAllById(studentIds);
+    }
+
+    @Override
+    public long exportStudents(ExportFormat format, Writer writer) {
+        return studentRepository.exportAll(format, writer);
+    }
+
     @Override
     public Student getStudent(int studentId) {
         Student student = studentRepository.findById(studentId);
@@ -55,42 +91,121 @@ public class DefaultStudentService implements StudentService {
     }
 
     @Override
-    public void removeStudent(int studentId) {
-        Student student = getStudent(studentId); // throws StudentNotFoundException
-        studentRepository.removeById(student.getId());
+    public Group getStudentGroup(int studentId) {
+        Group group = studentRepository.findGroupByStudentId(studentId);
+        if (group == null && !studentRepository.existsById(studentId)) {
+            throwStudentNotFoundException(studentId);
+        }
+
+        return group;
     }
 
     @Override
-    public void unassignGroup(int studentId) {
-        Student student = getStudent(studentId);
-        if (student.getGroup() == null) {
-            return;
+    public StudentImportReport importStudents(Iterator<Student> candidates) {
+        if (candidates == null) {
+            throw new IllegalArgumentException("A candidates must not be null");
         }
 
-        student.setGroup(null);
-        studentRepository.save(student);
+        return transactionManager.inTransaction(() -> {
+            StudentImportReport report = new StudentImportReport();
+            List<Student> chunk = new ArrayList<>();
+            long row = 0;
+            while (candidates.hasNext()) {
+                row++;
+                try {
+                    Student candidate = candidates.next();
+                    checkImportCandidate(candidate);
+
+                    chunk.add(new Student(candidate.getName(), candidate.getDateOfBirth(), null));
+                } catch (InvalidCandidateException e) {
+                    report.reject(row, e.getMessage());
+                    continue;
+                }
+
+                if (chunk.size() == IMPORT_CHUNK_SIZE) {
+                    report.addImported(studentRepository.insertAll(chunk));
+                    chunk.clear();
+                }
+            }
+            report.addImported(studentRepository.insertAll(chunk));
+
+            return report;
+        });
+    }
+
+    @Override
+    public void removeStudent(int studentId) {
+        if (!studentRepository.deleteById(studentId)) {
+            throwStudentNotFoundException(studentId);
+        }
+    }
+
+    @Override
+    public void unassignGroup(int studentId) {
+        transactionManager.inTransaction(() -> {
+            if (!studentRepository.unassignGroup(studentId)) {
+                throwStudentNotFoundException(studentId);
+            }
+        });
     }
 
     @Override
     public Student updateStudent(int studentId, Student candidate) {
-        checkCandidate(candidate);
+        return transactionManager.inTransaction(() -> {
+            checkCandidate(candidate);
+
+            Student student = getStudent(studentId);
+
+            boolean modified = false;
+            if (!Objects.equals(student.getName(), candidate.getName())) {
+                student.setName(candidate.getName());
+                modified = true;
+            }
+            if (!Objects.equals(student.getDateOfBirth(), candidate.getDateOfBirth())) {
+                student.setDateOfBirth(candidate.getDateOfBirth());
+                modified = true;
+            }
+            if (modified) {
+                return studentRepository.save(student);
+            }
+
+            return student;
+        });
+    }
 
-        Student student = getStudent(studentId);
+    @Override
+    public CompletableFuture<Student> getStudentAsync(int studentId) {
+        return CompletableFuture.supplyAsync(() -> getStudent(studentId), executor);
+    }
 
-        boolean modified = false;
-        if (!Objects.equals(student.getName(), candidate.getName())) {
-            student.setName(candidate.getName());
-            modified = true;
-        }
-        if (!Objects.equals(student.getDateOfBirth(), candidate.getDateOfBirth())) {
-            student.setDateOfBirth(candidate.getDateOfBirth());
-            modified = true;
-        }
-        if (modified) {
-            return studentRepository.save(student);
-        }
+    @Override
+    public CompletableFuture<List<Student>> getStudentsAsync(Collection<Integer> studentIds) {
+        return CompletableFuture.supplyAsync(() -> getStudents(studentIds), executor);
+    }
 
-        return student;
+    @Override
+    public CompletableFuture<Page<Student, Integer>> getStudentsPageAsync(Integer afterId, int limit) {
+        return CompletableFuture.supplyAsync(() -> getStudentsPage(afterId, limit), executor);
+    }
+
+    @Override
+    public CompletableFuture<Group> getStudentGroupAsync(int studentId) {
+        return CompletableFuture.supplyAsync(() -> getStudentGroup(studentId), executor);
+    }
+
+    @Override
+    public CompletableFuture<Student> createStudentByCandidateAsync(Student candidate) {
+        return CompletableFuture.supplyAsync(() -> createStudentByCandidate(candidate), executor);
+    }
+
+    @Override
+    public CompletableFuture<Student> updateStudentAsync(int studentId, Student candidate) {
+        return CompletableFuture.supplyAsync(() -> updateStudent(studentId, candidate), executor);
+    }
+
+    @Override
+    public CompletableFuture<Void> removeStudentAsync(int studentId) {
+        return CompletableFuture.runAsync(() -> removeStudent(studentId), executor);
     }
 
     private void checkCandidate(Student candidate) {
@@ -103,13 +218,15 @@ public class DefaultStudentService implements StudentService {
         }
     }
 
-    private Group getGroup(int groupId) {
-        Group group = groupRepository.findById(groupId);
-        if (group == null) {
-            throwGroupNotFoundException(groupId);
+    /**
+     * Проверяет загружаемого студента и по ограничениям схемы: одна недопустимая строка иначе
+     * прервала бы массовую вставку и откатила бы всю загрузку.
+     */
+    private void checkImportCandidate(Student candidate) {
+        checkCandidate(candidate);
+        if (candidate.getName().codePointCount(0, candidate.getName().length()) > NAME_MAX_LENGTH) {
+            throw new InvalidCandidateException("Candidate's name is longer than %d characters".formatted(NAME_MAX_LENGTH));
         }
-
-        return group;
     }
 
     private void throwGroupNotFoundException(int groupId) {
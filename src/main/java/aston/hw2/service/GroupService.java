@@ -1,7 +1,16 @@
 package aston.hw2.service;
 
+import aston.hw2.entity.Curator;
 import aston.hw2.entity.Group;
+import aston.hw2.entity.Student;
+import aston.hw2.repository.ExportFormat;
+import aston.hw2.repository.Page;
+import aston.hw2.repository.SortOrder;
 
+import java.io.Writer;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Stream;
 
 /**
@@ -45,11 +54,22 @@ public interface GroupService {
 
     /**
      * Возвращает поток всех групп.
+     * Поток должен быть закрыт после использования.
      *
      * @return поток всех групп, всегда не null
      */
     Stream<Group> getAllGroups();
 
+    /**
+     * Возвращает страницу групп, упорядоченных по возрастанию идентификатора.
+     *
+     * @param afterId идентификатор, после которого начинается страница, или null для первой страницы
+     * @param limit максимальное число элементов на странице
+     * @return страница групп, всегда не null
+     * @throws IllegalArgumentException если размер страницы не положителен
+     */
+    Page<Group, Integer> getGroupsPage(Integer afterId, int limit);
+
     /**
      * Возвращает группу по идентификатору.
      *
@@ -59,6 +79,68 @@ public interface GroupService {
      */
     Group getGroup(int groupId);
 
+    /**
+     * Возвращает куратора группы, не загружая группу.
+     *
+     * @param groupId идентификатор группы
+     * @return куратор группы или null, если у группы нет куратора
+     * @throws GroupNotFoundException если группа с указанным идентификатором не найдена
+     */
+    Curator getGroupCurator(int groupId);
+
+    /**
+     * Возвращает собственные свойства группы без куратора и студентов.
+     *
+     * @param groupId идентификатор требуемой группы
+     * @return группа с указанным идентификатором без куратора и студентов, всегда не null
+     * @throws GroupNotFoundException если группа с указанным идентификатором не найдена
+     */
+    Group getGroupSummary(int groupId);
+
+    /**
+     * Возвращает страницу групп без кураторов и студентов.
+     *
+     * @param afterId идентификатор, после которого начинается страница, или null для первой страницы
+     * @param limit максимальное число групп на странице
+     * @return страница групп, всегда не null
+     * @throws IllegalArgumentException если размер страницы не положителен
+     */
+    Page<Group, Integer> getGroupSummariesPage(Integer afterId, int limit);
+
+    /**
+     * Возвращает группы с указанными идентификаторами без кураторов и студентов, как и {@link #getGroupSummary(int)}.
+     * Несуществующие идентификаторы пропускаются.
+     *
+     * @param groupIds идентификаторы групп
+     * @return найденные группы, упорядоченные по возрастанию идентификатора, всегда не null
+     * @throws IllegalArgumentException если коллекция идентификаторов или один из идентификаторов равен null
+     */
+    List<Group> getGroupSummaries(Collection<Integer> groupIds);
+
+    /**
+     * Записывает всех групп в указанном формате, упорядоченных по возрастанию идентификатора.
+     * Группы не накапливаются в памяти, поэтому выгрузка не ограничена по объему.
+     *
+     * @param format формат выгрузки
+     * @param writer получатель выгрузки; не закрывается
+     * @return число выгруженных групп
+     * @see aston.hw2.repository.CrudRepository#exportAll(ExportFormat, Writer)
+     */
+    long exportGroups(ExportFormat format, Writer writer);
+
+    /**
+     * Возвращает страницу студентов группы, не загружая группу целиком.
+     *
+     * @param groupId идентификатор группы
+     * @param afterId идентификатор, после которого в указанном порядке начинается страница,
+     *                или null для первой страницы
+     * @param limit максимальное число студентов на странице
+     * @param order порядок сортировки студентов по идентификатору
+     * @return страница студентов группы, всегда не null
+     * @throws GroupNotFoundException если группа с указанным идентификатором не найдена
+     */
+    Page<Student, Integer> getGroupStudentsPage(int groupId, Integer afterId, int limit, SortOrder order);
+
     /**
      * Удаляет группу по указанному идентификатору.
      *
@@ -98,4 +180,70 @@ public interface GroupService {
      */
     Group updateGroupByCandidate(int groupId, Group candidate);
 
+    /**
+     * Асинхронный вариант {@link #getGroup(int)}: группа, ее куратор и студенты читаются одновременно
+     * тремя независимыми запросами.
+     *
+     * Асинхронные варианты операций выполняются исполнителем сервиса вне транзакции вызывающего потока,
+     * поэтому независимые операции могут выполняться одновременно. Исключение синхронного варианта
+     * завершает результат исключительно.
+     */
+    CompletableFuture<Group> getGroupAsync(int groupId);
+
+    /**
+     * Асинхронный вариант {@link #getGroupSummary(int)}.
+     *
+     * @see #getGroupAsync(int)
+     */
+    CompletableFuture<Group> getGroupSummaryAsync(int groupId);
+
+    /**
+     * Асинхронный вариант {@link #getGroupSummaries(Collection)}.
+     *
+     * @see #getGroupAsync(int)
+     */
+    CompletableFuture<List<Group>> getGroupSummariesAsync(Collection<Integer> groupIds);
+
+    /**
+     * Асинхронный вариант {@link #getGroupSummariesPage(Integer, int)}.
+     *
+     * @see #getGroupAsync(int)
+     */
+    CompletableFuture<Page<Group, Integer>> getGroupSummariesPageAsync(Integer afterId, int limit);
+
+    /**
+     * Асинхронный вариант {@link #getGroupCurator(int)}.
+     *
+     * @see #getGroupAsync(int)
+     */
+    CompletableFuture<Curator> getGroupCuratorAsync(int groupId);
+
+    /**
+     * Асинхронный вариант {@link #getGroupStudentsPage(int, Integer, int, SortOrder)}.
+     *
+     * @see #getGroupAsync(int)
+     */
+    CompletableFuture<Page<Student, Integer>> getGroupStudentsPageAsync(int groupId, Integer afterId, int limit, SortOrder order);
+
+    /**
+     * Асинхронный вариант {@link #createGroupByCandidate(Group)}.
+     *
+     * @see #getGroupAsync(int)
+     */
+    CompletableFuture<Group> createGroupByCandidateAsync(Group candidate);
+
+    /**
+     * Асинхронный вариант {@link #updateGroupByCandidate(int, Group)}.
+     *
+     * @see #getGroupAsync(int)
+     */
+    CompletableFuture<Group> updateGroupByCandidateAsync(int groupId, Group candidate);
+
+    /**
+     * Асинхронный вариант {@link #removeGroup(int)}.
+     *
+     * @see #getGroupAsync(int)
+     */
+    CompletableFuture<Void> removeGroupAsync(int groupId);
+
 }
@@ -0,0 +1,53 @@
+package aston.hw2.service;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Результат загрузки студентов: число загруженных и отклоненных записей и ошибки отклоненных записей.
+ * Сохраняются только первые {@link #MAX_REPORTED_ERRORS} ошибок, поэтому размер отчета не зависит от размера загрузки.
+ *
+ * @author Максим Яськов
+ * @see StudentService#importStudents(java.util.Iterator)
+ */
+@Getter
+public class StudentImportReport {
+
+    /**
+     * Максимальное число ошибок в отчете.
+     */
+    public static final int MAX_REPORTED_ERRORS = 1000;
+
+    private int imported;
+
+    private int rejected;
+
+    private final List<RowError> errors = new ArrayList<>();
+
+    public List<RowError> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    void addImported(int count) {
+        imported += count;
+    }
+
+    void reject(long row, String message) {
+        rejected++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(new RowError(row, message));
+        }
+    }
+
+    /**
+     * Ошибка отклоненной записи.
+     *
+     * @param row порядковый номер записи, начиная с 1
+     * @param message причина отклонения
+     */
+    public record RowError(long row, String message) {
+    }
+}
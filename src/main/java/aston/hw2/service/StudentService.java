@@ -1,7 +1,15 @@
 package aston.hw2.service;
 
+import aston.hw2.entity.Group;
 import aston.hw2.entity.Student;
+import aston.hw2.repository.ExportFormat;
+import aston.hw2.repository.Page;
 
+import java.io.Writer;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Stream;
 
 /**
@@ -35,11 +43,43 @@ public interface StudentService {
 
     /**
      * Возвращает поток всех студентов.
+     * Поток должен быть закрыт после использования.
      *
      * @return поток всех студентов, всегда не null
      */
     Stream<Student> getAllStudents();
 
+    /**
+     * Возвращает страницу студентов, упорядоченных по возрастанию идентификатора.
+     *
+     * @param afterId идентификатор, после которого начинается страница, или null для первой страницы
+     * @param limit максимальное число элементов на странице
+     * @return страница студентов, всегда не null
+     * @throws IllegalArgumentException если размер страницы не положителен
+     */
+    Page<Student, Integer> getStudentsPage(Integer afterId, int limit);
+
+    /**
+     * Возвращает студентов с указанными идентификаторами, как и {@link #getStudent(int)}.
+     * Несуществующие идентификаторы пропускаются.
+     *
+     * @param studentIds идентификаторы студентов
+     * @return найденные студенты, упорядоченные по возрастанию идентификатора, всегда не null
+     * @throws IllegalArgumentException если коллекция идентификаторов или один из идентификаторов равен null
+     */
+    List<Student> getStudents(Collection<Integer> studentIds);
+
+    /**
+     * Записывает всех студентов в указанном формате, упорядоченных по возрастанию идентификатора.
+     * Студенты не накапливаются в памяти, поэтому выгрузка не ограничена по объему.
+     *
+     * @param format формат выгрузки
+     * @param writer получатель выгрузки; не закрывается
+     * @return число выгруженных студентов
+     * @see aston.hw2.repository.CrudRepository#exportAll(ExportFormat, Writer)
+     */
+    long exportStudents(ExportFormat format, Writer writer);
+
     /**
      * Возвращает студента по идентификатору.
      *
@@ -49,6 +89,28 @@ public interface StudentService {
      */
     Student getStudent(int studentId);
 
+    /**
+     * Возвращает группу студента без ее куратора и студентов, не загружая студента.
+     *
+     * @param studentId идентификатор студента
+     * @return группа студента или null, если студент не состоит в группе
+     * @throws StudentNotFoundException если студент с указанным идентификатором не найден
+     */
+    Group getStudentGroup(int studentId);
+
+    /**
+     * Загружает новых студентов по значениям кандидатов, как {@link #createStudentByCandidate(Student)}, но массово.
+     *
+     * Недействительные кандидаты отклоняются и попадают в отчет, остальные загружаются в одной транзакции.
+     * Итератор может бросить {@link InvalidCandidateException} для записи, которую не удалось прочитать:
+     * такая запись также отклоняется, и чтение продолжается.
+     *
+     * @param candidates кандидаты для создания новых студентов
+     * @return отчет о загрузке, всегда не null
+     * @throws IllegalArgumentException если итератор равен null
+     */
+    StudentImportReport importStudents(Iterator<Student> candidates);
+
     /**
      * Удаляет студента по указанному идентификатору.
      *
@@ -78,4 +140,55 @@ public interface StudentService {
      */
     Student updateStudent(int studentId, Student candidate);
 
+    /**
+     * Асинхронный вариант {@link #getStudent(int)}.
+     *
+     * Асинхронные варианты операций выполняются исполнителем сервиса вне транзакции вызывающего потока,
+     * поэтому независимые операции могут выполняться одновременно. Исключение синхронного варианта
+     * завершает результат исключительно.
+     */
+    CompletableFuture<Student> getStudentAsync(int studentId);
+
+    /**
+     * Асинхронный вариант {@link #getStudents(Collection)}.
+     *
+     * @see #getStudentAsync(int)
+     */
+    CompletableFuture<List<Student>> getStudentsAsync(Collection<Integer> studentIds);
+
+    /**
+     * Асинхронный вариант {@link #getStudentsPage(Integer, int)}.
+     *
+     * @see #getStudentAsync(int)
+     */
+    CompletableFuture<Page<Student, Integer>> getStudentsPageAsync(Integer afterId, int limit);
+
+    /**
+     * Асинхронный вариант {@link #getStudentGroup(int)}.
+     *
+     * @see #getStudentAsync(int)
+     */
+    CompletableFuture<Group> getStudentGroupAsync(int studentId);
+
+    /**
+     * Асинхронный вариант {@link #createStudentByCandidate(Student)}.
+     *
+     * @see #getStudentAsync(int)
+     */
+    CompletableFuture<Student> createStudentByCandidateAsync(Student candidate);
+
+    /**
+     * Асинхронный вариант {@link #updateStudent(int, Student)}.
+     *
+     * @see #getStudentAsync(int)
+     */
+    CompletableFuture<Student> updateStudentAsync(int studentId, Student candidate);
+
+    /**
+     * Асинхронный вариант {@link #removeStudent(int)}.
+     *
+     * @see #getStudentAsync(int)
+     */
+    CompletableFuture<Void> removeStudentAsync(int studentId);
+
 }
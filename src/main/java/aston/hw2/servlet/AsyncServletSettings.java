@@ -0,0 +1,38 @@
+package aston.hw2.servlet;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+
+/**
+ * Настройки асинхронной обработки запросов {@link RestHttpServlet}.
+ * Настройки владеют исполнителем: при закрытии закрывается исполнитель, если он реализует {@link AutoCloseable}.
+ *
+ * @author Максим Яськов
+ */
+@Getter
+@Builder
+public class AsyncServletSettings implements AutoCloseable {
+
+    /**
+     * Исполнитель, в котором обрабатываются запросы. Запросы обращаются к базе данных и блокируют поток,
+     * поэтому исполнитель должен быть отдельным от потоков контейнера, например виртуальные потоки.
+     */
+    private final Executor executor;
+
+    /**
+     * Максимальное время обработки запроса. По истечении выполняющиеся запросы к базе данных отменяются,
+     * а клиент получает 503, если ответ еще не начат. Не действует на потоковые загрузки и выгрузки.
+     */
+    @Builder.Default
+    private final Duration timeout = Duration.ofSeconds(30);
+
+    @Override
+    public void close() throws Exception {
+        if (executor instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+}
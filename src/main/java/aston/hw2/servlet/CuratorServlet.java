@@ -8,7 +8,11 @@ import aston.hw2.entity.Group;
 import aston.hw2.mapper.CuratorMapper;
 import aston.hw2.mapper.GroupMapper;
 import aston.hw2.mapper.Mapper;
+import aston.hw2.repository.ExportFormat;
+import aston.hw2.repository.JdbcConnectionFactory;
+import aston.hw2.repository.Page;
 import aston.hw2.service.*;
+import aston.hw2.util.InvalidRequestParameterException;
 import aston.hw2.util.PathMatcher;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.ServletException;
@@ -26,11 +30,13 @@ import java.util.List;
  * @author Максим Яськов
  * @see StudentService
  */
-@WebServlet({"/curators","/curators/*"})
+@WebServlet(value = {"/curators", "/curators/*"}, asyncSupported = true)
 public class CuratorServlet extends RestHttpServlet {
 
     private static final PathMatcher PM_CURATORS = new PathMatcher("/curators");
 
+    private static final PathMatcher PM_CURATORS_EXPORT = new PathMatcher("/curators/export");
+
     private static final PathMatcher PM_CURATORS_CID = new PathMatcher("/curators/:curatorId");
 
     private static final PathMatcher PM_CURATORS_CID_GROUP = new PathMatcher("/curators/:curatorId/group");
@@ -46,11 +52,19 @@ public class CuratorServlet extends RestHttpServlet {
     public void init() {
         WebApplicationContext webAppContext = (WebApplicationContext) this.getServletContext().getAttribute(WebApplicationContext.class.getName());
         setObjectMapper(webAppContext.getObject(ObjectMapper.class));
+        setAsyncSettings(webAppContext.getObject(AsyncServletSettings.class));
+        setJdbcConnectionFactory(webAppContext.getObject(JdbcConnectionFactory.class));
         curatorService = webAppContext.getObject(CuratorService.class);
         curatorMapper = webAppContext.getObject(CuratorMapper.class);
         groupMapper = webAppContext.getObject(GroupMapper.class);
     }
 
+    // потоковые загрузка и выгрузка не ограничены временем обработки запроса
+    @Override
+    protected boolean hasRequestTimeout(HttpServletRequest request) {
+        return !PM_CURATORS_EXPORT.match(request);
+    }
+
     @Override
     protected void doDelete(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
         if (PM_CURATORS_CID.match(request)) {
@@ -90,7 +104,11 @@ public class CuratorServlet extends RestHttpServlet {
 
     @Override
     protected void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
-        if (PM_CURATORS.match(request)) {
+        if (PM_CURATORS_EXPORT.match(request)) {
+            doGetCuratorsExport(request, response);
+        } else if (PM_CURATORS.match(request) && hasIdsParameter(request)) {
+            doGetCuratorsByIds(request, response);
+        } else if (PM_CURATORS.match(request)) {
             doGetCurators(request, response);
         } else if (PM_CURATORS_CID.match(request)) {
             doGetCurator(request, response);
@@ -115,14 +133,42 @@ public class CuratorServlet extends RestHttpServlet {
         }
     }
 
+    // operationId: get.curators.export
+    private void doGetCuratorsExport(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        try {
+            ExportFormat format = readFormatParameter(request);
+
+            response.setStatus(HttpServletResponse.SC_OK);
+            sendResponseBodyAsExport(response, format, "curators", curatorService::exportCurators);
+        } catch (InvalidRequestParameterException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    // operationId: get.curators.by.ids
+    private void doGetCuratorsByIds(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        try {
+            List<Curator> curators = curatorService.getCurators(readIdsParameter(request));
+
+            response.setStatus(HttpServletResponse.SC_OK);
+            sendResponseBodyAsArray(response, curators.stream().map(curatorMapper::map));
+        } catch (InvalidRequestParameterException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+        }
+    }
+
     // operationId: get.curators
     private void doGetCurators(HttpServletRequest request, HttpServletResponse response) throws IOException {
-        List<CuratorDto> curators = curatorService.getAllCurators()
-                .map(curatorMapper::map)
-                .toList();
+        try {
+            Integer afterId = readAfterParameter(request);
+            int limit = readLimitParameter(request);
+            Page<Curator, Integer> page = curatorService.getCuratorsPage(afterId, limit);
 
-        response.setStatus(HttpServletResponse.SC_OK);
-        sendResponseBody(response, curators);
+            response.setStatus(HttpServletResponse.SC_OK);
+            sendResponseBodyAsPage(request, response, page, limit, curatorMapper::map);
+        } catch (InvalidRequestParameterException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+        }
     }
 
     // operationId: get.curator.group
@@ -11,7 +11,12 @@ import aston.hw2.mapper.CuratorMapper;
 import aston.hw2.mapper.GroupMapper;
 import aston.hw2.mapper.Mapper;
 import aston.hw2.mapper.StudentMapper;
+import aston.hw2.repository.ExportFormat;
+import aston.hw2.repository.JdbcConnectionFactory;
+import aston.hw2.repository.Page;
+import aston.hw2.repository.SortOrder;
 import aston.hw2.service.*;
+import aston.hw2.util.InvalidRequestParameterException;
 import aston.hw2.util.PathMatcher;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.ServletException;
@@ -29,11 +34,13 @@ import java.util.List;
  * @author Максим Яськов
  * @see GroupService
  */
-@WebServlet({"/groups","/groups/*"})
+@WebServlet(value = {"/groups", "/groups/*"}, asyncSupported = true)
 public class GroupServlet extends RestHttpServlet {
 
     private static final PathMatcher PM_GROUPS = new PathMatcher("/groups");
 
+    private static final PathMatcher PM_GROUPS_EXPORT = new PathMatcher("/groups/export");
+
     private static final PathMatcher PM_GROUPS_GID = new PathMatcher("/groups/:groupId");
 
     private static final PathMatcher PM_GROUPS_GID_CURATOR = new PathMatcher("/groups/:groupId/curator");
@@ -53,12 +60,20 @@ public class GroupServlet extends RestHttpServlet {
     public void init() {
         WebApplicationContext webAppContext = (WebApplicationContext) this.getServletContext().getAttribute(WebApplicationContext.class.getName());
         setObjectMapper(webAppContext.getObject(ObjectMapper.class));
+        setAsyncSettings(webAppContext.getObject(AsyncServletSettings.class));
+        setJdbcConnectionFactory(webAppContext.getObject(JdbcConnectionFactory.class));
         groupService = webAppContext.getObject(GroupService.class);
         groupMapper = webAppContext.getObject(GroupMapper.class);
         studentMapper = webAppContext.getObject(StudentMapper.class);
         curatorMapper = webAppContext.getObject(CuratorMapper.class);
     }
 
+    // потоковые загрузка и выгрузка не ограничены временем обработки запроса
+    @Override
+    protected boolean hasRequestTimeout(HttpServletRequest request) {
+        return !PM_GROUPS_EXPORT.match(request);
+    }
+
     @Override
     protected void doDelete(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
         if (PM_GROUPS_GID.match(request)) {
@@ -116,7 +131,11 @@ public class GroupServlet extends RestHttpServlet {
 
     @Override
     protected void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
-        if (PM_GROUPS.match(request)) {
+        if (PM_GROUPS_EXPORT.match(request)) {
+            doGetGroupsExport(request, response);
+        } else if (PM_GROUPS.match(request) && hasIdsParameter(request)) {
+            doGetGroupsByIds(request, response);
+        } else if (PM_GROUPS.match(request)) {
             doGetGroups(request, response);
         } else if (PM_GROUPS_GID.match(request)) {
             doGetGroup(request, response);
@@ -134,7 +153,7 @@ public class GroupServlet extends RestHttpServlet {
         int groupId = PM_GROUPS_GID.extractRequiredIntPathVariable(request, "groupId");
 
         try {
-            Group group = groupService.getGroup(groupId);
+            Group group = groupService.getGroupSummary(groupId);
 
             response.setStatus(HttpServletResponse.SC_OK);
             sendResponseBody(response, groupMapper.map(group));
@@ -143,14 +162,42 @@ public class GroupServlet extends RestHttpServlet {
         }
     }
 
+    // operationId: get.groups.export
+    private void doGetGroupsExport(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        try {
+            ExportFormat format = readFormatParameter(request);
+
+            response.setStatus(HttpServletResponse.SC_OK);
+            sendResponseBodyAsExport(response, format, "groups", groupService::exportGroups);
+        } catch (InvalidRequestParameterException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    // operationId: get.groups.by.ids
+    private void doGetGroupsByIds(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+        try {
+            List<Group> groups = groupService.getGroupSummaries(readIdsParameter(request));
+
+            response.setStatus(HttpServletResponse.SC_OK);
+            sendResponseBodyAsArray(response, groups.stream().map(groupMapper::map));
+        } catch (InvalidRequestParameterException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+        }
+    }
+
     // operationId: get.groups
     private void doGetGroups(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
-        List<GroupDto> groups = groupService.getAllGroups()
-                .map(groupMapper::map)
-                .toList();
+        try {
+            Integer afterId = readAfterParameter(request);
+            int limit = readLimitParameter(request);
+            Page<Group, Integer> page = groupService.getGroupSummariesPage(afterId, limit);
 
-        response.setStatus(HttpServletResponse.SC_OK);
-        sendResponseBody(response, groups);
+            response.setStatus(HttpServletResponse.SC_OK);
+            sendResponseBodyAsPage(request, response, page, limit, groupMapper::map);
+        } catch (InvalidRequestParameterException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+        }
     }
 
     // operationId: get.group.curator
@@ -158,12 +205,12 @@ public class GroupServlet extends RestHttpServlet {
         int groupId = PM_GROUPS_GID_CURATOR.extractRequiredIntPathVariable(request, "groupId");
 
         try {
-            Group group = groupService.getGroup(groupId);
-            if (group.getCurator() == null) {
+            Curator curator = groupService.getGroupCurator(groupId);
+            if (curator == null) {
                 response.setStatus(HttpServletResponse.SC_NO_CONTENT);
             } else {
                 response.setStatus(HttpServletResponse.SC_OK);
-                sendResponseBody(response, curatorMapper.map(group.getCurator()));
+                sendResponseBody(response, curatorMapper.map(curator));
             }
         } catch (GroupNotFoundException e) {
             sendErrorGroupNotFound(response);
@@ -175,13 +222,15 @@ public class GroupServlet extends RestHttpServlet {
         int groupId = PM_GROUPS_GID_STUDENTS.extractRequiredIntPathVariable(request, "groupId");
 
         try {
-            Group group = groupService.getGroup(groupId);
-            List<StudentDto> students = group.getStudents().stream()
-                    .map(studentMapper::map)
-                    .toList();
+            Integer afterId = readAfterParameter(request);
+            int limit = readLimitParameter(request);
+            SortOrder order = readSortParameter(request);
+            Page<Student, Integer> page = groupService.getGroupStudentsPage(groupId, afterId, limit, order);
 
             response.setStatus(HttpServletResponse.SC_OK);
-            sendResponseBody(response, students);
+            sendResponseBodyAsPage(request, response, page, limit, studentMapper::map);
+        } catch (InvalidRequestParameterException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
         } catch (GroupNotFoundException e) {
             sendErrorGroupNotFound(response);
         }
@@ -1,18 +1,240 @@
 package aston.hw2.servlet;
 
+import aston.hw2.repository.ExportFormat;
+import aston.hw2.repository.JdbcConnectionFactory;
+import aston.hw2.repository.Page;
+import aston.hw2.repository.QueryCancellation;
+import aston.hw2.repository.RoutingJdbcConnectionFactory;
+import aston.hw2.repository.SortOrder;
+import aston.hw2.util.InvalidRequestParameterException;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import lombok.AccessLevel;
+import lombok.Getter;
 import lombok.Setter;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.ToLongBiFunction;
+import java.util.stream.Stream;
 
 public abstract class RestHttpServlet extends HttpServlet {
 
+    /**
+     * Размер страницы, если параметр limit не указан.
+     */
+    public static final int DEFAULT_PAGE_SIZE = 50;
+
+    /**
+     * Максимальный размер страницы. Больший запрошенный размер уменьшается до этого значения.
+     */
+    public static final int MAX_PAGE_SIZE = 500;
+
+    private static final String PARAMETER_AFTER = "after";
+
+    private static final String PARAMETER_FORMAT = "format";
+
+    private static final String PARAMETER_IDS = "ids";
+
+    private static final String PARAMETER_LIMIT = "limit";
+
+    private static final String PARAMETER_SORT = "sort";
+
+    @Getter(AccessLevel.PROTECTED)
     @Setter
     private ObjectMapper objectMapper = new ObjectMapper();
 
+    /**
+     * Настройки асинхронной обработки. Если не установлены, запросы обрабатываются в потоке контейнера.
+     */
+    @Setter
+    private AsyncServletSettings asyncSettings;
+
+    private RoutingJdbcConnectionFactory routingConnectionFactory;
+
+    /**
+     * Устанавливает фабрику подключений, через которую сервисы сервлета обращаются к базе данных.
+     * Если фабрика направляет чтение на реплики, чтение собственных изменений ограничивается одним HTTP-запросом.
+     */
+    public void setJdbcConnectionFactory(JdbcConnectionFactory jdbcConnectionFactory) {
+        routingConnectionFactory = jdbcConnectionFactory instanceof RoutingJdbcConnectionFactory routing ? routing : null;
+    }
+
+    /**
+     * Обрабатывает запрос в исполнителе из {@link AsyncServletSettings}, освобождая поток контейнера
+     * на время обращения к базе данных.
+     *
+     * Ответ принадлежит только обработчику: истечение времени обработки и отключение клиента лишь отменяют
+     * выполняющиеся запросы к базе данных через {@link QueryCancellation}. После истечения времени запись
+     * обработчика в ответ отбрасывается; завершившись, обработчик отправляет 503 вместо не начатого ответа
+     * и сам завершает асинхронную обработку. После отключения клиента ответ отсоединяется от ответа контейнера
+     * на всех маршрутах, и обработку завершает контейнер, не дожидаясь обработчика.
+     *
+     * Без настроек или если цепочка фильтров не поддерживает асинхронную обработку, запрос обрабатывается
+     * в потоке контейнера.
+     *
+     * @see #hasRequestTimeout(HttpServletRequest)
+     */
+    @Override
+    protected void service(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+        final QueryCancellation cancellation = new QueryCancellation();
+        if (asyncSettings == null || !request.isAsyncSupported()) {
+            service(request, response, cancellation);
+            return;
+        }
+
+        final AsyncContext asyncContext = request.startAsync(request, response);
+        // по истечении времени контейнера ответ перешел бы к контейнеру, поэтому время отсчитывает сервлет
+        asyncContext.setTimeout(0);
+
+        // завершается обработчиком или, если время истекло раньше, исключением TimeoutException
+        final CompletableFuture<Void> handled = new CompletableFuture<>();
+        final TimeLimitedResponse limitedResponse = new TimeLimitedResponse(response, handled::isCompletedExceptionally);
+        asyncContext.addListener(new AsyncListener() {
+
+            @Override
+            public void onComplete(AsyncEvent event) {
+            }
+
+            @Override
+            public void onTimeout(AsyncEvent event) {
+            }
+
+            // клиент отключился; контейнер сам завершит обработку и переиспользует ответ, поэтому обработчик
+            // больше не может писать в него
+            @Override
+            public void onError(AsyncEvent event) {
+                limitedResponse.disconnect();
+                cancellation.cancel();
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+            }
+        });
+
+        final Executor executor = asyncSettings.getExecutor();
+        if (hasRequestTimeout(request)) {
+            // отмена PostgreSQL открывает отдельное соединение, поэтому выполняется не в общем потоке таймеров
+            handled.orTimeout(asyncSettings.getTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                    .whenCompleteAsync((result, e) -> {
+                        if (e instanceof TimeoutException) {
+                            cancellation.cancel();
+                        }
+                    }, executor);
+        }
+
+        try {
+            executor.execute(() -> {
+                Exception failure = null;
+                try {
+                    service(request, limitedResponse, cancellation);
+                } catch (Exception e) {
+                    failure = e;
+                }
+
+                final boolean timedOut = !handled.complete(null);
+                final Exception handlerFailure = failure;
+                // после отключения клиента контейнер может переиспользовать и запрос, и ответ
+                limitedResponse.ifConnected(() -> {
+                    if (timedOut) {
+                        sendErrorIfNotCommitted(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE, "The request timed out");
+                    } else if (handlerFailure != null) {
+                        if (!cancellation.isCancelled()) {
+                            getServletContext().log("Failed to handle " + request.getMethod() + " " + request.getRequestURI(), handlerFailure);
+                        }
+                        sendErrorIfNotCommitted(response, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, null);
+                    }
+                    complete(asyncContext);
+                });
+            });
+        } catch (RejectedExecutionException e) {
+            handled.complete(null);
+            limitedResponse.ifConnected(() -> {
+                sendErrorIfNotCommitted(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE, "The server is shutting down");
+                complete(asyncContext);
+            });
+        }
+    }
+
+    /**
+     * Проверяет, ограничено ли время обработки запроса {@link AsyncServletSettings#getTimeout()}.
+     * Потоковые загрузки и выгрузки длятся столько, сколько нужно для передачи данных, поэтому наследники
+     * исключают их маршруты: по истечении времени такой ответ уже начат, и клиент получил бы обрезанные данные.
+     * Отключение клиента отменяет и их.
+     *
+     * @return true, если время обработки запроса ограничено; по умолчанию true
+     */
+    protected boolean hasRequestTimeout(HttpServletRequest request) {
+        return true;
+    }
+
+    private void service(HttpServletRequest request, HttpServletResponse response, QueryCancellation cancellation)
+            throws ServletException, IOException {
+        cancellation.bind();
+        resetReadYourWrites();
+        try {
+            super.service(request, response);
+        } finally {
+            QueryCancellation.unbind();
+            resetReadYourWrites();
+        }
+    }
+
+    private void resetReadYourWrites() {
+        if (routingConnectionFactory != null) {
+            routingConnectionFactory.resetReadYourWrites();
+        }
+    }
+
+    /**
+     * Отправляет ошибку вместо еще не начатого ответа, сбрасывая записанное в буфер.
+     */
+    private static void sendErrorIfNotCommitted(HttpServletResponse response, int status, String message) {
+        if (response.isCommitted()) {
+            return;
+        }
+
+        try {
+            if (message == null) {
+                response.sendError(status);
+            } else {
+                response.sendError(status, message);
+            }
+        } catch (IOException | IllegalStateException e) {
+            // клиент отключился, и контейнер уже завершил обработку
+        }
+    }
+
+    private static void complete(AsyncContext asyncContext) {
+        try {
+            asyncContext.complete();
+        } catch (IllegalStateException e) {
+            // контейнер уже завершил обработку после отключения клиента
+        }
+    }
+
     protected void sendResponseBody(HttpServletResponse response, Object body) throws IOException {
         if (body == null) {
             throw new IllegalArgumentException("A body mut not be null");
@@ -22,8 +244,197 @@ public abstract class RestHttpServlet extends HttpServlet {
         objectMapper.writeValue(response.getWriter(), body);
     }
 
+    /**
+     * Записывает элементы потока в тело ответа как JSON-массив по мере их чтения,
+     * не собирая весь ответ в памяти. Поток не закрывается.
+     */
+    protected void sendResponseBodyAsArray(HttpServletResponse response, Stream<?> body) throws IOException {
+        if (body == null) {
+            throw new IllegalArgumentException("A body mut not be null");
+        }
+
+        response.addHeader("Content-Type", "application/json");
+        try (JsonGenerator generator = objectMapper.createGenerator(response.getWriter())) {
+            generator.writeStartArray();
+            Iterator<?> it = body.iterator();
+            while (it.hasNext()) {
+                generator.writeObject(it.next());
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    /**
+     * Записывает элементы страницы в тело ответа как JSON-массив.
+     * Если есть следующая страница, добавляет ссылку на нее в заголовок Link с rel="next".
+     * Ссылка сохраняет остальные параметры запроса.
+     */
+    protected <E> void sendResponseBodyAsPage(HttpServletRequest request, HttpServletResponse response,
+                                              Page<E, ?> page, int limit, Function<E, ?> mapper) throws IOException {
+        if (page.hasNext()) {
+            StringBuilder link = new StringBuilder().append('<').append(request.getRequestURL()).append('?');
+            request.getParameterMap().forEach((name, values) -> {
+                if (!PARAMETER_AFTER.equals(name) && !PARAMETER_LIMIT.equals(name)) {
+                    for (String value : values) {
+                        link.append(encode(name)).append('=').append(encode(value)).append('&');
+                    }
+                }
+            });
+            link.append(PARAMETER_AFTER).append('=').append(page.getNextCursor())
+                    .append('&').append(PARAMETER_LIMIT).append('=').append(limit)
+                    .append(">; rel=\"next\"");
+
+            response.addHeader("Link", link.toString());
+        }
+
+        sendResponseBodyAsArray(response, page.getItems().stream().map(mapper));
+    }
+
+    /**
+     * Записывает выгрузку в тело ответа как вложение name.csv или name.ndjson в кодировке UTF-8.
+     * Выгрузка передается клиенту по мере записи, не собираясь в памяти.
+     *
+     * @param exporter операция выгрузки, принимающая формат и получатель, например {@code studentService::exportStudents}
+     */
+    protected void sendResponseBodyAsExport(HttpServletResponse response, ExportFormat format, String name,
+                                            ToLongBiFunction<ExportFormat, Writer> exporter) throws IOException {
+        response.addHeader("Content-Type", (format == ExportFormat.CSV ? "text/csv" : "application/x-ndjson")
+                + "; charset=UTF-8");
+        response.addHeader("Content-Disposition", "attachment; filename=\"%s.%s\""
+                .formatted(name, format.name().toLowerCase(Locale.ROOT)));
+
+        // PrintWriter из getWriter() скрывает ошибки записи, и выгрузка продолжалась бы после отключения клиента
+        Writer writer = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8));
+        exporter.applyAsLong(format, writer);
+        writer.flush();
+    }
+
+    /**
+     * Читает формат выгрузки из параметра запроса format: csv или ndjson без учета регистра.
+     *
+     * @return формат выгрузки, {@link ExportFormat#CSV}, если параметр не указан
+     * @throws InvalidRequestParameterException если значение параметра не является форматом выгрузки
+     */
+    protected ExportFormat readFormatParameter(HttpServletRequest request) {
+        String format = request.getParameter(PARAMETER_FORMAT);
+        if (format == null) {
+            return ExportFormat.CSV;
+        }
+
+        try {
+            return ExportFormat.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestParameterException("The request parameter '%s' must be csv or ndjson"
+                    .formatted(PARAMETER_FORMAT), e);
+        }
+    }
+
+    /**
+     * Читает курсор страницы из параметра запроса after.
+     *
+     * @return идентификатор, после которого начинается страница, или null, если параметр не указан
+     * @throws InvalidRequestParameterException если значение параметра не является целым числом
+     */
+    protected Integer readAfterParameter(HttpServletRequest request) {
+        String after = request.getParameter(PARAMETER_AFTER);
+        if (after == null) {
+            return null;
+        }
+
+        return parseIntParameter(PARAMETER_AFTER, after);
+    }
+
+    /**
+     * Проверяет, указан ли в запросе параметр ids.
+     */
+    protected boolean hasIdsParameter(HttpServletRequest request) {
+        return request.getParameter(PARAMETER_IDS) != null;
+    }
+
+    /**
+     * Читает идентификаторы из параметра запроса ids: значения через запятую, параметр может повторяться.
+     *
+     * @return идентификаторы в порядке следования, не больше {@link #MAX_PAGE_SIZE}
+     * @throws InvalidRequestParameterException если параметр не указан, пуст, содержит не целые числа
+     *         или больше {@link #MAX_PAGE_SIZE} идентификаторов
+     */
+    protected List<Integer> readIdsParameter(HttpServletRequest request) {
+        String[] values = request.getParameterValues(PARAMETER_IDS);
+        List<Integer> ids = new ArrayList<>();
+        if (values != null) {
+            for (String value : values) {
+                for (String id : value.split(",")) {
+                    if (!id.isBlank()) {
+                        ids.add(parseIntParameter(PARAMETER_IDS, id.strip()));
+                    }
+                }
+            }
+        }
+
+        if (ids.isEmpty()) {
+            throw new InvalidRequestParameterException("The request parameter '%s' must not be empty".formatted(PARAMETER_IDS));
+        }
+        if (ids.size() > MAX_PAGE_SIZE) {
+            throw new InvalidRequestParameterException("The request parameter '%s' must contain at most %d ids"
+                    .formatted(PARAMETER_IDS, MAX_PAGE_SIZE));
+        }
+
+        return ids;
+    }
+
+    /**
+     * Читает размер страницы из параметра запроса limit.
+     *
+     * @return размер страницы, не больше {@link #MAX_PAGE_SIZE}
+     * @throws InvalidRequestParameterException если значение параметра не является положительным целым числом
+     */
+    protected int readLimitParameter(HttpServletRequest request) {
+        String limit = request.getParameter(PARAMETER_LIMIT);
+        if (limit == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+
+        int value = parseIntParameter(PARAMETER_LIMIT, limit);
+        if (value < 1) {
+            throw new InvalidRequestParameterException("The request parameter '%s' must be positive".formatted(PARAMETER_LIMIT));
+        }
+
+        return Math.min(value, MAX_PAGE_SIZE);
+    }
+
+    /**
+     * Читает порядок сортировки из параметра запроса sort: asc или desc без учета регистра.
+     *
+     * @return порядок сортировки, {@link SortOrder#ASC}, если параметр не указан
+     * @throws InvalidRequestParameterException если значение параметра не является порядком сортировки
+     */
+    protected SortOrder readSortParameter(HttpServletRequest request) {
+        String sort = request.getParameter(PARAMETER_SORT);
+        if (sort == null) {
+            return SortOrder.ASC;
+        }
+
+        try {
+            return SortOrder.valueOf(sort.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestParameterException("The request parameter '%s' must be asc or desc".formatted(PARAMETER_SORT), e);
+        }
+    }
+
     protected  <T> T readRequestBody(HttpServletRequest request, Class<T> clazz) throws IOException {
         return objectMapper.readValue(request.getReader(), clazz);
     }
 
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static int parseIntParameter(String name, String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new InvalidRequestParameterException("The request parameter '%s' must be an integer".formatted(name), e);
+        }
+    }
+
 }
@@ -0,0 +1,189 @@
+package aston.hw2.servlet;
+
+import aston.hw2.dto.StudentDto;
+import aston.hw2.entity.Student;
+import aston.hw2.mapper.Mapper;
+import aston.hw2.service.InvalidCandidateException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Построчно читает кандидатов в студенты из тела запроса загрузки, не читая тело целиком.
+ *
+ * Каждая непустая строка - одна запись: строка CSV со столбцами из заголовка
+ * или JSON-объект {@link StudentDto} для NDJSON. Для записи, которую не удалось прочитать,
+ * {@link #next()} бросает {@link InvalidCandidateException}, после чего чтение можно продолжить.
+ *
+ * @author Максим Яськов
+ * @see aston.hw2.service.StudentService#importStudents(java.util.Iterator)
+ */
+abstract class StudentImportReader implements Iterator<Student> {
+
+    private static final String COLUMN_NAME = "name";
+
+    private static final String COLUMN_DATE_OF_BIRTH = "dateOfBirth";
+
+    private final BufferedReader reader;
+
+    private String line;
+
+    private StudentImportReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Создает читателя CSV. Первая непустая строка - заголовок, содержащий столбцы name и dateOfBirth в любом порядке.
+     * Значения могут быть заключены в двойные кавычки; пустое значение без кавычек читается как null.
+     *
+     * @throws InvalidCandidateException если заголовок отсутствует или не содержит обязательных столбцов
+     */
+    static StudentImportReader csv(BufferedReader reader) {
+        String header = readNonBlankLine(reader);
+        if (header == null) {
+            throw new InvalidCandidateException("The CSV header is missing");
+        }
+
+        final List<String> columns = parseCsvLine(header);
+        final int nameIndex = columns.indexOf(COLUMN_NAME);
+        final int dateOfBirthIndex = columns.indexOf(COLUMN_DATE_OF_BIRTH);
+        if (nameIndex < 0 || dateOfBirthIndex < 0) {
+            throw new InvalidCandidateException("The CSV header must contain columns '%s' and '%s'"
+                    .formatted(COLUMN_NAME, COLUMN_DATE_OF_BIRTH));
+        }
+
+        return new StudentImportReader(reader) {
+            @Override
+            Student parse(String line) {
+                List<String> values = parseCsvLine(line);
+                if (values.size() != columns.size()) {
+                    throw new InvalidCandidateException("Expected %d values, but found %d"
+                            .formatted(columns.size(), values.size()));
+                }
+
+                Student candidate = new Student();
+                candidate.setName(values.get(nameIndex));
+                candidate.setDateOfBirth(parseDate(values.get(dateOfBirthIndex)));
+                return candidate;
+            }
+        };
+    }
+
+    /**
+     * Создает читателя NDJSON: каждая непустая строка - JSON-объект кандидата.
+     */
+    static StudentImportReader ndjson(BufferedReader reader, ObjectMapper objectMapper,
+                                      Mapper<Student, StudentDto> studentMapper) {
+        return new StudentImportReader(reader) {
+            @Override
+            Student parse(String line) {
+                try {
+                    return studentMapper.reverseMap(objectMapper.readValue(line, StudentDto.class));
+                } catch (JsonProcessingException e) {
+                    throw new InvalidCandidateException("Malformed JSON: " + e.getOriginalMessage(), e);
+                }
+            }
+        };
+    }
+
+    /**
+     * Читает кандидата из непустой строки.
+     *
+     * @throws InvalidCandidateException если строку не удалось прочитать
+     */
+    abstract Student parse(String line);
+
+    @Override
+    public boolean hasNext() {
+        if (line == null) {
+            line = readNonBlankLine(reader);
+        }
+
+        return line != null;
+    }
+
+    @Override
+    public Student next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        String current = line;
+        line = null;
+        return parse(current);
+    }
+
+    private static String readNonBlankLine(BufferedReader reader) {
+        try {
+            String line;
+            do {
+                line = reader.readLine();
+            } while (line != null && line.isBlank());
+
+            return line;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static LocalDate parseDate(String value) {
+        if (value == null) {
+            return null;
+        }
+
+        try {
+            return LocalDate.parse(value.strip());
+        } catch (DateTimeParseException e) {
+            throw new InvalidCandidateException("The %s '%s' is not a date in yyyy-MM-dd format"
+                    .formatted(COLUMN_DATE_OF_BIRTH, value), e);
+        }
+    }
+
+    /**
+     * Разделяет строку CSV на значения. Значение в двойных кавычках может содержать запятые
+     * и удвоенные кавычки; пустое значение без кавычек возвращается как null.
+     */
+    static List<String> parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        boolean wasQuoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char ch = line.charAt(i);
+            if (quoted) {
+                if (ch != '"') {
+                    value.append(ch);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (ch == '"') {
+                quoted = true;
+                wasQuoted = true;
+            } else if (ch == ',') {
+                values.add(value.isEmpty() && !wasQuoted ? null : value.toString());
+                value.setLength(0);
+                wasQuoted = false;
+            } else {
+                value.append(ch);
+            }
+        }
+        if (quoted) {
+            throw new InvalidCandidateException("The quoted value is not terminated");
+        }
+        values.add(value.isEmpty() && !wasQuoted ? null : value.toString());
+
+        return values;
+    }
+}
@@ -8,10 +8,15 @@ import aston.hw2.entity.Student;
 import aston.hw2.mapper.GroupMapper;
 import aston.hw2.mapper.Mapper;
 import aston.hw2.mapper.StudentMapper;
+import aston.hw2.repository.ExportFormat;
+import aston.hw2.repository.JdbcConnectionFactory;
+import aston.hw2.repository.Page;
 import aston.hw2.service.GroupNotFoundException;
 import aston.hw2.service.InvalidCandidateException;
+import aston.hw2.service.StudentImportReport;
 import aston.hw2.service.StudentNotFoundException;
 import aston.hw2.service.StudentService;
+import aston.hw2.util.InvalidRequestParameterException;
 import aston.hw2.util.PathMatcher;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.ServletException;
@@ -19,8 +24,11 @@ import jakarta.servlet.annotation.WebServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Locale;
 
 /**
  * Сервлет CRUD-операций над студентами.
@@ -29,17 +37,27 @@ import java.util.List;
  * @author Максим Яськов
  * @see StudentService
  */
-@WebServlet({"/students","/students/*"})
+@WebServlet(value = {"/students", "/students/*"}, asyncSupported = true)
 public class StudentServlet extends RestHttpServlet {
 
     private static final PathMatcher PM_STUDENTS = new PathMatcher("/students");
 
+    private static final PathMatcher PM_STUDENTS_EXPORT = new PathMatcher("/students/export");
+
+    private static final PathMatcher PM_STUDENTS_IMPORT = new PathMatcher("/students/import");
+
     private static final PathMatcher PM_STUDENTS_SID = new PathMatcher("/students/:studentId");
 
     private static final PathMatcher PM_STUDENTS_SID_GROUP = new PathMatcher("/students/:studentId/group");
 
     private static final PathMatcher PM_STUDENTS_SID_GROUP_GID = new PathMatcher("/students/:studentId/group/:groupId");
 
+    private static final String CONTENT_TYPE_CSV = "text/csv";
+
+    private static final String CONTENT_TYPE_NDJSON = "application/ndjson";
+
+    private static final String CONTENT_TYPE_X_NDJSON = "application/x-ndjson";
+
     private StudentService studentService;
 
     private Mapper<Student, StudentDto> studentMapper;
@@ -49,11 +67,19 @@ public class StudentServlet extends RestHttpServlet {
     public void init() throws ServletException {
         WebApplicationContext webAppContext = (WebApplicationContext) this.getServletContext().getAttribute(WebApplicationContext.class.getName());
         setObjectMapper(webAppContext.getObject(ObjectMapper.class));
+        setAsyncSettings(webAppContext.getObject(AsyncServletSettings.class));
+        setJdbcConnectionFactory(webAppContext.getObject(JdbcConnectionFactory.class));
         studentService = webAppContext.getObject(StudentService.class);
         studentMapper = webAppContext.getObject(StudentMapper.class);
         groupMapper = webAppContext.getObject(GroupMapper.class);
     }
 
+    // потоковые загрузка и выгрузка не ограничены временем обработки запроса
+    @Override
+    protected boolean hasRequestTimeout(HttpServletRequest request) {
+        return !PM_STUDENTS_EXPORT.match(request) && !PM_STUDENTS_IMPORT.match(request);
+    }
+
     @Override
     protected void doDelete(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
         if (PM_STUDENTS_SID.match(request)) {
@@ -93,7 +119,11 @@ public class StudentServlet extends RestHttpServlet {
 
     @Override
     protected void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
-        if (PM_STUDENTS.match(request)) {
+        if (PM_STUDENTS_EXPORT.match(request)) {
+            doGetStudentsExport(request, response);
+        } else if (PM_STUDENTS.match(request) && hasIdsParameter(request)) {
+            doGetStudentsByIds(request, response);
+        } else if (PM_STUDENTS.match(request)) {
             doGetStudents(request, response);
         } else if (PM_STUDENTS_SID.match(request)) {
             doGetStudent(request, response);
@@ -118,14 +148,42 @@ public class StudentServlet extends RestHttpServlet {
         }
     }
 
+    // operationId: get.students.export
+    private void doGetStudentsExport(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        try {
+            ExportFormat format = readFormatParameter(request);
+
+            response.setStatus(HttpServletResponse.SC_OK);
+            sendResponseBodyAsExport(response, format, "students", studentService::exportStudents);
+        } catch (InvalidRequestParameterException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    // operationId: get.students.by.ids
+    private void doGetStudentsByIds(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        try {
+            List<Student> students = studentService.getStudents(readIdsParameter(request));
+
+            response.setStatus(HttpServletResponse.SC_OK);
+            sendResponseBodyAsArray(response, students.stream().map(studentMapper::map));
+        } catch (InvalidRequestParameterException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+        }
+    }
+
     // operationId: get.students
     private void doGetStudents(HttpServletRequest request, HttpServletResponse response) throws IOException {
-        List<StudentDto> students = studentService.getAllStudents()
-                .map(studentMapper::map)
-                .toList();
+        try {
+            Integer afterId = readAfterParameter(request);
+            int limit = readLimitParameter(request);
+            Page<Student, Integer> page = studentService.getStudentsPage(afterId, limit);
 
-        response.setStatus(HttpServletResponse.SC_OK);
-        sendResponseBody(response, students);
+            response.setStatus(HttpServletResponse.SC_OK);
+            sendResponseBodyAsPage(request, response, page, limit, studentMapper::map);
+        } catch (InvalidRequestParameterException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+        }
     }
 
     // operationId: get.student.group
@@ -133,12 +191,12 @@ public class StudentServlet extends RestHttpServlet {
         int studentId = PM_STUDENTS_SID_GROUP.extractRequiredIntPathVariable(request, "studentId");
 
         try {
-            Student student = studentService.getStudent(studentId);
-            if (student.getGroup() == null) {
+            Group group = studentService.getStudentGroup(studentId);
+            if (group == null) {
                 response.setStatus(HttpServletResponse.SC_NO_CONTENT);
             } else {
                 response.setStatus(HttpServletResponse.SC_OK);
-                sendResponseBody(response, groupMapper.map(student.getGroup()));
+                sendResponseBody(response, groupMapper.map(group));
             }
         } catch (StudentNotFoundException e) {
             response.sendError(HttpServletResponse.SC_NOT_FOUND, "The student not found");
@@ -149,6 +207,8 @@ public class StudentServlet extends RestHttpServlet {
     protected void doPost(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
         if (PM_STUDENTS.match(request)) {
             doPostStudent(request, response);
+        } else if (PM_STUDENTS_IMPORT.match(request)) {
+            doPostStudentsImport(request, response);
         } else {
             super.doPost(request, response);
         }
@@ -167,6 +227,31 @@ public class StudentServlet extends RestHttpServlet {
         }
     }
 
+    // operationId: post.students.import
+    private void doPostStudentsImport(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String contentType = request.getContentType() != null ? request.getContentType().toLowerCase(Locale.ROOT) : "";
+        boolean csv = contentType.startsWith(CONTENT_TYPE_CSV);
+        if (!csv && !contentType.startsWith(CONTENT_TYPE_NDJSON) && !contentType.startsWith(CONTENT_TYPE_X_NDJSON)) {
+            response.sendError(HttpServletResponse.SC_UNSUPPORTED_MEDIA_TYPE, "Expected text/csv or application/x-ndjson");
+            return;
+        }
+        if (request.getCharacterEncoding() == null) {
+            request.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        }
+
+        try {
+            BufferedReader reader = request.getReader();
+            StudentImportReport report = studentService.importStudents(csv
+                    ? StudentImportReader.csv(reader)
+                    : StudentImportReader.ndjson(reader, getObjectMapper(), studentMapper));
+
+            response.setStatus(HttpServletResponse.SC_OK);
+            sendResponseBody(response, report);
+        } catch (InvalidCandidateException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+        }
+    }
+
     @Override
     protected void doPut(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
         if (PM_STUDENTS_SID.match(request)) {
@@ -0,0 +1,255 @@
+package aston.hw2.servlet;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.Locale;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Ответ обработчика асинхронного запроса, который может отсоединиться от ответа контейнера.
+ *
+ * Запись тела после истечения времени обработки запроса отбрасывается и не доходит до контейнера,
+ * поэтому ответ, не начатый до истечения времени, остается не начатым, и вместо него можно отправить ошибку.
+ * После {@link #disconnect()} отбрасывается вся запись, включая статус и заголовки: клиент отключился,
+ * и контейнер может переиспользовать свой ответ для другого запроса. Запись и отсоединение взаимно исключены,
+ * поэтому после возврата из {@link #disconnect()} ничего не дойдет до ответа контейнера.
+ *
+ * @author Максим Яськов
+ * @see RestHttpServlet#hasRequestTimeout(jakarta.servlet.http.HttpServletRequest)
+ */
+class TimeLimitedResponse extends HttpServletResponseWrapper {
+
+    private final BooleanSupplier timedOut;
+
+    private boolean disconnected;
+
+    private ServletOutputStream outputStream;
+
+    private PrintWriter writer;
+
+    TimeLimitedResponse(HttpServletResponse response, BooleanSupplier timedOut) {
+        super(response);
+        this.timedOut = timedOut;
+    }
+
+    /**
+     * Отсоединяет ответ от ответа контейнера, дожидаясь только уже начатой записи.
+     */
+    synchronized void disconnect() {
+        disconnected = true;
+    }
+
+    /**
+     * Выполняет действие с ответом контейнера, если ответ еще не отсоединен.
+     */
+    synchronized void ifConnected(Runnable action) {
+        if (!disconnected) {
+            action.run();
+        }
+    }
+
+    private synchronized void sendIfConnected(ResponseAction action) throws IOException {
+        if (!disconnected) {
+            action.run();
+        }
+    }
+
+    private synchronized void writeIfAllowed(ResponseAction action) throws IOException {
+        if (!disconnected && !timedOut.getAsBoolean()) {
+            action.run();
+        }
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (outputStream == null) {
+            outputStream = new TimeLimitedOutputStream(super.getOutputStream());
+        }
+
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            writer = new PrintWriter(new TimeLimitedWriter(super.getWriter()));
+        }
+
+        return writer;
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        writeIfAllowed(super::flushBuffer);
+    }
+
+    @Override
+    public void sendError(int sc, String msg) throws IOException {
+        sendIfConnected(() -> super.sendError(sc, msg));
+    }
+
+    @Override
+    public void sendError(int sc) throws IOException {
+        sendIfConnected(() -> super.sendError(sc));
+    }
+
+    @Override
+    public void sendRedirect(String location) throws IOException {
+        sendIfConnected(() -> super.sendRedirect(location));
+    }
+
+    @Override
+    public void setStatus(int sc) {
+        ifConnected(() -> super.setStatus(sc));
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+        ifConnected(() -> super.setHeader(name, value));
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        ifConnected(() -> super.addHeader(name, value));
+    }
+
+    @Override
+    public void setIntHeader(String name, int value) {
+        ifConnected(() -> super.setIntHeader(name, value));
+    }
+
+    @Override
+    public void addIntHeader(String name, int value) {
+        ifConnected(() -> super.addIntHeader(name, value));
+    }
+
+    @Override
+    public void setDateHeader(String name, long date) {
+        ifConnected(() -> super.setDateHeader(name, date));
+    }
+
+    @Override
+    public void addDateHeader(String name, long date) {
+        ifConnected(() -> super.addDateHeader(name, date));
+    }
+
+    @Override
+    public void addCookie(Cookie cookie) {
+        ifConnected(() -> super.addCookie(cookie));
+    }
+
+    @Override
+    public void setContentType(String type) {
+        ifConnected(() -> super.setContentType(type));
+    }
+
+    @Override
+    public void setCharacterEncoding(String charset) {
+        ifConnected(() -> super.setCharacterEncoding(charset));
+    }
+
+    @Override
+    public void setContentLength(int len) {
+        ifConnected(() -> super.setContentLength(len));
+    }
+
+    @Override
+    public void setContentLengthLong(long len) {
+        ifConnected(() -> super.setContentLengthLong(len));
+    }
+
+    @Override
+    public void setLocale(Locale loc) {
+        ifConnected(() -> super.setLocale(loc));
+    }
+
+    @Override
+    public void setBufferSize(int size) {
+        ifConnected(() -> super.setBufferSize(size));
+    }
+
+    @Override
+    public void reset() {
+        ifConnected(super::reset);
+    }
+
+    @Override
+    public void resetBuffer() {
+        ifConnected(super::resetBuffer);
+    }
+
+    @FunctionalInterface
+    private interface ResponseAction {
+        void run() throws IOException;
+    }
+
+    private class TimeLimitedOutputStream extends ServletOutputStream {
+
+        private final ServletOutputStream out;
+
+        TimeLimitedOutputStream(ServletOutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            writeIfAllowed(() -> out.write(b));
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            writeIfAllowed(() -> out.write(b, off, len));
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writeIfAllowed(out::flush);
+        }
+
+        @Override
+        public void close() throws IOException {
+            writeIfAllowed(out::close);
+        }
+
+        @Override
+        public boolean isReady() {
+            return out.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            out.setWriteListener(writeListener);
+        }
+    }
+
+    private class TimeLimitedWriter extends Writer {
+
+        private final Writer out;
+
+        TimeLimitedWriter(Writer out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            writeIfAllowed(() -> out.write(cbuf, off, len));
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writeIfAllowed(out::flush);
+        }
+
+        @Override
+        public void close() throws IOException {
+            writeIfAllowed(out::close);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package aston.hw2.util;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Исполнитель задач, ожидающих ввода-вывода, который останавливается при закрытии,
+ * например при закрытии объектов контейнера.
+ *
+ * @author Максим Яськов
+ * @see BlockingTaskExecutors#newExecutor(String, int)
+ */
+public final class BlockingTaskExecutor implements Executor, AutoCloseable {
+
+    /**
+     * Максимальное время ожидания выполняющихся задач при закрытии.
+     */
+    public static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(30);
+
+    private final ExecutorService executorService;
+
+    BlockingTaskExecutor(ExecutorService executorService) {
+        this.executorService = executorService;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        executorService.execute(command);
+    }
+
+    /**
+     * Перестает принимать задачи и ждет завершения выполняющихся не дольше {@link #SHUTDOWN_TIMEOUT},
+     * после чего прерывает оставшиеся.
+     */
+    @Override
+    public void close() {
+        executorService.shutdown();
+        try {
+            if (!executorService.awaitTermination(SHUTDOWN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+                executorService.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executorService.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
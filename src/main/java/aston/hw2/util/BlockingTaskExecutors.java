@@ -0,0 +1,59 @@
+package aston.hw2.util;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Исполнители задач, которые большую часть времени ожидают ввода-вывода, например jdbc-запросов.
+ *
+ * @author Максим Яськов
+ */
+public final class BlockingTaskExecutors {
+
+    private BlockingTaskExecutors() {}
+
+    /**
+     * Создает исполнитель, выполняющий каждую задачу в собственном виртуальном потоке,
+     * поэтому число одновременно ожидающих задач не ограничено числом потоков платформы.
+     * Если среда выполнения не поддерживает виртуальные потоки (Java ниже 21), задачи выполняются
+     * в пуле из maxThreads потоков-демонов с именами name-N, а остальные задачи ждут в очереди.
+     * Размер пула стоит выбирать по размеру пула подключений: больше потоков все равно ждали бы подключения.
+     *
+     * Исполнитель нужно закрыть, когда он больше не нужен: потоки пула не освобождаются сами.
+     *
+     * @param name префикс имен потоков пула, если виртуальные потоки не поддерживаются
+     * @param maxThreads число потоков пула, если виртуальные потоки не поддерживаются
+     * @return новый исполнитель
+     */
+    public static BlockingTaskExecutor newExecutor(String name, int maxThreads) {
+        if (name == null) {
+            throw new IllegalArgumentException("A name must not be null");
+        }
+        if (maxThreads < 1) {
+            throw new IllegalArgumentException("A maxThreads must be positive");
+        }
+
+        // проект компилируется под Java 17, поэтому фабрика виртуальных потоков доступна только через рефлексию
+        ExecutorService executorService;
+        try {
+            executorService = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+            executorService = Executors.newFixedThreadPool(maxThreads, daemonThreadFactory(name));
+        }
+
+        return new BlockingTaskExecutor(executorService);
+    }
+
+    private static ThreadFactory daemonThreadFactory(String name) {
+        final AtomicInteger counter = new AtomicInteger();
+
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
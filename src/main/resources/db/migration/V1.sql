@@ -0,0 +1,22 @@
+-- Исходная схема. Имена внешних ключей совпадают с именами, которые PostgreSQL присваивал
+-- безымянным ключам прежнего скрипта, поэтому V2 применима и к базам, созданным до миграций.
+CREATE TABLE IF NOT EXISTS groups (
+    id SERIAL PRIMARY KEY,
+    name VARCHAR(32) UNIQUE NOT NULL,
+    graduation_date DATE NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS curators (
+    id SERIAL PRIMARY KEY,
+    name VARCHAR(32) NOT NULL,
+    email VARCHAR(320) NOT NULL,
+    experience INTEGER NOT NULL,
+    group_id INTEGER CONSTRAINT curators_group_id_fkey REFERENCES groups(id)
+);
+
+CREATE TABLE IF NOT EXISTS students (
+    id SERIAL PRIMARY KEY,
+    name VARCHAR(32) NOT NULL,
+    date_of_birth DATE NOT NULL,
+    group_id INTEGER CONSTRAINT students_group_id_fkey REFERENCES groups(id)
+);
@@ -0,0 +1,19 @@
+-- Индексы внешних ключей: по ним читаются студенты и куратор группы и отвязываются от удаляемой группы.
+CREATE INDEX IF NOT EXISTS students_group_id_idx ON students (group_id);
+
+-- У группы не больше одного куратора: лишние кураторы, привязанные прежде, отвязываются.
+UPDATE curators
+SET group_id = NULL
+WHERE group_id IS NOT NULL
+    AND id <> (SELECT MIN(other.id) FROM curators other WHERE other.group_id = curators.group_id);
+
+CREATE UNIQUE INDEX IF NOT EXISTS curators_group_id_key ON curators (group_id);
+
+-- Удаление группы отвязывает ее куратора и студентов.
+ALTER TABLE curators DROP CONSTRAINT IF EXISTS curators_group_id_fkey;
+ALTER TABLE curators ADD CONSTRAINT curators_group_id_fkey
+    FOREIGN KEY (group_id) REFERENCES groups(id) ON DELETE SET NULL;
+
+ALTER TABLE students DROP CONSTRAINT IF EXISTS students_group_id_fkey;
+ALTER TABLE students ADD CONSTRAINT students_group_id_fkey
+    FOREIGN KEY (group_id) REFERENCES groups(id) ON DELETE SET NULL;
@@ -0,0 +1,68 @@
+package aston.hw2.integrationtests;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.RequestEntity;
+import org.springframework.http.ResponseEntity;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class AsyncServletIntegrationTests {
+
+    @Autowired
+    private TestRestTemplate rt;
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    public void testGet_whenHandlerFinishesInTime_thenReturnsOkWithBody() {
+        ResponseEntity<String> response = rt.exchange(RequestEntity.get("/slow?delay=0").build(), String.class);
+
+        assertAll(() -> assertEquals(HttpServletResponse.SC_OK, response.getStatusCode().value()),
+                () -> assertEquals("\"done\"", response.getBody()));
+    }
+
+    @Test
+    public void testGet_whenHandlerExceedsTimeout_thenReturnsServiceUnavailableWithoutLateBody() {
+        long delay = SlowTestServlet.TIMEOUT.toMillis() * 3;
+
+        ResponseEntity<String> response = rt.exchange(RequestEntity.get("/slow?delay=" + delay).build(), String.class);
+
+        assertAll(() -> assertEquals(HttpServletResponse.SC_SERVICE_UNAVAILABLE, response.getStatusCode().value()),
+                () -> assertFalse(response.getBody() != null && response.getBody().contains("done")));
+    }
+
+    @Test
+    public void testGet_whenClientDisconnectsFromRequestWithoutTimeout_thenHandlerIsCancelled() throws Exception {
+        SlowTestServlet.cancelled = new CountDownLatch(1);
+        long delay = TimeUnit.SECONDS.toMillis(30);
+
+        try (Socket socket = new Socket("localhost", port)) {
+            OutputStream out = socket.getOutputStream();
+            out.write(("GET /slow?timeout=false&stream=true&delay=" + delay + " HTTP/1.1\r\nHost: localhost\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            InputStream in = socket.getInputStream();
+            assertTrue(in.read(new byte[1024]) > 0);
+        }
+        boolean cancelled = SlowTestServlet.cancelled.await(10, TimeUnit.SECONDS);
+        ResponseEntity<String> next = rt.exchange(RequestEntity.get("/slow?delay=0").build(), String.class);
+
+        assertAll(() -> assertTrue(cancelled),
+                () -> assertEquals(HttpServletResponse.SC_OK, next.getStatusCode().value()),
+                () -> assertEquals("\"done\"", next.getBody()));
+    }
+}
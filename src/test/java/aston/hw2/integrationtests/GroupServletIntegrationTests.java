@@ -53,6 +53,26 @@ public class GroupServletIntegrationTests {
                 () -> assertTrue(groups.isEmpty()));
     }
 
+    @Test
+    public void testGetGroups_withIds_thenReturnsOkWithExistingGroups() throws SQLException {
+        LocalDate graduationDate = LocalDate.now();
+        int gId1 = jdbc.insertGroup("g1name", graduationDate);
+        int gId2 = jdbc.insertGroup("g2name", graduationDate);
+        jdbc.insertGroup("g3name", graduationDate);
+
+        ResponseEntity<List<GroupDto>> response = rt.exchange(
+                RequestEntity.get("/groups?ids={ids}", gId2 + "," + gId1).build(),
+                new ParameterizedTypeReference<List<GroupDto>>() {});
+
+        List<GroupDto> groups = response.getBody();
+
+        assertAll(() -> assertEquals(HttpServletResponse.SC_OK, response.getStatusCode().value()),
+                () -> assertEquals(2, groups.size()),
+                () -> assertEquals(gId1, groups.get(0).getId()),
+                () -> assertEquals("g1name", groups.get(0).getName()),
+                () -> assertEquals(gId2, groups.get(1).getId()));
+    }
+
     @Test
     public void testGetGroups_returnsOkWithGroupList() throws SQLException {
         LocalDate graduationDate = LocalDate.now();
@@ -335,6 +355,49 @@ public class GroupServletIntegrationTests {
         }
     }
 
+    @Test
+    public void testGetGroupStudents_withSortAndLimit_thenReturnsPageWithNextLink() throws SQLException {
+        LocalDate now = LocalDate.now();
+        int gId = jdbc.insertGroup("gname", now);
+        int sId1 = jdbc.insertStudent("s1name", now, gId);
+        int sId2 = jdbc.insertStudent("s2name", now, gId);
+
+        ResponseEntity<List<StudentDto>> response = rt.exchange(
+                RequestEntity.get("/groups/" + gId + "/students?sort=desc&limit=1").build(), new ParameterizedTypeReference<List<StudentDto>>() {});
+
+        assertAll(() -> assertEquals(HttpServletResponse.SC_OK, response.getStatusCode().value()),
+                () -> assertEquals(1, response.getBody().size()),
+                () -> assertEquals(sId2, response.getBody().get(0).getId()),
+                () -> assertTrue(response.getHeaders().getFirst("Link").contains("sort=desc&after=" + sId2 + "&limit=1")));
+
+        ResponseEntity<List<StudentDto>> last = rt.exchange(
+                RequestEntity.get("/groups/" + gId + "/students?sort=desc&after=" + sId2).build(), new ParameterizedTypeReference<List<StudentDto>>() {});
+
+        assertAll(() -> assertEquals(List.of(sId1), last.getBody().stream().map(StudentDto::getId).toList()),
+                () -> assertNull(last.getHeaders().getFirst("Link")));
+    }
+
+    @Test
+    public void testGetGroupStudents_whenNoStudents_thenReturnsOkWithEmptyList() throws SQLException {
+        int gId = jdbc.insertGroup("gname", LocalDate.now());
+
+        ResponseEntity<List<StudentDto>> response = rt.exchange(
+                RequestEntity.get("/groups/" + gId + "/students").build(), new ParameterizedTypeReference<List<StudentDto>>() {});
+
+        assertAll(() -> assertEquals(HttpServletResponse.SC_OK, response.getStatusCode().value()),
+                () -> assertTrue(response.getBody().isEmpty()));
+    }
+
+    @Test
+    public void testGetGroupStudents_whenInvalidSort_thenReturnsBadRequest() throws SQLException {
+        int gId = jdbc.insertGroup("gname", LocalDate.now());
+
+        ResponseEntity<String> response = rt.exchange(
+                RequestEntity.get("/groups/" + gId + "/students?sort=name").build(), String.class);
+
+        assertEquals(HttpServletResponse.SC_BAD_REQUEST, response.getStatusCode().value());
+    }
+
     @Test
     public void testGetGroupStudents_whenNotExistingId_thenReturnsNotFound() throws SQLException {
         assertEquals(0, jdbc.countOfGroups());
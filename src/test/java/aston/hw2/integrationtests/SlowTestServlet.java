@@ -0,0 +1,86 @@
+package aston.hw2.integrationtests;
+
+import aston.hw2.repository.QueryCancellation;
+import aston.hw2.servlet.AsyncServletSettings;
+import aston.hw2.servlet.RestHttpServlet;
+import aston.hw2.util.BlockingTaskExecutors;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Сервлет, отвечающий через указанное в параметре delay число миллисекунд, для проверки времени обработки запроса.
+ * С параметром stream=true сервлет до отмены запроса или истечения delay передает тело по частям, как потоковая
+ * выгрузка, поэтому контейнер замечает отключение клиента.
+ */
+public class SlowTestServlet extends RestHttpServlet {
+
+    public static final Duration TIMEOUT = Duration.ofMillis(300);
+
+    /**
+     * Отсчитывается обработчиком, заметившим отмену запроса.
+     */
+    public static volatile CountDownLatch cancelled = new CountDownLatch(1);
+
+    private AsyncServletSettings settings;
+
+    @Override
+    public void init() {
+        settings = AsyncServletSettings.builder()
+                .executor(BlockingTaskExecutors.newExecutor("slow-test", 4))
+                .timeout(TIMEOUT)
+                .build();
+        setAsyncSettings(settings);
+    }
+
+    @Override
+    public void destroy() {
+        try {
+            settings.close();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // параметр timeout=false исключает запрос из ограничения времени, как потоковые загрузки и выгрузки
+    @Override
+    protected boolean hasRequestTimeout(HttpServletRequest request) {
+        return !"false".equals(request.getParameter("timeout"));
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        long deadline = System.currentTimeMillis() + Long.parseLong(request.getParameter("delay"));
+        boolean stream = Boolean.parseBoolean(request.getParameter("stream"));
+        try {
+            while (System.currentTimeMillis() < deadline) {
+                if (QueryCancellation.current().isCancelled()) {
+                    cancelled.countDown();
+                    return;
+                }
+                if (stream) {
+                    writeChunk(response);
+                }
+                Thread.sleep(10);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        response.setStatus(HttpServletResponse.SC_OK);
+        sendResponseBody(response, "done");
+    }
+
+    // ошибка записи отключившемуся клиенту не прерывает обработку: ее должна прервать отмена запроса
+    private static void writeChunk(HttpServletResponse response) {
+        try {
+            response.getOutputStream().write(new byte[1024]);
+            response.flushBuffer();
+        } catch (IOException e) {
+            // клиент отключился
+        }
+    }
+}
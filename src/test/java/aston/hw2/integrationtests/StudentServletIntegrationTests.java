@@ -9,12 +9,14 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
 import org.springframework.http.RequestEntity;
 import org.springframework.http.ResponseEntity;
 
 import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -79,6 +81,138 @@ public class StudentServletIntegrationTests {
         }
     }
 
+    @Test
+    public void testGetStudents_withLimit_thenReturnsPageWithNextLink() throws SQLException {
+        LocalDate now = LocalDate.now();
+        int sId1 = jdbc.insertStudent("s1name", now, null);
+        int sId2 = jdbc.insertStudent("s2name", now, null);
+
+        ResponseEntity<List<StudentDto>> first = rt.exchange(RequestEntity.get("/students?limit=1").build(),
+                new ParameterizedTypeReference<List<StudentDto>>() {});
+
+        assertAll(() -> assertEquals(HttpServletResponse.SC_OK, first.getStatusCode().value()),
+                () -> assertEquals(1, first.getBody().size()),
+                () -> assertEquals(sId1, first.getBody().get(0).getId()),
+                () -> assertTrue(first.getHeaders().getFirst("Link").contains("after=" + sId1 + "&limit=1")));
+
+        ResponseEntity<List<StudentDto>> last = rt.exchange(RequestEntity.get("/students?after={after}&limit=1", sId1).build(),
+                new ParameterizedTypeReference<List<StudentDto>>() {});
+
+        assertAll(() -> assertEquals(HttpServletResponse.SC_OK, last.getStatusCode().value()),
+                () -> assertEquals(1, last.getBody().size()),
+                () -> assertEquals(sId2, last.getBody().get(0).getId()),
+                () -> assertNull(last.getHeaders().getFirst("Link")));
+    }
+
+    @Test
+    public void testGetStudents_whenInvalidLimit_thenReturnsBadRequest() {
+        ResponseEntity<String> zero = rt.exchange(RequestEntity.get("/students?limit=0").build(), String.class);
+        ResponseEntity<String> notNumber = rt.exchange(RequestEntity.get("/students?limit=all").build(), String.class);
+
+        assertAll(() -> assertEquals(HttpServletResponse.SC_BAD_REQUEST, zero.getStatusCode().value()),
+                () -> assertEquals(HttpServletResponse.SC_BAD_REQUEST, notNumber.getStatusCode().value()));
+    }
+
+    @Test
+    public void testGetStudents_withIds_thenReturnsOkWithExistingStudents() throws SQLException {
+        LocalDate now = LocalDate.now();
+        int sId1 = jdbc.insertStudent("s1name", now, null);
+        jdbc.insertStudent("s2name", now, null);
+        int sId3 = jdbc.insertStudent("s3name", now, null);
+
+        ResponseEntity<List<StudentDto>> response = rt.exchange(
+                RequestEntity.get("/students?ids={ids}&ids={id}", sId3 + "," + (sId3 + 100), sId1).build(),
+                new ParameterizedTypeReference<List<StudentDto>>() {});
+
+        List<StudentDto> students = response.getBody();
+
+        assertAll(() -> assertEquals(HttpServletResponse.SC_OK, response.getStatusCode().value()),
+                () -> assertEquals(2, students.size()),
+                () -> assertEquals(sId1, students.get(0).getId()),
+                () -> assertEquals("s1name", students.get(0).getName()),
+                () -> assertEquals(sId3, students.get(1).getId()),
+                () -> assertNull(response.getHeaders().getFirst("Link")));
+    }
+
+    @Test
+    public void testGetStudents_whenInvalidIds_thenReturnsBadRequest() {
+        ResponseEntity<String> empty = rt.exchange(RequestEntity.get("/students?ids=").build(), String.class);
+        ResponseEntity<String> notNumber = rt.exchange(RequestEntity.get("/students?ids=1,a").build(), String.class);
+
+        assertAll(() -> assertEquals(HttpServletResponse.SC_BAD_REQUEST, empty.getStatusCode().value()),
+                () -> assertEquals(HttpServletResponse.SC_BAD_REQUEST, notNumber.getStatusCode().value()));
+    }
+
+    @Test
+    public void testPostStudentsImport_csv_thenReturnsOkWithReport() throws SQLException {
+        String csv = """
+                dateOfBirth,name
+                2000-01-02,"Doe, John"
+                2000-13-01,s2name
+                2000-01-03,
+                2000-01-04,s4name
+                """;
+
+        ResponseEntity<Map<String, Object>> response = rt.exchange(RequestEntity.post("/students/import")
+                        .contentType(MediaType.valueOf("text/csv")).body(csv),
+                new ParameterizedTypeReference<Map<String, Object>>() {});
+
+        Map<String, Object> report = response.getBody();
+
+        assertAll(() -> assertEquals(HttpServletResponse.SC_OK, response.getStatusCode().value()),
+                () -> assertEquals(2, report.get("imported")),
+                () -> assertEquals(2, report.get("rejected")),
+                () -> assertEquals(2, ((List<?>) report.get("errors")).size()),
+                () -> assertEquals(2, jdbc.countOfStudents()));
+    }
+
+    @Test
+    public void testPostStudentsImport_ndjson_thenReturnsOkWithReport() throws SQLException {
+        String ndjson = """
+                {"name":"s1name","dateOfBirth":"2000-01-02"}
+                {"name":
+                {"name":"s3name","dateOfBirth":"2000-01-03"}
+                """;
+
+        ResponseEntity<Map<String, Object>> response = rt.exchange(RequestEntity.post("/students/import")
+                        .contentType(MediaType.valueOf("application/x-ndjson")).body(ndjson),
+                new ParameterizedTypeReference<Map<String, Object>>() {});
+
+        assertAll(() -> assertEquals(HttpServletResponse.SC_OK, response.getStatusCode().value()),
+                () -> assertEquals(2, response.getBody().get("imported")),
+                () -> assertEquals(1, response.getBody().get("rejected")),
+                () -> assertEquals(2, jdbc.countOfStudents()));
+    }
+
+    @Test
+    public void testGetStudentsExport_thenReturnsAttachmentInRequestedFormat() throws SQLException {
+        int studentId = jdbc.insertStudent("s1name", LocalDate.of(2000, 1, 2), null);
+
+        ResponseEntity<String> csv = rt.exchange(RequestEntity.get("/students/export").build(), String.class);
+        ResponseEntity<String> ndjson = rt.exchange(RequestEntity.get("/students/export?format=ndjson").build(), String.class);
+        ResponseEntity<String> invalid = rt.exchange(RequestEntity.get("/students/export?format=xml").build(), String.class);
+
+        assertAll(() -> assertEquals(HttpServletResponse.SC_OK, csv.getStatusCode().value()),
+                () -> assertTrue(csv.getHeaders().getContentType().isCompatibleWith(MediaType.valueOf("text/csv"))),
+                () -> assertEquals("attachment; filename=\"students.csv\"", csv.getHeaders().getFirst("Content-Disposition")),
+                () -> assertEquals("id,name,dateOfBirth,groupId\n%d,s1name,2000-01-02,\n".formatted(studentId), csv.getBody()),
+                () -> assertEquals(HttpServletResponse.SC_OK, ndjson.getStatusCode().value()),
+                () -> assertEquals("{\"id\":%d,\"name\":\"s1name\",\"dateOfBirth\":\"2000-01-02\",\"groupId\":null}\n"
+                        .formatted(studentId), ndjson.getBody()),
+                () -> assertEquals(HttpServletResponse.SC_BAD_REQUEST, invalid.getStatusCode().value()));
+    }
+
+    @Test
+    public void testPostStudentsImport_whenUnsupportedContentTypeOrHeader_thenReturnsError() {
+        ResponseEntity<String> json = rt.exchange(RequestEntity.post("/students/import")
+                .contentType(MediaType.APPLICATION_JSON).body("[]"), String.class);
+        ResponseEntity<String> header = rt.exchange(RequestEntity.post("/students/import")
+                .contentType(MediaType.valueOf("text/csv")).body("id,name\n1,s1name\n"), String.class);
+
+        assertAll(() -> assertEquals(HttpServletResponse.SC_UNSUPPORTED_MEDIA_TYPE, json.getStatusCode().value()),
+                () -> assertEquals(HttpServletResponse.SC_BAD_REQUEST, header.getStatusCode().value()));
+    }
+
     @Test
     public void testPostStudent_returnsCreatedWithNewStudent() throws SQLException {
         assertEquals(0, jdbc.countOfStudents());
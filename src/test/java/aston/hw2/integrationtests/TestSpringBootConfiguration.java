@@ -47,6 +47,15 @@ public class TestSpringBootConfiguration {
         return registrationBean;
     }
 
+    @Bean
+    public ServletRegistrationBean<SlowTestServlet> slowTestServletRegistrationBean() {
+        ServletRegistrationBean<SlowTestServlet> registrationBean = new ServletRegistrationBean<>(new SlowTestServlet());
+        registrationBean.setName("slowTestServlet");
+        registrationBean.setLoadOnStartup(1);
+        registrationBean.addUrlMappings("/slow");
+        return registrationBean;
+    }
+
     // Мой контекст, никак не связан с контекстом спринга
     @Bean
     public WebApplicationContext webApplicationContext() {
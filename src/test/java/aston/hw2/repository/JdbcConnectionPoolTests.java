@@ -0,0 +1,195 @@
+package aston.hw2.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JdbcConnectionPoolTests {
+
+    private static final String URL = "jdbc:h2:mem:pool_test_db;DB_CLOSE_DELAY=-1";
+
+    private JdbcConnectionPool pool;
+
+    @AfterEach
+    public void closePool() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void test_createConnection_reusesPhysicalConnection() throws SQLException {
+        pool = new JdbcConnectionPool("org.h2.Driver", URL, JdbcConnectionPool.Settings.builder().build());
+
+        Connection physical;
+        try (Connection c = pool.createConnection()) {
+            physical = c.unwrap(Connection.class);
+        }
+
+        try (Connection c = pool.createConnection()) {
+            assertSame(physical, c.unwrap(Connection.class));
+        }
+
+        assertAll(() -> assertEquals(1, pool.getIdleCount()),
+                () -> assertEquals(0, pool.getActiveCount()));
+    }
+
+    @Test
+    public void test_createConnection_whenPoolExhausted_thenThrowsAfterWaitTimeout() throws SQLException {
+        pool = new JdbcConnectionPool("org.h2.Driver", URL, JdbcConnectionPool.Settings.builder()
+                .maxSize(1)
+                .waitTimeout(Duration.ofMillis(50))
+                .build());
+
+        try (Connection ignored = pool.createConnection()) {
+            assertThrows(SQLTransientConnectionException.class, () -> pool.createConnection());
+        }
+
+        assertDoesNotThrow(() -> pool.createConnection().close());
+    }
+
+    @Test
+    public void test_close_returnsConnectionAndRejectsFurtherUse() throws SQLException {
+        pool = new JdbcConnectionPool("org.h2.Driver", URL, JdbcConnectionPool.Settings.builder().build());
+
+        Connection c = pool.createConnection();
+        c.close();
+        c.close();
+
+        assertAll(() -> assertTrue(c.isClosed()),
+                () -> assertThrows(SQLException.class, c::createStatement),
+                () -> assertEquals(1, pool.getIdleCount()));
+    }
+
+    @Test
+    public void test_close_resetsUncommittedTransaction() throws SQLException {
+        pool = new JdbcConnectionPool("org.h2.Driver", URL, JdbcConnectionPool.Settings.builder().build());
+
+        try (Connection c = pool.createConnection()) {
+            c.setAutoCommit(false);
+        }
+
+        try (Connection c = pool.createConnection()) {
+            assertTrue(c.getAutoCommit());
+        }
+    }
+
+    @Test
+    public void test_createConnection_whenMaxLifetimeExceeded_thenOpensNewPhysicalConnection() throws SQLException {
+        pool = new JdbcConnectionPool("org.h2.Driver", URL, JdbcConnectionPool.Settings.builder()
+                .maxLifetime(Duration.ZERO)
+                .build());
+
+        Connection physical;
+        try (Connection c = pool.createConnection()) {
+            physical = c.unwrap(Connection.class);
+        }
+
+        try (Connection c = pool.createConnection()) {
+            assertNotSame(physical, c.unwrap(Connection.class));
+        }
+        assertTrue(physical.isClosed());
+    }
+
+    @Test
+    public void test_prepareStatement_reusesStatementAcrossLeases() throws SQLException {
+        pool = new JdbcConnectionPool("org.h2.Driver", URL, JdbcConnectionPool.Settings.builder().build());
+
+        PreparedStatement physical;
+        try (Connection c = pool.createConnection(); PreparedStatement ps = c.prepareStatement("SELECT ?")) {
+            ps.setInt(1, 1);
+            physical = ps.unwrap(PreparedStatement.class);
+        }
+
+        try (Connection c = pool.createConnection(); PreparedStatement ps = c.prepareStatement("SELECT ?")) {
+            assertAll(() -> assertSame(physical, ps.unwrap(PreparedStatement.class)),
+                    () -> assertSame(c, ps.getConnection()),
+                    () -> assertThrows(SQLException.class, ps::executeQuery, "parameters are cleared on close"));
+        }
+    }
+
+    @Test
+    public void test_prepareStatement_countsCacheHitsAndMisses() throws SQLException {
+        pool = new JdbcConnectionPool("org.h2.Driver", URL, JdbcConnectionPool.Settings.builder().build());
+
+        for (int i = 0; i < 3; i++) {
+            try (Connection c = pool.createConnection()) {
+                c.prepareStatement("SELECT 1").close();
+                c.prepareStatement("SELECT 2").close();
+            }
+        }
+
+        assertAll(() -> assertEquals(4, pool.getStatementCacheHits()),
+                () -> assertEquals(2, pool.getStatementCacheMisses()));
+    }
+
+    @Test
+    public void test_prepareStatement_whenCacheFull_thenClosesLeastRecentlyUsedStatement() throws SQLException {
+        pool = new JdbcConnectionPool("org.h2.Driver", URL, JdbcConnectionPool.Settings.builder()
+                .statementCacheSize(2)
+                .build());
+
+        PreparedStatement first;
+        PreparedStatement second;
+        try (Connection c = pool.createConnection()) {
+            try (PreparedStatement ps = c.prepareStatement("SELECT 1")) {
+                first = ps.unwrap(PreparedStatement.class);
+            }
+            try (PreparedStatement ps = c.prepareStatement("SELECT 2")) {
+                second = ps.unwrap(PreparedStatement.class);
+            }
+            c.prepareStatement("SELECT 1").close();
+            c.prepareStatement("SELECT 3").close();
+        }
+
+        assertAll(() -> assertFalse(first.isClosed()),
+                () -> assertTrue(second.isClosed()));
+
+        pool.close();
+        assertTrue(first.isClosed());
+    }
+
+    @Test
+    public void test_prepareStatement_whenCachedStatementInUse_thenPreparesSeparateStatement() throws SQLException {
+        pool = new JdbcConnectionPool("org.h2.Driver", URL, JdbcConnectionPool.Settings.builder().build());
+
+        try (Connection c = pool.createConnection();
+             PreparedStatement outer = c.prepareStatement("SELECT 1");
+             ResultSet rs = outer.executeQuery()) {
+            try (PreparedStatement inner = c.prepareStatement("SELECT 1")) {
+                assertNotSame(outer.unwrap(PreparedStatement.class), inner.unwrap(PreparedStatement.class));
+                inner.executeQuery().close();
+            }
+
+            assertTrue(rs.next());
+        }
+
+        PreparedStatement ps;
+        try (Connection c = pool.createConnection()) {
+            ps = c.prepareStatement("SELECT 1");
+        }
+        assertThrows(SQLException.class, ps::executeQuery);
+    }
+
+    @Test
+    public void test_createConnection_whenPoolClosed_thenThrows() throws SQLException {
+        pool = new JdbcConnectionPool("org.h2.Driver", URL, JdbcConnectionPool.Settings.builder().build());
+
+        Connection c = pool.createConnection();
+        Connection physical = c.unwrap(Connection.class);
+        pool.close();
+        c.close();
+
+        assertAll(() -> assertThrows(SQLException.class, () -> pool.createConnection()),
+                () -> assertTrue(physical.isClosed()),
+                () -> assertEquals(0, pool.getIdleCount()));
+    }
+}
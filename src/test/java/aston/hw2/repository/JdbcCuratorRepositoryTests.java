@@ -9,6 +9,7 @@ import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.Collection;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -20,9 +21,11 @@ class JdbcCuratorRepositoryTests {
 
     private static TestJdbcHelper jdbc;
 
+    private static JdbcConnectionFactory jdbcConnectionFactory;
+
     @BeforeAll
     public static void setUp() throws SQLException {
-        JdbcConnectionFactory jdbcConnectionFactory = new JdbcConnectionFactory("org.h2.Driver", "jdbc:h2:mem:test_db;DEFAULT_LOCK_TIMEOUT=10000;LOCK_MODE=0;DB_CLOSE_DELAY=-1");
+        jdbcConnectionFactory = new JdbcConnectionFactory("org.h2.Driver", "jdbc:h2:mem:test_db;DEFAULT_LOCK_TIMEOUT=10000;LOCK_MODE=0;DB_CLOSE_DELAY=-1");
         curatorRepository = new JdbcCuratorRepository(jdbcConnectionFactory, new JdbcGroupRepository(jdbcConnectionFactory));
         jdbc = new TestJdbcHelper(jdbcConnectionFactory);
         jdbc.createTables();
@@ -33,6 +36,27 @@ class JdbcCuratorRepositoryTests {
         jdbc.clearTables();
     }
 
+    @Test
+    public void test_assignGroup_replacesPreviousCurator() throws SQLException {
+        int groupId = jdbc.insertGroup("gname", LocalDate.now());
+        int previousId = jdbc.insertCurator("c1name", "c1email", 1, groupId);
+        int curatorId = jdbc.insertCurator("c2name", "c2email", 2, null);
+
+        assertAll(() -> assertTrue(curatorRepository.assignGroup(curatorId, groupId)),
+                () -> assertTrue(jdbc.containsCurator(curatorId, "c2name", "c2email", 2, groupId)),
+                () -> assertTrue(jdbc.containsCurator(previousId, "c1name", "c1email", 1, null)));
+    }
+
+    @Test
+    public void test_assignGroup_nonExistingCuratorOrGroup_returnsFalse() throws SQLException {
+        int groupId = jdbc.insertGroup("gname", LocalDate.now());
+        int previousId = jdbc.insertCurator("c1name", "c1email", 1, groupId);
+
+        assertAll(() -> assertFalse(curatorRepository.assignGroup(previousId + 1, groupId)),
+                () -> assertFalse(curatorRepository.assignGroup(previousId, groupId + 1)),
+                () -> assertTrue(jdbc.containsCurator(previousId, "c1name", "c1email", 1, groupId)));
+    }
+
     @Test
     public void test_findAll() throws SQLException {
         int groupId = jdbc.insertGroup("gname", LocalDate.now());
@@ -55,10 +79,23 @@ class JdbcCuratorRepositoryTests {
         assertEquals(groupId, curator.getGroup().getId());
         assertEquals("gname", curator.getGroup().getName());
         assertNotNull(curator.getGroup().getGraduationDate());
-        assertEquals(curator, curator.getGroup().getCurator());
+        assertSame(curator, curator.getGroup().getCurator());
+        assertNull(curator.getGroup().getStudents());
+    }
 
-        assertNotNull(curator.getGroup().getStudents());
-        assertEquals(1, curator.getGroup().getStudents().size());
+    @Test
+    public void test_findAll_withoutGroup() throws SQLException {
+        int groupId = jdbc.insertGroup("gname", LocalDate.now());
+        int curatorId1 = jdbc.insertCurator("c1name", "c1email", 1, groupId);
+        int curatorId2 = jdbc.insertCurator("c2name", "c2email", 2, null);
+
+        List<Curator> curators = curatorRepository.findAll().collect(Collectors.toList());
+
+        assertAll(() -> assertEquals(2, curators.size()),
+                () -> assertEquals(curatorId1, curators.get(0).getId()),
+                () -> assertEquals(groupId, curators.get(0).getGroup().getId()),
+                () -> assertEquals(curatorId2, curators.get(1).getId()),
+                () -> assertNull(curators.get(1).getGroup()));
     }
 
     @Test
@@ -69,12 +106,74 @@ class JdbcCuratorRepositoryTests {
     }
 
     @Test
-    public void test_findById_returnsNotNull() throws SQLException {
+    public void test_findAllById_returnsExistingCurators() throws SQLException {
+        int groupId = jdbc.insertGroup("gname", LocalDate.now());
+        int curatorId1 = jdbc.insertCurator("c1name", "c1email", 1, groupId);
+        int curatorId2 = jdbc.insertCurator("c2name", "c2email", 2, null);
+
+        List<Curator> curators = curatorRepository.findAllById(List.of(curatorId2, curatorId1, curatorId2 + 100));
+
+        assertAll(() -> assertEquals(2, curators.size()),
+                () -> assertEquals(curatorId1, curators.get(0).getId()),
+                () -> assertEquals(groupId, curators.get(0).getGroup().getId()),
+                () -> assertEquals(curatorId2, curators.get(1).getId()),
+                () -> assertNull(curators.get(1).getGroup()));
+    }
+
+    @Test
+    public void test_findById_returnsGroupReference() throws SQLException {
+        LocalDate now = LocalDate.now();
+        int groupId = jdbc.insertGroup("gname", now);
+        int curatorId = jdbc.insertCurator("cname", "cemail", 1, groupId);
+        jdbc.insertStudent("sname", now, groupId);
+
+        Curator curator = curatorRepository.findById(curatorId);
+
+        assertAll(() -> assertNotNull(curator),
+                () -> assertEquals(curatorId, curator.getId()),
+                () -> assertEquals("cname", curator.getName()),
+                () -> assertEquals("cemail", curator.getEmail()),
+                () -> assertEquals(1, curator.getExperience()),
+
+                () -> assertNotNull(curator.getGroup()),
+                () -> assertEquals(groupId, curator.getGroup().getId()),
+                () -> assertEquals("gname", curator.getGroup().getName()),
+                () -> assertEquals(now, curator.getGroup().getGraduationDate()),
+                () -> assertSame(curator, curator.getGroup().getCurator()),
+                () -> assertNull(curator.getGroup().getStudents()));
+    }
+
+    @Test
+    public void test_findById_nonExistingId_returnsNull() {
+        assertNull(curatorRepository.findById(1));
+    }
+
+    @Test
+    public void test_findWithGroupById_whenGroupDeletedBetweenReads_returnsCuratorWithoutGroup() throws SQLException {
+        int groupId = jdbc.insertGroup("gname", LocalDate.now());
+        int curatorId = jdbc.insertCurator("cname", "cemail", 1, groupId);
+        JdbcCuratorRepository repository = new JdbcCuratorRepository(jdbcConnectionFactory, new JdbcGroupRepository(jdbcConnectionFactory) {
+            @Override
+            public Group findById(Integer id) {
+                deleteById(id);
+                return super.findById(id);
+            }
+        });
+
+        Curator curator = repository.findWithGroupById(curatorId);
+
+        assertAll(() -> assertNotNull(curator),
+                () -> assertEquals(curatorId, curator.getId()),
+                () -> assertNull(curator.getGroup()));
+    }
+
+    @Test
+    public void test_findWithGroupById_returnsNotNull() throws SQLException {
         int groupId = jdbc.insertGroup("gname", LocalDate.now());
         int curatorId = jdbc.insertCurator("cname", "cemail", 1, groupId);
         int studentId = jdbc.insertStudent("sname", LocalDate.now(), groupId);
 
-        Curator curator = curatorRepository.findById(studentId);
+        Curator curator = curatorRepository.findWithGroupById(curatorId);
 
         assertNotNull(curator);
         assertEquals(curatorId, curator.getId());
@@ -93,8 +192,39 @@ class JdbcCuratorRepositoryTests {
     }
 
     @Test
-    public void test_findById_nonExistingId_returnsNull() {
-        assertNull(curatorRepository.findById(1));
+    public void test_findPage() throws SQLException {
+        int groupId = jdbc.insertGroup("gname", LocalDate.now());
+        int curatorId1 = jdbc.insertCurator("c1name", "c1email", 1, groupId);
+        int curatorId2 = jdbc.insertCurator("c2name", "c2email", 2, null);
+
+        Page<Curator, Integer> first = curatorRepository.findPage(null, 1);
+
+        assertAll(() -> assertEquals(1, first.getItems().size()),
+                () -> assertEquals(curatorId1, first.getItems().get(0).getId()),
+                () -> assertEquals(groupId, first.getItems().get(0).getGroup().getId()),
+                () -> assertEquals(curatorId1, first.getNextCursor()));
+
+        Page<Curator, Integer> last = curatorRepository.findPage(first.getNextCursor(), 1);
+
+        assertAll(() -> assertEquals(1, last.getItems().size()),
+                () -> assertEquals(curatorId2, last.getItems().get(0).getId()),
+                () -> assertNull(last.getItems().get(0).getGroup()),
+                () -> assertFalse(last.hasNext()));
+    }
+
+    @Test
+    public void test_findByGroupId() throws SQLException {
+        int groupId = jdbc.insertGroup("gname", LocalDate.now());
+        int emptyGroupId = jdbc.insertGroup("g2name", LocalDate.now());
+        int curatorId = jdbc.insertCurator("cname", "cemail", 3, groupId);
+
+        Curator curator = curatorRepository.findByGroupId(groupId);
+
+        assertAll(() -> assertEquals(curatorId, curator.getId()),
+                () -> assertEquals("cname", curator.getName()),
+                () -> assertEquals("cemail", curator.getEmail()),
+                () -> assertEquals(3, curator.getExperience()),
+                () -> assertNull(curatorRepository.findByGroupId(emptyGroupId)));
     }
 
     @Test
@@ -104,7 +234,7 @@ class JdbcCuratorRepositoryTests {
         int curatorId = jdbc.insertCurator("cname", "cemail", 1, groupId);
         int studentId = jdbc.insertStudent("sname", now, groupId);
 
-        curatorRepository.removeById(studentId);
+        curatorRepository.removeById(curatorId);
 
         assertAll(() -> assertTrue(jdbc.containsGroup(groupId, "gname", now)),
                 () -> assertFalse(jdbc.containsCurator(curatorId, "cname", "cemail", 1, groupId)),
@@ -116,6 +246,19 @@ class JdbcCuratorRepositoryTests {
         assertNull(curatorRepository.removeById(1));
     }
 
+    @Test
+    public void test_save_withGroupReference_replacesPreviousCurator() throws SQLException {
+        LocalDate now = LocalDate.now();
+        int groupId = jdbc.insertGroup("gname", now);
+        int previousId = jdbc.insertCurator("c1name", "c1email", 1, groupId);
+
+        Curator curator = new Curator("c2name", "c2email", 2, new Group(groupId, "gname", now, null, null));
+        curatorRepository.save(curator);
+
+        assertAll(() -> assertTrue(jdbc.containsCurator(curator.getId(), "c2name", "c2email", 2, groupId)),
+                () -> assertTrue(jdbc.containsCurator(previousId, "c1name", "c1email", 1, null)));
+    }
+
     @Test
     public void test_save_withCascadeInserting() {
         LocalDate now = LocalDate.now();
@@ -164,4 +307,14 @@ class JdbcCuratorRepositoryTests {
                 () -> assertTrue(jdbc.containsCurator(curator.getId(), "updated_cname", "cemail", 1, group.getId()), "Curator not contained"),
                 () -> assertTrue(jdbc.containsStudent(student.getId(), "updated_sname", now, group.getId()), "Student not contained"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void test_unassignByGroupId() throws SQLException {
+        int groupId = jdbc.insertGroup("gname", LocalDate.now());
+        int curatorId = jdbc.insertCurator("cname", "cemail", 1, groupId);
+
+        assertAll(() -> assertTrue(curatorRepository.unassignByGroupId(groupId)),
+                () -> assertTrue(jdbc.containsCurator(curatorId, "cname", "cemail", 1, null)),
+                () -> assertFalse(curatorRepository.unassignByGroupId(groupId)));
+    }
+}
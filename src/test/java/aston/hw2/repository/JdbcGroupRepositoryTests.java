@@ -11,8 +11,11 @@ import org.junit.jupiter.api.TestInstance;
 import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -78,11 +81,78 @@ class JdbcGroupRepositoryTests {
         }
     }
 
+    @Test
+    public void test_findAll_withoutCuratorsAndStudents() throws SQLException {
+        int groupId1 = jdbc.insertGroup("g1name", LocalDate.now());
+        int groupId2 = jdbc.insertGroup("g2name", LocalDate.now());
+        jdbc.insertStudent("s1name", LocalDate.now(), groupId2);
+        jdbc.insertStudent("s2name", LocalDate.now(), null);
+
+        Collection<Group> groups = groupRepository.findAll().collect(Collectors.toList());
+
+        assertEquals(2, groups.size());
+        for (Group group : groups) {
+            assertNull(group.getCurator());
+            if (group.getId() == groupId1) {
+                assertTrue(group.getStudents().isEmpty());
+            } else if (group.getId() == groupId2) {
+                assertEquals(1, group.getStudents().size());
+                assertEquals("s1name", group.getStudents().get(0).getName());
+            } else {
+                throw new AssertionError("Unexpected groupId");
+            }
+        }
+    }
+
+    @Test
+    public void test_findAll_holdsConnectionUntilClosed() throws SQLException {
+        jdbc.insertGroup("g1name", LocalDate.now());
+        jdbc.insertGroup("g2name", LocalDate.now());
+
+        try (JdbcConnectionPool pool = new JdbcConnectionPool("org.h2.Driver", "jdbc:h2:mem:test_db;DEFAULT_LOCK_TIMEOUT=10000;LOCK_MODE=0;DB_CLOSE_DELAY=-1",
+                JdbcConnectionPool.Settings.builder().build())) {
+            JdbcGroupRepository repository = new JdbcGroupRepository(pool);
+            repository.setFetchSize(1);
+
+            Stream<Group> groups = repository.findAll();
+            assertEquals(0, pool.getActiveCount());
+
+            Iterator<Group> it = groups.iterator();
+            assertEquals("g1name", it.next().getName());
+            assertEquals(1, pool.getActiveCount());
+
+            groups.close();
+            assertEquals(0, pool.getActiveCount());
+        }
+    }
+
     @Test
     public void test_findAll_notFound_returnsNotNull() {
         assertNotNull(groupRepository.findAll());
     }
 
+    @Test
+    public void test_findAllById_returnsGroupsWithCuratorsAndStudents() throws SQLException {
+        LocalDate now = LocalDate.now();
+        int groupId1 = jdbc.insertGroup("g1name", now);
+        int curatorId = jdbc.insertCurator("cname", "cemail", 1, groupId1);
+        jdbc.insertStudent("s1name", now, groupId1);
+        jdbc.insertStudent("s2name", now, groupId1);
+        int groupId2 = jdbc.insertGroup("g2name", now);
+        jdbc.insertGroup("g3name", now);
+
+        List<Group> groups = groupRepository.findAllById(List.of(groupId2, groupId1, groupId2 + 100));
+
+        assertAll(() -> assertEquals(2, groups.size()),
+                () -> assertEquals(groupId1, groups.get(0).getId()),
+                () -> assertEquals(curatorId, groups.get(0).getCurator().getId()),
+                () -> assertEquals(2, groups.get(0).getStudents().size()),
+                () -> assertEquals(groupId2, groups.get(1).getId()),
+                () -> assertNull(groups.get(1).getCurator()),
+                () -> assertTrue(groups.get(1).getStudents().isEmpty()),
+                () -> assertThrows(IllegalArgumentException.class, () -> groupRepository.findAllById(null)));
+    }
+
     @Test
     public void test_findById_returnsNotNull() throws SQLException {
         int groupId = jdbc.insertGroup("gname", LocalDate.now());
@@ -129,6 +199,69 @@ class JdbcGroupRepositoryTests {
         assertNull(groupRepository.findById(1));
     }
 
+    @Test
+    public void test_findById_lazyLoading_readsStudentsOnFirstAccess() throws SQLException {
+        int groupId = jdbc.insertGroup("gname", LocalDate.now());
+        jdbc.insertCurator("cname", "cemail", 1, groupId);
+        jdbc.insertStudent("s1name", LocalDate.now(), groupId);
+
+        groupRepository.setLazyLoading(true);
+        try {
+            Group group = groupRepository.findById(groupId);
+
+            assertAll(() -> assertEquals("cname", group.getCurator().getName()),
+                    () -> assertFalse(JdbcGroupRepository.isLoaded(group.getStudents())));
+
+            jdbc.insertStudent("s2name", LocalDate.now(), groupId);
+
+            assertAll(() -> assertEquals(2, group.getStudents().size()),
+                    () -> assertSame(group, group.getStudents().get(0).getGroup()),
+                    () -> assertTrue(JdbcGroupRepository.isLoaded(group.getStudents())));
+        } finally {
+            groupRepository.setLazyLoading(false);
+        }
+    }
+
+    @Test
+    public void test_findAll_lazyLoading_doesNotReadStudents() throws SQLException {
+        int groupId = jdbc.insertGroup("gname", LocalDate.now());
+        jdbc.insertCurator("cname", "cemail", 1, groupId);
+        jdbc.insertStudent("s1name", LocalDate.now(), groupId);
+        jdbc.insertStudent("s2name", LocalDate.now(), groupId);
+
+        groupRepository.setLazyLoading(true);
+        try (Stream<Group> stream = groupRepository.findAll()) {
+            List<Group> groups = stream.toList();
+
+            assertAll(() -> assertEquals(1, groups.size()),
+                    () -> assertEquals("cname", groups.get(0).getCurator().getName()),
+                    () -> assertFalse(JdbcGroupRepository.isLoaded(groups.get(0).getStudents())),
+                    () -> assertEquals(2, groups.get(0).getStudents().size()));
+        } finally {
+            groupRepository.setLazyLoading(false);
+        }
+    }
+
+    @Test
+    public void test_save_lazyLoadedGroupWithUnreadStudents_keepsStudents() throws SQLException {
+        LocalDate now = LocalDate.now();
+        int groupId = jdbc.insertGroup("gname", now);
+        int studentId = jdbc.insertStudent("sname", now, groupId);
+
+        groupRepository.setLazyLoading(true);
+        try {
+            Group group = groupRepository.findById(groupId);
+            group.setName("newname");
+            groupRepository.save(group);
+
+            assertAll(() -> assertTrue(jdbc.containsGroup(groupId, "newname", now)),
+                    () -> assertTrue(jdbc.containsStudent(studentId, "sname", now, groupId)),
+                    () -> assertFalse(JdbcGroupRepository.isLoaded(group.getStudents())));
+        } finally {
+            groupRepository.setLazyLoading(false);
+        }
+    }
+
     @Test
     public void test_findByName() throws SQLException {
         int groupId = jdbc.insertGroup("gname", LocalDate.now());
@@ -167,6 +300,103 @@ class JdbcGroupRepositoryTests {
         assertNull(groupRepository.findByName("name"));
     }
 
+    @Test
+    public void test_existsByName() throws SQLException {
+        jdbc.insertGroup("gname", LocalDate.now());
+
+        assertAll(() -> assertTrue(groupRepository.existsByName("gname")),
+                () -> assertFalse(groupRepository.existsByName("name")));
+    }
+
+    @Test
+    public void test_findIdByName() throws SQLException {
+        int groupId = jdbc.insertGroup("gname", LocalDate.now());
+
+        assertAll(() -> assertEquals(groupId, groupRepository.findIdByName("gname")),
+                () -> assertNull(groupRepository.findIdByName("name")));
+    }
+
+    @Test
+    public void test_findPage() throws SQLException {
+        int groupId1 = jdbc.insertGroup("g1name", LocalDate.now());
+        jdbc.insertCurator("c1name", "c1email", 1, groupId1);
+        jdbc.insertStudent("s1name", LocalDate.now(), groupId1);
+        jdbc.insertStudent("s2name", LocalDate.now(), groupId1);
+        int groupId2 = jdbc.insertGroup("g2name", LocalDate.now());
+        jdbc.insertStudent("s3name", LocalDate.now(), groupId2);
+        jdbc.insertStudent("s4name", LocalDate.now(), groupId2);
+        int groupId3 = jdbc.insertGroup("g3name", LocalDate.now());
+
+        Page<Group, Integer> first = groupRepository.findPage(null, 2);
+
+        assertAll(() -> assertEquals(2, first.getItems().size()),
+                () -> assertEquals(groupId1, first.getItems().get(0).getId()),
+                () -> assertEquals("c1name", first.getItems().get(0).getCurator().getName()),
+                () -> assertEquals(2, first.getItems().get(0).getStudents().size()),
+                () -> assertEquals(groupId2, first.getItems().get(1).getId()),
+                () -> assertEquals(2, first.getItems().get(1).getStudents().size()),
+                () -> assertEquals(groupId2, first.getNextCursor()));
+
+        Page<Group, Integer> last = groupRepository.findPage(first.getNextCursor(), 2);
+
+        assertAll(() -> assertEquals(1, last.getItems().size()),
+                () -> assertEquals(groupId3, last.getItems().get(0).getId()),
+                () -> assertTrue(last.getItems().get(0).getStudents().isEmpty()),
+                () -> assertFalse(last.hasNext()));
+    }
+
+    @Test
+    public void test_findPage_nonPositiveLimit_throwsException() {
+        assertThrows(IllegalArgumentException.class, () -> groupRepository.findPage(null, 0));
+    }
+
+    @Test
+    public void test_findSummaryById() throws SQLException {
+        LocalDate now = LocalDate.now();
+        int groupId = jdbc.insertGroup("gname", now);
+        jdbc.insertCurator("cname", "cemail", 1, groupId);
+        jdbc.insertStudent("sname", now, groupId);
+
+        Group group = groupRepository.findSummaryById(groupId);
+
+        assertAll(() -> assertEquals(groupId, group.getId()),
+                () -> assertEquals("gname", group.getName()),
+                () -> assertEquals(now, group.getGraduationDate()),
+                () -> assertNull(group.getCurator()),
+                () -> assertNull(group.getStudents()),
+                () -> assertNull(groupRepository.findSummaryById(groupId + 1)));
+    }
+
+    @Test
+    public void test_findSummaryPage() throws SQLException {
+        int groupId1 = jdbc.insertGroup("g1name", LocalDate.now());
+        jdbc.insertStudent("sname", LocalDate.now(), groupId1);
+        int groupId2 = jdbc.insertGroup("g2name", LocalDate.now());
+
+        Page<Group, Integer> first = groupRepository.findSummaryPage(null, 1);
+        Page<Group, Integer> last = groupRepository.findSummaryPage(first.getNextCursor(), 1);
+
+        assertAll(() -> assertEquals(groupId1, first.getItems().get(0).getId()),
+                () -> assertNull(first.getItems().get(0).getStudents()),
+                () -> assertEquals(groupId1, first.getNextCursor()),
+                () -> assertEquals(groupId2, last.getItems().get(0).getId()),
+                () -> assertFalse(last.hasNext()));
+    }
+
+    @Test
+    public void test_deleteById_detachesCuratorAndStudents() throws SQLException {
+        LocalDate now = LocalDate.now();
+        int groupId = jdbc.insertGroup("gname", now);
+        int curatorId = jdbc.insertCurator("cname", "cemail", 1, groupId);
+        int studentId = jdbc.insertStudent("sname", now, groupId);
+
+        assertAll(() -> assertTrue(groupRepository.deleteById(groupId)),
+                () -> assertFalse(groupRepository.deleteById(groupId)),
+                () -> assertFalse(jdbc.containsGroup(groupId, "gname", now)),
+                () -> assertTrue(jdbc.containsCurator(curatorId, "cname", "cemail", 1, null)),
+                () -> assertTrue(jdbc.containsStudent(studentId, "sname", now, null)));
+    }
+
     @Test
     public void test_removeById() throws SQLException {
         LocalDate now = LocalDate.now();
@@ -229,4 +459,76 @@ class JdbcGroupRepositoryTests {
                 () -> assertTrue(jdbc.containsCurator(curator.getId(), "cname", "cemail", 2, curator.getGroup().getId()), "Curator not contained"),
                 () -> assertTrue(jdbc.containsStudent(student.getId(), "sname", now, null), "Student not contained"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void test_save_withBatchedStudents() throws SQLException {
+        JdbcGroupRepository repository = new JdbcGroupRepository(new JdbcConnectionFactory("org.h2.Driver", "jdbc:h2:mem:test_db;DEFAULT_LOCK_TIMEOUT=10000;LOCK_MODE=0;DB_CLOSE_DELAY=-1"));
+        repository.setBatchSize(2);
+
+        LocalDate now = LocalDate.now();
+        Group group = new Group("gname", now, null, new LinkedList<>());
+        for (int i = 0; i < 5; i++) {
+            group.getStudents().add(new Student("s" + i + "name", now, group));
+        }
+        repository.save(group);
+
+        group.getStudents().get(0).setName("renamed");
+        group.getStudents().remove(4);
+        group.getStudents().add(new Student("s5name", now, group));
+        repository.save(group);
+
+        assertEquals(5, group.getStudents().stream().map(Student::getId).distinct().count());
+        assertTrue(jdbc.containsStudent(group.getStudents().get(0).getId(), "renamed", now, group.getId()));
+        for (Student student : group.getStudents().subList(1, 5)) {
+            assertTrue(jdbc.containsStudent(student.getId(), student.getName(), now, group.getId()), student.getName() + " not contained");
+        }
+        assertEquals(5, repository.findById(group.getId()).getStudents().size());
+    }
+
+    @Test
+    public void test_save_loadedGroup_writesOnlyChangedStudents() throws SQLException {
+        LocalDate now = LocalDate.now();
+        int groupId = jdbc.insertGroup("gname", now);
+        int untouchedId = jdbc.insertStudent("untouched", now, groupId);
+        int renamedId = jdbc.insertStudent("s2name", now, groupId);
+        int removedId = jdbc.insertStudent("removed", now, groupId);
+        int assignedId = jdbc.insertStudent("assigned", now, null);
+
+        Group group = groupRepository.findById(groupId);
+
+        // строка, не измененная через группу, не должна перезаписываться при сохранении группы
+        jdbc.renameStudent(untouchedId, "renamed concurrently");
+
+        group.getStudents().removeIf(student -> student.getId() == removedId);
+        group.getStudents().stream()
+                .filter(student -> student.getId() == renamedId)
+                .forEach(student -> student.setName("renamed"));
+        group.getStudents().add(new Student(assignedId, "assigned", now, group));
+
+        groupRepository.save(group);
+
+        assertAll(() -> assertTrue(jdbc.containsStudent(untouchedId, "renamed concurrently", now, groupId)),
+                () -> assertTrue(jdbc.containsStudent(renamedId, "renamed", now, groupId)),
+                () -> assertTrue(jdbc.containsStudent(removedId, "removed", now, null)),
+                () -> assertTrue(jdbc.containsStudent(assignedId, "assigned", now, groupId)));
+    }
+
+    @Test
+    public void test_save_removedStudentMovedToAnotherGroup_keepsNewGroup() throws SQLException {
+        LocalDate now = LocalDate.now();
+        int groupId = jdbc.insertGroup("g1name", now);
+        int otherGroupId = jdbc.insertGroup("g2name", now);
+        int studentId = jdbc.insertStudent("sname", now, groupId);
+
+        Group group = groupRepository.findById(groupId);
+        Group otherGroup = groupRepository.findById(otherGroupId);
+
+        Student student = group.getStudents().remove(0);
+        student.setGroup(otherGroup);
+        otherGroup.getStudents().add(student);
+        groupRepository.save(otherGroup);
+        groupRepository.save(group);
+
+        assertTrue(jdbc.containsStudent(studentId, "sname", now, otherGroupId));
+    }
+}
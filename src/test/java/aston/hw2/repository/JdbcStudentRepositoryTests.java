@@ -5,10 +5,12 @@ import aston.hw2.entity.Group;
 import aston.hw2.entity.Student;
 import org.junit.jupiter.api.*;
 
+import java.io.StringWriter;
 import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.Collection;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -20,9 +22,11 @@ class JdbcStudentRepositoryTests {
 
     private static TestJdbcHelper jdbc;
 
+    private static JdbcConnectionFactory jdbcConnectionFactory;
+
     @BeforeAll
     public static void setUp() throws SQLException {
-        JdbcConnectionFactory jdbcConnectionFactory = new JdbcConnectionFactory("org.h2.Driver", "jdbc:h2:mem:test_db;DEFAULT_LOCK_TIMEOUT=10000;LOCK_MODE=0;DB_CLOSE_DELAY=-1");
+        jdbcConnectionFactory = new JdbcConnectionFactory("org.h2.Driver", "jdbc:h2:mem:test_db;DEFAULT_LOCK_TIMEOUT=10000;LOCK_MODE=0;DB_CLOSE_DELAY=-1");
         studentRepository = new JdbcStudentRepository(jdbcConnectionFactory, new JdbcGroupRepository(jdbcConnectionFactory));
         jdbc = new TestJdbcHelper(jdbcConnectionFactory);
         jdbc.createTables();
@@ -33,10 +37,39 @@ class JdbcStudentRepositoryTests {
         jdbc.clearTables();
     }
 
+    @Test
+    public void test_assignGroup() throws SQLException {
+        LocalDate now = LocalDate.now();
+        int groupId = jdbc.insertGroup("gname", now);
+        int studentId = jdbc.insertStudent("sname", now, null);
+
+        assertAll(() -> assertTrue(studentRepository.assignGroup(studentId, groupId)),
+                () -> assertTrue(jdbc.containsStudent(studentId, "sname", now, groupId)));
+    }
+
+    @Test
+    public void test_assignGroup_nonExistingStudentOrGroup_returnsFalse() throws SQLException {
+        LocalDate now = LocalDate.now();
+        int groupId = jdbc.insertGroup("gname", now);
+        int studentId = jdbc.insertStudent("sname", now, null);
+
+        assertAll(() -> assertFalse(studentRepository.assignGroup(studentId + 1, groupId)),
+                () -> assertFalse(studentRepository.assignGroup(studentId, groupId + 1)),
+                () -> assertTrue(jdbc.containsStudent(studentId, "sname", now, null)));
+    }
+
+    @Test
+    public void test_existsById() throws SQLException {
+        int studentId = jdbc.insertStudent("sname", LocalDate.now(), null);
+
+        assertAll(() -> assertTrue(studentRepository.existsById(studentId)),
+                () -> assertFalse(studentRepository.existsById(studentId + 1)));
+    }
+
     @Test
     public void test_findAll() throws SQLException {
         int groupId1 = jdbc.insertGroup("g1name", LocalDate.now());
-        int curatorId1 = jdbc.insertCurator("c1name", "c1email", 1, groupId1);
+        jdbc.insertCurator("c1name", "c1email", 1, groupId1);
         int studentId1 = jdbc.insertStudent("s1name", LocalDate.now(), groupId1);
         int studentId2 = jdbc.insertStudent("s2name", LocalDate.now(), null);
 
@@ -55,14 +88,8 @@ class JdbcStudentRepositoryTests {
                 assertEquals(groupId1, student.getGroup().getId());
                 assertEquals("g1name", student.getGroup().getName());
                 assertNotNull(student.getGroup().getGraduationDate());
-                assertEquals(1, student.getGroup().getStudents().size());
-                assertTrue(student.getGroup().getStudents().contains(student));
-                assertNotNull(student.getGroup().getCurator());
-                assertEquals(curatorId1, student.getGroup().getCurator().getId());
-                assertEquals("c1name", student.getGroup().getCurator().getName());
-                assertEquals("c1email", student.getGroup().getCurator().getEmail());
-                assertEquals(1, student.getGroup().getCurator().getExperience());
-                assertEquals(student.getGroup(), student.getGroup().getCurator().getGroup());
+                assertNull(student.getGroup().getStudents());
+                assertNull(student.getGroup().getCurator());
             } else if (student.getId() == studentId2) {
                 assertEquals("s2name", student.getName());
                 assertNull(student.getGroup());
@@ -80,12 +107,250 @@ class JdbcStudentRepositoryTests {
     }
 
     @Test
-    public void test_findById_returnsNotNull() throws SQLException {
+    public void test_findAllById_returnsExistingStudentsOrderedById() throws SQLException {
+        LocalDate now = LocalDate.now();
+        int groupId = jdbc.insertGroup("gname", now);
+        int studentId1 = jdbc.insertStudent("s1name", now, groupId);
+        int studentId2 = jdbc.insertStudent("s2name", now, null);
+        jdbc.insertStudent("s3name", now, groupId);
+
+        List<Student> students = studentRepository.findAllById(List.of(studentId2, studentId1, studentId2, studentId2 + 100));
+
+        assertAll(() -> assertEquals(2, students.size()),
+                () -> assertEquals(studentId1, students.get(0).getId()),
+                () -> assertEquals("s1name", students.get(0).getName()),
+                () -> assertEquals(groupId, students.get(0).getGroup().getId()),
+                () -> assertEquals("gname", students.get(0).getGroup().getName()),
+                () -> assertEquals(studentId2, students.get(1).getId()),
+                () -> assertNull(students.get(1).getGroup()),
+                () -> assertTrue(studentRepository.findAllById(List.of()).isEmpty()));
+    }
+
+    @Test
+    public void test_findAllByGroupId_returnsOnlyStudentsOfGroup() throws SQLException {
+        LocalDate now = LocalDate.now();
+        int groupId = jdbc.insertGroup("gname", now);
+        int studentId = jdbc.insertStudent("s1name", now, groupId);
+        jdbc.insertStudent("s2name", now, null);
+
+        List<Student> students = studentRepository.findAllByGroupId(groupId);
+
+        assertAll(() -> assertEquals(1, students.size()),
+                () -> assertEquals(studentId, students.get(0).getId()),
+                () -> assertNull(students.get(0).getGroup()),
+                () -> assertTrue(studentRepository.findAllByGroupId(groupId + 1).isEmpty()));
+    }
+
+    @Test
+    public void test_insertAll_insertsStudentsWithoutAssigningIds() throws SQLException {
+        LocalDate now = LocalDate.now();
+        List<Student> students = List.of(new Student("s1name", now, null), new Student("s2, \"quoted\"", now, null));
+
+        int inserted = studentRepository.insertAll(students);
+
+        assertAll(() -> assertEquals(2, inserted),
+                () -> assertEquals(2, jdbc.countOfStudents()),
+                () -> assertNull(students.get(0).getId()),
+                () -> assertEquals(0, studentRepository.insertAll(List.of())));
+    }
+
+    @Test
+    public void test_appendCsvRow_writesCopyColumnsWithGroupId() {
+        LocalDate dateOfBirth = LocalDate.of(2000, 1, 2);
+        StringBuilder csv = new StringBuilder();
+
+        JdbcStudentRepository.appendCsvRow(csv, new Student("s1name", dateOfBirth, new Group(7, "gname", dateOfBirth, null, null)));
+        JdbcStudentRepository.appendCsvRow(csv, new Student("s2, \"quoted\"", dateOfBirth, null));
+
+        assertEquals("\"s1name\",2000-01-02,7\n\"s2, \"\"quoted\"\"\",2000-01-02,\n", csv.toString());
+    }
+
+    @Test
+    public void test_exportAll_writesStudentsInIdOrder() throws SQLException {
+        LocalDate dateOfBirth = LocalDate.of(2000, 1, 2);
+        int groupId = jdbc.insertGroup("gname", dateOfBirth);
+        int s1Id = jdbc.insertStudent("s1name", dateOfBirth, groupId);
+        int s2Id = jdbc.insertStudent("s2, \"quoted\"", dateOfBirth, null);
+
+        StringWriter csv = new StringWriter();
+        StringWriter ndjson = new StringWriter();
+        long csvCount = studentRepository.exportAll(ExportFormat.CSV, csv);
+        long ndjsonCount = studentRepository.exportAll(ExportFormat.NDJSON, ndjson);
+
+        assertAll(() -> assertEquals(2, csvCount),
+                () -> assertEquals(2, ndjsonCount),
+                () -> assertEquals("""
+                        id,name,dateOfBirth,groupId
+                        %d,s1name,2000-01-02,%d
+                        %d,"s2, ""quoted""\",2000-01-02,
+                        """.formatted(s1Id, groupId, s2Id), csv.toString()),
+                () -> assertEquals("""
+                        {"id":%d,"name":"s1name","dateOfBirth":"2000-01-02","groupId":%d}
+                        {"id":%d,"name":"s2, \\"quoted\\"","dateOfBirth":"2000-01-02","groupId":null}
+                        """.formatted(s1Id, groupId, s2Id), ndjson.toString()));
+    }
+
+    @Test
+    public void test_exportAll_whenNoStudents_thenWritesOnlyCsvHeader() {
+        StringWriter csv = new StringWriter();
+        StringWriter ndjson = new StringWriter();
+
+        assertAll(() -> assertEquals(0, studentRepository.exportAll(ExportFormat.CSV, csv)),
+                () -> assertEquals(0, studentRepository.exportAll(ExportFormat.NDJSON, ndjson)),
+                () -> assertEquals("id,name,dateOfBirth,groupId\n", csv.toString()),
+                () -> assertEquals("", ndjson.toString()));
+    }
+
+    @Test
+    public void test_findById_returnsGroupReference() throws SQLException {
+        LocalDate now = LocalDate.now();
+        int groupId = jdbc.insertGroup("gname", now);
+        jdbc.insertCurator("cname", "cemail", 1, groupId);
+        int studentId = jdbc.insertStudent("sname", now, groupId);
+        jdbc.insertStudent("s2name", now, groupId);
+
+        Student student = studentRepository.findById(studentId);
+
+        assertAll(() -> assertNotNull(student),
+                () -> assertEquals(studentId, student.getId()),
+                () -> assertEquals("sname", student.getName()),
+                () -> assertEquals(now, student.getDateOfBirth()),
+
+                () -> assertNotNull(student.getGroup()),
+                () -> assertEquals(groupId, student.getGroup().getId()),
+                () -> assertEquals("gname", student.getGroup().getName()),
+                () -> assertEquals(now, student.getGroup().getGraduationDate()),
+                () -> assertNull(student.getGroup().getCurator()),
+                () -> assertNull(student.getGroup().getStudents()));
+    }
+
+    @Test
+    public void test_findById_lazyLoading_readsGroupOnFirstAccess() throws SQLException {
+        LocalDate now = LocalDate.now();
+        int groupId = jdbc.insertGroup("gname", now);
+        jdbc.insertCurator("cname", "cemail", 1, groupId);
+        int studentId = jdbc.insertStudent("sname", now, groupId);
+        jdbc.insertStudent("s2name", now, groupId);
+
+        studentRepository.setLazyLoading(true);
+        try {
+            Student student = studentRepository.findById(studentId);
+            Group group = student.getGroup();
+
+            assertAll(() -> assertEquals("gname", group.getName()),
+                    () -> assertTrue(JdbcGroupRepository.isReference(group)));
+
+            assertAll(() -> assertEquals("cname", group.getCurator().getName()),
+                    () -> assertSame(group, group.getCurator().getGroup()),
+                    () -> assertEquals(2, group.getStudents().size()),
+                    () -> assertSame(group, group.getStudents().get(0).getGroup()),
+                    () -> assertFalse(JdbcGroupRepository.isReference(group)));
+        } finally {
+            studentRepository.setLazyLoading(false);
+        }
+    }
+
+    @Test
+    public void test_save_withLazyGroupReference_doesNotReadGroup() throws SQLException {
+        LocalDate now = LocalDate.now();
+        int groupId = jdbc.insertGroup("gname", now);
+        int studentId = jdbc.insertStudent("sname", now, groupId);
+        int classmateId = jdbc.insertStudent("s2name", now, groupId);
+
+        studentRepository.setLazyLoading(true);
+        try {
+            Student student = studentRepository.findById(studentId);
+            student.setName("newname");
+            studentRepository.save(student);
+
+            assertAll(() -> assertTrue(jdbc.containsStudent(studentId, "newname", now, groupId)),
+                    () -> assertTrue(jdbc.containsStudent(classmateId, "s2name", now, groupId)),
+                    () -> assertTrue(JdbcGroupRepository.isReference(student.getGroup())));
+        } finally {
+            studentRepository.setLazyLoading(false);
+        }
+    }
+
+    @Test
+    public void test_findById_recordsQueryStatistics() throws SQLException {
+        int studentId = jdbc.insertStudent("sname", LocalDate.now(), null);
+        studentRepository.findById(studentId);
+
+        QueryStatistics statistics = QueryStatistics.get("SELECT_STUDENT_WITH_GROUP_REFERENCE_BY_ID");
+        long executions = statistics.getExecutions();
+        long rows = statistics.getRows();
+
+        studentRepository.findById(studentId);
+        studentRepository.findById(studentId + 1);
+
+        assertAll(() -> assertEquals(executions + 2, statistics.getExecutions()),
+                () -> assertEquals(rows + 1, statistics.getRows()),
+                () -> assertEquals(0, statistics.getFailures()));
+    }
+
+    @Test
+    public void test_findById_withoutGroup() throws SQLException {
+        int studentId = jdbc.insertStudent("sname", LocalDate.now(), null);
+
+        Student student = studentRepository.findById(studentId);
+
+        assertAll(() -> assertEquals(studentId, student.getId()),
+                () -> assertNull(student.getGroup()));
+    }
+
+    @Test
+    public void test_findById_nonExistingId_returnsNull() {
+        assertNull(studentRepository.findById(1));
+    }
+
+    @Test
+    public void test_findWithGroupById_whenGroupDeletedBetweenReads_returnsStudentWithoutGroup() throws SQLException {
+        int groupId = jdbc.insertGroup("gname", LocalDate.now());
+        int studentId = jdbc.insertStudent("sname", LocalDate.now(), groupId);
+        JdbcStudentRepository repository = new JdbcStudentRepository(jdbcConnectionFactory, new JdbcGroupRepository(jdbcConnectionFactory) {
+            @Override
+            public Group findById(Integer id) {
+                deleteById(id);
+                return super.findById(id);
+            }
+        });
+
+        Student student = repository.findWithGroupById(studentId);
+
+        assertAll(() -> assertNotNull(student),
+                () -> assertEquals(studentId, student.getId()),
+                () -> assertNull(student.getGroup()));
+    }
+
+    @Test
+    public void test_findWithGroupById_whenStudentMovedBetweenReads_returnsStudentWithNewGroup() throws SQLException {
+        int groupId1 = jdbc.insertGroup("g1name", LocalDate.now());
+        int groupId2 = jdbc.insertGroup("g2name", LocalDate.now());
+        int studentId = jdbc.insertStudent("sname", LocalDate.now(), groupId1);
+        JdbcStudentRepository repository = new JdbcStudentRepository(jdbcConnectionFactory, new JdbcGroupRepository(jdbcConnectionFactory) {
+            @Override
+            public Group findById(Integer id) {
+                if (id == groupId1) {
+                    studentRepository.assignGroup(studentId, groupId2);
+                }
+                return super.findById(id);
+            }
+        });
+
+        Student student = repository.findWithGroupById(studentId);
+
+        assertAll(() -> assertNotNull(student),
+                () -> assertEquals(groupId2, student.getGroup().getId()),
+                () -> assertTrue(student.getGroup().getStudents().contains(student)));
+    }
+
+    @Test
+    public void test_findWithGroupById_returnsNotNull() throws SQLException {
         int groupId = jdbc.insertGroup("gname", LocalDate.now());
         int curatorId = jdbc.insertCurator("cname", "cemail", 1, groupId);
         int studentId = jdbc.insertStudent("sname", LocalDate.now(), groupId);
 
-        Student student = studentRepository.findById(studentId);
+        Student student = studentRepository.findWithGroupById(studentId);
 
         assertNotNull(student);
         assertEquals(studentId, student.getId());
@@ -106,8 +371,66 @@ class JdbcStudentRepositoryTests {
     }
 
     @Test
-    public void test_findById_nonExistingId_returnsNull() {
-        assertNull(studentRepository.findById(1));
+    public void test_findPage() throws SQLException {
+        LocalDate now = LocalDate.now();
+        int groupId = jdbc.insertGroup("gname", now);
+        int studentId1 = jdbc.insertStudent("s1name", now, groupId);
+        int studentId2 = jdbc.insertStudent("s2name", now, null);
+        int studentId3 = jdbc.insertStudent("s3name", now, groupId);
+
+        Page<Student, Integer> first = studentRepository.findPage(null, 2);
+
+        assertAll(() -> assertEquals(2, first.getItems().size()),
+                () -> assertEquals(studentId1, first.getItems().get(0).getId()),
+                () -> assertEquals(groupId, first.getItems().get(0).getGroup().getId()),
+                () -> assertEquals(studentId2, first.getItems().get(1).getId()),
+                () -> assertNull(first.getItems().get(1).getGroup()),
+                () -> assertEquals(studentId2, first.getNextCursor()));
+
+        Page<Student, Integer> last = studentRepository.findPage(first.getNextCursor(), 2);
+
+        assertAll(() -> assertEquals(1, last.getItems().size()),
+                () -> assertEquals(studentId3, last.getItems().get(0).getId()),
+                () -> assertNull(last.getNextCursor()));
+    }
+
+    @Test
+    public void test_findPageByGroupId() throws SQLException {
+        LocalDate now = LocalDate.now();
+        int groupId = jdbc.insertGroup("g1name", now);
+        int otherGroupId = jdbc.insertGroup("g2name", now);
+        int studentId1 = jdbc.insertStudent("s1name", now, groupId);
+        jdbc.insertStudent("s2name", now, otherGroupId);
+        int studentId3 = jdbc.insertStudent("s3name", now, groupId);
+        int studentId4 = jdbc.insertStudent("s4name", now, groupId);
+
+        Page<Student, Integer> ascending = studentRepository.findPageByGroupId(groupId, studentId1, 10, SortOrder.ASC);
+        Page<Student, Integer> descending = studentRepository.findPageByGroupId(groupId, null, 2, SortOrder.DESC);
+
+        assertAll(() -> assertEquals(List.of(studentId3, studentId4), ascending.getItems().stream().map(Student::getId).toList()),
+                () -> assertEquals("g1name", ascending.getItems().get(0).getGroup().getName()),
+                () -> assertFalse(ascending.hasNext()),
+                () -> assertEquals(List.of(studentId4, studentId3), descending.getItems().stream().map(Student::getId).toList()),
+                () -> assertEquals(studentId3, descending.getNextCursor()),
+                () -> assertEquals(List.of(studentId1), studentRepository.findPageByGroupId(groupId, studentId3, 2, SortOrder.DESC)
+                        .getItems().stream().map(Student::getId).toList()),
+                () -> assertTrue(studentRepository.findPageByGroupId(-1, null, 2, SortOrder.ASC).getItems().isEmpty()));
+    }
+
+    @Test
+    public void test_findGroupByStudentId() throws SQLException {
+        LocalDate now = LocalDate.now();
+        int groupId = jdbc.insertGroup("gname", now);
+        int studentId = jdbc.insertStudent("sname", now, groupId);
+        int loneStudentId = jdbc.insertStudent("s2name", now, null);
+
+        Group group = studentRepository.findGroupByStudentId(studentId);
+
+        assertAll(() -> assertEquals(groupId, group.getId()),
+                () -> assertEquals("gname", group.getName()),
+                () -> assertEquals(now, group.getGraduationDate()),
+                () -> assertNull(group.getStudents()),
+                () -> assertNull(studentRepository.findGroupByStudentId(loneStudentId)));
     }
 
     @Test
@@ -177,4 +500,38 @@ class JdbcStudentRepositoryTests {
                 () -> assertTrue(jdbc.containsCurator(curator.getId(), "cname", "cemail", 1, group.getId()), "Curator not contained"),
                 () -> assertTrue(jdbc.containsStudent(student.getId(), "updated_sname", now, group.getId()), "Student not contained"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void test_unassignGroup() throws SQLException {
+        LocalDate now = LocalDate.now();
+        int groupId = jdbc.insertGroup("gname", now);
+        int otherGroupId = jdbc.insertGroup("g2name", now);
+        int studentId = jdbc.insertStudent("sname", now, groupId);
+
+        assertAll(() -> assertFalse(studentRepository.unassignGroup(studentId, otherGroupId)),
+                () -> assertTrue(jdbc.containsStudent(studentId, "sname", now, groupId)),
+                () -> assertTrue(studentRepository.unassignGroup(studentId, groupId)),
+                () -> assertTrue(jdbc.containsStudent(studentId, "sname", now, null)),
+                () -> assertTrue(studentRepository.unassignGroup(studentId)),
+                () -> assertFalse(studentRepository.unassignGroup(studentId + 1)));
+    }
+
+    @Test
+    public void test_save_withGroupReference_keepsClassmates() throws SQLException {
+        LocalDate now = LocalDate.now();
+        int groupId = jdbc.insertGroup("gname", now);
+        int studentId = jdbc.insertStudent("sname", now, groupId);
+        int classmateId = jdbc.insertStudent("s2name", now, groupId);
+
+        Student student = studentRepository.findById(studentId);
+        student.setName("renamed");
+        studentRepository.save(student);
+
+        Student inserted = studentRepository.save(new Student("s3name", now, student.getGroup()));
+
+        assertAll(() -> assertTrue(jdbc.containsStudent(studentId, "renamed", now, groupId)),
+                () -> assertTrue(jdbc.containsStudent(classmateId, "s2name", now, groupId)),
+                () -> assertTrue(jdbc.containsStudent(inserted.getId(), "s3name", now, groupId)),
+                () -> assertTrue(jdbc.containsGroup(groupId, "gname", now)));
+    }
+}
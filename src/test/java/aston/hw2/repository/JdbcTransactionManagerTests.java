@@ -0,0 +1,140 @@
+package aston.hw2.repository;
+
+import aston.hw2.entity.Group;
+import aston.hw2.entity.Student;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.LinkedList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class JdbcTransactionManagerTests {
+
+    private static final String URL = "jdbc:h2:mem:test_db;DEFAULT_LOCK_TIMEOUT=10000;LOCK_MODE=0;DB_CLOSE_DELAY=-1";
+
+    private static TestJdbcHelper jdbc;
+
+    @BeforeAll
+    public static void setUp() throws SQLException {
+        jdbc = new TestJdbcHelper(new JdbcConnectionFactory("org.h2.Driver", URL));
+        jdbc.createTables();
+    }
+
+    @AfterEach
+    public void clearDBTables() throws SQLException {
+        jdbc.clearTables();
+    }
+
+    @Test
+    public void test_inTransaction_commitsOnSuccess() throws SQLException {
+        JdbcConnectionFactory jdbcConnectionFactory = new JdbcConnectionFactory("org.h2.Driver", URL);
+        JdbcGroupRepository groupRepository = new JdbcGroupRepository(jdbcConnectionFactory);
+        TransactionManager transactionManager = new JdbcTransactionManager(jdbcConnectionFactory);
+
+        LocalDate now = LocalDate.now();
+        Group group = transactionManager.inTransaction(() -> groupRepository.save(new Group("gname", now, null, new LinkedList<>())));
+
+        assertTrue(jdbc.containsGroup(group.getId(), "gname", now));
+    }
+
+    @Test
+    public void test_inTransaction_rollsBackOnException() throws SQLException {
+        JdbcConnectionFactory jdbcConnectionFactory = new JdbcConnectionFactory("org.h2.Driver", URL);
+        JdbcGroupRepository groupRepository = new JdbcGroupRepository(jdbcConnectionFactory);
+        TransactionManager transactionManager = new JdbcTransactionManager(jdbcConnectionFactory);
+
+        RuntimeException failure = new IllegalStateException("failure");
+        RuntimeException thrown = assertThrows(RuntimeException.class, () -> transactionManager.inTransaction(() -> {
+            groupRepository.save(new Group("gname", LocalDate.now(), null, new LinkedList<>()));
+            throw failure;
+        }));
+
+        assertAll(() -> assertSame(failure, thrown),
+                () -> assertNull(groupRepository.findByName("gname")));
+    }
+
+    @Test
+    public void test_inTransaction_whenCommitFails_thenRollsBack() throws SQLException {
+        JdbcConnectionFactory jdbcConnectionFactory = brokenConnectionFactory("commit");
+        JdbcGroupRepository groupRepository = new JdbcGroupRepository(jdbcConnectionFactory);
+        TransactionManager transactionManager = new JdbcTransactionManager(jdbcConnectionFactory);
+
+        assertThrows(SQLRuntimeException.class, () -> transactionManager.inTransaction(
+                () -> groupRepository.save(new Group("gname", LocalDate.now(), null, new LinkedList<>()))));
+
+        assertEquals(0, jdbc.countOfGroups());
+    }
+
+    @Test
+    public void test_inTransaction_whenRestoringAutoCommitFails_thenKeepsActionFailure() {
+        JdbcConnectionFactory jdbcConnectionFactory = brokenConnectionFactory("setAutoCommit", true);
+        TransactionManager transactionManager = new JdbcTransactionManager(jdbcConnectionFactory);
+
+        RuntimeException failure = new IllegalStateException("failure");
+        RuntimeException thrown = assertThrows(RuntimeException.class, () -> transactionManager.inTransaction(() -> {
+            throw failure;
+        }));
+
+        assertAll(() -> assertSame(failure, thrown),
+                () -> assertEquals(1, thrown.getSuppressed().length),
+                () -> assertInstanceOf(SQLException.class, thrown.getSuppressed()[0]));
+    }
+
+    @Test
+    public void test_inTransaction_sharesConnectionBetweenRepositories() {
+        try (JdbcConnectionPool pool = new JdbcConnectionPool("org.h2.Driver", URL, JdbcConnectionPool.Settings.builder()
+                .maxSize(1)
+                .waitTimeout(Duration.ofMillis(100))
+                .build())) {
+            JdbcGroupRepository groupRepository = new JdbcGroupRepository(pool);
+            JdbcStudentRepository studentRepository = new JdbcStudentRepository(pool, groupRepository);
+            TransactionManager transactionManager = new JdbcTransactionManager(pool);
+
+            LocalDate now = LocalDate.now();
+            Student student = transactionManager.inTransaction(() -> {
+                Group group = groupRepository.save(new Group("gname", now, null, new LinkedList<>()));
+                Student s = new Student("sname", now, group);
+                group.getStudents().add(s);
+
+                return studentRepository.save(s);
+            });
+
+            assertAll(() -> assertTrue(jdbc.containsStudent(student.getId(), "sname", now, student.getGroup().getId())),
+                    () -> assertEquals(0, pool.getActiveCount()));
+        }
+    }
+
+    /**
+     * Фабрика подключений, метод которых с указанными аргументами завершается SQLException.
+     */
+    private static JdbcConnectionFactory brokenConnectionFactory(String method, Object... args) {
+        return new JdbcConnectionFactory("org.h2.Driver", URL) {
+            @Override
+            public Connection createConnection() throws SQLException {
+                Connection connection = super.createConnection();
+                return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class},
+                        (proxy, m, a) -> {
+                            if (m.getName().equals(method) && Arrays.equals(a == null ? new Object[0] : a, args)) {
+                                throw new SQLException("Broken connection");
+                            }
+                            try {
+                                return m.invoke(connection, a);
+                            } catch (InvocationTargetException e) {
+                                throw e.getCause();
+                            }
+                        });
+            }
+        };
+    }
+}
@@ -0,0 +1,123 @@
+package aston.hw2.repository;
+
+import aston.hw2.entity.Group;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryCancellationTests {
+
+    private static JdbcGroupRepository groupRepository;
+
+    private static TestJdbcHelper jdbc;
+
+    @BeforeAll
+    public static void setUp() {
+        JdbcConnectionFactory jdbcConnectionFactory = new JdbcConnectionFactory("org.h2.Driver", "jdbc:h2:mem:cancellation_db;DB_CLOSE_DELAY=-1");
+        groupRepository = new JdbcGroupRepository(jdbcConnectionFactory);
+        jdbc = new TestJdbcHelper(jdbcConnectionFactory);
+        jdbc.createTables();
+    }
+
+    @AfterEach
+    public void clearDBTables() throws SQLException {
+        QueryCancellation.unbind();
+        jdbc.clearTables();
+    }
+
+    @Test
+    public void test_boundCancellation_whenNotCancelled_thenQueriesExecute() throws SQLException {
+        int groupId = jdbc.insertGroup("g1name", LocalDate.now());
+        QueryCancellation cancellation = new QueryCancellation();
+        cancellation.bind();
+
+        Group saved = groupRepository.save(new Group(null, "g2name", LocalDate.now(), null, null));
+
+        try (Stream<Group> groups = groupRepository.findAll()) {
+            List<Group> all = groups.toList();
+            assertAll(() -> assertEquals(2, all.size()),
+                    () -> assertNotNull(groupRepository.findById(groupId)),
+                    () -> assertNotNull(saved.getId()),
+                    () -> assertFalse(cancellation.isCancelled()));
+        }
+    }
+
+    @Test
+    public void test_boundCancellation_whenCancelled_thenQueriesFailWithoutExecution() throws SQLException {
+        jdbc.insertGroup("g1name", LocalDate.now());
+        QueryCancellation cancellation = new QueryCancellation();
+        cancellation.bind();
+        cancellation.cancel();
+
+        SQLRuntimeException single = assertThrows(SQLRuntimeException.class, () -> groupRepository.findByName("g1name"));
+        SQLRuntimeException stream = assertThrows(SQLRuntimeException.class, () -> {
+            try (Stream<Group> groups = groupRepository.findAll()) {
+                groups.toList();
+            }
+        });
+        assertThrows(SQLRuntimeException.class,
+                () -> groupRepository.save(new Group(null, "g2name", LocalDate.now(), null, null)));
+
+        QueryCancellation.unbind();
+
+        assertAll(() -> assertEquals(QueryCancellation.SQL_STATE_QUERY_CANCELED, single.getSQLException().getSQLState()),
+                () -> assertEquals(QueryCancellation.SQL_STATE_QUERY_CANCELED, stream.getSQLException().getSQLState()),
+                () -> assertEquals(1, jdbc.countOfGroups()),
+                () -> assertNotNull(groupRepository.findByName("g1name")));
+    }
+
+    @Test
+    public void test_cancel_whenRegistrationClosed_thenOperationIsNotCancelled() throws SQLException {
+        AtomicInteger cancels = new AtomicInteger();
+        QueryCancellation cancellation = new QueryCancellation();
+        cancellation.bind();
+
+        QueryCancellation.register(cancels::incrementAndGet).close();
+        cancellation.cancel();
+
+        assertEquals(0, cancels.get());
+    }
+
+    @Test
+    public void test_closeRegistration_whenCancelInProgress_thenWaitsForCancel() throws Exception {
+        CountDownLatch cancelStarted = new CountDownLatch(1);
+        CountDownLatch releaseCancel = new CountDownLatch(1);
+        AtomicInteger cancelsFinished = new AtomicInteger();
+        QueryCancellation cancellation = new QueryCancellation();
+        cancellation.bind();
+        QueryCancellation.Registration registration = QueryCancellation.register(() -> {
+            cancelStarted.countDown();
+            try {
+                releaseCancel.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            cancelsFinished.incrementAndGet();
+        });
+
+        CompletableFuture<Void> cancel = CompletableFuture.runAsync(cancellation::cancel);
+        assertTrue(cancelStarted.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Void> close = CompletableFuture.runAsync(registration::close);
+        Thread.sleep(100);
+        boolean closedDuringCancel = close.isDone();
+        releaseCancel.countDown();
+        close.get(5, TimeUnit.SECONDS);
+        cancel.get(5, TimeUnit.SECONDS);
+
+        assertAll(() -> assertFalse(closedDuringCancel),
+                () -> assertEquals(1, cancelsFinished.get()));
+    }
+}
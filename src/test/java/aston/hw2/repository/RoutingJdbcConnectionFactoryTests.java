@@ -0,0 +1,130 @@
+package aston.hw2.repository;
+
+import aston.hw2.entity.Group;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class RoutingJdbcConnectionFactoryTests {
+
+    private static final String PRIMARY_URL = "jdbc:h2:mem:routing_primary_db;DB_CLOSE_DELAY=-1";
+
+    private static final String REPLICA_URL = "jdbc:h2:mem:routing_replica_db;DB_CLOSE_DELAY=-1";
+
+    private static TestJdbcHelper primary;
+
+    private static TestJdbcHelper replica;
+
+    private RoutingJdbcConnectionFactory routing;
+
+    private JdbcGroupRepository groupRepository;
+
+    @BeforeAll
+    public static void setUp() {
+        primary = new TestJdbcHelper(new JdbcConnectionFactory("org.h2.Driver", PRIMARY_URL));
+        primary.createTables();
+        replica = new TestJdbcHelper(new JdbcConnectionFactory("org.h2.Driver", REPLICA_URL));
+        replica.createTables();
+    }
+
+    private void createRepository(boolean readYourWrites) {
+        routing = new RoutingJdbcConnectionFactory(new JdbcConnectionFactory("org.h2.Driver", PRIMARY_URL),
+                List.of(new JdbcConnectionFactory("org.h2.Driver", REPLICA_URL)));
+        routing.setReadYourWrites(readYourWrites);
+        groupRepository = new JdbcGroupRepository(routing);
+    }
+
+    @AfterEach
+    public void clearDBTables() throws SQLException {
+        routing.resetReadYourWrites();
+        primary.clearTables();
+        replica.clearTables();
+    }
+
+    @Test
+    public void test_readsGoToReplicaAndWritesGoToPrimary() throws SQLException {
+        createRepository(false);
+        LocalDate now = LocalDate.now();
+        int replicaGroupId = replica.insertGroup("replica", now);
+
+        Group saved = groupRepository.save(new Group(null, "primary", now, null, null));
+
+        try (Stream<Group> groups = groupRepository.findAll()) {
+            List<Group> all = groups.toList();
+            assertAll(() -> assertEquals(1, primary.countOfGroups()),
+                    () -> assertEquals(1, replica.countOfGroups()),
+                    () -> assertEquals(1, all.size()),
+                    () -> assertEquals("replica", all.get(0).getName()),
+                    () -> assertEquals("replica", groupRepository.findById(replicaGroupId).getName()),
+                    () -> assertNotNull(groupRepository.findByName("replica")),
+                    () -> assertNull(groupRepository.findByName(saved.getName())));
+        }
+    }
+
+    @Test
+    public void test_readYourWrites_readsPrimaryAfterWriteUntilReset() {
+        createRepository(true);
+        LocalDate now = LocalDate.now();
+
+        assertNull(groupRepository.findByName("primary"));
+        Group saved = groupRepository.save(new Group(null, "primary", now, null, null));
+
+        assertAll(() -> assertNotNull(groupRepository.findById(saved.getId())),
+                () -> assertNotNull(groupRepository.findByName("primary")));
+
+        routing.resetReadYourWrites();
+
+        assertAll(() -> assertNull(groupRepository.findById(saved.getId())),
+                () -> assertNull(groupRepository.findByName("primary")));
+    }
+
+    @Test
+    public void test_readYourWritesExecutor_sharesWritesWithSubmittingThread() throws Exception {
+        createRepository(true);
+        LocalDate now = LocalDate.now();
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Executor executor = routing.readYourWritesExecutor(pool);
+
+            Group saved = groupRepository.save(new Group(null, "primary", now, null, null));
+            Group readAsync = CompletableFuture.supplyAsync(() -> groupRepository.findById(saved.getId()), executor).get();
+            routing.resetReadYourWrites();
+
+            Group savedAsync = CompletableFuture.supplyAsync(
+                    () -> groupRepository.save(new Group(null, "async", now, null, null)), executor).get();
+            Group read = groupRepository.findById(savedAsync.getId());
+            routing.resetReadYourWrites();
+
+            // поток пула не сохраняет чтение собственных изменений после задачи
+            Group readOnPool = pool.submit(() -> groupRepository.findById(savedAsync.getId())).get();
+
+            assertAll(() -> assertNotNull(readAsync),
+                    () -> assertNotNull(read),
+                    () -> assertNull(readOnPool));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void test_createReadOnlyConnection_whenNoReplicas_thenUsesPrimary() throws SQLException {
+        routing = new RoutingJdbcConnectionFactory(new JdbcConnectionFactory("org.h2.Driver", PRIMARY_URL), List.of());
+        groupRepository = new JdbcGroupRepository(routing);
+        primary.insertGroup("primary", LocalDate.now());
+
+        assertNotNull(groupRepository.findByName("primary"));
+    }
+}
@@ -9,8 +9,6 @@ import java.util.stream.Collectors;
 
 public class TestJdbcHelper {
 
-    private static final String CREATE_TABLES_SCRIPT_PATH = "/sql/create_db.sql";
-
     private static final String CLEAR_TABLES_SCRIPT_PATH = "/sql/clear_db.sql";
 
     private final JdbcConnectionFactory jdbcConnectionFactory;
@@ -87,6 +85,16 @@ public class TestJdbcHelper {
         }
     }
 
+    public void renameStudent(int studentId, String name) throws SQLException {
+        try (Connection c = jdbcConnectionFactory.createConnection()) {
+            try (PreparedStatement ps = c.prepareStatement("UPDATE students SET name = ? WHERE id = ?")) {
+                ps.setString(1, name);
+                ps.setInt(2, studentId);
+                ps.executeUpdate();
+            }
+        }
+    }
+
     public boolean containsCurator(int curatorId, String name, String email, int experience, Integer groupId) throws SQLException {
         try (Connection c = jdbcConnectionFactory.createConnection()) {
             try (PreparedStatement ps = c.prepareStatement("SELECT * FROM curators WHERE id = ?")) {
@@ -163,22 +171,8 @@ public class TestJdbcHelper {
         }
     }
 
-    public void createTables() throws SQLException {
-        try (Connection c = jdbcConnectionFactory.createConnection()) {
-            BufferedReader bufferedReader = new BufferedReader(
-                    new InputStreamReader(
-                            Objects.requireNonNull(JdbcCuratorRepositoryTests.class.getResourceAsStream(CREATE_TABLES_SCRIPT_PATH))));
-
-            try (Statement s = c.createStatement()) {
-                bufferedReader.lines().forEach(sql -> {
-                    try {
-                        s.execute(sql);
-                    } catch (SQLException e) {
-                        throw new SQLRuntimeException(e);
-                    }
-                });
-            }
-        }
+    public void createTables() {
+        new JdbcSchemaMigrator(jdbcConnectionFactory).migrate();
     }
 
     public void clearTables() throws SQLException {
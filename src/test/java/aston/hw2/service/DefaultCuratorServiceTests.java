@@ -3,19 +3,21 @@ package aston.hw2.service;
 import aston.hw2.entity.Curator;
 import aston.hw2.entity.Group;
 import aston.hw2.repository.CuratorRepository;
-import aston.hw2.repository.GroupRepository;
+import aston.hw2.repository.TransactionManager;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Executor;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -28,44 +30,40 @@ class DefaultCuratorServiceTests {
     @Mock
     private CuratorRepository curatorRepository;
 
-    @Mock
-    private GroupRepository groupRepository;
+    @Spy
+    private TransactionManager transactionManager = new DirectTransactionManager();
+
+    @Spy
+    private Executor executor = new DirectExecutor();
 
     @InjectMocks
     private DefaultCuratorService curatorService;
 
     @Test
     public void testAssignGroup() {
-        Group group = new Group(1, "gname", LocalDate.now(), null, List.of());
-        Curator curator = new Curator(1, "cname", "cemail", 1, null);
+        when(curatorRepository.assignGroup(1, 2)).thenReturn(true);
 
-        when(groupRepository.findById(group.getId())).thenReturn(clone(group));
-        when(curatorRepository.findById(curator.getId())).thenReturn(clone(curator));
+        curatorService.assignGroup(1, 2);
 
-        curatorService.assignGroup(curator.getId(), group.getId());
+        verify(curatorRepository).assignGroup(1, 2);
+        verify(curatorRepository, never()).findById(any());
+        verify(curatorRepository, never()).save(any());
+    }
 
-        ArgumentCaptor<Curator> saveCaptor = ArgumentCaptor.forClass(Curator.class);
-        verify(curatorRepository).save(saveCaptor.capture());
-        Curator saved = saveCaptor.getValue();
+    @Test
+    public void testAssignGroup_whenNotExistingCurator_throwsCuratorNotFoundException() {
+        when(curatorRepository.assignGroup(1, 2)).thenReturn(false);
+        when(curatorRepository.existsById(1)).thenReturn(false);
 
-        assertAll(() -> assertNotNull(saved),
-                () -> assertEquals(curator.getId(), saved.getId()),
-                () -> assertEquals(curator.getName(), saved.getName()),
-                () -> assertEquals(curator.getEmail(), saved.getEmail()),
-                () -> assertEquals(curator.getExperience(), saved.getExperience()),
-                () -> assertEquals(group.getId(), saved.getGroup().getId()),
-                () -> assertEquals(group.getName(), saved.getGroup().getName()),
-                () -> assertEquals(group.getGraduationDate(), saved.getGroup().getGraduationDate()));
+        assertThrows(CuratorNotFoundException.class, () -> curatorService.assignGroup(1, 2));
     }
 
     @Test
-    public void testAssignGroup_whenAlreadyAssign_thenDoNothing() {
-        Group group = new Group(1, "gname", LocalDate.now(), null, List.of());
-        Curator curator = new Curator(1, "cname", "cemail", 1, group);
-        when(curatorRepository.findById(curator.getId())).thenReturn(clone(curator));
+    public void testAssignGroup_whenNotExistingGroup_throwsGroupNotFoundException() {
+        when(curatorRepository.assignGroup(1, 2)).thenReturn(false);
+        when(curatorRepository.existsById(1)).thenReturn(true);
 
-        curatorService.assignGroup(curator.getId(), group.getId());
-        verify(curatorRepository, never()).save(any());
+        assertThrows(GroupNotFoundException.class, () -> curatorService.assignGroup(1, 2));
     }
 
     @Test
@@ -124,48 +122,36 @@ class DefaultCuratorServiceTests {
 
     @Test
     public void testRemoveCurator() {
-        Curator curator = new Curator(1, "name", "email", 1, null);
-        when(curatorRepository.findById(curator.getId())).thenReturn(curator);
+        when(curatorRepository.deleteById(1)).thenReturn(true);
 
-        curatorService.removeCurator(curator.getId());
+        curatorService.removeCurator(1);
 
-        ArgumentCaptor<Integer> argRemoveByCuratorId = ArgumentCaptor.forClass(Integer.TYPE);
-        verify(curatorRepository).removeById(argRemoveByCuratorId.capture());
-        assertEquals(curator.getId(), argRemoveByCuratorId.getValue());
+        verify(curatorRepository).deleteById(1);
+        verify(curatorRepository, never()).findById(anyInt());
     }
 
     @Test
     public void testRemoveCurator_whenNotExistingId_throwsCuratorNotFoundException() {
-        when(curatorRepository.findById(anyInt())).thenReturn(null);
+        when(curatorRepository.deleteById(1)).thenReturn(false);
 
-        Assertions.assertThrows(CuratorNotFoundException.class,
-                () -> curatorService.removeCurator(anyInt()));
+        assertThrows(CuratorNotFoundException.class, () -> curatorService.removeCurator(1));
     }
 
     @Test
     public void testUnassignGroup() {
-        Group group = new Group(1, "gname", LocalDate.now(), null, List.of());
-        Curator curator = new Curator(1, "cname", "cemail", 1, group);
-        group.setCurator(curator);
-        when(curatorRepository.findById(curator.getId())).thenReturn(clone(curator));
+        when(curatorRepository.unassignGroup(1)).thenReturn(true);
 
-        curatorService.unassignGroup(group.getId());
+        curatorService.unassignGroup(1);
 
-        ArgumentCaptor<Curator> saveCaptor = ArgumentCaptor.forClass(Curator.class);
-        verify(curatorRepository).save(saveCaptor.capture());
-        Curator saved = saveCaptor.getValue();
-        assertAll(() -> assertNotNull(saved),
-                () -> assertNull(saved.getGroup()));
+        verify(curatorRepository).unassignGroup(1);
+        verify(curatorRepository, never()).save(any());
     }
 
     @Test
-    public void testUnassignGroup_whenNoGroup_thenDoNothing() {
-        Curator curator = new Curator(1, "cname", "cemail", 1, null);
-        when(curatorRepository.findById(curator.getId())).thenReturn(clone(curator));
-
-        curatorService.unassignGroup(curator.getId());
+    public void testUnassignGroup_whenNotExistingCurator_throwsCuratorNotFoundException() {
+        when(curatorRepository.unassignGroup(1)).thenReturn(false);
 
-        verify(curatorRepository, never()).save(any(Curator.class));
+        assertThrows(CuratorNotFoundException.class, () -> curatorService.unassignGroup(1));
     }
 
     @Test
@@ -5,19 +5,25 @@ import aston.hw2.entity.Group;
 import aston.hw2.entity.Student;
 import aston.hw2.repository.CuratorRepository;
 import aston.hw2.repository.GroupRepository;
+import aston.hw2.repository.Page;
+import aston.hw2.repository.SortOrder;
 import aston.hw2.repository.StudentRepository;
+import aston.hw2.repository.TransactionManager;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -35,83 +41,73 @@ class DefaultGroupServiceTests {
     @Mock
     private StudentRepository studentRepository;
 
+    @Spy
+    private TransactionManager transactionManager = new DirectTransactionManager();
+
+    @Spy
+    private Executor executor = new DirectExecutor();
+
     @InjectMocks
     private DefaultGroupService groupService;
 
     @Test
     public void testAssignCurator() {
-        Group group = new Group(1, "gname", LocalDate.now(), null, List.of());
-        Curator curator = new Curator(1, "cname", "cemail", 1, null);
+        when(curatorRepository.assignGroup(2, 1)).thenReturn(true);
 
-        when(groupRepository.findById(group.getId())).thenReturn(clone(group));
-        when(curatorRepository.findById(curator.getId())).thenReturn(clone(curator));
+        groupService.assignCurator(1, 2);
 
-        groupService.assignCurator(group.getId(), curator.getId());
+        verify(curatorRepository).assignGroup(2, 1);
+        verify(groupRepository, never()).findById(any());
+        verify(groupRepository, never()).save(any());
+    }
 
-        ArgumentCaptor<Group> saveCaptor = ArgumentCaptor.forClass(Group.class);
-        verify(groupRepository).save(saveCaptor.capture());
-        Group saved = saveCaptor.getValue();
+    @Test
+    public void testAssignCurator_whenNotExistingGroup_throwsGroupNotFoundException() {
+        when(curatorRepository.assignGroup(2, 1)).thenReturn(false);
+        when(groupRepository.existsById(1)).thenReturn(false);
 
-        assertAll(() -> assertNotNull(saved),
-                () -> assertEquals(group.getId(), saved.getId()),
-                () -> assertEquals(group.getName(), saved.getName()),
-                () -> assertEquals(group.getGraduationDate(), saved.getGraduationDate()),
-                () -> assertEquals(curator.getId(), saved.getCurator().getId()),
-                () -> assertEquals(curator.getName(), saved.getCurator().getName()),
-                () -> assertEquals(curator.getEmail(), saved.getCurator().getEmail()),
-                () -> assertEquals(curator.getExperience(), saved.getCurator().getExperience()));
+        assertThrows(GroupNotFoundException.class, () -> groupService.assignCurator(1, 2));
     }
 
     @Test
-    public void testAssignCurator_whenAlreadyAssign_thenDoNothing() {
-        Curator curator = new Curator(1, "cname", "cemail", 1, null);
-        Group group = new Group(1, "gname", LocalDate.now(), curator, List.of());
-        when(groupRepository.findById(group.getId())).thenReturn(group);
+    public void testAssignCurator_whenNotExistingCurator_throwsCuratorNotFoundException() {
+        when(curatorRepository.assignGroup(2, 1)).thenReturn(false);
+        when(groupRepository.existsById(1)).thenReturn(true);
 
-        groupService.assignCurator(group.getId(), curator.getId());
-        verify(groupRepository, never()).save(any());
+        assertThrows(CuratorNotFoundException.class, () -> groupService.assignCurator(1, 2));
     }
 
     @Test
     public void testAssignStudent() {
-        Group group = new Group(1, "gname", LocalDate.now(), null, new ArrayList<>());
-        Student student = new Student(1, "sname", LocalDate.now(), null);
-
-        when(groupRepository.findById(group.getId())).thenReturn(clone(group));
-        when(studentRepository.findById(student.getId())).thenReturn(clone(student));
+        when(studentRepository.assignGroup(2, 1)).thenReturn(true);
 
-        groupService.assignStudent(group.getId(), student.getId());
+        groupService.assignStudent(1, 2);
 
-        ArgumentCaptor<Group> saveCaptor = ArgumentCaptor.forClass(Group.class);
-        verify(groupRepository).save(saveCaptor.capture());
-        Group saved = saveCaptor.getValue();
+        verify(studentRepository).assignGroup(2, 1);
+        verify(groupRepository, never()).findById(any());
+        verify(groupRepository, never()).save(any());
+    }
 
-        assertAll(() -> assertNotNull(saved),
-                () -> assertEquals(group.getId(), saved.getId()),
-                () -> assertEquals(group.getName(), saved.getName()),
-                () -> assertEquals(group.getGraduationDate(), saved.getGraduationDate()),
-                () -> assertEquals(1, saved.getStudents().size()));
+    @Test
+    public void testAssignStudent_whenNotExistingGroup_throwsGroupNotFoundException() {
+        when(studentRepository.assignGroup(2, 1)).thenReturn(false);
+        when(groupRepository.existsById(1)).thenReturn(false);
 
-        Student assignedStudent = saved.getStudents().iterator().next();
-        assertAll(() -> assertEquals(student.getId(), assignedStudent.getId()),
-                () -> assertEquals(student.getName(), assignedStudent.getName()),
-                () -> assertEquals(student.getDateOfBirth(), assignedStudent.getDateOfBirth()));
+        assertThrows(GroupNotFoundException.class, () -> groupService.assignStudent(1, 2));
     }
 
     @Test
-    public void testAssignStudent_whenAlreadyAssign_thenDoNothing() {
-        Student student = new Student(1, "sname", LocalDate.now(), null);
-        Group group = new Group(1, "gname", LocalDate.now(), null, Arrays.asList(student));
-        when(groupRepository.findById(group.getId())).thenReturn(group);
+    public void testAssignStudent_whenNotExistingStudent_throwsStudentNotFoundException() {
+        when(studentRepository.assignGroup(2, 1)).thenReturn(false);
+        when(groupRepository.existsById(1)).thenReturn(true);
 
-        groupService.assignStudent(group.getId(), student.getId());
-        verify(groupRepository, never()).save(any(Group.class));
+        assertThrows(StudentNotFoundException.class, () -> groupService.assignStudent(1, 2));
     }
 
     @Test
     public void testCreateGroupByCandidate() {
         Group candidate = new Group(null, "name", LocalDate.now(), null, null);
-        when(groupRepository.findByName(candidate.getName())).thenReturn(null);
+        when(groupRepository.existsByName(candidate.getName())).thenReturn(false);
 
         groupService.createGroupByCandidate(candidate);
 
@@ -127,8 +123,7 @@ class DefaultGroupServiceTests {
     @Test
     public void testCreateGroupByCandidate_whenInvalidCandidate_throwInvalidCandidateException() {
         Group candidate = new Group(null, "occupied", LocalDate.now(), null, null);
-        Group group = new Group(1, candidate.getName(), LocalDate.now(), null, List.of());
-        when(groupRepository.findByName(candidate.getName())).thenReturn(group);
+        when(groupRepository.existsByName(candidate.getName())).thenReturn(true);
 
         assertThrows(InvalidCandidateException.class, () -> groupService.createGroupByCandidate(candidate));
 
@@ -166,83 +161,168 @@ class DefaultGroupServiceTests {
     }
 
     @Test
-    public void testRemoveGroup() {
+    public void testGetGroupCurator() {
+        Curator curator = new Curator(2, "cname", "cemail", 1, null);
+        when(curatorRepository.findByGroupId(1)).thenReturn(curator);
+
+        assertSame(curator, groupService.getGroupCurator(1));
+        verify(groupRepository, never()).findById(any());
+        verify(groupRepository, never()).existsById(any());
+    }
+
+    @Test
+    public void testGetGroupCurator_whenNoCurator_returnsNull() {
+        when(curatorRepository.findByGroupId(1)).thenReturn(null);
+        when(groupRepository.existsById(1)).thenReturn(true);
+
+        assertNull(groupService.getGroupCurator(1));
+    }
+
+    @Test
+    public void testGetGroupCurator_whenNotExistingId_throwsGroupNotFoundException() {
+        when(curatorRepository.findByGroupId(1)).thenReturn(null);
+        when(groupRepository.existsById(1)).thenReturn(false);
+
+        assertThrows(GroupNotFoundException.class, () -> groupService.getGroupCurator(1));
+    }
+
+    @Test
+    public void testGetGroupSummary_whenExistingId_returnGroup() {
         Group group = new Group(1, "name", LocalDate.now(), null, null);
+        when(groupRepository.findSummaryById(1)).thenReturn(group);
 
-        when(groupRepository.findById(group.getId())).thenReturn(group);
+        assertSame(group, groupService.getGroupSummary(1));
+        verify(groupRepository, never()).findById(any());
+    }
 
-        groupService.removeGroup(group.getId());
+    @Test
+    public void testGetGroupSummary_whenNotExistingId_throwsGroupNotFoundException() {
+        when(groupRepository.findSummaryById(1)).thenReturn(null);
 
-        ArgumentCaptor<Integer> argRemoveByGroupId = ArgumentCaptor.forClass(Integer.TYPE);
-        verify(groupRepository).removeById(argRemoveByGroupId.capture());
-        assertEquals(group.getId(), argRemoveByGroupId.getValue());
+        assertThrows(GroupNotFoundException.class, () -> groupService.getGroupSummary(1));
+    }
+
+    @Test
+    public void testGetGroupAsync_combinesGroupCuratorAndStudents() throws Exception {
+        Group group = new Group(1, "name", LocalDate.now(), null, null);
+        Curator curator = new Curator(2, "cname", "cemail", 1, null);
+        Student student = new Student(3, "sname", LocalDate.now(), null);
+        when(groupRepository.findSummaryById(1)).thenReturn(group);
+        when(curatorRepository.findByGroupId(1)).thenReturn(curator);
+        when(studentRepository.findAllByGroupId(1)).thenReturn(List.of(student));
+
+        Group result = groupService.getGroupAsync(1).get();
+
+        assertAll(() -> assertSame(group, result),
+                () -> assertSame(curator, result.getCurator()),
+                () -> assertSame(group, curator.getGroup()),
+                () -> assertEquals(List.of(student), result.getStudents()),
+                () -> assertSame(group, student.getGroup()));
+        verify(groupRepository, never()).findById(any());
+    }
+
+    @Test
+    public void testGetGroupAsync_whenNotExistingId_completesWithGroupNotFoundException() {
+        when(groupRepository.findSummaryById(1)).thenReturn(null);
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> groupService.getGroupAsync(1).get());
+        assertInstanceOf(GroupNotFoundException.class, e.getCause());
+    }
+
+    @Test
+    public void testGetGroupStudentsPage() {
+        Page<Student, Integer> page = new Page<>(List.of(new Student()), null);
+        when(studentRepository.findPageByGroupId(1, null, 10, SortOrder.DESC)).thenReturn(page);
+
+        assertSame(page, groupService.getGroupStudentsPage(1, null, 10, SortOrder.DESC));
+        verify(groupRepository, never()).findById(any());
+        verify(groupRepository, never()).existsById(any());
+    }
+
+    @Test
+    public void testGetGroupStudentsPage_whenEmptyPageOfExistingGroup_returnsEmptyPage() {
+        when(studentRepository.findPageByGroupId(1, 5, 10, SortOrder.ASC)).thenReturn(new Page<>(List.of(), null));
+        when(groupRepository.existsById(1)).thenReturn(true);
+
+        assertTrue(groupService.getGroupStudentsPage(1, 5, 10, SortOrder.ASC).getItems().isEmpty());
+    }
+
+    @Test
+    public void testGetGroupStudentsPage_whenNotExistingId_throwsGroupNotFoundException() {
+        when(studentRepository.findPageByGroupId(1, null, 10, SortOrder.ASC)).thenReturn(new Page<>(List.of(), null));
+        when(groupRepository.existsById(1)).thenReturn(false);
+
+        assertThrows(GroupNotFoundException.class, () -> groupService.getGroupStudentsPage(1, null, 10, SortOrder.ASC));
+    }
+
+    @Test
+    public void testRemoveGroup() {
+        when(groupRepository.deleteById(1)).thenReturn(true);
+
+        groupService.removeGroup(1);
+
+        verify(groupRepository).deleteById(1);
+        verify(groupRepository, never()).findById(anyInt());
     }
 
     @Test
     public void testRemoveGroup_whenNotExistingId_throwsGroupNotFoundException() {
-        when(groupRepository.findById(anyInt())).thenReturn(null);
+        when(groupRepository.deleteById(1)).thenReturn(false);
 
-        Assertions.assertThrows(GroupNotFoundException.class,
-                () -> groupService.removeGroup(anyInt()));
+        assertThrows(GroupNotFoundException.class, () -> groupService.removeGroup(1));
     }
 
     @Test
     public void testUnassignCurator() {
-        Curator curator = new Curator(1, "cname", "cemail", 1, null);
-        Group group = new Group(1, "gname", LocalDate.now(), curator, List.of());
-        curator.setGroup(group);
-        when(groupRepository.findById(group.getId())).thenReturn(clone(group));
+        when(curatorRepository.unassignByGroupId(1)).thenReturn(true);
 
-        groupService.unassignCurator(group.getId());
+        groupService.unassignCurator(1);
 
-        ArgumentCaptor<Curator> saveCaptor = ArgumentCaptor.forClass(Curator.class);
-        verify(curatorRepository).save(saveCaptor.capture());
-        Curator saved = saveCaptor.getValue();
-        assertAll(() -> assertNotNull(saved),
-                () -> assertNull(saved.getGroup()));
+        verify(curatorRepository).unassignByGroupId(1);
+        verify(groupRepository, never()).existsById(any());
+        verify(curatorRepository, never()).save(any());
     }
 
     @Test
     public void testUnassignCurator_whenNoCurator_thenDoNothing() {
-        Group group = new Group(1, "gname", LocalDate.now(), null, List.of());
-        when(groupRepository.findById(group.getId())).thenReturn(group);
+        when(curatorRepository.unassignByGroupId(1)).thenReturn(false);
+        when(groupRepository.existsById(1)).thenReturn(true);
 
-        groupService.unassignCurator(group.getId());
+        assertDoesNotThrow(() -> groupService.unassignCurator(1));
+    }
 
-        verify(curatorRepository, never()).save(any(Curator.class));
+    @Test
+    public void testUnassignCurator_whenNotExistingGroup_throwsGroupNotFoundException() {
+        when(curatorRepository.unassignByGroupId(1)).thenReturn(false);
+        when(groupRepository.existsById(1)).thenReturn(false);
+
+        assertThrows(GroupNotFoundException.class, () -> groupService.unassignCurator(1));
     }
 
     @Test
     public void testUnassignStudent() {
-        Student student = new Student(1, "sname", LocalDate.now(), null);
-        Group group = new Group(1, "gname", LocalDate.now(), null, List.of(student));
-        student.setGroup(group);
-        when(groupRepository.findById(group.getId())).thenReturn(clone(group));
+        when(studentRepository.unassignGroup(2, 1)).thenReturn(true);
 
-        groupService.unassignStudent(group.getId(), 1);
+        groupService.unassignStudent(1, 2);
 
-        ArgumentCaptor<Group> saveCaptor = ArgumentCaptor.forClass(Group.class);
-        verify(groupRepository).save(saveCaptor.capture());
-        Group saved = saveCaptor.getValue();
-        assertAll(() -> assertNotNull(saved),
-                () -> assertTrue(saved.getStudents().isEmpty()));
+        verify(studentRepository).unassignGroup(2, 1);
+        verify(groupRepository, never()).existsById(any());
+        verify(groupRepository, never()).save(any());
     }
 
     @Test
     public void testUnassignStudent_whenNoStudent_thenDoNothing() {
-        Group group = new Group(1, "gname", LocalDate.now(), null, List.of());
-        when(groupRepository.findById(group.getId())).thenReturn(group);
-
-        groupService.unassignStudent(group.getId(), anyInt());
+        when(studentRepository.unassignGroup(2, 1)).thenReturn(false);
+        when(groupRepository.existsById(1)).thenReturn(true);
 
-        verify(groupRepository, never()).save(any(Group.class));
+        assertDoesNotThrow(() -> groupService.unassignStudent(1, 2));
     }
 
     @Test
     public void testUpdateGroupByCandidate() {
         Group group = new Group(1, "name", LocalDate.now(), null, null);
         Group candidate = new Group(null, "updated_name", LocalDate.now(), null, null);
-        when(groupRepository.findByName(candidate.getName())).thenReturn(null);
+        when(groupRepository.existsByName(candidate.getName())).thenReturn(false);
         when(groupRepository.findById(group.getId())).thenReturn(group);
 
         groupService.updateGroupByCandidate(group.getId(), candidate);
@@ -260,9 +340,8 @@ class DefaultGroupServiceTests {
     public void testUpdateGroupByCandidate_whenInvalidCandidate_throwInvalidCandidateException() {
         Group candidate = new Group(null, "occupied", LocalDate.now(), null, null);
         Group group = new Group(1, "name", LocalDate.now(), null, List.of());
-        Group group2 = new Group(2, candidate.getName(), LocalDate.now(), null, List.of());
         when(groupRepository.findById(group.getId())).thenReturn(group);
-        when(groupRepository.findByName(candidate.getName())).thenReturn(group2);
+        when(groupRepository.existsByName(candidate.getName())).thenReturn(true);
 
         assertThrows(InvalidCandidateException.class,
                 () -> groupService.updateGroupByCandidate(group.getId(), candidate));
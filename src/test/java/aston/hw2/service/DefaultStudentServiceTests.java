@@ -2,69 +2,72 @@ package aston.hw2.service;
 
 import aston.hw2.entity.Group;
 import aston.hw2.entity.Student;
-import aston.hw2.repository.GroupRepository;
 import aston.hw2.repository.StudentRepository;
+import aston.hw2.repository.TransactionManager;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class DefaultStudentServiceTests {
 
-    @Mock
-    private GroupRepository groupRepository;
-
     @Mock
     private StudentRepository studentRepository;
 
+    @Spy
+    private TransactionManager transactionManager = new DirectTransactionManager();
+
+    @Spy
+    private Executor executor = new DirectExecutor();
+
     @InjectMocks
     private DefaultStudentService studentService;
 
     @Test
     public void testAssignGroup() {
-        Group group = new Group(1, "gname", LocalDate.now(), null, List.of());
-        Student student = new Student(1, "sname", LocalDate.now(), null);
-        when(groupRepository.findById(group.getId())).thenReturn(clone(group));
-        when(studentRepository.findById(student.getId())).thenReturn(clone(student));
+        when(studentRepository.assignGroup(1, 2)).thenReturn(true);
 
-        studentService.assignGroup(student.getId(), group.getId());
+        studentService.assignGroup(1, 2);
 
-        ArgumentCaptor<Student> saveCaptor = ArgumentCaptor.forClass(Student.class);
-        verify(studentRepository).save(saveCaptor.capture());
-        Student saved = saveCaptor.getValue();
+        verify(studentRepository).assignGroup(1, 2);
+        verify(studentRepository, never()).findById(any());
+        verify(studentRepository, never()).save(any());
+    }
 
-        assertAll(() -> assertNotNull(saved),
-                () -> assertEquals(student.getId(), saved.getId()),
-                () -> assertEquals(student.getName(), saved.getName()),
-                () -> assertEquals(student.getDateOfBirth(), saved.getDateOfBirth()),
-                () -> assertEquals(group.getId(), saved.getGroup().getId()),
-                () -> assertEquals(group.getName(), saved.getGroup().getName()),
-                () -> assertEquals(group.getGraduationDate(), saved.getGroup().getGraduationDate()));
+    @Test
+    public void testAssignGroup_whenNotExistingStudent_throwsStudentNotFoundException() {
+        when(studentRepository.assignGroup(1, 2)).thenReturn(false);
+        when(studentRepository.existsById(1)).thenReturn(false);
+
+        assertThrows(StudentNotFoundException.class, () -> studentService.assignGroup(1, 2));
     }
 
     @Test
-    public void testAssignGroup_whenAlreadyAssign_thenDoNothing() {
-        Group group = new Group(1, "gname", LocalDate.now(), null, List.of());
-        Student student = new Student(1, "sname", LocalDate.now(), group);
-        when(studentRepository.findById(student.getId())).thenReturn(clone(student));
+    public void testAssignGroup_whenNotExistingGroup_throwsGroupNotFoundException() {
+        when(studentRepository.assignGroup(1, 2)).thenReturn(false);
+        when(studentRepository.existsById(1)).thenReturn(true);
 
-        studentService.assignGroup(student.getId(), group.getId());
-        verify(studentRepository, never()).save(any());
+        assertThrows(GroupNotFoundException.class, () -> studentService.assignGroup(1, 2));
     }
 
     @Test
@@ -120,49 +123,98 @@ class DefaultStudentServiceTests {
                 () -> studentService.getStudent(anyInt()));
     }
 
+    @Test
+    public void testGetStudentGroup() {
+        Group group = new Group(2, "gname", LocalDate.now(), null, null);
+        when(studentRepository.findGroupByStudentId(1)).thenReturn(group);
+
+        assertSame(group, studentService.getStudentGroup(1));
+        verify(studentRepository, never()).findById(any());
+    }
+
+    @Test
+    public void testGetStudentGroup_whenNoGroup_returnsNull() {
+        when(studentRepository.findGroupByStudentId(1)).thenReturn(null);
+        when(studentRepository.existsById(1)).thenReturn(true);
+
+        assertNull(studentService.getStudentGroup(1));
+    }
+
+    @Test
+    public void testGetStudentGroup_whenNotExistingId_throwsStudentNotFoundException() {
+        when(studentRepository.findGroupByStudentId(1)).thenReturn(null);
+        when(studentRepository.existsById(1)).thenReturn(false);
+
+        assertThrows(StudentNotFoundException.class, () -> studentService.getStudentGroup(1));
+    }
+
+    @Test
+    public void testImportStudents_rejectsInvalidCandidatesAndInsertsValid() {
+        LocalDate now = LocalDate.now();
+        Iterator<Supplier<Student>> rows = List.<Supplier<Student>>of(
+                () -> new Student("s1name", now, null),
+                () -> new Student(null, now, null),
+                () -> {
+                    throw new InvalidCandidateException("Malformed row");
+                },
+                () -> new Student("s".repeat(DefaultStudentService.NAME_MAX_LENGTH + 1), now, null),
+                () -> new Student("s".repeat(DefaultStudentService.NAME_MAX_LENGTH), now, null)).iterator();
+        Iterator<Student> candidates = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return rows.hasNext();
+            }
+
+            @Override
+            public Student next() {
+                return rows.next().get();
+            }
+        };
+        when(studentRepository.insertAll(anyList())).thenAnswer(invocation -> invocation.<List<?>>getArgument(0).size());
+
+        StudentImportReport report = studentService.importStudents(candidates);
+
+        assertAll(() -> assertEquals(2, report.getImported()),
+                () -> assertEquals(3, report.getRejected()),
+                () -> assertEquals(List.of(new StudentImportReport.RowError(2, "Candidate's name is null"),
+                        new StudentImportReport.RowError(3, "Malformed row"),
+                        new StudentImportReport.RowError(4, "Candidate's name is longer than 32 characters")),
+                        report.getErrors()));
+        verify(studentRepository).insertAll(anyList());
+    }
+
     @Test
     public void testRemoveStudent() {
-        Student student = new Student(1, "name", LocalDate.now(), null);
-        when(studentRepository.findById(student.getId())).thenReturn(student);
+        when(studentRepository.deleteById(1)).thenReturn(true);
 
-        studentService.removeStudent(student.getId());
+        studentService.removeStudent(1);
 
-        ArgumentCaptor<Integer> argRemoveByStudentId = ArgumentCaptor.forClass(Integer.TYPE);
-        verify(studentRepository).removeById(argRemoveByStudentId.capture());
-        assertEquals(student.getId(), argRemoveByStudentId.getValue());
+        verify(studentRepository).deleteById(1);
+        verify(studentRepository, never()).findById(anyInt());
     }
 
     @Test
     public void testRemoveStudent_whenNotExistingId_throwsStudentNotFoundException() {
-        when(studentRepository.findById(anyInt())).thenReturn(null);
+        when(studentRepository.deleteById(1)).thenReturn(false);
 
-        Assertions.assertThrows(StudentNotFoundException.class,
-                () -> studentService.removeStudent(anyInt()));
+        assertThrows(StudentNotFoundException.class, () -> studentService.removeStudent(1));
     }
 
     @Test
     public void testUnassignGroup() {
-        Group group = new Group(1, "gname", LocalDate.now(), null, List.of());
-        Student student = new Student(1, "name", LocalDate.now(), group);
-        when(studentRepository.findById(student.getId())).thenReturn(clone(student));
+        when(studentRepository.unassignGroup(1)).thenReturn(true);
 
-        studentService.unassignGroup(group.getId());
+        studentService.unassignGroup(1);
 
-        ArgumentCaptor<Student> saveCaptor = ArgumentCaptor.forClass(Student.class);
-        verify(studentRepository).save(saveCaptor.capture());
-        Student saved = saveCaptor.getValue();
-        assertAll(() -> assertNotNull(saved),
-                () -> assertNull(saved.getGroup()));
+        verify(studentRepository).unassignGroup(1);
+        verify(studentRepository, never()).save(any());
     }
 
     @Test
-    public void testUnassignGroup_whenNoGroup_thenDoNothing() {
-        Student student = new Student(1, "name", LocalDate.now(), null);
-        when(studentRepository.findById(student.getId())).thenReturn(clone(student));
-
-        studentService.unassignGroup(student.getId());
+    public void testUnassignGroup_whenNotExistingStudent_throwsStudentNotFoundException() {
+        when(studentRepository.unassignGroup(1)).thenReturn(false);
 
-        verify(studentRepository, never()).save(any(Student.class));
+        assertThrows(StudentNotFoundException.class, () -> studentService.unassignGroup(1));
     }
 
     @Test
@@ -0,0 +1,12 @@
+package aston.hw2.service;
+
+import java.util.concurrent.Executor;
+
+class DirectExecutor implements Executor {
+
+    @Override
+    public void execute(Runnable command) {
+        command.run();
+    }
+
+}
@@ -0,0 +1,14 @@
+package aston.hw2.service;
+
+import aston.hw2.repository.TransactionManager;
+
+import java.util.function.Supplier;
+
+class DirectTransactionManager implements TransactionManager {
+
+    @Override
+    public <T> T inTransaction(Supplier<T> action) {
+        return action.get();
+    }
+
+}